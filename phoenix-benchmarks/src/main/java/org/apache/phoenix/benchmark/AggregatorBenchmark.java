@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.expression.aggregator.Aggregator;
+import org.apache.phoenix.expression.aggregator.CountAggregator;
+import org.apache.phoenix.expression.aggregator.DecimalSumAggregator;
+import org.apache.phoenix.expression.aggregator.DistinctValueWithCountServerAggregator;
+import org.apache.phoenix.expression.aggregator.LongSumAggregator;
+import org.apache.phoenix.expression.aggregator.MaxAggregator;
+import org.apache.phoenix.expression.aggregator.MinAggregator;
+import org.apache.phoenix.schema.SortOrder;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.schema.types.PDataType;
+import org.apache.phoenix.schema.types.PDecimal;
+import org.apache.phoenix.schema.types.PLong;
+import org.apache.phoenix.schema.types.PVarchar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Server side aggregation of a group of rows: every value of the group is passed to the
+ * aggregator, which is then evaluated to the cell sent back to the client and reset for the
+ * next group, as done by the aggregate region observers.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AggregatorBenchmark {
+    private static final int DISTINCT_VALUE_COUNT = 256;
+
+    @Param({ "COUNT", "LONG_SUM", "DECIMAL_SUM", "MIN", "MAX", "DISTINCT_VALUE_WITH_COUNT" })
+    public String aggregatorName;
+
+    @Param({ "1024" })
+    public int groupSize;
+
+    private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+    private Aggregator aggregator;
+    private Tuple[] tuples;
+    private byte[][] values;
+
+    @Setup
+    public void setup() {
+        final PDataType type;
+        if ("COUNT".equals(aggregatorName)) {
+            aggregator = new CountAggregator();
+            type = PLong.INSTANCE;
+        } else if ("LONG_SUM".equals(aggregatorName)) {
+            aggregator = new LongSumAggregator();
+            type = PLong.INSTANCE;
+        } else if ("DECIMAL_SUM".equals(aggregatorName)) {
+            aggregator = new DecimalSumAggregator(SortOrder.getDefault(), null);
+            type = PDecimal.INSTANCE;
+        } else if ("MIN".equals(aggregatorName)) {
+            aggregator = new MinAggregator(SortOrder.getDefault()) {
+                @Override
+                public PDataType getDataType() {
+                    return PLong.INSTANCE;
+                }
+            };
+            type = PLong.INSTANCE;
+        } else if ("MAX".equals(aggregatorName)) {
+            aggregator = new MaxAggregator(SortOrder.getDefault()) {
+                @Override
+                public PDataType getDataType() {
+                    return PLong.INSTANCE;
+                }
+            };
+            type = PLong.INSTANCE;
+        } else if ("DISTINCT_VALUE_WITH_COUNT".equals(aggregatorName)) {
+            aggregator = new DistinctValueWithCountServerAggregator(HBaseConfiguration.create());
+            type = PVarchar.INSTANCE;
+        } else {
+            throw new IllegalArgumentException("Unsupported aggregator " + aggregatorName);
+        }
+        byte[][] rowKeys = BenchmarkData.newRowKeys(groupSize, 1, 1);
+        tuples = new Tuple[groupSize];
+        values = new byte[groupSize][];
+        for (int i = 0; i < groupSize; i++) {
+            long value = (i * 2654435761L) % 1000003;
+            if (type == PDecimal.INSTANCE) {
+                values[i] = type.toBytes(BigDecimal.valueOf(value, i % 4));
+            } else if (type == PVarchar.INSTANCE) {
+                values[i] = type.toBytes("value" + (value % DISTINCT_VALUE_COUNT));
+            } else {
+                values[i] = type.toBytes(value);
+            }
+            tuples[i] = BenchmarkData.newTuple(rowKeys[i], values[i]);
+        }
+    }
+
+    @Benchmark
+    public int aggregateGroup() {
+        for (int i = 0; i < groupSize; i++) {
+            byte[] value = values[i];
+            ptr.set(value, 0, value.length);
+            aggregator.aggregate(tuples[i], ptr);
+        }
+        aggregator.evaluate(null, ptr);
+        int length = ptr.getLength();
+        aggregator.reset();
+        return length;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.phoenix.query.QueryConstants;
+import org.apache.phoenix.schema.PDatum;
+import org.apache.phoenix.schema.RowKeySchema;
+import org.apache.phoenix.schema.RowKeySchema.RowKeySchemaBuilder;
+import org.apache.phoenix.schema.SortOrder;
+import org.apache.phoenix.schema.tuple.SingleKeyValueTuple;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.schema.types.PChar;
+import org.apache.phoenix.schema.types.PDataType;
+import org.apache.phoenix.schema.types.PLong;
+import org.apache.phoenix.schema.types.PVarchar;
+import org.apache.phoenix.util.ByteUtil;
+
+/**
+ *
+ * In-memory data shared by the benchmarks: rows of a table with the multi-tenant primary key
+ * (TENANT_ID CHAR(15), ENTITY_NAME VARCHAR, EVENT_ID BIGINT, EVENT_TYPE VARCHAR), generated in
+ * row key order so that they can be fed to filters and iterators the way a region scan would.
+ *
+ */
+public class BenchmarkData {
+    public static final int TENANT_ID_LENGTH = 15;
+    public static final int EVENT_TYPE_COUNT = 4;
+
+    public static final PDatum TENANT_ID = new Datum(PChar.INSTANCE, TENANT_ID_LENGTH);
+    public static final PDatum ENTITY_NAME = new Datum(PVarchar.INSTANCE, null);
+    public static final PDatum EVENT_ID = new Datum(PLong.INSTANCE, null);
+    public static final PDatum EVENT_TYPE = new Datum(PVarchar.INSTANCE, null);
+    public static final List<PDatum> PK_COLUMNS = Arrays.asList(TENANT_ID, ENTITY_NAME, EVENT_ID, EVENT_TYPE);
+
+    private BenchmarkData() {
+    }
+
+    public static RowKeySchema newRowKeySchema() {
+        RowKeySchemaBuilder builder = new RowKeySchemaBuilder(PK_COLUMNS.size());
+        for (PDatum column : PK_COLUMNS) {
+            builder.addField(column, column.isNullable(), column.getSortOrder());
+        }
+        return builder.build();
+    }
+
+    public static String tenantId(int tenant) {
+        return String.format("T%0" + (TENANT_ID_LENGTH - 1) + "d", tenant);
+    }
+
+    public static String entityName(int entity) {
+        return String.format("entity%06d", entity);
+    }
+
+    public static String eventType(int event) {
+        return "type" + (event % EVENT_TYPE_COUNT);
+    }
+
+    public static byte[] newRowKey(int tenant, int entity, long eventId, int event) {
+        return ByteUtil.concat(
+                PChar.INSTANCE.toBytes(tenantId(tenant)),
+                PVarchar.INSTANCE.toBytes(entityName(entity)),
+                QueryConstants.SEPARATOR_BYTE_ARRAY,
+                PLong.INSTANCE.toBytes(eventId),
+                PVarchar.INSTANCE.toBytes(eventType(event)));
+    }
+
+    /**
+     * @return rowCount row keys in ascending order, spread evenly over tenantCount tenants
+     *         with entitiesPerTenant entities each
+     */
+    public static byte[][] newRowKeys(int rowCount, int tenantCount, int entitiesPerTenant) {
+        byte[][] rowKeys = new byte[rowCount][];
+        int rowsPerEntity = Math.max(1, rowCount / (tenantCount * entitiesPerTenant));
+        for (int i = 0; i < rowCount; i++) {
+            int entity = i / rowsPerEntity;
+            rowKeys[i] = newRowKey(entity / entitiesPerTenant, entity % entitiesPerTenant,
+                    i % rowsPerEntity, i);
+        }
+        return rowKeys;
+    }
+
+    public static KeyValue newKeyValue(byte[] rowKey, byte[] value) {
+        return new KeyValue(rowKey, QueryConstants.SINGLE_COLUMN_FAMILY, QueryConstants.SINGLE_COLUMN, value);
+    }
+
+    public static Tuple newTuple(byte[] rowKey, byte[] value) {
+        return new SingleKeyValueTuple(newKeyValue(rowKey, value));
+    }
+
+    private static class Datum implements PDatum {
+        private final PDataType type;
+        private final Integer maxLength;
+
+        private Datum(PDataType type, Integer maxLength) {
+            this.type = type;
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return false;
+        }
+
+        @Override
+        public PDataType getDataType() {
+            return type;
+        }
+
+        @Override
+        public Integer getMaxLength() {
+            return maxLength;
+        }
+
+        @Override
+        public Integer getScale() {
+            return null;
+        }
+
+        @Override
+        public SortOrder getSortOrder() {
+            return SortOrder.getDefault();
+        }
+    }
+}
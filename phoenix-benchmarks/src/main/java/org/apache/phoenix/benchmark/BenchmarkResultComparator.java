@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ *
+ * Compares the JSON results of a benchmark run, as written by JMH with -rf json, to those of
+ * a baseline run and reports the benchmarks that got slower by more than a threshold. A change
+ * only counts as a regression if it is larger than the error of both measurements together,
+ * so that noisy benchmarks don't fail the comparison. Exits with status 1 if any benchmark
+ * regressed, so that it can be used to fail a build.
+ *
+ * Usage: BenchmarkResultComparator baseline.json results.json [threshold percent, default 10]
+ *
+ */
+public class BenchmarkResultComparator {
+    public static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    private static class Score {
+        private final String mode;
+        private final double score;
+        private final double error;
+        private final String unit;
+
+        private Score(JsonNode result) {
+            JsonNode metric = result.get("primaryMetric");
+            this.mode = result.get("mode").getTextValue();
+            this.score = metric.get("score").getDoubleValue();
+            double scoreError = metric.path("scoreError").getDoubleValue();
+            // Single iteration runs report NaN as their error
+            this.error = Double.isNaN(scoreError) ? 0 : scoreError;
+            this.unit = metric.get("scoreUnit").getTextValue();
+        }
+
+        private boolean isHigherBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: " + BenchmarkResultComparator.class.getName()
+                    + " <baseline json> <results json> [<threshold percent>]");
+            System.exit(2);
+        }
+        double thresholdPercent = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, Score> baseline = readScores(new File(args[0]));
+        Map<String, Score> results = readScores(new File(args[1]));
+        int regressions = 0;
+        for (Entry<String, Score> entry : results.entrySet()) {
+            Score current = entry.getValue();
+            Score previous = baseline.get(entry.getKey());
+            if (previous == null || !previous.mode.equals(current.mode) || !previous.unit.equals(current.unit)) {
+                System.out.println(String.format("NEW         %s: %.3f %s", entry.getKey(), current.score, current.unit));
+                continue;
+            }
+            double change = previous.score == 0 ? 0 : (current.score - previous.score) / previous.score * 100;
+            double slowdown = current.isHigherBetter() ? -change : change;
+            boolean significant = Math.abs(current.score - previous.score) > current.error + previous.error;
+            String status;
+            if (significant && slowdown > thresholdPercent) {
+                status = "REGRESSION";
+                regressions++;
+            } else if (significant && slowdown < -thresholdPercent) {
+                status = "IMPROVEMENT";
+            } else {
+                status = "OK";
+            }
+            System.out.println(String.format("%-11s %s: %.3f -> %.3f %s (%+.1f%%)", status, entry.getKey(),
+                    previous.score, current.score, current.unit, change));
+        }
+        for (String benchmark : baseline.keySet()) {
+            if (!results.containsKey(benchmark)) {
+                System.out.println("MISSING     " + benchmark);
+            }
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + thresholdPercent + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return the scores of a result file by benchmark name and parameters
+     */
+    private static Map<String, Score> readScores(File file) throws IOException {
+        Map<String, Score> scores = new TreeMap<String, Score>();
+        JsonNode root = new ObjectMapper().readValue(file, JsonNode.class);
+        for (JsonNode result : root) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").getTextValue());
+            JsonNode params = result.get("params");
+            if (params != null) {
+                // Parameters are listed in the order of their names so that keys match across runs
+                Map<String, String> sortedParams = new TreeMap<String, String>();
+                Iterator<String> names = params.getFieldNames();
+                while (names.hasNext()) {
+                    String name = names.next();
+                    sortedParams.put(name, params.get(name).getTextValue());
+                }
+                key.append(sortedParams);
+            }
+            scores.put(key.toString(), new Score(result));
+        }
+        return scores;
+    }
+}
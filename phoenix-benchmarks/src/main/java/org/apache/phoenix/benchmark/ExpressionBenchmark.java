@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmark;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.expression.AndExpression;
+import org.apache.phoenix.expression.ComparisonExpression;
+import org.apache.phoenix.expression.Expression;
+import org.apache.phoenix.expression.LiteralExpression;
+import org.apache.phoenix.expression.LongAddExpression;
+import org.apache.phoenix.expression.RowKeyColumnExpression;
+import org.apache.phoenix.schema.RowKeyValueAccessor;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.schema.types.PBoolean;
+import org.apache.phoenix.util.ByteUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Evaluation of expression trees against rows, as done for every row by the filters and
+ * projections of a scan. The expressions read the primary key columns of the row key, so
+ * the results include the cost of navigating to them.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+    private static final int ROW_COUNT = 1024;
+
+    private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+    private Tuple[] tuples;
+    private Expression rowKeyColumn;
+    private Expression arithmetic;
+    private Expression comparison;
+    private Expression conjunction;
+    private int index;
+
+    @Setup
+    public void setup() throws SQLException {
+        byte[][] rowKeys = BenchmarkData.newRowKeys(ROW_COUNT, 4, 16);
+        tuples = new Tuple[ROW_COUNT];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            tuples[i] = BenchmarkData.newTuple(rowKeys[i], ByteUtil.EMPTY_BYTE_ARRAY);
+        }
+        Expression entityName = newRowKeyColumn(1);
+        Expression eventId = newRowKeyColumn(2);
+        Expression eventType = newRowKeyColumn(3);
+        rowKeyColumn = eventType;
+        // EVENT_ID + 1
+        arithmetic = new LongAddExpression(Arrays.<Expression>asList(eventId, LiteralExpression.newConstant(1L)));
+        // EVENT_ID + 1 > 4
+        comparison = ComparisonExpression.create(CompareOp.GREATER,
+                Arrays.<Expression>asList(arithmetic, LiteralExpression.newConstant(4L)), ptr);
+        // EVENT_ID + 1 > 4 AND EVENT_TYPE = 'type1' AND ENTITY_NAME >= 'entity000008'
+        conjunction = AndExpression.create(Arrays.<Expression>asList(
+                comparison,
+                ComparisonExpression.create(CompareOp.EQUAL, Arrays.<Expression>asList(
+                        eventType, LiteralExpression.newConstant(BenchmarkData.eventType(1))), ptr),
+                ComparisonExpression.create(CompareOp.GREATER_OR_EQUAL, Arrays.<Expression>asList(
+                        entityName, LiteralExpression.newConstant(BenchmarkData.entityName(8))), ptr)));
+    }
+
+    private static Expression newRowKeyColumn(int position) {
+        return new RowKeyColumnExpression(BenchmarkData.PK_COLUMNS.get(position),
+                new RowKeyValueAccessor(BenchmarkData.PK_COLUMNS, position));
+    }
+
+    private Tuple nextTuple() {
+        index = (index + 1) & (ROW_COUNT - 1);
+        return tuples[index];
+    }
+
+    private int evaluate(Expression expression) {
+        if (!expression.evaluate(nextTuple(), ptr)) {
+            return -1;
+        }
+        return ptr.getLength();
+    }
+
+    @Benchmark
+    public int rowKeyColumn() {
+        return evaluate(rowKeyColumn);
+    }
+
+    @Benchmark
+    public int arithmetic() {
+        return evaluate(arithmetic);
+    }
+
+    @Benchmark
+    public int comparison() {
+        return evaluate(comparison);
+    }
+
+    @Benchmark
+    public boolean conjunction() {
+        return conjunction.evaluate(nextTuple(), ptr) && (Boolean) PBoolean.INSTANCE.toObject(ptr);
+    }
+}
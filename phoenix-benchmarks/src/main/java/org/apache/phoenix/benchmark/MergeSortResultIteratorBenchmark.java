@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmark;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.phoenix.iterate.MaterializedResultIterator;
+import org.apache.phoenix.iterate.MergeSortRowKeyResultIterator;
+import org.apache.phoenix.iterate.PeekingResultIterator;
+import org.apache.phoenix.iterate.ResultIterator;
+import org.apache.phoenix.iterate.ResultIterators;
+import org.apache.phoenix.query.KeyRange;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.schema.types.PInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Lists;
+
+/**
+ *
+ * Client side merge of the sorted results of parallel scans by row key, as done for queries
+ * that need their rows in primary key order. Rows are dealt round robin to the scans, so that
+ * the merge has to switch between them on every row.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MergeSortResultIteratorBenchmark {
+    @Param({ "4", "32", "256" })
+    public int iteratorCount;
+
+    @Param({ "100000" })
+    public int rowCount;
+
+    private List<List<Tuple>> scanResults;
+
+    @Setup
+    public void setup() {
+        byte[][] rowKeys = BenchmarkData.newRowKeys(rowCount, 32, 64);
+        scanResults = Lists.newArrayListWithExpectedSize(iteratorCount);
+        for (int i = 0; i < iteratorCount; i++) {
+            scanResults.add(Lists.<Tuple>newArrayListWithExpectedSize(rowCount / iteratorCount + 1));
+        }
+        for (int i = 0; i < rowCount; i++) {
+            scanResults.get(i % iteratorCount).add(BenchmarkData.newTuple(rowKeys[i], PInteger.INSTANCE.toBytes(i)));
+        }
+    }
+
+    @Benchmark
+    public int mergeSort() throws SQLException {
+        final List<PeekingResultIterator> iterators = Lists.newArrayListWithExpectedSize(iteratorCount);
+        for (List<Tuple> results : scanResults) {
+            iterators.add(new MaterializedResultIterator(results));
+        }
+        ResultIterator iterator = new MergeSortRowKeyResultIterator(new ResultIterators() {
+            @Override
+            public List<PeekingResultIterator> getIterators() throws SQLException {
+                return iterators;
+            }
+
+            @Override
+            public int size() {
+                return iterators.size();
+            }
+
+            @Override
+            public void explain(List<String> planSteps) {
+            }
+
+            @Override
+            public List<KeyRange> getSplits() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public List<List<Scan>> getScans() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public void close() throws SQLException {
+            }
+        });
+        int count = 0;
+        try {
+            while (iterator.next() != null) {
+                count++;
+            }
+        } finally {
+            iterator.close();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.phoenix.schema.SortOrder;
+import org.apache.phoenix.schema.types.PDataType;
+import org.apache.phoenix.schema.types.PDate;
+import org.apache.phoenix.schema.types.PDecimal;
+import org.apache.phoenix.schema.types.PInteger;
+import org.apache.phoenix.schema.types.PLong;
+import org.apache.phoenix.schema.types.PTimestamp;
+import org.apache.phoenix.schema.types.PVarchar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Serialization of values to and from their row key and cell format, for the types most tables
+ * use. Values are taken round robin from a fixed set, so that results don't depend on the JIT
+ * folding a single constant.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PDataTypeBenchmark {
+    private static final int VALUE_COUNT = 1024;
+
+    @Param({ "INTEGER", "BIGINT", "DECIMAL", "VARCHAR", "DATE", "TIMESTAMP" })
+    public String typeName;
+
+    @Param({ "ASC", "DESC" })
+    public SortOrder sortOrder;
+
+    private PDataType type;
+    private Object[] values;
+    private byte[][] bytes;
+    private int index;
+
+    @Setup
+    public void setup() {
+        type = PDataType.fromSqlTypeName(typeName);
+        values = new Object[VALUE_COUNT];
+        bytes = new byte[VALUE_COUNT][];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            values[i] = newValue(i, now);
+            bytes[i] = type.toBytes(values[i], sortOrder);
+        }
+    }
+
+    private Object newValue(int i, long now) {
+        if (type == PInteger.INSTANCE) {
+            return i * 7919 - 4000000;
+        } else if (type == PLong.INSTANCE) {
+            return (long) i * 2654435761L - 1000000000000L;
+        } else if (type == PDecimal.INSTANCE) {
+            return new BigDecimal(i * 104729L - 50000000L).movePointLeft(i % 10);
+        } else if (type == PVarchar.INSTANCE) {
+            return "value" + i + "_" + Integer.toHexString(i * 31);
+        } else if (type == PDate.INSTANCE) {
+            return new java.sql.Date(now - i * 3600000L);
+        } else if (type == PTimestamp.INSTANCE) {
+            Timestamp ts = new Timestamp(now - i * 3600000L);
+            ts.setNanos(ts.getNanos() + i);
+            return ts;
+        }
+        throw new IllegalArgumentException("Unsupported type " + typeName);
+    }
+
+    private int next() {
+        index = (index + 1) & (VALUE_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public byte[] toBytes() {
+        return type.toBytes(values[next()], sortOrder);
+    }
+
+    @Benchmark
+    public Object toObject() {
+        byte[] b = bytes[next()];
+        return type.toObject(b, 0, b.length, type, sortOrder);
+    }
+}
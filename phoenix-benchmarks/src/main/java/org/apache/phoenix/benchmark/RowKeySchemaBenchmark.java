@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.schema.RowKeySchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Navigation of the fields of a composite row key, as done for every row by row key column
+ * expressions and the skip scan filter.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RowKeySchemaBenchmark {
+    private static final int ROW_COUNT = 1024;
+
+    private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+    private RowKeySchema schema;
+    private byte[][] rowKeys;
+    private int index;
+
+    @Setup
+    public void setup() {
+        schema = BenchmarkData.newRowKeySchema();
+        rowKeys = BenchmarkData.newRowKeys(ROW_COUNT, 8, 16);
+    }
+
+    private byte[] nextRowKey() {
+        index = (index + 1) & (ROW_COUNT - 1);
+        return rowKeys[index];
+    }
+
+    /**
+     * Visit every field of the row key in order
+     */
+    @Benchmark
+    public int iterateFields() {
+        int length = 0;
+        int maxOffset = schema.iterator(nextRowKey(), ptr);
+        for (int i = 0; i < schema.getFieldCount(); i++) {
+            if (schema.next(ptr, i, maxOffset) == null) {
+                break;
+            }
+            length += ptr.getLength();
+        }
+        return length;
+    }
+
+    /**
+     * Position on the last field of the row key
+     */
+    @Benchmark
+    public int positionLastField() {
+        byte[] rowKey = nextRowKey();
+        ptr.set(rowKey);
+        schema.position(ptr, 0, schema.getFieldCount() - 1);
+        return ptr.getOffset();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.filter.Filter.ReturnCode;
+import org.apache.phoenix.filter.SkipScanFilter;
+import org.apache.phoenix.query.KeyRange;
+import org.apache.phoenix.schema.RowKeySchema;
+import org.apache.phoenix.schema.types.PChar;
+import org.apache.phoenix.schema.types.PVarchar;
+import org.apache.phoenix.util.ByteUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Lists;
+
+/**
+ *
+ * Skip scan over a sorted run of rows, for a query that selects some of the tenants and a range
+ * of entities within each. The benchmark plays the part of the region scanner: it passes every
+ * cell to the filter and seeks to the hint it returns, so the result covers both the filtering
+ * of the rows that are included and the computation of the next key to seek to.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SkipScanFilterBenchmark {
+    private static final int TENANT_COUNT = 32;
+    private static final int ENTITIES_PER_TENANT = 64;
+
+    /**
+     * Number of the tenants of the table that the query selects
+     */
+    @Param({ "1", "8", "32" })
+    public int selectedTenants;
+
+    @Param({ "100000" })
+    public int rowCount;
+
+    private RowKeySchema schema;
+    private List<List<KeyRange>> slots;
+    private KeyValue[] cells;
+
+    @Setup
+    public void setup() {
+        schema = BenchmarkData.newRowKeySchema();
+        byte[][] rowKeys = BenchmarkData.newRowKeys(rowCount, TENANT_COUNT, ENTITIES_PER_TENANT);
+        cells = new KeyValue[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            cells[i] = BenchmarkData.newKeyValue(rowKeys[i], ByteUtil.EMPTY_BYTE_ARRAY);
+        }
+        List<KeyRange> tenantRanges = Lists.newArrayListWithExpectedSize(selectedTenants);
+        int stride = TENANT_COUNT / selectedTenants;
+        for (int i = 0; i < selectedTenants; i++) {
+            tenantRanges.add(PChar.INSTANCE.getKeyRange(
+                    PChar.INSTANCE.toBytes(BenchmarkData.tenantId(i * stride))));
+        }
+        // A quarter of the entities of each selected tenant
+        List<KeyRange> entityRanges = Arrays.asList(
+                PVarchar.INSTANCE.getKeyRange(
+                        PVarchar.INSTANCE.toBytes(BenchmarkData.entityName(ENTITIES_PER_TENANT / 4)), true,
+                        PVarchar.INSTANCE.toBytes(BenchmarkData.entityName(ENTITIES_PER_TENANT / 2)), false));
+        slots = Arrays.asList(tenantRanges, entityRanges);
+    }
+
+    @Benchmark
+    public int skipScan() {
+        SkipScanFilter filter = new SkipScanFilter(slots, schema);
+        int included = 0;
+        int i = 0;
+        while (i < cells.length) {
+            ReturnCode code = filter.filterKeyValue(cells[i]);
+            if (code == ReturnCode.INCLUDE) {
+                included++;
+                i++;
+            } else if (code == ReturnCode.SEEK_NEXT_USING_HINT) {
+                i = seek(filter.getNextCellHint(cells[i]), i + 1);
+            } else if (code == ReturnCode.NEXT_ROW || code == ReturnCode.SKIP) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return included;
+    }
+
+    /**
+     * @return the index of the first cell at or after the hint
+     */
+    private int seek(Cell hint, int fromIndex) {
+        int low = fromIndex;
+        int high = cells.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (KeyValue.COMPARATOR.compareRows(cells[mid], hint) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -69,7 +69,7 @@ public class ReadWriteKeyValuesWithCodecIT {
     FileSystem fs = UTIL.getTestFileSystem();
 
     List<WALEdit> edits = getEdits();
-    writeReadAndVerify(null, fs, edits, testFile);
+    writeReadAndVerify(UTIL.getConfiguration(), null, fs, edits, testFile);
   }
 
   @Test
@@ -81,7 +81,34 @@ public class ReadWriteKeyValuesWithCodecIT {
 
     List<WALEdit> edits = getEdits();
     CompressionContext compression = new CompressionContext(LRUDictionary.class, false, false);
-    writeReadAndVerify(compression, fs, edits, testFile);
+    writeReadAndVerify(UTIL.getConfiguration(), compression, fs, edits, testFile);
+  }
+
+  @Test
+  public void testCompactIndexEditsWithoutCompression() throws Exception {
+    Path testDir = UTIL.getDataTestDir("TestReadWriteCustomEdits_compactWithoutCompression");
+    Path testFile = new Path(testDir, "testfile");
+    FileSystem fs = UTIL.getTestFileSystem();
+
+    List<WALEdit> edits = getEdits();
+    writeReadAndVerify(getCompactConfiguration(), null, fs, edits, testFile);
+  }
+
+  @Test
+  public void testCompactIndexEditsWithCompression() throws Exception {
+    Path testDir = UTIL.getDataTestDir("TestReadWriteCustomEdits_compactWithCompression");
+    Path testFile = new Path(testDir, "testfile");
+    FileSystem fs = UTIL.getTestFileSystem();
+
+    List<WALEdit> edits = getEdits();
+    CompressionContext compression = new CompressionContext(LRUDictionary.class, false, false);
+    writeReadAndVerify(getCompactConfiguration(), compression, fs, edits, testFile);
+  }
+
+  private Configuration getCompactConfiguration() {
+    Configuration conf = new Configuration(UTIL.getConfiguration());
+    conf.setBoolean(IndexedWALEditCodec.COMPACT_INDEX_EDITS_CONF_KEY, true);
+    return conf;
   }
 
   /**
@@ -120,6 +147,21 @@ public class ReadWriteKeyValuesWithCodecIT {
     addMutation(mixed, p, FAMILY);
     edits.add(mixed);
 
+    // index updates with several families, time stamps and attributes
+    Put multiFamilyPut = new Put(ROW, 10);
+    multiFamilyPut.add(FAMILY, Bytes.toBytes("q1"), 20, Bytes.toBytes("v1"));
+    multiFamilyPut.add(FAMILY, Bytes.toBytes("q2"), 5, Bytes.toBytes("v2"));
+    multiFamilyPut.add(Bytes.toBytes("other"), Bytes.toBytes("q1"), Bytes.toBytes("v3"));
+    multiFamilyPut.setAttribute("attribute", Bytes.toBytes("value"));
+    Delete familyDelete = new Delete(ROW, 30);
+    familyDelete.deleteFamily(FAMILY);
+    familyDelete.deleteColumns(Bytes.toBytes("other"), Bytes.toBytes("q1"), 25);
+    WALEdit multipleIndexUpdates = new WALEdit();
+    multipleIndexUpdates.add(new IndexedKeyValue(table, multiFamilyPut));
+    multipleIndexUpdates.add(new IndexedKeyValue(table, familyDelete));
+    multipleIndexUpdates.add(new IndexedKeyValue(Bytes.toBytes("otherTable"), multiFamilyPut));
+    edits.add(multipleIndexUpdates);
+
     return edits;
   }
 
@@ -148,10 +190,10 @@ public class ReadWriteKeyValuesWithCodecIT {
    * Write the edits to the specified path on the {@link FileSystem} using the given codec and then
    * read them back in and ensure that we read the same thing we wrote.
    */
-  private void writeReadAndVerify(final CompressionContext compressionContext, FileSystem fs, List<WALEdit> edits,
-      Path testFile) throws IOException {
+  private void writeReadAndVerify(Configuration conf, final CompressionContext compressionContext, FileSystem fs,
+      List<WALEdit> edits, Path testFile) throws IOException {
 	  
-	WALCellCodec codec = WALCellCodec.create(UTIL.getConfiguration(), compressionContext);  
+	WALCellCodec codec = WALCellCodec.create(conf, compressionContext);  
     // write the edits out
     FSDataOutputStream out = fs.create(testFile);
     for (WALEdit edit : edits) {
@@ -159,7 +201,10 @@ public class ReadWriteKeyValuesWithCodecIT {
     }
     out.close();
 
-    // read in the edits
+    // read in the edits, starting from empty dictionaries like a reader of the file would
+    if (compressionContext != null) {
+      compressionContext.clear();
+    }
     FSDataInputStream in = fs.open(testFile);
     List<WALEdit> read = new ArrayList<WALEdit>();
     for (int i = 0; i < edits.size(); i++) {
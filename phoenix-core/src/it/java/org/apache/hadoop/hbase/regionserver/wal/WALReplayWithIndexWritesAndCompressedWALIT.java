@@ -56,8 +56,10 @@ import org.apache.phoenix.hbase.index.IndexTestingUtils;
 import org.apache.phoenix.hbase.index.TableName;
 import org.apache.phoenix.hbase.index.covered.example.ColumnGroup;
 import org.apache.phoenix.hbase.index.covered.example.CoveredColumn;
+import org.apache.phoenix.hbase.index.covered.example.CoveredColumnIndexCodec;
 import org.apache.phoenix.hbase.index.covered.example.CoveredColumnIndexSpecifierBuilder;
 import org.apache.phoenix.hbase.index.covered.example.CoveredColumnIndexer;
+import org.apache.phoenix.hbase.index.wal.IndexedKeyValue;
 import org.apache.phoenix.util.ConfigUtil;
 import org.junit.After;
 import org.junit.Before;
@@ -231,6 +233,18 @@ public class WALReplayWithIndexWritesAndCompressedWALIT {
     final Result result = region1.get(g);
     assertEquals("Primary region wasn't updated from WAL replay!", 1, result.size());
 
+    // replay an edit to the open region, as distributed log replay does. Its index update doesn't
+    // fill a batch, and is written at the end of the replay
+    Put indexUpdate = new Put(Bytes.toBytes("replayed_index_row"));
+    indexUpdate.add(CoveredColumnIndexCodec.INDEX_ROW_COLUMN_FAMILY, Bytes.toBytes("qual"), null);
+    WALEdit edit = new WALEdit();
+    edit.add(new IndexedKeyValue(Bytes.toBytes(INDEX_TABLE_NAME), indexUpdate));
+    HLogKey key = new HLogKey(hri.getEncodedNameAsBytes(), hri.getTable(), System.currentTimeMillis());
+    region1.getCoprocessorHost().preWALRestore(hri, key, edit);
+    region1.getCoprocessorHost().postWALRestore(hri, key, edit);
+    assertEquals("Index wasn't updated at the end of the replay to an open region!", 2,
+      getKeyValueCount(index));
+
     // cleanup the index table
     HBaseAdmin admin = UTIL.getHBaseAdmin();
     admin.disableTable(INDEX_TABLE_NAME);
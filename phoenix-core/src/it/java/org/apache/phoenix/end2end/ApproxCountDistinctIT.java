@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.end2end;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.phoenix.exception.SQLExceptionCode;
+import org.junit.Test;
+
+public class ApproxCountDistinctIT extends BaseHBaseManagedTimeIT {
+    private static final int ROW_COUNT = 1000;
+
+    private void initTable(Connection conn) throws Exception {
+        conn.createStatement().execute("CREATE TABLE visits (id INTEGER PRIMARY KEY, user_id VARCHAR, region CHAR(2), score INTEGER) SPLIT ON (250, 500, 750)");
+        PreparedStatement stmt = conn.prepareStatement("UPSERT INTO visits VALUES (?, ?, ?, ?)");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            stmt.setInt(1, i);
+            stmt.setString(2, "user" + (i % 300));
+            stmt.setString(3, i % 2 == 0 ? "EU" : "US");
+            if (i % 10 == 0) {
+                stmt.setNull(4, java.sql.Types.INTEGER);
+            } else {
+                stmt.setInt(4, i % 7);
+            }
+            stmt.execute();
+        }
+        conn.commit();
+    }
+
+    @Test
+    public void testApproxCountDistinct() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        initTable(conn);
+        ResultSet rs = conn.createStatement().executeQuery("SELECT APPROX_COUNT_DISTINCT(user_id), COUNT(DISTINCT user_id), APPROX_COUNT_DISTINCT(score) FROM visits");
+        assertTrue(rs.next());
+        // The estimates of small counts are close to exact
+        assertEquals(300, rs.getLong(1), 6);
+        assertEquals(300, rs.getLong(2));
+        // Null values are not counted
+        assertEquals(7, rs.getLong(3));
+        assertFalse(rs.next());
+        conn.close();
+    }
+
+    @Test
+    public void testApproxCountDistinctGroupBy() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        initTable(conn);
+        ResultSet rs = conn.createStatement().executeQuery("SELECT region, APPROX_COUNT_DISTINCT(user_id, 14) FROM visits GROUP BY region ORDER BY region");
+        assertTrue(rs.next());
+        assertEquals("EU", rs.getString(1));
+        assertEquals(150, rs.getLong(2), 3);
+        assertTrue(rs.next());
+        assertEquals("US", rs.getString(1));
+        assertEquals(150, rs.getLong(2), 3);
+        assertFalse(rs.next());
+        conn.close();
+    }
+
+    @Test
+    public void testApproxCountDistinctNoRows() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        initTable(conn);
+        ResultSet rs = conn.createStatement().executeQuery("SELECT APPROX_COUNT_DISTINCT(user_id) FROM visits WHERE id < 0");
+        assertTrue(rs.next());
+        assertEquals(0, rs.getLong(1));
+        assertFalse(rs.next());
+        conn.close();
+    }
+
+    @Test
+    public void testInvalidPrecision() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        initTable(conn);
+        try {
+            conn.createStatement().executeQuery("SELECT APPROX_COUNT_DISTINCT(user_id, 20) FROM visits");
+            fail();
+        } catch (SQLException e) {
+            assertEquals(SQLExceptionCode.VALUE_OUTSIDE_RANGE.getErrorCode(), e.getErrorCode());
+        }
+        conn.close();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.end2end;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Properties;
+
+import org.apache.phoenix.query.QueryServices;
+import org.junit.Test;
+
+public class ApproxPercentileIT extends BaseHBaseManagedTimeIT {
+    private static final int ROW_COUNT = 10000;
+
+    private void initTable(Connection conn) throws Exception {
+        conn.createStatement().execute("CREATE TABLE latencies (id INTEGER PRIMARY KEY, host CHAR(1), latency BIGINT) SPLIT ON (2500, 5000, 7500)");
+        PreparedStatement stmt = conn.prepareStatement("UPSERT INTO latencies VALUES (?, ?, ?)");
+        for (int i = 1; i <= ROW_COUNT; i++) {
+            stmt.setInt(1, i);
+            stmt.setString(2, i % 2 == 0 ? "a" : "b");
+            stmt.setLong(3, i);
+            stmt.execute();
+        }
+        conn.commit();
+    }
+
+    @Test
+    public void testApproxPercentile() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        initTable(conn);
+        ResultSet rs = conn.createStatement().executeQuery("SELECT APPROX_PERCENTILE(latency, 0.5), APPROX_PERCENTILE(latency, 0.99), APPROX_PERCENTILE(latency, 1, 200) FROM latencies");
+        assertTrue(rs.next());
+        assertEquals(5000, rs.getDouble(1), 100);
+        assertEquals(9900, rs.getDouble(2), 20);
+        assertEquals(10000, rs.getDouble(3), 0);
+        assertFalse(rs.next());
+        conn.close();
+    }
+
+    @Test
+    public void testApproxPercentileGroupBy() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        initTable(conn);
+        ResultSet rs = conn.createStatement().executeQuery("SELECT host, APPROX_PERCENTILE(latency, 0.9) FROM latencies GROUP BY host ORDER BY host");
+        assertTrue(rs.next());
+        assertEquals("a", rs.getString(1));
+        assertEquals(9000, rs.getDouble(2), 50);
+        assertTrue(rs.next());
+        assertEquals("b", rs.getString(1));
+        assertEquals(9000, rs.getDouble(2), 50);
+        assertFalse(rs.next());
+        conn.close();
+    }
+
+    @Test
+    public void testApproxPercentileNoRows() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        initTable(conn);
+        ResultSet rs = conn.createStatement().executeQuery("SELECT APPROX_PERCENTILE(latency, 0.5) FROM latencies WHERE id < 0");
+        assertTrue(rs.next());
+        rs.getDouble(1);
+        assertTrue(rs.wasNull());
+        assertFalse(rs.next());
+        conn.close();
+    }
+
+    @Test
+    public void testApproximatePercentileCont() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        initTable(conn);
+        conn.close();
+        Properties props = new Properties();
+        props.setProperty(QueryServices.PERCENTILE_APPROXIMATE_ATTRIB, Boolean.TRUE.toString());
+        conn = DriverManager.getConnection(getUrl(), props);
+        ResultSet rs = conn.createStatement().executeQuery("SELECT PERCENTILE_CONT(0.9) WITHIN GROUP (ORDER BY latency ASC), PERCENTILE_DISC(0.9) WITHIN GROUP (ORDER BY latency DESC) FROM latencies");
+        assertTrue(rs.next());
+        assertEquals(9000, rs.getDouble(1), 50);
+        assertEquals(1000, rs.getDouble(2), 50);
+        assertFalse(rs.next());
+        conn.close();
+    }
+}
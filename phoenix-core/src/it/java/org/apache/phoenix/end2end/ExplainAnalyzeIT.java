@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.end2end;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+
+import org.apache.phoenix.monitoring.MetricType;
+import org.apache.phoenix.util.PhoenixRuntime;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class ExplainAnalyzeIT extends BaseHBaseManagedTimeIT {
+
+    private static void createTable(Connection conn) throws Exception {
+        conn.createStatement().execute("CREATE TABLE T (K VARCHAR NOT NULL PRIMARY KEY, V VARCHAR)");
+        PreparedStatement stmt = conn.prepareStatement("UPSERT INTO T VALUES (?, ?)");
+        for (int i = 0; i < 10; i++) {
+            stmt.setString(1, "key" + i);
+            stmt.setString(2, "value" + (i % 5));
+            stmt.executeUpdate();
+        }
+        conn.commit();
+    }
+
+    private static List<String> explainAnalyze(Connection conn, String query) throws Exception {
+        ResultSet rs = conn.createStatement().executeQuery("EXPLAIN ANALYZE " + query);
+        List<String> planSteps = Lists.newArrayList();
+        while (rs.next()) {
+            planSteps.add(rs.getString(1));
+        }
+        return planSteps;
+    }
+
+    private static void assertContains(String expected, String planStep) {
+        assertTrue("Expected " + expected + " in " + planStep, planStep.contains(expected));
+    }
+
+    @Test
+    public void testExplainAnalyzeScan() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        createTable(conn);
+        List<String> planSteps = explainAnalyze(conn, "SELECT * FROM T WHERE V = 'value1'");
+        assertEquals(3, planSteps.size());
+        assertTrue(planSteps.get(0).startsWith("CLIENT PARALLEL 1-WAY FULL SCAN OVER T (ACTUAL ROWS=2, "));
+        assertContains("SCANS=1, ", planSteps.get(0));
+        assertContains("SERVER ROWS=10, ", planSteps.get(0));
+        assertEquals("    SERVER FILTER BY V = 'value1' (ACTUAL FILTERED ROWS=8)", planSteps.get(1));
+        assertTrue(planSteps.get(2).startsWith("ACTUAL ROWS=2, "));
+        assertContains("SERVER FILTERED ROWS=8, ", planSteps.get(2));
+        conn.close();
+    }
+
+    @Test
+    public void testExplainAnalyzeAggregate() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        createTable(conn);
+        List<String> planSteps = explainAnalyze(conn, "SELECT COUNT(*) FROM T WHERE V >= 'value3'");
+        assertTrue(planSteps.get(0).startsWith("CLIENT PARALLEL 1-WAY FULL SCAN OVER T (ACTUAL ROWS=1, "));
+        assertContains("SERVER ROWS=10, ", planSteps.get(0));
+        assertEquals("    SERVER FILTER BY V >= 'value3' (ACTUAL FILTERED ROWS=6)", planSteps.get(1));
+        assertTrue(planSteps.get(planSteps.size() - 1).startsWith("ACTUAL ROWS=1, "));
+
+        planSteps = explainAnalyze(conn, "SELECT V, COUNT(*) FROM T GROUP BY V");
+        assertContains("SERVER ROWS=10, ", planSteps.get(0));
+        assertEquals("    SERVER AGGREGATE INTO DISTINCT ROWS BY [V] (ACTUAL ROWS=5)", planSteps.get(1));
+        assertEquals("CLIENT MERGE SORT (ACTUAL ROWS=5)", planSteps.get(2));
+        assertTrue(planSteps.get(planSteps.size() - 1).startsWith("ACTUAL ROWS=5, "));
+
+        planSteps = explainAnalyze(conn, "SELECT V, COUNT(*) FROM T GROUP BY V HAVING MAX(K) >= 'key7'");
+        assertEquals("    SERVER AGGREGATE INTO DISTINCT ROWS BY [V] (ACTUAL ROWS=5)", planSteps.get(1));
+        assertEquals("CLIENT MERGE SORT (ACTUAL ROWS=5)", planSteps.get(2));
+        assertTrue(planSteps.get(3), planSteps.get(3).startsWith("CLIENT FILTER BY "));
+        assertTrue(planSteps.get(3), planSteps.get(3).endsWith(" (ACTUAL ROWS=3)"));
+        conn.close();
+    }
+
+    @Test
+    public void testExplainAnalyzeClientSteps() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        createTable(conn);
+        List<String> planSteps = explainAnalyze(conn, "SELECT * FROM T ORDER BY V DESC LIMIT 3");
+        assertEquals("CLIENT MERGE SORT (ACTUAL ROWS=3)", planSteps.get(2));
+
+        planSteps = explainAnalyze(conn, "SELECT * FROM T LIMIT 4");
+        assertEquals("CLIENT 4 ROW LIMIT (ACTUAL ROWS=4)", planSteps.get(planSteps.size() - 2));
+
+        // Plain EXPLAIN doesn't run the query, and has no actuals
+        ResultSet rs = conn.createStatement().executeQuery("EXPLAIN SELECT * FROM T LIMIT 4");
+        while (rs.next()) {
+            assertFalse(rs.getString(1), rs.getString(1).contains("ACTUAL"));
+        }
+        conn.close();
+    }
+
+    @Test
+    public void testExplainAnalyzeWithoutActualSteps() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        createTable(conn);
+        // Joins explain their sub plans without running them, and degenerate queries run no scan
+        List<String> planSteps = explainAnalyze(conn, "SELECT * FROM T T1 JOIN T T2 ON T1.K = T2.K");
+        assertEquals("NO ACTUALS FOR THE STEPS OF THIS PLAN", planSteps.get(planSteps.size() - 2));
+        assertTrue(planSteps.get(planSteps.size() - 1).startsWith("ACTUAL ROWS=10, "));
+
+        planSteps = explainAnalyze(conn, "SELECT * FROM T WHERE K > 'z' AND K < 'a'");
+        assertEquals("DEGENERATE SCAN OVER T", planSteps.get(0));
+        assertEquals("NO ACTUALS FOR THE STEPS OF THIS PLAN", planSteps.get(1));
+        assertTrue(planSteps.get(2).startsWith("ACTUAL ROWS=0, "));
+        conn.close();
+    }
+
+    @Test
+    public void testExplainAnalyzeDoesNotReturnScanMetricsToQueries() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        createTable(conn);
+        explainAnalyze(conn, "SELECT * FROM T");
+        ResultSet rs = conn.createStatement().executeQuery("SELECT * FROM T");
+        int rowCount = 0;
+        while (rs.next()) {
+            assertTrue(rs.getString(1).startsWith("key"));
+            rowCount++;
+        }
+        assertEquals(10, rowCount);
+        assertEquals(0, PhoenixRuntime.getRequestMetrics(rs).getValue(MetricType.SERVER_ROWS_SCANNED));
+        conn.close();
+    }
+
+    @Test
+    public void testExplainAnalyzeOnlySupportedForQueries() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        createTable(conn);
+        try {
+            conn.createStatement().executeQuery("EXPLAIN ANALYZE UPSERT INTO T VALUES ('a', 'b')");
+            fail();
+        } catch (SQLFeatureNotSupportedException e) {
+        }
+        conn.close();
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.end2end;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.exception.SQLExceptionCode;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.query.QueryConstants;
+import org.junit.Test;
+
+/**
+ * Tests for the PACKED_COLUMNS option on a table, which stores the values of all the non PK
+ * columns of a family in a single cell.
+ */
+public class PackedColumnsIT extends BaseHBaseManagedTimeIT {
+
+    @Test
+    public void testUpsertAndSelect() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        conn.createStatement().execute("CREATE TABLE T (k VARCHAR NOT NULL PRIMARY KEY, "
+                + "a.i INTEGER, a.s VARCHAR, b.c CHAR(3), b.d DECIMAL) IMMUTABLE_ROWS=true, PACKED_COLUMNS=true");
+        conn.createStatement().execute("UPSERT INTO T VALUES ('k1', 1, 'one', 'x', 1.5)");
+        conn.createStatement().execute("UPSERT INTO T VALUES ('k2', 2, null, null, 2.5)");
+        conn.createStatement().execute("UPSERT INTO T(k, a.s) VALUES ('k3', 'three')");
+        conn.commit();
+
+        ResultSet rs = conn.createStatement().executeQuery("SELECT k, i, s, c, d FROM T");
+        assertTrue(rs.next());
+        assertEquals("k1", rs.getString(1));
+        assertEquals(1, rs.getInt(2));
+        assertEquals("one", rs.getString(3));
+        assertEquals("x", rs.getString(4));
+        assertEquals(1.5, rs.getDouble(5), 0);
+        assertTrue(rs.next());
+        assertEquals("k2", rs.getString(1));
+        assertEquals(2, rs.getInt(2));
+        assertNull(rs.getString(3));
+        assertNull(rs.getString(4));
+        assertEquals(2.5, rs.getDouble(5), 0);
+        assertTrue(rs.next());
+        assertEquals("k3", rs.getString(1));
+        assertEquals(0, rs.getInt(2));
+        assertTrue(rs.wasNull());
+        assertEquals("three", rs.getString(3));
+        assertNull(rs.getString(5));
+        assertFalse(rs.next());
+
+        rs = conn.createStatement().executeQuery("SELECT k FROM T WHERE i = 2 OR s = 'three'");
+        assertTrue(rs.next());
+        assertEquals("k2", rs.getString(1));
+        assertTrue(rs.next());
+        assertEquals("k3", rs.getString(1));
+        assertFalse(rs.next());
+
+        rs = conn.createStatement().executeQuery("SELECT count(*), sum(d) FROM T WHERE i IS NOT NULL");
+        assertTrue(rs.next());
+        assertEquals(2, rs.getInt(1));
+        assertEquals(4.0, rs.getDouble(2), 0);
+        assertFalse(rs.next());
+
+        // Each family of a row has a single cell for its columns
+        HTableInterface htable = conn.unwrap(PhoenixConnection.class).getQueryServices().getTable(Bytes.toBytes("T"));
+        ResultScanner scanner = htable.getScanner(new Scan());
+        try {
+            for (Result result : scanner) {
+                for (Cell cell : result.rawCells()) {
+                    byte[] qualifier = CellUtil.cloneQualifier(cell);
+                    assertTrue(Bytes.toString(qualifier), Bytes.equals(QueryConstants.PACKED_COLUMN_BYTES, qualifier)
+                            || Bytes.equals(QueryConstants.EMPTY_COLUMN_BYTES, qualifier));
+                }
+            }
+        } finally {
+            scanner.close();
+            htable.close();
+        }
+        conn.close();
+    }
+
+    @Test
+    public void testAddColumn() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        conn.createStatement().execute("CREATE TABLE T (k VARCHAR NOT NULL PRIMARY KEY, v1 VARCHAR) "
+                + "IMMUTABLE_ROWS=true, PACKED_COLUMNS=true");
+        conn.createStatement().execute("UPSERT INTO T VALUES ('k1', 'a')");
+        conn.commit();
+        conn.createStatement().execute("ALTER TABLE T ADD v2 INTEGER");
+        conn.createStatement().execute("UPSERT INTO T VALUES ('k2', 'b', 2)");
+        conn.commit();
+
+        ResultSet rs = conn.createStatement().executeQuery("SELECT k, v1, v2 FROM T");
+        assertTrue(rs.next());
+        assertEquals("k1", rs.getString(1));
+        assertEquals("a", rs.getString(2));
+        assertEquals(0, rs.getInt(3));
+        assertTrue(rs.wasNull());
+        assertTrue(rs.next());
+        assertEquals("k2", rs.getString(1));
+        assertEquals("b", rs.getString(2));
+        assertEquals(2, rs.getInt(3));
+        assertFalse(rs.next());
+
+        try {
+            conn.createStatement().execute("ALTER TABLE T DROP COLUMN v1");
+            fail();
+        } catch (SQLException e) {
+            assertEquals(SQLExceptionCode.CANNOT_DROP_PACKED_COLUMN.getErrorCode(), e.getErrorCode());
+        }
+        try {
+            conn.createStatement().execute("ALTER TABLE T SET IMMUTABLE_ROWS=false");
+            fail();
+        } catch (SQLException e) {
+            assertEquals(SQLExceptionCode.PACKED_COLUMNS_REQUIRE_IMMUTABLE_ROWS.getErrorCode(), e.getErrorCode());
+        }
+        conn.close();
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        conn.createStatement().execute("CREATE TABLE T (k VARCHAR NOT NULL PRIMARY KEY, v1 VARCHAR, v2 INTEGER, v3 VARCHAR) "
+                + "IMMUTABLE_ROWS=true, PACKED_COLUMNS=true");
+        conn.createStatement().execute("UPSERT INTO T VALUES ('k1', 'a', 1, 'x')");
+        conn.commit();
+        conn.createStatement().execute("CREATE INDEX I ON T (v1) INCLUDE (v2)");
+        conn.createStatement().execute("UPSERT INTO T VALUES ('k2', 'b', 2, 'y')");
+        conn.createStatement().execute("UPSERT INTO T VALUES ('k3', 'c', null, 'z')");
+        conn.commit();
+
+        String query = "SELECT k, v2 FROM T WHERE v1 >= 'a'";
+        ResultSet rs = conn.createStatement().executeQuery("EXPLAIN " + query);
+        assertTrue(rs.next());
+        assertTrue(rs.getString(1), rs.getString(1).contains(" OVER I "));
+        rs = conn.createStatement().executeQuery(query);
+        assertTrue(rs.next());
+        assertEquals("k1", rs.getString(1));
+        assertEquals(1, rs.getInt(2));
+        assertTrue(rs.next());
+        assertEquals("k2", rs.getString(1));
+        assertEquals(2, rs.getInt(2));
+        assertTrue(rs.next());
+        assertEquals("k3", rs.getString(1));
+        assertEquals(0, rs.getInt(2));
+        assertTrue(rs.wasNull());
+        assertFalse(rs.next());
+
+        try {
+            conn.createStatement().execute("CREATE LOCAL INDEX LI ON T (v3)");
+            fail();
+        } catch (SQLException e) {
+            assertEquals(SQLExceptionCode.NO_LOCAL_INDEX_ON_PACKED_COLUMNS.getErrorCode(), e.getErrorCode());
+        }
+        conn.close();
+    }
+
+    @Test
+    public void testViewNotAllowed() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        conn.createStatement().execute("CREATE TABLE T (k VARCHAR NOT NULL PRIMARY KEY, v1 VARCHAR) "
+                + "IMMUTABLE_ROWS=true, PACKED_COLUMNS=true");
+        // Columns added to different views would share a slot in the packed cell
+        try {
+            conn.createStatement().execute("CREATE VIEW V1 (v2 VARCHAR) AS SELECT * FROM T WHERE v1 = 'a'");
+            fail();
+        } catch (SQLException e) {
+            assertEquals(SQLExceptionCode.NO_VIEW_ON_PACKED_COLUMNS.getErrorCode(), e.getErrorCode());
+        }
+        try {
+            conn.createStatement().execute("CREATE VIEW V2 AS SELECT * FROM T");
+            fail();
+        } catch (SQLException e) {
+            assertEquals(SQLExceptionCode.NO_VIEW_ON_PACKED_COLUMNS.getErrorCode(), e.getErrorCode());
+        }
+        conn.close();
+    }
+
+    @Test
+    public void testRequiresImmutableRows() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl());
+        try {
+            conn.createStatement().execute("CREATE TABLE T (k VARCHAR NOT NULL PRIMARY KEY, v VARCHAR) PACKED_COLUMNS=true");
+            fail();
+        } catch (SQLException e) {
+            assertEquals(SQLExceptionCode.PACKED_COLUMNS_REQUIRE_IMMUTABLE_ROWS.getErrorCode(), e.getErrorCode());
+        }
+        conn.close();
+    }
+}
@@ -32,14 +32,20 @@ import static org.apache.phoenix.monitoring.PhoenixMetrics.SizeMetric.SCAN_BYTES
 import static org.apache.phoenix.monitoring.PhoenixMetrics.SizeMetric.TASK_END_TO_END_TIME;
 import static org.apache.phoenix.monitoring.PhoenixMetrics.SizeMetric.TASK_EXECUTION_TIME;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Properties;
 
 import org.apache.phoenix.monitoring.Metric;
+import org.apache.phoenix.monitoring.MetricType;
+import org.apache.phoenix.monitoring.RequestMetrics;
+import org.apache.phoenix.query.QueryServices;
 import org.apache.phoenix.util.PhoenixRuntime;
 import org.junit.Test;
 
@@ -122,6 +128,69 @@ public class PhoenixMetricsIT extends BaseHBaseManagedTimeIT {
         assertEquals(0, NUM_SPOOL_FILE.getMetric().getTotalSum());
     }
     
+    @Test
+    public void testRequestMetricsForQueries() throws Exception {
+        createTableAndInsertValues("T", true);
+        Connection conn = DriverManager.getConnection(getUrl(), getRequestMetricsProps());
+        Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT * FROM T");
+        while (rs.next()) {
+            rs.getString(1);
+        }
+        rs.close();
+        RequestMetrics metrics = PhoenixRuntime.getRequestMetrics(rs);
+        assertEquals(10, metrics.getValue(MetricType.RESULT_SET_ROWS));
+        assertEquals(10, metrics.getValue(MetricType.SCAN_ROWS));
+        assertEquals(1, metrics.getValue(MetricType.PARALLEL_SCANS));
+        assertEquals(0, metrics.getValue(MetricType.SPOOL_FILES));
+        assertTrue(metrics.getValue(MetricType.SCAN_BYTES) > 0);
+        assertTrue(metrics.getValue(MetricType.SCAN_RPC_CALLS) > 0);
+        assertEquals(1, metrics.getRpcCallsByServer().size());
+
+        // A new execution of the statement starts from zero, the connection sums up both
+        rs = stmt.executeQuery("SELECT * FROM T WHERE K = 'key1'");
+        assertTrue(rs.next());
+        rs.close();
+        assertEquals(1, PhoenixRuntime.getRequestMetrics(stmt).getValue(MetricType.RESULT_SET_ROWS));
+        assertEquals(11, PhoenixRuntime.getRequestMetrics(conn).getValue(MetricType.RESULT_SET_ROWS));
+        conn.close();
+    }
+
+    @Test
+    public void testRequestMetricsForMutations() throws Exception {
+        createTableAndInsertValues("T", true);
+        Connection conn = DriverManager.getConnection(getUrl(), getRequestMetricsProps());
+        conn.createStatement().executeUpdate("UPSERT INTO T VALUES ('key11', 'value11')");
+        conn.createStatement().executeUpdate("UPSERT INTO T VALUES ('key12', 'value12')");
+        conn.commit();
+        RequestMetrics metrics = PhoenixRuntime.getRequestMetrics(conn);
+        assertEquals(2, metrics.getValue(MetricType.MUTATION_BATCH_SIZE));
+        assertTrue(metrics.getValue(MetricType.MUTATION_BYTES) > 0);
+        assertEquals(0, metrics.getValue(MetricType.SCAN_ROWS));
+
+        PhoenixRuntime.resetRequestMetrics(conn);
+        assertEquals(0, metrics.getValue(MetricType.MUTATION_BATCH_SIZE));
+        conn.close();
+    }
+
+    @Test
+    public void testRequestMetricsDisabledByDefault() throws Exception {
+        createTableAndInsertValues("T", true);
+        Connection conn = DriverManager.getConnection(getUrl());
+        ResultSet rs = conn.createStatement().executeQuery("SELECT * FROM T");
+        while (rs.next()) {
+        }
+        assertFalse(PhoenixRuntime.getRequestMetrics(rs).isEnabled());
+        assertEquals(0, PhoenixRuntime.getRequestMetrics(conn).getValue(MetricType.RESULT_SET_ROWS));
+        conn.close();
+    }
+
+    private static Properties getRequestMetricsProps() {
+        Properties props = new Properties();
+        props.setProperty(QueryServices.REQUEST_METRICS_ENABLED_ATTRIB, Boolean.TRUE.toString());
+        return props;
+    }
+
     private static void resetMetrics() {
         for (Metric m : PhoenixRuntime.getInternalPhoenixMetrics()) {
             m.reset();
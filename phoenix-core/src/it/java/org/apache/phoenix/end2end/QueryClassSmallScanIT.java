@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.end2end;
+
+import static org.apache.phoenix.util.TestUtil.TEST_PROPERTIES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.util.PropertiesUtil;
+import org.apache.phoenix.util.ReadOnlyProps;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Tests that the queries whose scans are made small scans for query class scheduling return
+ * all their rows when the rows of a region take more than one call.
+ *
+ * Run in own cluster since it updates QueryServices.QUERY_CLASS_SMALL_SCANS_ENABLED_ATTRIB and
+ * the scan caching.
+ */
+public class QueryClassSmallScanIT extends BaseOwnClusterHBaseManagedTimeIT {
+    private static final int SCAN_CACHE_SIZE = 10;
+    // More rows than fit in one call of a scan
+    private static final int ROW_COUNT = 3 * SCAN_CACHE_SIZE + 5;
+
+    @BeforeClass
+    public static void doSetup() throws Exception {
+        Map<String,String> props = Maps.newHashMapWithExpectedSize(2);
+        props.put(QueryServices.QUERY_CLASS_SMALL_SCANS_ENABLED_ATTRIB, Boolean.TRUE.toString());
+        props.put(QueryServices.SCAN_CACHE_SIZE_ATTRIB, Integer.toString(SCAN_CACHE_SIZE));
+        setUpTestDriver(new ReadOnlyProps(props.entrySet().iterator()));
+    }
+
+    private static Connection createTables() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl(), PropertiesUtil.deepCopy(TEST_PROPERTIES));
+        conn.createStatement().execute("CREATE TABLE PARENT_T (k VARCHAR NOT NULL PRIMARY KEY, v VARCHAR)");
+        conn.createStatement().execute("CREATE TABLE CHILD_T (k INTEGER NOT NULL PRIMARY KEY, parent_k VARCHAR)");
+        conn.createStatement().execute("UPSERT INTO PARENT_T VALUES('a', 'parent')");
+        conn.createStatement().execute("UPSERT INTO PARENT_T VALUES('b', 'other')");
+        PreparedStatement stmt = conn.prepareStatement("UPSERT INTO CHILD_T VALUES(?, ?)");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            stmt.setInt(1, i);
+            stmt.setString(2, "a");
+            stmt.execute();
+        }
+        conn.commit();
+        return conn;
+    }
+
+    @Test
+    public void testShortScan() throws Exception {
+        Connection conn = createTables();
+        ResultSet rs = conn.createStatement().executeQuery("SELECT k FROM CHILD_T WHERE k >= 0 AND k < 1000");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            assertTrue(rs.next());
+            assertEquals(i, rs.getInt(1));
+        }
+        assertFalse(rs.next());
+
+        rs = conn.createStatement().executeQuery("SELECT COUNT(*) FROM CHILD_T WHERE k >= 0 AND k < 1000");
+        assertTrue(rs.next());
+        assertEquals(ROW_COUNT, rs.getInt(1));
+        assertFalse(rs.next());
+        conn.close();
+    }
+
+    @Test
+    public void testHashJoinWithMoreMatchesThanScanCaching() throws Exception {
+        Connection conn = createTables();
+        // The point lookup of the parent row returns a joined row per child, all under its key
+        ResultSet rs = conn.createStatement().executeQuery("SELECT p.v, c.k FROM PARENT_T p JOIN CHILD_T c"
+                + " ON p.k = c.parent_k WHERE p.k = 'a'");
+        int count = 0;
+        while (rs.next()) {
+            assertEquals("parent", rs.getString(1));
+            count++;
+        }
+        assertEquals(ROW_COUNT, count);
+        conn.close();
+    }
+}
@@ -26,17 +26,27 @@ import static org.junit.Assert.fail;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.io.IOException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
 import java.util.Map;
 import java.util.Properties;
 
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.coprocessor.BaseScannerRegionObserver;
 import org.apache.phoenix.exception.SQLExceptionCode;
+import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.jdbc.PhoenixStatement;
+import org.apache.phoenix.query.QueryConstants;
 import org.apache.phoenix.query.QueryServices;
 import org.apache.phoenix.util.PropertiesUtil;
 import org.apache.phoenix.util.ReadOnlyProps;
+import org.apache.phoenix.util.ServerUtil;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -91,4 +101,35 @@ public class QueryTimeoutIT extends BaseOwnClusterHBaseManagedTimeIT {
         }
         conn.close();
     }
+
+    @Test
+    public void testScanRejectedAfterDeadline() throws Exception {
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        Connection conn = DriverManager.getConnection(getUrl(), props);
+        conn.createStatement().execute("CREATE TABLE DEADLINE_T (k VARCHAR PRIMARY KEY, v VARCHAR)");
+        conn.createStatement().execute("UPSERT INTO DEADLINE_T VALUES('a', 'b')");
+        conn.commit();
+        HTableInterface htable = conn.unwrap(PhoenixConnection.class).getQueryServices().getTable(Bytes.toBytes("DEADLINE_T"));
+        try {
+            Scan scan = new Scan();
+            scan.setAttribute(BaseScannerRegionObserver.NON_AGGREGATE_QUERY, QueryConstants.TRUE);
+            scan.setAttribute(BaseScannerRegionObserver.DEADLINE, Bytes.toBytes(System.currentTimeMillis() + 60000));
+            ResultScanner scanner = htable.getScanner(scan);
+            assertTrue(scanner.next() != null);
+            scanner.close();
+
+            scan.setAttribute(BaseScannerRegionObserver.DEADLINE, Bytes.toBytes(System.currentTimeMillis() - 1));
+            try {
+                scanner = htable.getScanner(scan);
+                scanner.next();
+                fail("Expected the scan to be rejected as its deadline passed");
+            } catch (IOException e) {
+                SQLException sqlE = ServerUtil.parseServerException(e);
+                assertEquals(SQLExceptionCode.OPERATION_TIMED_OUT.getErrorCode(), sqlE.getErrorCode());
+            }
+        } finally {
+            htable.close();
+            conn.close();
+        }
+    }
 }
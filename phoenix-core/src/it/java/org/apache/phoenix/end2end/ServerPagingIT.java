@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.end2end;
+
+import static org.apache.phoenix.util.TestUtil.TEST_PROPERTIES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.util.PropertiesUtil;
+import org.apache.phoenix.util.ReadOnlyProps;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Tests that aggregate queries return the same results when the region observers return the
+ * partial state of the aggregation after every few rows.
+ *
+ * Run in own cluster since it updates QueryServices.SERVER_PAGE_ROWS_ATTRIB.
+ */
+public class ServerPagingIT extends BaseOwnClusterHBaseManagedTimeIT {
+    private static final String TABLE_NAME = "PAGED_T";
+    private static final String[] K1_VALUES = {"a", "b", "c", "d"};
+    private static final int K2_COUNT = 25;
+
+    @BeforeClass
+    public static void doSetup() throws Exception {
+        Map<String,String> props = Maps.newHashMapWithExpectedSize(1);
+        // Must update config before starting server
+        props.put(QueryServices.SERVER_PAGE_ROWS_ATTRIB, Integer.toString(3));
+        setUpTestDriver(new ReadOnlyProps(props.entrySet().iterator()));
+    }
+
+    private static Connection createTable() throws Exception {
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        Connection conn = DriverManager.getConnection(getUrl(), props);
+        conn.createStatement().execute("CREATE TABLE IF NOT EXISTS " + TABLE_NAME
+                + " (k1 VARCHAR NOT NULL, k2 INTEGER NOT NULL, v INTEGER, w VARCHAR CONSTRAINT pk PRIMARY KEY (k1, k2))");
+        PreparedStatement stmt = conn.prepareStatement("UPSERT INTO " + TABLE_NAME + " VALUES(?, ?, ?, ?)");
+        for (String k1 : K1_VALUES) {
+            for (int k2 = 0; k2 < K2_COUNT; k2++) {
+                stmt.setString(1, k1);
+                stmt.setInt(2, k2);
+                stmt.setInt(3, k2);
+                stmt.setString(4, "x" + (k2 % 3));
+                stmt.execute();
+            }
+        }
+        conn.commit();
+        return conn;
+    }
+
+    @Test
+    public void testUngroupedAggregate() throws Exception {
+        Connection conn = createTable();
+        ResultSet rs = conn.createStatement().executeQuery(
+                "SELECT COUNT(*), SUM(v), MIN(v), MAX(v), COUNT(DISTINCT w) FROM " + TABLE_NAME);
+        assertTrue(rs.next());
+        assertEquals(100, rs.getLong(1));
+        assertEquals(1200, rs.getLong(2));
+        assertEquals(0, rs.getInt(3));
+        assertEquals(24, rs.getInt(4));
+        assertEquals(3, rs.getLong(5));
+        assertFalse(rs.next());
+        conn.close();
+    }
+
+    @Test
+    public void testGroupByRowKeyOrder() throws Exception {
+        Connection conn = createTable();
+        ResultSet rs = conn.createStatement().executeQuery(
+                "SELECT k1, COUNT(*), SUM(v) FROM " + TABLE_NAME + " GROUP BY k1");
+        for (String k1 : K1_VALUES) {
+            assertTrue(rs.next());
+            assertEquals(k1, rs.getString(1));
+            assertEquals(25, rs.getLong(2));
+            assertEquals(300, rs.getLong(3));
+        }
+        assertFalse(rs.next());
+
+        // The limit applies to complete groups only
+        rs = conn.createStatement().executeQuery(
+                "SELECT k1, COUNT(*) FROM " + TABLE_NAME + " GROUP BY k1 LIMIT 2");
+        assertTrue(rs.next());
+        assertEquals("a", rs.getString(1));
+        assertEquals(25, rs.getLong(2));
+        assertTrue(rs.next());
+        assertEquals("b", rs.getString(1));
+        assertEquals(25, rs.getLong(2));
+        assertFalse(rs.next());
+        conn.close();
+    }
+
+    @Test
+    public void testGroupByUnordered() throws Exception {
+        Connection conn = createTable();
+        ResultSet rs = conn.createStatement().executeQuery(
+                "SELECT w, COUNT(*), MAX(k1), SUM(v) FROM " + TABLE_NAME + " GROUP BY w ORDER BY w");
+        assertTrue(rs.next());
+        assertEquals("x0", rs.getString(1));
+        assertEquals(36, rs.getLong(2));
+        assertEquals("d", rs.getString(3));
+        assertEquals(4 * (0 + 3 + 6 + 9 + 12 + 15 + 18 + 21 + 24), rs.getLong(4));
+        assertTrue(rs.next());
+        assertEquals("x1", rs.getString(1));
+        assertEquals(32, rs.getLong(2));
+        assertTrue(rs.next());
+        assertEquals("x2", rs.getString(1));
+        assertEquals(32, rs.getLong(2));
+        assertFalse(rs.next());
+
+        rs = conn.createStatement().executeQuery(
+                "SELECT w, COUNT(*) FROM " + TABLE_NAME + " GROUP BY w HAVING COUNT(*) > 32");
+        assertTrue(rs.next());
+        assertEquals("x0", rs.getString(1));
+        assertEquals(36, rs.getLong(2));
+        assertFalse(rs.next());
+        conn.close();
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.end2end.index;
+
+import static org.apache.phoenix.util.TestUtil.TEST_PROPERTIES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.coprocessor.BaseRegionObserver;
+import org.apache.hadoop.hbase.coprocessor.CoprocessorHost;
+import org.apache.hadoop.hbase.coprocessor.ObserverContext;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
+import org.apache.hadoop.hbase.regionserver.HRegion;
+import org.apache.hadoop.hbase.regionserver.wal.WALEdit;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.coprocessor.MetaDataRegionObserver;
+import org.apache.phoenix.coprocessor.MetaDataRegionObserver.BuildIndexScheduleTask;
+import org.apache.phoenix.end2end.BaseOwnClusterHBaseManagedTimeIT;
+import org.apache.phoenix.index.IndexRebuildCheckpoint;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.jdbc.PhoenixDatabaseMetaData;
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.schema.PIndexState;
+import org.apache.phoenix.schema.PTableType;
+import org.apache.phoenix.schema.types.PLong;
+import org.apache.phoenix.util.ByteUtil;
+import org.apache.phoenix.util.PropertiesUtil;
+import org.apache.phoenix.util.ReadOnlyProps;
+import org.apache.phoenix.util.SchemaUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Tests that the rebuild of a disabled index which fails part way resumes from its checkpoint,
+ * and that it is throttled.
+ *
+ * Run in own cluster since it installs a region observer failing index writes, and turns off
+ * the scheduled rebuild to run it from the test instead.
+ */
+public class IndexRebuildCheckpointIT extends BaseOwnClusterHBaseManagedTimeIT {
+    private static final String DATA_TABLE_NAME = "REBUILD_T";
+    private static final String INDEX_TABLE_NAME = "REBUILD_I";
+    private static final String SALTED_DATA_TABLE_NAME = "REBUILD_SALTED_T";
+    private static final String SALTED_INDEX_TABLE_NAME = "REBUILD_SALTED_I";
+    private static final String[] REGION_PREFIXES = {"a", "b", "c", "d"};
+    private static final int ROWS_PER_REGION = 10;
+    private static final int MAX_ROWS_PER_SEC = 100;
+
+    @BeforeClass
+    public static void doSetup() throws Exception {
+        Map<String,String> props = Maps.newHashMapWithExpectedSize(5);
+        props.put(QueryServices.INDEX_FAILURE_HANDLING_REBUILD_ATTRIB, Boolean.FALSE.toString());
+        props.put(QueryServices.INDEX_FAILURE_HANDLING_REBUILD_OVERLAP_TIME_ATTRIB, Long.toString(0));
+        // Rebuild one region after the other, so that the failure happens part way
+        props.put(QueryServices.INDEX_FAILURE_HANDLING_REBUILD_PARALLELISM_ATTRIB, Integer.toString(1));
+        props.put(QueryServices.INDEX_FAILURE_HANDLING_REBUILD_MAX_ROWS_PER_SEC_ATTRIB, Integer.toString(MAX_ROWS_PER_SEC));
+        props.put(CoprocessorHost.REGION_COPROCESSOR_CONF_KEY, IndexWriteObserver.class.getName());
+        setUpTestDriver(new ReadOnlyProps(props.entrySet().iterator()));
+    }
+
+    /**
+     * Counts the rows written to the index table by the first letter of their key, and fails the
+     * writes of the rows starting with a given letter. Records when the rows of the index of the
+     * salted table are first and last written.
+     */
+    public static class IndexWriteObserver extends BaseRegionObserver {
+        private static final ConcurrentMap<String, AtomicInteger> writeCounts = Maps.newConcurrentMap();
+        private static volatile String failPrefix;
+        private static volatile long firstSaltedWriteTime;
+        private static volatile long lastSaltedWriteTime;
+
+        @Override
+        public void prePut(ObserverContext<RegionCoprocessorEnvironment> c, Put put, WALEdit edit,
+                Durability durability) throws IOException {
+            String tableName = c.getEnvironment().getRegionInfo().getTable().getNameAsString();
+            if (SALTED_INDEX_TABLE_NAME.equals(tableName)) {
+                long time = System.currentTimeMillis();
+                if (firstSaltedWriteTime == 0) {
+                    firstSaltedWriteTime = time;
+                }
+                lastSaltedWriteTime = time;
+                return;
+            }
+            if (!INDEX_TABLE_NAME.equals(tableName)) {
+                return;
+            }
+            String prefix = Bytes.toString(put.getRow(), 0, 1);
+            if (prefix.equals(failPrefix)) {
+                throw new DoNotRetryIOException("Failing write of index row " + Bytes.toStringBinary(put.getRow()));
+            }
+            writeCounts.putIfAbsent(prefix, new AtomicInteger());
+            writeCounts.get(prefix).incrementAndGet();
+        }
+
+        private static int getWriteCount(String prefix) {
+            AtomicInteger count = writeCounts.get(prefix);
+            return count == null ? 0 : count.get();
+        }
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl(), PropertiesUtil.deepCopy(TEST_PROPERTIES));
+        conn.createStatement().execute("CREATE TABLE " + DATA_TABLE_NAME
+                + " (k VARCHAR NOT NULL PRIMARY KEY, v VARCHAR) SPLIT ON ('b', 'c', 'd')");
+        conn.createStatement().execute("CREATE INDEX " + INDEX_TABLE_NAME + " ON " + DATA_TABLE_NAME + " (v)");
+        conn.createStatement().execute("ALTER INDEX " + INDEX_TABLE_NAME + " ON " + DATA_TABLE_NAME + " DISABLE");
+        // Mimic the failure of an index write, which records when the index was disabled
+        byte[] indexKey = SchemaUtil.getTableKey(ByteUtil.EMPTY_BYTE_ARRAY, ByteUtil.EMPTY_BYTE_ARRAY,
+            Bytes.toBytes(INDEX_TABLE_NAME));
+        HTableInterface catalog = conn.unwrap(PhoenixConnection.class).getQueryServices().getTable(
+            PhoenixDatabaseMetaData.SYSTEM_CATALOG_NAME_BYTES);
+        Put put = new Put(indexKey);
+        put.add(PhoenixDatabaseMetaData.TABLE_FAMILY_BYTES, PhoenixDatabaseMetaData.INDEX_DISABLE_TIMESTAMP_BYTES,
+            PLong.INSTANCE.toBytes(System.currentTimeMillis()));
+        catalog.put(put);
+
+        // The disabled index is not maintained, so its rows are missing until it is rebuilt
+        PreparedStatement stmt = conn.prepareStatement("UPSERT INTO " + DATA_TABLE_NAME + " VALUES(?, ?)");
+        for (String prefix : REGION_PREFIXES) {
+            for (int i = 0; i < ROWS_PER_REGION; i++) {
+                stmt.setString(1, prefix + i);
+                stmt.setString(2, prefix + i);
+                stmt.execute();
+            }
+        }
+        conn.commit();
+
+        BuildIndexScheduleTask task = new BuildIndexScheduleTask(getCatalogEnvironment());
+        IndexWriteObserver.failPrefix = "c";
+        task.run();
+        assertIndexState(conn, PIndexState.DISABLE);
+        assertEquals(ROWS_PER_REGION, IndexWriteObserver.getWriteCount("a"));
+        assertEquals(ROWS_PER_REGION, IndexWriteObserver.getWriteCount("b"));
+        assertEquals(0, IndexWriteObserver.getWriteCount("c"));
+        // The region after the failed one may or may not have been rebuilt before the failure
+        int firstWriteCountD = IndexWriteObserver.getWriteCount("d");
+        IndexRebuildCheckpoint checkpoint = IndexRebuildCheckpoint.fromBytes(
+            getCheckpoint(catalog, indexKey));
+        assertNotNull(checkpoint.getRebuildTime(ByteUtil.EMPTY_BYTE_ARRAY, Bytes.toBytes("c")));
+        assertNull(checkpoint.getRebuildTime(Bytes.toBytes("c"), Bytes.toBytes("d")));
+
+        IndexWriteObserver.writeCounts.clear();
+        IndexWriteObserver.failPrefix = null;
+        long startTime = System.currentTimeMillis();
+        task.run();
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        assertIndexState(conn, PIndexState.ACTIVE);
+        // Only the regions not rebuilt before the failure are rebuilt again
+        assertEquals(0, IndexWriteObserver.getWriteCount("a"));
+        assertEquals(0, IndexWriteObserver.getWriteCount("b"));
+        assertEquals(ROWS_PER_REGION, IndexWriteObserver.getWriteCount("c"));
+        assertEquals(ROWS_PER_REGION, firstWriteCountD + IndexWriteObserver.getWriteCount("d"));
+        int rowCount = IndexWriteObserver.getWriteCount("c") + IndexWriteObserver.getWriteCount("d");
+        assertTrue("Rebuild of " + rowCount + " rows took " + elapsedTime + " ms",
+            elapsedTime >= rowCount * 1000 / MAX_ROWS_PER_SEC);
+        assertNull(getCheckpoint(catalog, indexKey));
+
+        ResultSet rs = conn.createStatement().executeQuery("SELECT COUNT(*) FROM " + INDEX_TABLE_NAME);
+        assertTrue(rs.next());
+        assertEquals(REGION_PREFIXES.length * ROWS_PER_REGION, rs.getInt(1));
+        catalog.close();
+        conn.close();
+    }
+
+    @Test
+    public void testThrottleWhileRebuilding() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl(), PropertiesUtil.deepCopy(TEST_PROPERTIES));
+        conn.createStatement().execute("CREATE TABLE " + SALTED_DATA_TABLE_NAME
+                + " (k VARCHAR NOT NULL PRIMARY KEY, v VARCHAR) SALT_BUCKETS = 4");
+        conn.createStatement().execute("CREATE INDEX " + SALTED_INDEX_TABLE_NAME + " ON " + SALTED_DATA_TABLE_NAME + " (v)");
+        conn.createStatement().execute("ALTER INDEX " + SALTED_INDEX_TABLE_NAME + " ON " + SALTED_DATA_TABLE_NAME + " DISABLE");
+        byte[] indexKey = SchemaUtil.getTableKey(ByteUtil.EMPTY_BYTE_ARRAY, ByteUtil.EMPTY_BYTE_ARRAY,
+            Bytes.toBytes(SALTED_INDEX_TABLE_NAME));
+        HTableInterface catalog = conn.unwrap(PhoenixConnection.class).getQueryServices().getTable(
+            PhoenixDatabaseMetaData.SYSTEM_CATALOG_NAME_BYTES);
+        Put put = new Put(indexKey);
+        put.add(PhoenixDatabaseMetaData.TABLE_FAMILY_BYTES, PhoenixDatabaseMetaData.INDEX_DISABLE_TIMESTAMP_BYTES,
+            PLong.INSTANCE.toBytes(System.currentTimeMillis()));
+        catalog.put(put);
+
+        int rowCount = REGION_PREFIXES.length * ROWS_PER_REGION;
+        PreparedStatement stmt = conn.prepareStatement("UPSERT INTO " + SALTED_DATA_TABLE_NAME + " VALUES(?, ?)");
+        for (int i = 0; i < rowCount; i++) {
+            stmt.setString(1, "k" + i);
+            stmt.setString(2, "v" + i);
+            stmt.execute();
+        }
+        conn.commit();
+
+        // The rows of a salted table are rebuilt as a single range, which must still be paced
+        // while it is built rather than once it is done
+        new BuildIndexScheduleTask(getCatalogEnvironment()).run();
+        assertIndexState(conn, SALTED_INDEX_TABLE_NAME, PIndexState.ACTIVE);
+        long writeTime = IndexWriteObserver.lastSaltedWriteTime - IndexWriteObserver.firstSaltedWriteTime;
+        assertTrue("Rows of the index written within " + writeTime + " ms",
+            writeTime >= rowCount * 1000 / MAX_ROWS_PER_SEC / 2);
+
+        ResultSet rs = conn.createStatement().executeQuery("SELECT COUNT(*) FROM " + SALTED_INDEX_TABLE_NAME);
+        assertTrue(rs.next());
+        assertEquals(rowCount, rs.getInt(1));
+        catalog.close();
+        conn.close();
+    }
+
+    private RegionCoprocessorEnvironment getCatalogEnvironment() {
+        HRegion region = getUtility().getHBaseCluster().getRegions(
+            TableName.valueOf(PhoenixDatabaseMetaData.SYSTEM_CATALOG_NAME_BYTES)).get(0);
+        return (RegionCoprocessorEnvironment)region.getCoprocessorHost().findCoprocessorEnvironment(
+            MetaDataRegionObserver.class.getName());
+    }
+
+    private static byte[] getCheckpoint(HTableInterface catalog, byte[] indexKey) throws IOException {
+        Get get = new Get(indexKey);
+        get.addColumn(PhoenixDatabaseMetaData.TABLE_FAMILY_BYTES, PhoenixDatabaseMetaData.INDEX_REBUILD_CHECKPOINT_BYTES);
+        return catalog.get(get).getValue(PhoenixDatabaseMetaData.TABLE_FAMILY_BYTES,
+            PhoenixDatabaseMetaData.INDEX_REBUILD_CHECKPOINT_BYTES);
+    }
+
+    private static void assertIndexState(Connection conn, PIndexState state) throws Exception {
+        assertIndexState(conn, INDEX_TABLE_NAME, state);
+    }
+
+    private static void assertIndexState(Connection conn, String indexTableName, PIndexState state) throws Exception {
+        ResultSet rs = conn.getMetaData().getTables(null, null, indexTableName,
+            new String[] {PTableType.INDEX.toString()});
+        assertTrue(rs.next());
+        assertEquals(state.toString(), rs.getString("INDEX_STATE"));
+    }
+}
@@ -124,6 +124,49 @@ public class CsvBulkLoadToolIT {
         stmt.close();
     }
 
+    @Test
+    public void testLocalImportWithManyFlushes() throws Exception {
+
+        Statement stmt = conn.createStatement();
+        stmt.execute("CREATE TABLE TABLE_LOCAL (ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR)");
+
+        FileSystem fs = FileSystem.get(hbaseTestUtil.getConfiguration());
+        FSDataOutputStream outputStream = fs.create(new Path("/tmp/input_local.csv"));
+        PrintWriter printWriter = new PrintWriter(outputStream);
+        for (int i = 0; i < 100; i++) {
+            printWriter.println(i + ",Name " + i);
+        }
+        // A record with the same key as one read by another worker
+        printWriter.println("0,Name 0");
+        printWriter.close();
+
+        CsvBulkLoadTool csvBulkLoadTool = new CsvBulkLoadTool();
+        csvBulkLoadTool.setConf(new Configuration(hbaseTestUtil.getConfiguration()));
+        // Every record is flushed on its own, into many more HFiles than the bulk load accepts
+        // for a region and family, unless they are merged
+        csvBulkLoadTool.getConf().setInt(LocalCsvBulkLoader.THREADS_CONFKEY, 2);
+        csvBulkLoadTool.getConf().setInt(LocalCsvBulkLoader.BATCH_SIZE_CONFKEY, 1);
+        csvBulkLoadTool.getConf().setLong(LocalCsvBulkLoader.FLUSH_SIZE_CONFKEY, 1);
+        int exitCode = csvBulkLoadTool.run(new String[] {
+                "--input", "/tmp/input_local.csv",
+                "--table", "table_local",
+                "--zookeeper", zkQuorum,
+                "--direct-encoding",
+                "--local"});
+        assertEquals(0, exitCode);
+
+        ResultSet rs = stmt.executeQuery("SELECT id, name FROM table_local ORDER BY id");
+        for (int i = 0; i < 100; i++) {
+            assertTrue(rs.next());
+            assertEquals(i, rs.getInt(1));
+            assertEquals("Name " + i, rs.getString(2));
+        }
+        assertFalse(rs.next());
+
+        rs.close();
+        stmt.close();
+    }
+
     @Test
     public void testFullOptionImport() throws Exception {
 
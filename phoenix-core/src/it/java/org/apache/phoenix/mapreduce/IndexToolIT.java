@@ -21,6 +21,7 @@ import static org.apache.phoenix.query.BaseTest.setUpConfigForMiniCluster;
 import static org.apache.phoenix.util.TestUtil.TEST_PROPERTIES;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.sql.Connection;
@@ -242,6 +243,141 @@ public class IndexToolIT {
         }
     }
     
+    @Test
+    public void testDirectMutableGlobalIndex() throws Exception {
+        
+        final String dataTable = "DATA_TABLE6";
+        final String indxTable = String.format("%s_%s",dataTable,"INDX");
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        Connection conn = DriverManager.getConnection(PhoenixRuntime.JDBC_PROTOCOL + PhoenixRuntime.JDBC_PROTOCOL_SEPARATOR + zkQuorum,props);
+        Statement stmt = conn.createStatement();
+        try {
+        
+            stmt.execute(String.format("CREATE TABLE %s (ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR, ZIP INTEGER)",dataTable));
+            String upsertQuery = String.format("UPSERT INTO %s VALUES(?, ?, ?)",dataTable);
+            PreparedStatement stmt1 = conn.prepareStatement(upsertQuery);
+            
+            // insert three rows
+            upsertRow(stmt1, 1);
+            upsertRow(stmt1, 2);
+            upsertRow(stmt1, 3);
+            conn.commit();
+            
+            stmt.execute(String.format("CREATE INDEX %s ON %s (UPPER(NAME)) INCLUDE (ZIP) ASYNC ", indxTable,dataTable));
+            
+            //run the index MR job in direct mode.
+            final IndexTool indexingTool = new IndexTool();
+            indexingTool.setConf(new Configuration(hbaseTestUtil.getConfiguration()));
+            int status = indexingTool.run(getArgValues(dataTable, indxTable, "-direct"));
+            assertEquals(0, status);
+            
+            String selectSql = String.format("SELECT UPPER(NAME),ID,ZIP FROM %s",dataTable);
+            ResultSet rs = conn.createStatement().executeQuery("EXPLAIN " + selectSql);
+            assertEquals(String.format("CLIENT 1-CHUNK PARALLEL 1-WAY FULL SCAN OVER %s",indxTable),QueryUtil.getExplainPlan(rs));
+            assertIndexRows(stmt.executeQuery(selectSql), 1, 2, 3);
+            
+            // make changes the index does not see, and rebuild incrementally from before them
+            stmt.execute(String.format("ALTER INDEX %s ON %s DISABLE", indxTable, dataTable));
+            Thread.sleep(10);
+            final long startTime = System.currentTimeMillis();
+            Thread.sleep(10);
+            stmt1.setInt(1, 1);
+            stmt1.setString(2, "uname10");
+            stmt1.setInt(3, 95060);
+            stmt1.executeUpdate();
+            upsertRow(stmt1, 4);
+            stmt.execute(String.format("DELETE FROM %s WHERE ID = 2", dataTable));
+            conn.commit();
+            Thread.sleep(10);
+            
+            status = indexingTool.run(getArgValues(dataTable, indxTable, "-direct", "-st", Long.toString(startTime)));
+            assertEquals(0, status);
+            
+            rs = conn.createStatement().executeQuery("EXPLAIN " + selectSql);
+            assertEquals(String.format("CLIENT 1-CHUNK PARALLEL 1-WAY FULL SCAN OVER %s",indxTable),QueryUtil.getExplainPlan(rs));
+            rs = stmt.executeQuery(selectSql);
+            assertTrue(rs.next());
+            assertEquals("UNAME10", rs.getString(1));
+            assertEquals(1, rs.getInt(2));
+            assertEquals(95060, rs.getInt(3));
+            assertIndexRows(rs, 3, 4);
+            
+            conn.createStatement().execute(String.format("DROP INDEX  %s ON %s",indxTable , dataTable));
+        } finally {
+            conn.close();
+        }
+    }
+    
+    @Test
+    public void testDirectIncrementalRebuildOfFlushedDeletes() throws Exception {
+        
+        final String dataTable = "DATA_TABLE7";
+        final String indxTable = String.format("%s_%s",dataTable,"INDX");
+        Properties props = PropertiesUtil.deepCopy(TEST_PROPERTIES);
+        Connection conn = DriverManager.getConnection(PhoenixRuntime.JDBC_PROTOCOL + PhoenixRuntime.JDBC_PROTOCOL_SEPARATOR + zkQuorum,props);
+        Statement stmt = conn.createStatement();
+        try {
+        
+            stmt.execute(String.format("CREATE TABLE %s (ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR, ZIP INTEGER)",dataTable));
+            String upsertQuery = String.format("UPSERT INTO %s VALUES(?, ?, ?)",dataTable);
+            PreparedStatement stmt1 = conn.prepareStatement(upsertQuery);
+            upsertRow(stmt1, 1);
+            upsertRow(stmt1, 2);
+            upsertRow(stmt1, 3);
+            conn.commit();
+            
+            stmt.execute(String.format("CREATE INDEX %s ON %s (NAME) INCLUDE (ZIP) ASYNC ", indxTable,dataTable));
+            final IndexTool indexingTool = new IndexTool();
+            indexingTool.setConf(new Configuration(hbaseTestUtil.getConfiguration()));
+            int status = indexingTool.run(getArgValues(dataTable, indxTable, "-direct"));
+            assertEquals(0, status);
+            
+            // delete a row and null the indexed column of another after the start time, and flush
+            // the delete markers to a store file of their own
+            stmt.execute(String.format("ALTER INDEX %s ON %s DISABLE", indxTable, dataTable));
+            hbaseTestUtil.getHBaseAdmin().flush(dataTable);
+            Thread.sleep(10);
+            final long startTime = System.currentTimeMillis();
+            Thread.sleep(10);
+            stmt.execute(String.format("DELETE FROM %s WHERE ID = 2", dataTable));
+            stmt.execute(String.format("UPSERT INTO %s (ID, NAME) VALUES(3, NULL)", dataTable));
+            conn.commit();
+            hbaseTestUtil.getHBaseAdmin().flush(dataTable);
+            Thread.sleep(10);
+            
+            status = indexingTool.run(getArgValues(dataTable, indxTable, "-direct", "-st", Long.toString(startTime)));
+            assertEquals(0, status);
+            
+            // the index rows of the old states of both rows are gone
+            String selectSql = String.format("SELECT NAME,ID,ZIP FROM %s",dataTable);
+            ResultSet rs = conn.createStatement().executeQuery("EXPLAIN " + selectSql);
+            assertEquals(String.format("CLIENT 1-CHUNK PARALLEL 1-WAY FULL SCAN OVER %s",indxTable),QueryUtil.getExplainPlan(rs));
+            rs = stmt.executeQuery(selectSql);
+            assertTrue(rs.next());
+            assertNull(rs.getString(1));
+            assertEquals(3, rs.getInt(2));
+            assertEquals(95053, rs.getInt(3));
+            assertTrue(rs.next());
+            assertEquals("uname1", rs.getString(1));
+            assertEquals(1, rs.getInt(2));
+            assertFalse(rs.next());
+            
+            conn.createStatement().execute(String.format("DROP INDEX  %s ON %s",indxTable , dataTable));
+        } finally {
+            conn.close();
+        }
+    }
+    
+    private void assertIndexRows(ResultSet rs, int... ids) throws SQLException {
+        for (int id : ids) {
+            assertTrue(rs.next());
+            assertEquals("UNAME" + id, rs.getString(1));
+            assertEquals(id, rs.getInt(2));
+            assertEquals(95050 + id, rs.getInt(3));
+        }
+        assertFalse(rs.next());
+    }
+    
     private void assertExplainPlan(final String actualExplainPlan, String dataTable,
             String indxTable, boolean isLocal) {
         
@@ -258,8 +394,8 @@ public class IndexToolIT {
         assertEquals(expectedExplainPlan,actualExplainPlan);
     }
 
-    private String[] getArgValues(String dataTable, String indxTable) {
-        final List<String> args = Lists.newArrayList();
+    private String[] getArgValues(String dataTable, String indxTable, String... extraArgs) {
+        final List<String> args = Lists.newArrayList(extraArgs);
         args.add("-dt");
         args.add(dataTable);
         args.add("-it");
@@ -75,6 +75,7 @@ tokens
     ADD='add';
     SPLIT='split';
     EXPLAIN='explain';
+    ANALYZE='analyze';
     VIEW='view';
     IF='if';
     CONSTRAINT='constraint';
@@ -378,7 +379,7 @@ oneStatement returns [BindableStatement ret]
 finally{ contextStack.pop(); }
     
 explain_node returns [BindableStatement ret]
-    :   EXPLAIN q=oneStatement {$ret=factory.explain(q);}
+    :   EXPLAIN (a=ANALYZE)? q=oneStatement {$ret=factory.explain(q, a!=null);}
     ;
 
 // Parse a create table statement.
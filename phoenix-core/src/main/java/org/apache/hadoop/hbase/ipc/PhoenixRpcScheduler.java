@@ -18,16 +18,34 @@
 package org.apache.hadoop.hbase.ipc;
 
 import java.io.IOException;
+import java.util.Map;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ScanRequest;
+import org.apache.hadoop.hbase.protobuf.generated.HBaseProtos.NameBytesPair;
+import org.apache.phoenix.coprocessor.BaseScannerRegionObserver;
+import org.apache.phoenix.query.QueryClass;
 import org.apache.phoenix.query.QueryServices;
 import org.apache.phoenix.query.QueryServicesOptions;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
 
 /**
  * {@link RpcScheduler} that first checks to see if this is an index or metedata update before passing off the
  * call to the delegate {@link RpcScheduler}.
+ * <p>
+ * When query class scheduling is enabled, the scans of Phoenix queries are also served from a
+ * handler pool per {@link QueryClass}, so that the scans of long running queries cannot hold all
+ * the handlers needed by point lookups. The handlers are shared between the pools by the weight of
+ * each query class. The {@link QueryClass} is read from the attribute that the client sets on the
+ * scan, which only the call opening a scanner carries. When the clients set
+ * {@link QueryServices#QUERY_CLASS_SMALL_SCANS_ENABLED_ATTRIB}, they make the scans of point
+ * lookups and short scans small scans where they can, so that each of their calls carries the
+ * scan. The following calls of any other scanner only carry the scanner id, and are served from
+ * the pool of long scans: they either continue a long scan, or read the rows that an aggregation
+ * or a server side ORDER BY computed when the scanner was opened.
  */
 public class PhoenixRpcScheduler extends RpcScheduler {
 
@@ -41,6 +59,8 @@ public class PhoenixRpcScheduler extends RpcScheduler {
     private int metadataPriority;
     private RpcExecutor indexCallExecutor;
     private RpcExecutor metadataCallExecutor;
+    // Null when query class scheduling is disabled
+    private Map<QueryClass, RpcExecutor> queryClassExecutors;
     private int port;
 
     public PhoenixRpcScheduler(Configuration conf, RpcScheduler delegate, int indexPriority, int metadataPriority) {
@@ -58,6 +78,52 @@ public class PhoenixRpcScheduler extends RpcScheduler {
         this.delegate = delegate;
         this.indexCallExecutor = new BalancedQueueRpcExecutor("Index", indexHandlerCount, numIndexQueues, maxIndexQueueLength);
         this.metadataCallExecutor = new BalancedQueueRpcExecutor("Metadata", metadataHandlerCount, numMetadataQueues, maxMetadataQueueLength);
+        if (conf.getBoolean(QueryServices.QUERY_CLASS_SCHEDULING_ENABLED_ATTRIB, QueryServicesOptions.DEFAULT_QUERY_CLASS_SCHEDULING_ENABLED)) {
+            this.queryClassExecutors = createQueryClassExecutors(conf, callQueuesHandlersFactor);
+        }
+    }
+
+    private static Map<QueryClass, RpcExecutor> createQueryClassExecutors(Configuration conf, float callQueuesHandlersFactor) {
+        int handlerCount = conf.getInt(QueryServices.QUERY_CLASS_HANDLER_COUNT_ATTRIB, QueryServicesOptions.DEFAULT_QUERY_CLASS_HANDLER_COUNT);
+        Map<QueryClass, Integer> weights = Maps.newEnumMap(QueryClass.class);
+        weights.put(QueryClass.POINT_LOOKUP, conf.getInt(QueryServices.POINT_LOOKUP_HANDLER_WEIGHT_ATTRIB, QueryServicesOptions.DEFAULT_POINT_LOOKUP_HANDLER_WEIGHT));
+        weights.put(QueryClass.SHORT_SCAN, conf.getInt(QueryServices.SHORT_SCAN_HANDLER_WEIGHT_ATTRIB, QueryServicesOptions.DEFAULT_SHORT_SCAN_HANDLER_WEIGHT));
+        weights.put(QueryClass.LONG_SCAN, conf.getInt(QueryServices.LONG_SCAN_HANDLER_WEIGHT_ATTRIB, QueryServicesOptions.DEFAULT_LONG_SCAN_HANDLER_WEIGHT));
+        int totalWeight = 0;
+        for (int weight : weights.values()) {
+            totalWeight += Math.max(1, weight);
+        }
+        Map<QueryClass, RpcExecutor> executors = Maps.newEnumMap(QueryClass.class);
+        for (Map.Entry<QueryClass, Integer> entry : weights.entrySet()) {
+            // Every query class gets at least one handler, so that none of them may starve
+            int classHandlerCount = Math.max(1, Math.round((float)handlerCount * Math.max(1, entry.getValue()) / totalWeight));
+            int maxQueueLength = conf.getInt(CALLQUEUE_LENGTH_CONF_KEY, classHandlerCount*DEFAULT_MAX_CALLQUEUE_LENGTH_PER_HANDLER);
+            int numQueues = Math.max(1, Math.round(classHandlerCount * callQueuesHandlersFactor));
+            executors.put(entry.getKey(), new BalancedQueueRpcExecutor(entry.getKey().name(), classHandlerCount, numQueues, maxQueueLength));
+        }
+        return executors;
+    }
+
+    /**
+     * @return the {@link QueryClass} of the call, or null if the call is not the scan of a
+     *         Phoenix query
+     */
+    private static QueryClass getQueryClass(RpcServer.Call call) {
+        if (!(call.param instanceof ScanRequest)) {
+            return null;
+        }
+        ScanRequest request = (ScanRequest)call.param;
+        if (!request.hasScan()) {
+            // Closing a scanner is cheap, and is left to the default handlers. A small scan opens
+            // and closes its scanner in each call, so it always carries the scan
+            return request.getCloseScanner() ? null : QueryClass.LONG_SCAN;
+        }
+        for (NameBytesPair attribute : request.getScan().getAttributeList()) {
+            if (BaseScannerRegionObserver.QUERY_CLASS.equals(attribute.getName())) {
+                return QueryClass.fromSerializedValue(attribute.getValue().toByteArray());
+            }
+        }
+        return null;
     }
 
     @Override
@@ -71,6 +137,11 @@ public class PhoenixRpcScheduler extends RpcScheduler {
         delegate.start();
         indexCallExecutor.start(port);
         metadataCallExecutor.start(port);
+        if (queryClassExecutors != null) {
+            for (RpcExecutor executor : queryClassExecutors.values()) {
+                executor.start(port);
+            }
+        }
     }
 
     @Override
@@ -78,6 +149,11 @@ public class PhoenixRpcScheduler extends RpcScheduler {
         delegate.stop();
         indexCallExecutor.stop();
         metadataCallExecutor.stop();
+        if (queryClassExecutors != null) {
+            for (RpcExecutor executor : queryClassExecutors.values()) {
+                executor.stop();
+            }
+        }
     }
 
     @Override
@@ -88,6 +164,14 @@ public class PhoenixRpcScheduler extends RpcScheduler {
             indexCallExecutor.dispatch(callTask);
         } else if (metadataPriority == priority) {
             metadataCallExecutor.dispatch(callTask);
+        } else if (queryClassExecutors != null && priority <= HConstants.QOS_THRESHOLD) {
+            // Calls of a high priority, such as to the meta table, are left to the delegate
+            QueryClass queryClass = getQueryClass(call);
+            if (queryClass != null) {
+                queryClassExecutors.get(queryClass).dispatch(callTask);
+            } else {
+                delegate.dispatch(callTask);
+            }
         } else {
             delegate.dispatch(callTask);
         }
@@ -97,7 +181,13 @@ public class PhoenixRpcScheduler extends RpcScheduler {
     public int getGeneralQueueLength() {
         // not the best way to calculate, but don't have a better way to hook
         // into metrics at the moment
-        return this.delegate.getGeneralQueueLength() + this.indexCallExecutor.getQueueLength() + this.metadataCallExecutor.getQueueLength();
+        int queueLength = this.delegate.getGeneralQueueLength() + this.indexCallExecutor.getQueueLength() + this.metadataCallExecutor.getQueueLength();
+        if (queryClassExecutors != null) {
+            for (RpcExecutor executor : queryClassExecutors.values()) {
+                queueLength += executor.getQueueLength();
+            }
+        }
+        return queueLength;
     }
 
     @Override
@@ -112,7 +202,13 @@ public class PhoenixRpcScheduler extends RpcScheduler {
 
     @Override
     public int getActiveRpcHandlerCount() {
-        return this.delegate.getActiveRpcHandlerCount() + this.indexCallExecutor.getActiveHandlerCount() + this.metadataCallExecutor.getActiveHandlerCount();
+        int handlerCount = this.delegate.getActiveRpcHandlerCount() + this.indexCallExecutor.getActiveHandlerCount() + this.metadataCallExecutor.getActiveHandlerCount();
+        if (queryClassExecutors != null) {
+            for (RpcExecutor executor : queryClassExecutors.values()) {
+                handlerCount += executor.getActiveHandlerCount();
+            }
+        }
+        return handlerCount;
     }
 
     @VisibleForTesting
@@ -124,6 +220,11 @@ public class PhoenixRpcScheduler extends RpcScheduler {
     public void setMetadataExecutorForTesting(RpcExecutor executor) {
         this.metadataCallExecutor = executor;
     }
+
+    @VisibleForTesting
+    public void setQueryClassExecutorForTesting(QueryClass queryClass, RpcExecutor executor) {
+        this.queryClassExecutors.put(queryClass, executor);
+    }
     
     
 }
@@ -41,17 +41,31 @@ import org.apache.phoenix.hbase.index.wal.KeyValueCodec;
  * Currently, we don't support reading older WAL files - only new WAL files. Therefore, this should
  * not be installed on a running cluster, but rather one that has been cleanly shutdown and requires
  * no WAL replay on startup.
+ * <p>
+ * When {@link #COMPACT_INDEX_EDITS_CONF_KEY} is set, the {@link IndexedKeyValue}s are written in
+ * their compact form, which with WAL compression also refers to the index table names, families
+ * and qualifiers through the WAL dictionaries. Entries written in either form can always be read,
+ * but WALs with compact entries cannot be read by versions that do not know about them, so it
+ * should only be set once all the servers have been upgraded.
  */
 public class IndexedWALEditCodec extends WALCellCodec {
 
   // can't have negative values because reading off a stream returns a negative if its the end of
   // the stream
   private static final int REGULAR_KEY_VALUE_MARKER = 0;
+  private static final int COMPACT_INDEX_KEY_VALUE_MARKER = 1;
+
+  /** Configuration key for writing the {@link IndexedKeyValue}s in their compact form */
+  public static final String COMPACT_INDEX_EDITS_CONF_KEY = "index.wal.compact.edits";
+  public static final boolean DEFAULT_COMPACT_INDEX_EDITS = false;
+
   private CompressionContext compression;
+  private boolean compactIndexEdits;
 
   public IndexedWALEditCodec(Configuration conf, CompressionContext compression) {
       super(conf, compression);
       this.compression = compression;
+      this.compactIndexEdits = conf.getBoolean(COMPACT_INDEX_EDITS_CONF_KEY, DEFAULT_COMPACT_INDEX_EDITS);
   }
 
   @Override
@@ -71,12 +85,12 @@ public class IndexedWALEditCodec extends WALCellCodec {
   public Encoder getEncoder(OutputStream os) {
     // compression isn't on, do the default thing
     if (this.compression == null) {
-      return new IndexKeyValueEncoder(os);
+      return new IndexKeyValueEncoder(os, compactIndexEdits);
     }
 
     // compression is on, return our one that will handle putting in the correct markers
     Encoder encoder = super.getEncoder(os);
-    return new CompressedIndexKeyValueEncoder(os, encoder);
+    return new CompressedIndexKeyValueEncoder(os, encoder, compactIndexEdits ? compression : null);
   }
 
   /**
@@ -132,6 +146,14 @@ public class IndexedWALEditCodec extends WALCellCodec {
         return this.decoder.current();
       }
 
+      // its a compact indexedKeyValue, referring to the same dictionaries as the generic KeyValues
+      if (marker == COMPACT_INDEX_KEY_VALUE_MARKER) {
+        IndexedKeyValue kv = new IndexedKeyValue();
+        kv.readCompactFields((DataInput) this.in, compression.tableDict, compression.familyDict,
+          compression.qualifierDict);
+        return kv;
+      }
+
       // its an indexedKeyValue, so parse it out specially
       return KeyValueCodec.readKeyValue((DataInput) this.in);
     }
@@ -142,8 +164,11 @@ public class IndexedWALEditCodec extends WALCellCodec {
    * compression.
    */
   private static class IndexKeyValueEncoder extends BaseEncoder {
-    public IndexKeyValueEncoder(OutputStream os) {
+    private final boolean compact;
+
+    public IndexKeyValueEncoder(OutputStream os, boolean compact) {
       super(os);
+      this.compact = compact;
     }
 
     @Override
@@ -157,7 +182,11 @@ public class IndexedWALEditCodec extends WALCellCodec {
       checkFlushed();
 
       // use the standard encoding mechanism
-      KeyValueCodec.write((DataOutput) this.out, KeyValueUtil.ensureKeyValue(cell));
+      if (compact) {
+        KeyValueCodec.writeCompact((DataOutput) this.out, KeyValueUtil.ensureKeyValue(cell));
+      } else {
+        KeyValueCodec.write((DataOutput) this.out, KeyValueUtil.ensureKeyValue(cell));
+      }
     }
   }
 
@@ -168,10 +197,14 @@ public class IndexedWALEditCodec extends WALCellCodec {
    */
   private static class CompressedIndexKeyValueEncoder extends BaseEncoder {
     private Encoder compressedKvEncoder;
+    // dictionaries for the compact IndexedKeyValues, null to write them in the original form
+    private CompressionContext compactCompression;
 
-    public CompressedIndexKeyValueEncoder(OutputStream os, Encoder compressedKvEncoder) {
+    public CompressedIndexKeyValueEncoder(OutputStream os, Encoder compressedKvEncoder,
+        CompressionContext compactCompression) {
       super(os);
       this.compressedKvEncoder = compressedKvEncoder;
+      this.compactCompression = compactCompression;
     }
 
     @Override
@@ -188,7 +221,8 @@ public class IndexedWALEditCodec extends WALCellCodec {
       //write the special marker so we can figure out which kind of kv is it
       int marker = IndexedWALEditCodec.REGULAR_KEY_VALUE_MARKER;
       if (cell instanceof IndexedKeyValue) {
-        marker = KeyValueCodec.INDEX_TYPE_LENGTH_MARKER;
+        marker = compactCompression != null ? IndexedWALEditCodec.COMPACT_INDEX_KEY_VALUE_MARKER
+            : KeyValueCodec.INDEX_TYPE_LENGTH_MARKER;
       }
       out.write(marker);
       
@@ -196,6 +230,10 @@ public class IndexedWALEditCodec extends WALCellCodec {
       if (marker == IndexedWALEditCodec.REGULAR_KEY_VALUE_MARKER) {
         this.compressedKvEncoder.write(cell);
       }
+      else if (marker == IndexedWALEditCodec.COMPACT_INDEX_KEY_VALUE_MARKER) {
+        ((IndexedKeyValue) cell).writeCompactData((DataOutput) out, compactCompression.tableDict,
+          compactCompression.familyDict, compactCompression.qualifierDict);
+      }
       else{
         KeyValueCodec.write((DataOutput) out, KeyValueUtil.ensureKeyValue(cell));
       }
@@ -37,6 +37,7 @@ import org.apache.phoenix.expression.Expression;
 import org.apache.phoenix.expression.IsNullExpression;
 import org.apache.phoenix.expression.KeyValueColumnExpression;
 import org.apache.phoenix.expression.LiteralExpression;
+import org.apache.phoenix.expression.PackedKeyValueColumnExpression;
 import org.apache.phoenix.expression.RowKeyColumnExpression;
 import org.apache.phoenix.expression.visitor.StatelessTraverseNoExpressionVisitor;
 import org.apache.phoenix.jdbc.PhoenixConnection;
@@ -302,6 +303,11 @@ public class CreateTableCompiler {
 
         @Override
         public Boolean visit(KeyValueColumnExpression node) {
+            if (node instanceof PackedKeyValueColumnExpression) {
+                // The slot of a packed column is its position
+                this.position = ((PackedKeyValueColumnExpression)node).getSlot();
+                return Boolean.TRUE;
+            }
             try {
                 this.position = table.getColumnFamily(node.getColumnFamily()).getColumn(node.getColumnName()).getPosition();
             } catch (SQLException e) {
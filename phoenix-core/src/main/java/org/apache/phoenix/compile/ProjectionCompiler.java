@@ -42,6 +42,7 @@ import org.apache.phoenix.expression.CoerceExpression;
 import org.apache.phoenix.expression.Expression;
 import org.apache.phoenix.expression.KeyValueColumnExpression;
 import org.apache.phoenix.expression.LiteralExpression;
+import org.apache.phoenix.expression.PackedKeyValueColumnExpression;
 import org.apache.phoenix.expression.aggregator.ClientAggregators;
 import org.apache.phoenix.expression.aggregator.ServerAggregators;
 import org.apache.phoenix.expression.function.ArrayIndexFunction;
@@ -432,7 +433,8 @@ public class ProjectionCompiler {
         int estimatedByteSize = 0;
         for (Map.Entry<byte[],NavigableSet<byte[]>> entry : scan.getFamilyMap().entrySet()) {
             PColumnFamily family = table.getColumnFamily(entry.getKey());
-            if (entry.getValue() == null) {
+            // The packed cell of a family holds the values of all of its columns
+            if (entry.getValue() == null || table.isPackedColumns()) {
                 for (PColumn column : family.getColumns()) {
                     Integer maxLength = column.getMaxLength();
                     int byteSize = column.getDataType().isFixedWidth() ? maxLength == null ? column.getDataType().getByteSize() : maxLength : RowKeySchema.ESTIMATED_VARIABLE_LENGTH_SIZE;
@@ -642,7 +644,9 @@ public class ProjectionCompiler {
                  children.get(0).accept(new KeyValueExpressionVisitor() {
                      @Override
                      public Void visit(KeyValueColumnExpression expression) {
-                         if (expression.getDataType().isArrayType()) {
+                         // The packed KeyValue holds the other columns of the family too, so it
+                         // cannot be replaced by the array element
+                         if (expression.getDataType().isArrayType() && !(expression instanceof PackedKeyValueColumnExpression)) {
                              indexKVs.add(expression);
                          }
                          return null;
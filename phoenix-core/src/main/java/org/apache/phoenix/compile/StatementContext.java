@@ -32,9 +32,14 @@ import org.apache.hadoop.hbase.io.TimeRange;
 import org.apache.hadoop.hbase.util.Pair;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.jdbc.PhoenixStatement;
+import org.apache.phoenix.memory.ChildMemoryManager;
+import org.apache.phoenix.memory.MemoryManager;
+import org.apache.phoenix.monitoring.RequestMetrics;
 import org.apache.phoenix.parse.SelectStatement;
+import org.apache.phoenix.query.ConnectionQueryServices;
 import org.apache.phoenix.query.QueryConstants;
 import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.query.QueryServicesOptions;
 import org.apache.phoenix.schema.MetaDataClient;
 import org.apache.phoenix.schema.PColumn;
 import org.apache.phoenix.schema.PTable;
@@ -70,6 +75,7 @@ public class StatementContext {
     private final ImmutableBytesWritable tempPtr;
     private final PhoenixStatement statement;
     private final Map<PColumn, Integer> dataColumns;
+    private final RequestMetrics requestMetrics;
 
     private long currentTime = QueryConstants.UNSET_TIMESTAMP;
     private ScanRanges scanRanges = ScanRanges.EVERYTHING;
@@ -80,6 +86,7 @@ public class StatementContext {
     private TimeRange scanTimeRange = null;
 
     private Map<SelectStatement, Object> subqueryResults;
+    private MemoryManager memoryManager;
 
     public StatementContext(PhoenixStatement statement) {
         this(statement, new Scan());
@@ -116,6 +123,34 @@ public class StatementContext {
         this.whereConditionColumns = new ArrayList<Pair<byte[],byte[]>>();
         this.dataColumns = this.currentTable == null ? Collections.<PColumn, Integer>emptyMap() : Maps.<PColumn, Integer>newLinkedHashMap();
         this.subqueryResults = Maps.<SelectStatement, Object>newHashMap();
+        RequestMetrics statementMetrics = statement.getRequestMetrics();
+        this.requestMetrics = statementMetrics.isEnabled() ? new RequestMetrics(statementMetrics) : statementMetrics;
+    }
+
+    /**
+     * Get the metrics of the scans compiled with this context. Each plan of a statement,
+     * including those of its subqueries, has its own context, so that EXPLAIN ANALYZE can
+     * attribute them to its steps. All updates are added to the metrics of the statement.
+     * @return the metrics of this context
+     */
+    public RequestMetrics getRequestMetrics() {
+        return requestMetrics;
+    }
+
+    /**
+     * Get the memory manager tracking the client side memory used by this statement. It allows the
+     * statement to use at most {@link QueryServices#MAX_QUERY_MEMORY_PERC_ATTRIB} percent of the
+     * memory of the connection, so that a single runaway query fails instead of blocking all others.
+     * @return the memory manager of this statement
+     */
+    public synchronized MemoryManager getMemoryManager() {
+        if (memoryManager == null) {
+            ConnectionQueryServices services = statement.getConnection().getQueryServices();
+            int maxQueryMemoryPerc = services.getProps().getInt(QueryServices.MAX_QUERY_MEMORY_PERC_ATTRIB,
+                    QueryServicesOptions.DEFAULT_MAX_QUERY_MEMORY_PERC);
+            memoryManager = new ChildMemoryManager(services.getMemoryManager(), maxQueryMemoryPerc);
+        }
+        return memoryManager;
     }
 
     /**
@@ -170,8 +170,8 @@ public class WhereCompiler {
             TableRef tableRef = ref.getTableRef();
             if (tableRef.equals(context.getCurrentTable()) && !SchemaUtil.isPKColumn(ref.getColumn())) {
                 // track the where condition columns. Later we need to ensure the Scan in HRS scans these column CFs
-                context.addWhereCoditionColumn(ref.getColumn().getFamilyName().getBytes(), ref.getColumn().getName()
-                        .getBytes());
+                context.addWhereCoditionColumn(ref.getColumn().getFamilyName().getBytes(),
+                        SchemaUtil.getColumnQualifier(tableRef.getTable(), ref.getColumn()));
             }
             return ref.newColumnExpression(node.isTableNameCaseSensitive(), node.isCaseSensitive());
         }
@@ -194,7 +194,12 @@ public class WhereCompiler {
             // just use that.
             try {
                 if (!SchemaUtil.isPKColumn(ref.getColumn())) {
-                    table.getColumn(ref.getColumn().getName().getString());
+                    // The packed cells of all the column families have the same qualifier
+                    if (table.isPackedColumns() && table.getColumnFamilies().size() > 1) {
+                        disambiguateWithFamily = true;
+                    } else {
+                        table.getColumn(ref.getColumn().getName().getString());
+                    }
                 }
             } catch (AmbiguousColumnException e) {
                 disambiguateWithFamily = true;
@@ -18,6 +18,7 @@
 package org.apache.phoenix.coprocessor;
 
 import java.io.IOException;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Set;
 
@@ -29,28 +30,31 @@ import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.HRegionInfo;
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.KeyValue.Type;
-import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.coprocessor.BaseRegionObserver;
 import org.apache.hadoop.hbase.coprocessor.ObserverContext;
 import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.ipc.PhoenixRpcScheduler;
 import org.apache.hadoop.hbase.regionserver.HRegion;
 import org.apache.hadoop.hbase.regionserver.RegionScanner;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.htrace.Span;
 import org.apache.htrace.Trace;
+import org.apache.phoenix.exception.SQLExceptionCode;
+import org.apache.phoenix.exception.SQLExceptionInfo;
 import org.apache.phoenix.execute.TupleProjector;
 import org.apache.phoenix.expression.Expression;
 import org.apache.phoenix.expression.KeyValueColumnExpression;
 import org.apache.phoenix.hbase.index.covered.update.ColumnReference;
 import org.apache.phoenix.index.IndexMaintainer;
+import org.apache.phoenix.query.QueryClass;
 import org.apache.phoenix.query.QueryConstants;
 import org.apache.phoenix.schema.KeyValueSchema;
 import org.apache.phoenix.schema.StaleRegionBoundaryCacheException;
 import org.apache.phoenix.schema.ValueBitSet;
 import org.apache.phoenix.schema.tuple.MultiKeyValueTuple;
-import org.apache.phoenix.schema.tuple.ResultTuple;
+import org.apache.phoenix.schema.tuple.PositionBasedMultiKeyValueTuple;
 import org.apache.phoenix.schema.tuple.Tuple;
 import org.apache.phoenix.util.IndexUtil;
 import org.apache.phoenix.util.ScanUtil;
@@ -87,11 +91,33 @@ abstract public class BaseScannerRegionObserver extends BaseRegionObserver {
     public static final String ANALYZE_TABLE = "_ANALYZETABLE";
     public static final String GUIDEPOST_WIDTH_BYTES = "_GUIDEPOST_WIDTH_BYTES";
     public static final String GUIDEPOST_PER_REGION = "_GUIDEPOST_PER_REGION";
+    /**
+     * Attribute name used to have the server return the metrics of a scan for EXPLAIN ANALYZE.
+     * See {@link ScanMetricsRegionScanner}.
+     */
+    public static final String SCAN_METRICS = "_ScanMetrics";
     /**
      * Attribute name used to pass custom annotations in Scans and Mutations (later). Custom annotations
      * are used to augment log lines emitted by Phoenix. See https://issues.apache.org/jira/browse/PHOENIX-1198.
      */
     public static final String CUSTOM_ANNOTATIONS = "_Annot"; 
+    /**
+     * Attribute name used to pass the {@link QueryClass} of the query of a scan, from which the
+     * {@link PhoenixRpcScheduler} picks the handler pool serving the scan.
+     */
+    public static final String QUERY_CLASS = "_QueryClass";
+    /**
+     * Attribute name used to pass the time by which the client expects the query of a scan to be
+     * complete. A scan opened after its deadline is rejected, as its results would be discarded.
+     */
+    public static final String DEADLINE = "_Deadline";
+    /**
+     * Attribute names used to have the aggregate region observers return the partial state of an
+     * aggregation once an RPC took the given time or processed the given number of rows, and
+     * continue it on the next call. See {@link ScanBudget}.
+     */
+    public static final String SERVER_PAGE_TIME_MS = "_ServerPageTimeMs";
+    public static final String SERVER_PAGE_ROWS = "_ServerPageRows";
 
     /** Exposed for testing */
     public static final String SCANNER_OPENED_TRACE_INFO = "Scanner opened on server";
@@ -134,6 +160,15 @@ abstract public class BaseScannerRegionObserver extends BaseRegionObserver {
         }
     }
 
+    private static void throwIfDeadlinePassed(Scan scan) throws IOException {
+        byte[] deadline = scan.getAttribute(DEADLINE);
+        if (deadline != null && Bytes.toLong(deadline) < System.currentTimeMillis()) {
+            SQLException e = new SQLExceptionInfo.Builder(SQLExceptionCode.OPERATION_TIMED_OUT)
+                    .setMessage(". Deadline of the query passed before the scan was opened").build().buildException();
+            ServerUtil.throwIOException("Deadline passed", e);
+        }
+    }
+
     abstract protected boolean isRegionObserverFor(Scan scan);
     abstract protected RegionScanner doPostScannerOpen(ObserverContext<RegionCoprocessorEnvironment> c, final Scan scan, final RegionScanner s) throws Throwable;
     
@@ -142,6 +177,7 @@ abstract public class BaseScannerRegionObserver extends BaseRegionObserver {
         final Scan scan, final RegionScanner s) throws IOException {
         if (isRegionObserverFor(scan)) {
             throwIfScanOutOfRegion(scan, c.getEnvironment().getRegion());
+            throwIfDeadlinePassed(scan);
             // Muck with the start/stop row of the scan and set as reversed at the
             // last possible moment. You need to swap the start/stop and make the
             // start exclusive and the stop inclusive.
@@ -173,7 +209,17 @@ abstract public class BaseScannerRegionObserver extends BaseRegionObserver {
             final Span savedSpan = Trace.currentSpan();
             final Span child = Trace.startSpan(SCANNER_OPENED_TRACE_INFO, savedSpan).getSpan();
             try {
-                RegionScanner scanner = doPostScannerOpen(c, scan, s);
+                RegionScanner scanner;
+                if (scan.getAttribute(SCAN_METRICS) != null) {
+                    long startTime = System.currentTimeMillis();
+                    ScanMetricsRegionScanner.RowCountingRegionScanner rowCountingScanner =
+                            new ScanMetricsRegionScanner.RowCountingRegionScanner(s);
+                    scanner = doPostScannerOpen(c, scan, rowCountingScanner);
+                    scanner = new ScanMetricsRegionScanner(scanner, scan, rowCountingScanner,
+                            System.currentTimeMillis() - startTime);
+                } else {
+                    scanner = doPostScannerOpen(c, scan, s);
+                }
                 scanner = new DelegateRegionScanner(scanner) {
                     // This isn't very obvious but close() could be called in a thread
                     // that is different from the thread that created the scanner.
@@ -250,6 +296,8 @@ abstract public class BaseScannerRegionObserver extends BaseRegionObserver {
             final ValueBitSet kvSchemaBitSet, final TupleProjector projector,
             final ImmutableBytesWritable ptr) {
         return new RegionScanner() {
+            // Reused for every row, as neither the projection nor the array functions hang on to it
+            private final MultiKeyValueTuple tuple = new PositionBasedMultiKeyValueTuple();
 
             @Override
             public boolean next(List<Cell> results) throws IOException {
@@ -311,9 +359,10 @@ abstract public class BaseScannerRegionObserver extends BaseRegionObserver {
                             tupleProjector, dataRegion, indexMaintainer, viewConstants, ptr);
                     }
                     if (projector != null) {
-                        Tuple tuple = projector.projectResults(new ResultTuple(Result.create(result)));
+                        tuple.setKeyValues(result);
+                        Tuple projectedTuple = projector.projectResults(tuple);
                         result.clear();
-                        result.add(tuple.getValue(0));
+                        result.add(projectedTuple.getValue(0));
                     }
                     // There is a scanattribute set to retrieve the specific array element
                     return next;
@@ -338,9 +387,10 @@ abstract public class BaseScannerRegionObserver extends BaseRegionObserver {
                             tupleProjector, dataRegion, indexMaintainer, viewConstants, ptr);
                     }
                     if (projector != null) {
-                        Tuple tuple = projector.projectResults(new ResultTuple(Result.create(result)));
+                        tuple.setKeyValues(result);
+                        Tuple projectedTuple = projector.projectResults(tuple);
                         result.clear();
-                        result.add(tuple.getValue(0));
+                        result.add(projectedTuple.getValue(0));
                     }
                     // There is a scanattribute set to retrieve the specific array element
                     return next;
@@ -353,7 +403,7 @@ abstract public class BaseScannerRegionObserver extends BaseRegionObserver {
             private void replaceArrayIndexElement(final Set<KeyValueColumnExpression> arrayKVRefs,
                     final Expression[] arrayFuncRefs, List<Cell> result) {
                 // make a copy of the results array here, as we're modifying it below
-                MultiKeyValueTuple tuple = new MultiKeyValueTuple(ImmutableList.copyOf(result));
+                tuple.setKeyValues(ImmutableList.copyOf(result));
                 // The size of both the arrays would be same?
                 // Using KeyValueSchema to set and retrieve the value
                 // collect the first kv to get the row
@@ -65,6 +65,7 @@ import org.apache.phoenix.memory.MemoryManager.MemoryChunk;
 import org.apache.phoenix.query.QueryConstants;
 import org.apache.phoenix.schema.SortOrder;
 import org.apache.phoenix.schema.tuple.MultiKeyValueTuple;
+import org.apache.phoenix.schema.tuple.PositionBasedMultiKeyValueTuple;
 import org.apache.phoenix.schema.types.PInteger;
 import org.apache.phoenix.util.Closeables;
 import org.apache.phoenix.util.IndexUtil;
@@ -157,11 +158,15 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
         if (limitBytes != null) {
             limit = PInteger.INSTANCE.getCodec().decodeInt(limitBytes, 0, SortOrder.getDefault());
         }
+        ScanBudget budget = new ScanBudget(scan);
         if (keyOrdered) { // Optimize by taking advantage that the rows are
                           // already in the required group by key order
-            return scanOrdered(c, scan, innerScanner, expressions, aggregators, limit);
+            return scanOrdered(c, scan, innerScanner, expressions, aggregators, limit, budget);
+        } else if (budget.isPaged() && limit == Long.MAX_VALUE) {
+            // The groups of different pages may be the same, so the limit cannot be applied
+            return scanUnorderedPaged(c, scan, innerScanner, expressions, aggregators, budget);
         } else { // Otherwse, collect them all up in an in memory map
-            return scanUnordered(c, scan, innerScanner, expressions, aggregators, limit);
+            return scanUnordered(c, scan, innerScanner, expressions, aggregators, limit, budget);
         }
     }
 
@@ -377,20 +382,14 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
      */
     private RegionScanner scanUnordered(ObserverContext<RegionCoprocessorEnvironment> c, Scan scan,
             final RegionScanner scanner, final List<Expression> expressions,
-            final ServerAggregators aggregators, long limit) throws IOException {
+            final ServerAggregators aggregators, long limit, ScanBudget budget) throws IOException {
         if (logger.isDebugEnabled()) {
             logger.debug(LogUtil.addCustomAnnotations("Grouped aggregation over unordered rows with scan " + scan
                     + ", group by " + expressions + ", aggregators " + aggregators, ScanUtil.getCustomAnnotations(scan)));
         }
         RegionCoprocessorEnvironment env = c.getEnvironment();
         Configuration conf = env.getConfiguration();
-        int estDistVals = conf.getInt(GROUPBY_ESTIMATED_DISTINCT_VALUES_ATTRIB, DEFAULT_GROUPBY_ESTIMATED_DISTINCT_VALUES);
-        byte[] estDistValsBytes = scan.getAttribute(BaseScannerRegionObserver.ESTIMATED_DISTINCT_VALUES);
-        if (estDistValsBytes != null) {
-            // Allocate 1.5x estimation
-            estDistVals = Math.max(MIN_DISTINCT_VALUES, 
-                            (int) (Bytes.toInt(estDistValsBytes) * 1.5f));
-        }
+        int estDistVals = getEstimatedDistinctValues(conf, scan);
 
         final boolean spillableEnabled =
                 conf.getBoolean(GROUPBY_SPILLABLE_ATTRIB, DEFAULT_GROUPBY_SPILLABLE);
@@ -403,7 +402,7 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
         try {
             boolean hasMore;
 
-            MultiKeyValueTuple result = new MultiKeyValueTuple();
+            MultiKeyValueTuple result = new PositionBasedMultiKeyValueTuple();
             if (logger.isDebugEnabled()) {
                 logger.debug(LogUtil.addCustomAnnotations("Spillable groupby enabled: " + spillableEnabled, ScanUtil.getCustomAnnotations(scan)));
             }
@@ -421,6 +420,7 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
                         // ones returned
                         hasMore = scanner.nextRaw(results);
                         if (!results.isEmpty()) {
+                            budget.rowProcessed();
                             result.setKeyValues(results);
                             ImmutableBytesWritable key =
                                 TupleUtil.getConcatenatedValue(result, expressions);
@@ -449,6 +449,122 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
         }
     }
 
+    private static int getEstimatedDistinctValues(Configuration conf, Scan scan) {
+        int estDistVals = conf.getInt(GROUPBY_ESTIMATED_DISTINCT_VALUES_ATTRIB, DEFAULT_GROUPBY_ESTIMATED_DISTINCT_VALUES);
+        byte[] estDistValsBytes = scan.getAttribute(BaseScannerRegionObserver.ESTIMATED_DISTINCT_VALUES);
+        if (estDistValsBytes != null) {
+            // Allocate 1.5x estimation
+            estDistVals = Math.max(MIN_DISTINCT_VALUES, 
+                            (int) (Bytes.toInt(estDistValsBytes) * 1.5f));
+        }
+        return estDistVals;
+    }
+
+    /**
+     * Used for an aggregate query in which the key order does not necessarily match the group by
+     * key order when the client asked for paging. The rows of a page are aggregated into a map,
+     * whose groups are returned before the rows of the next page are aggregated into a new map.
+     * The client sorts the groups of each scan and merges those of the same key.
+     */
+    private RegionScanner scanUnorderedPaged(final ObserverContext<RegionCoprocessorEnvironment> c,
+            final Scan scan, final RegionScanner scanner, final List<Expression> expressions,
+            final ServerAggregators aggregators, final ScanBudget budget) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(LogUtil.addCustomAnnotations("Paged grouped aggregation over unordered rows with scan " + scan
+                    + ", group by " + expressions + ", aggregators " + aggregators, ScanUtil.getCustomAnnotations(scan)));
+        }
+        final RegionCoprocessorEnvironment env = c.getEnvironment();
+        final int estDistVals = getEstimatedDistinctValues(env.getConfiguration(), scan);
+        // The scanner of the groups of a page must not close the scanner of the region
+        final RegionScanner pageInnerScanner = new DelegateRegionScanner(scanner) {
+            @Override
+            public void close() throws IOException {
+            }
+        };
+        return new BaseRegionScanner() {
+            private final MultiKeyValueTuple result = new PositionBasedMultiKeyValueTuple();
+            private RegionScanner pageScanner;
+            private boolean hasMore = true;
+
+            @Override
+            public HRegionInfo getRegionInfo() {
+                return scanner.getRegionInfo();
+            }
+
+            @Override
+            public void close() throws IOException {
+                budget.close();
+                try {
+                    if (pageScanner != null) {
+                        pageScanner.close();
+                    }
+                } finally {
+                    scanner.close();
+                }
+            }
+
+            private RegionScanner aggregatePage() throws IOException {
+                GroupByCache groupByCache = GroupByCacheFactory.INSTANCE.newCache(
+                        env, ScanUtil.getTenantId(scan), ScanUtil.getCustomAnnotations(scan),
+                        aggregators, estDistVals);
+                boolean success = false;
+                try {
+                    budget.startPage();
+                    HRegion region = env.getRegion();
+                    region.startRegionOperation();
+                    try {
+                        synchronized (scanner) {
+                            boolean pageFull = false;
+                            do {
+                                List<Cell> kvs = new ArrayList<Cell>();
+                                hasMore = scanner.nextRaw(kvs);
+                                if (!kvs.isEmpty()) {
+                                    budget.rowProcessed();
+                                    result.setKeyValues(kvs);
+                                    ImmutableBytesWritable key =
+                                        TupleUtil.getConcatenatedValue(result, expressions);
+                                    aggregators.aggregate(groupByCache.cache(key), result);
+                                    pageFull = budget.isPageFull();
+                                }
+                            } while (hasMore && !pageFull);
+                        }
+                    } finally {
+                        region.closeRegionOperation();
+                    }
+                    RegionScanner regionScanner = groupByCache.getScanner(pageInnerScanner);
+                    success = true;
+                    return regionScanner;
+                } finally {
+                    if (!success) {
+                        Closeables.closeQuietly(groupByCache);
+                    }
+                }
+            }
+
+            @Override
+            public boolean next(List<Cell> results) throws IOException {
+                if (pageScanner == null) {
+                    if (!hasMore) {
+                        return false;
+                    }
+                    pageScanner = aggregatePage();
+                }
+                boolean pageHasMore = pageScanner.next(results);
+                if (!pageHasMore) {
+                    RegionScanner drainedScanner = pageScanner;
+                    pageScanner = null;
+                    drainedScanner.close();
+                }
+                return pageHasMore || hasMore;
+            }
+
+            @Override
+            public long getMaxResultSize() {
+                return scanner.getMaxResultSize();
+            }
+        };
+    }
+
     /**
      * Used for an aggregate query in which the key order match the group by key order. In this
      * case, we can do the aggregation as we scan, by detecting when the group by key changes.
@@ -457,7 +573,7 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
      */
     private RegionScanner scanOrdered(final ObserverContext<RegionCoprocessorEnvironment> c,
             final Scan scan, final RegionScanner scanner, final List<Expression> expressions,
-            final ServerAggregators aggregators, final long limit) throws IOException {
+            final ServerAggregators aggregators, final long limit, final ScanBudget budget) throws IOException {
 
         if (logger.isDebugEnabled()) {
             logger.debug(LogUtil.addCustomAnnotations("Grouped aggregation over ordered rows with scan " + scan + ", group by "
@@ -466,6 +582,11 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
         return new BaseRegionScanner() {
             private long rowCount = 0;
             private ImmutableBytesWritable currentKey = null;
+            // Whether the aggregators hold the state of rows of the current group, which is not
+            // the case after the partial state of the group was returned at the end of a page
+            private boolean hasState = false;
+            // Reused across groups, as it resolves the columns of the expressions once
+            private final MultiKeyValueTuple result = new PositionBasedMultiKeyValueTuple();
 
             @Override
             public HRegionInfo getRegionInfo() {
@@ -474,6 +595,7 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
 
             @Override
             public void close() throws IOException {
+                budget.close();
                 scanner.close();
             }
 
@@ -482,12 +604,13 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
                 boolean hasMore;
                 boolean atLimit;
                 boolean aggBoundary = false;
-                MultiKeyValueTuple result = new MultiKeyValueTuple();
+                boolean pageFull = false;
                 ImmutableBytesWritable key = null;
                 Aggregator[] rowAggregators = aggregators.getAggregators();
                 // If we're calculating no aggregate functions, we can exit at the
                 // start of a new row. Otherwise, we have to wait until an agg
                 int countOffset = rowAggregators.length == 0 ? 1 : 0;
+                budget.startPage();
                 HRegion region = c.getEnvironment().getRegion();
                 region.startRegionOperation();
                 try {
@@ -501,11 +624,14 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
                             // ones returned
                             hasMore = scanner.nextRaw(kvs);
                             if (!kvs.isEmpty()) {
+                                budget.rowProcessed();
                                 result.setKeyValues(kvs);
                                 key = TupleUtil.getConcatenatedValue(result, expressions);
                                 aggBoundary = currentKey != null && currentKey.compareTo(key) != 0;
                                 if (!aggBoundary) {
                                     aggregators.aggregate(rowAggregators, result);
+                                    hasState = true;
+                                    pageFull = budget.isPageFull();
                                     if (logger.isDebugEnabled()) {
                                         logger.debug(LogUtil.addCustomAnnotations(
                                             "Row passed filters: " + kvs
@@ -519,26 +645,28 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
                             atLimit = rowCount + countOffset >= limit;
                             // Do rowCount + 1 b/c we don't have to wait for a complete
                             // row in the case of a DISTINCT with a LIMIT
-                        } while (hasMore && !aggBoundary && !atLimit);
+                        } while (hasMore && !aggBoundary && !atLimit && !pageFull);
                     }
                 } finally {
                     region.closeRegionOperation();
                 }
 
                 if (currentKey != null) {
-                    byte[] value = aggregators.toBytes(rowAggregators);
-                    KeyValue keyValue =
-                            KeyValueUtil.newKeyValue(currentKey.get(), currentKey.getOffset(),
-                                currentKey.getLength(), SINGLE_COLUMN_FAMILY, SINGLE_COLUMN,
-                                AGG_TIMESTAMP, value, 0, value.length);
-                    results.add(keyValue);
-                    if (logger.isDebugEnabled()) {
-                        logger.debug(LogUtil.addCustomAnnotations("Adding new aggregate row: "
-                                + keyValue
-                                + ",for current key "
-                                + Bytes.toStringBinary(currentKey.get(), currentKey.getOffset(),
-                                    currentKey.getLength()) + ", aggregated values: "
-                                + Arrays.asList(rowAggregators), ScanUtil.getCustomAnnotations(scan)));
+                    if (hasState) {
+                        byte[] value = aggregators.toBytes(rowAggregators);
+                        KeyValue keyValue =
+                                KeyValueUtil.newKeyValue(currentKey.get(), currentKey.getOffset(),
+                                    currentKey.getLength(), SINGLE_COLUMN_FAMILY, SINGLE_COLUMN,
+                                    AGG_TIMESTAMP, value, 0, value.length);
+                        results.add(keyValue);
+                        if (logger.isDebugEnabled()) {
+                            logger.debug(LogUtil.addCustomAnnotations("Adding new aggregate row: "
+                                    + keyValue
+                                    + ",for current key "
+                                    + Bytes.toStringBinary(currentKey.get(), currentKey.getOffset(),
+                                        currentKey.getLength()) + ", aggregated values: "
+                                    + Arrays.asList(rowAggregators), ScanUtil.getCustomAnnotations(scan)));
+                        }
                     }
                     // If we're at an aggregation boundary, reset the
                     // aggregators and
@@ -547,9 +675,15 @@ public class GroupedAggregateRegionObserver extends BaseScannerRegionObserver {
                     if (aggBoundary) {
                         aggregators.reset(rowAggregators);
                         aggregators.aggregate(rowAggregators, result);
+                        hasState = true;
                         currentKey = key;
                         rowCount++;
                         atLimit |= rowCount >= limit;
+                    } else if (pageFull) {
+                        // The partial state of the group was returned, and the rest of its
+                        // rows are aggregated into the next page
+                        aggregators.reset(rowAggregators);
+                        hasState = false;
                     }
                 }
                 // Continue if there are more
@@ -27,6 +27,11 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.TimerTask;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -36,29 +41,47 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CoprocessorEnvironment;
 import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.coprocessor.BaseRegionObserver;
 import org.apache.hadoop.hbase.coprocessor.ObserverContext;
 import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
 import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
 import org.apache.hadoop.hbase.filter.CompareFilter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
 import org.apache.hadoop.hbase.regionserver.RegionScanner;
 import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
 import org.apache.phoenix.cache.GlobalCache;
+import org.apache.phoenix.index.IndexRebuildCheckpoint;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.jdbc.PhoenixDatabaseMetaData;
+import org.apache.phoenix.parse.ParseNodeFactory;
+import org.apache.phoenix.parse.TableName;
 import org.apache.phoenix.query.QueryServices;
 import org.apache.phoenix.query.QueryServicesOptions;
 import org.apache.phoenix.schema.MetaDataClient;
 import org.apache.phoenix.schema.PIndexState;
+import org.apache.phoenix.schema.stats.GuidePostsInfo;
 import org.apache.phoenix.schema.types.PLong;
 import org.apache.phoenix.schema.PTable;
 import org.apache.phoenix.schema.TableRef;
+import org.apache.phoenix.util.EnvironmentEdgeManager;
 import org.apache.phoenix.util.MetaDataUtil;
 import org.apache.phoenix.util.PhoenixRuntime;
 import org.apache.phoenix.util.SchemaUtil;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 
 /**
  * Coprocessor for metadata related operations. This coprocessor would only be registered
@@ -66,6 +89,7 @@ import org.apache.phoenix.util.SchemaUtil;
  */
 public class MetaDataRegionObserver extends BaseRegionObserver {
     public static final Log LOG = LogFactory.getLog(MetaDataRegionObserver.class);
+    private static final ParseNodeFactory FACTORY = new ParseNodeFactory();
     protected ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
     private boolean enableRebuildIndex = QueryServicesOptions.DEFAULT_INDEX_FAILURE_HANDLING_REBUILD;
     private long rebuildIndexTimeInterval = QueryServicesOptions.DEFAULT_INDEX_FAILURE_HANDLING_REBUILD_INTERVAL;
@@ -121,8 +145,10 @@ public class MetaDataRegionObserver extends BaseRegionObserver {
     }
     
     /**
-     * Task runs periodically to build indexes whose INDEX_NEED_PARTIALLY_REBUILD is set true
-     *
+     * Task runs periodically to build indexes whose INDEX_NEED_PARTIALLY_REBUILD is set true.
+     * The rows of the data table are rebuilt region by region, a bounded number of regions at a
+     * time and at a bounded rate, and the progress is checkpointed in the index header row so that
+     * a rebuild which fails may resume where it left off.
      */
     public static class BuildIndexScheduleTask extends TimerTask {
         // inProgress is to prevent timer from invoking a new task while previous one is still
@@ -168,6 +194,8 @@ public class MetaDataRegionObserver extends BaseRegionObserver {
                     PhoenixDatabaseMetaData.INDEX_STATE_BYTES);
                 scan.addColumn(PhoenixDatabaseMetaData.TABLE_FAMILY_BYTES,
                     PhoenixDatabaseMetaData.INDEX_DISABLE_TIMESTAMP_BYTES);
+                scan.addColumn(PhoenixDatabaseMetaData.TABLE_FAMILY_BYTES,
+                    PhoenixDatabaseMetaData.INDEX_REBUILD_CHECKPOINT_BYTES);
 
                 boolean hasMore = false;
                 List<Cell> results = new ArrayList<Cell>();
@@ -231,14 +259,21 @@ public class MetaDataRegionObserver extends BaseRegionObserver {
                         continue;
                     }
 
-                    MetaDataClient client = new MetaDataClient(conn);
                     long overlapTime = env.getConfiguration().getLong(
                         QueryServices.INDEX_FAILURE_HANDLING_REBUILD_OVERLAP_TIME_ATTRIB,
                         QueryServicesOptions.DEFAULT_INDEX_FAILURE_HANDLING_REBUILD_OVERLAP_TIME);
                     long timeStamp = Math.max(0, disabledTimeStampVal - overlapTime);
+                    // The checkpoint is written with the time stamp of the disable time stamp cell so
+                    // that it does not change the time stamp of the index table
+                    long checkpointTimeStamp = r.getColumnLatestCell(PhoenixDatabaseMetaData.TABLE_FAMILY_BYTES,
+                        PhoenixDatabaseMetaData.INDEX_DISABLE_TIMESTAMP_BYTES).getTimestamp();
+                    IndexRebuildCheckpoint checkpoint = IndexRebuildCheckpoint.fromBytes(r.getValue(
+                        PhoenixDatabaseMetaData.TABLE_FAMILY_BYTES, PhoenixDatabaseMetaData.INDEX_REBUILD_CHECKPOINT_BYTES));
 
-                    LOG.info("Starting to build index=" + indexPTable.getName() + " from timestamp=" + timeStamp);
-                    client.buildPartialIndexFromTimeStamp(indexPTable, new TableRef(dataPTable, Long.MAX_VALUE, timeStamp));
+                    LOG.info("Starting to build index=" + indexPTable.getName() + " from timestamp=" + timeStamp
+                            + (checkpoint.isEmpty() ? "" : " resuming from checkpoint=" + checkpoint));
+                    buildIndex(conn, dataPTable, indexPTable, timeStamp, overlapTime,
+                        new CheckpointWriter(r.getRow(), checkpointTimeStamp, checkpoint));
 
                 } while (hasMore);
             } catch (Throwable t) {
@@ -261,5 +296,257 @@ public class MetaDataRegionObserver extends BaseRegionObserver {
                 }
             }
         }
+
+        private static void alterIndexState(MetaDataClient client, PTable dataPTable, PTable indexPTable,
+                PIndexState state) throws SQLException {
+            client.alterIndex(FACTORY.alterIndex(FACTORY.namedTable(null,
+                TableName.create(indexPTable.getSchemaName().getString(), indexPTable.getTableName().getString())),
+                dataPTable.getTableName().getString(), false, state));
+        }
+
+        private void buildIndex(PhoenixConnection conn, final PTable dataPTable, final PTable indexPTable,
+                final long timeStamp, final long overlapTime, final CheckpointWriter checkpoint)
+                throws SQLException, IOException, InterruptedException {
+            MetaDataClient client = new MetaDataClient(conn);
+            // Need to change index state from Disable to InActive when build index partially so that
+            // new changes will be indexed during index rebuilding
+            alterIndexState(client, dataPTable, indexPTable, PIndexState.INACTIVE);
+            boolean needRestoreIndexState = true;
+            int parallelism = env.getConfiguration().getInt(
+                QueryServices.INDEX_FAILURE_HANDLING_REBUILD_PARALLELISM_ATTRIB,
+                QueryServicesOptions.DEFAULT_INDEX_FAILURE_HANDLING_REBUILD_PARALLELISM);
+            final RebuildThrottle throttle = new RebuildThrottle(env.getConfiguration().getLong(
+                QueryServices.INDEX_FAILURE_HANDLING_REBUILD_MAX_ROWS_PER_SEC_ATTRIB,
+                QueryServicesOptions.DEFAULT_INDEX_FAILURE_HANDLING_REBUILD_MAX_ROWS_PER_SEC));
+            List<List<Pair<byte[], byte[]>>> regionRanges = getRegionRanges(conn, dataPTable);
+            ExecutorService buildExecutor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(parallelism, regionRanges.size())),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("index-rebuild-" + indexPTable.getName() + "-%d").build());
+            try {
+                List<Future<Long>> futures = Lists.newArrayListWithExpectedSize(regionRanges.size());
+                for (final List<Pair<byte[], byte[]>> ranges : regionRanges) {
+                    futures.add(buildExecutor.submit(new Callable<Long>() {
+                        @Override
+                        public Long call() throws Exception {
+                            return buildRegion(dataPTable, indexPTable, ranges, timeStamp, overlapTime,
+                                checkpoint, throttle);
+                        }
+                    }));
+                }
+                long rowCount = 0;
+                for (Future<Long> future : futures) {
+                    try {
+                        rowCount += future.get();
+                    } catch (ExecutionException e) {
+                        LOG.warn("Index rebuild failed for index=" + indexPTable.getName()
+                                + ", progress is kept in checkpoint=" + checkpoint.getCheckpoint(), e.getCause());
+                        return;
+                    }
+                }
+                LOG.info("Index=" + indexPTable.getName() + " rebuilt for " + rowCount + " rows");
+                alterIndexState(client, dataPTable, indexPTable, PIndexState.ACTIVE);
+                needRestoreIndexState = false;
+            } finally {
+                buildExecutor.shutdownNow();
+                if (needRestoreIndexState) {
+                    // reset index state to disable
+                    alterIndexState(client, dataPTable, indexPTable, PIndexState.DISABLE);
+                }
+            }
+            checkpoint.delete();
+        }
+
+        /**
+         * Build the index rows for the key ranges of a region of the data table, one after the other,
+         * each being checkpointed once built.
+         */
+        private long buildRegion(PTable dataPTable, PTable indexPTable, List<Pair<byte[], byte[]>> ranges,
+                long timeStamp, long overlapTime, CheckpointWriter checkpoint, RebuildThrottle throttle)
+                throws SQLException, IOException, InterruptedException {
+            PhoenixConnection conn = DriverManager.getConnection(getJdbcUrl()).unwrap(PhoenixConnection.class);
+            try {
+                MetaDataClient client = new MetaDataClient(conn);
+                long rowCount = 0;
+                for (Pair<byte[], byte[]> range : ranges) {
+                    long startTime = EnvironmentEdgeManager.currentTimeMillis();
+                    long lowerBoundTimeStamp = timeStamp;
+                    // The data rows of a range already rebuilt only need to be rebuilt for
+                    // the changes made since then
+                    Long rebuildTime = checkpoint.getCheckpoint().getRebuildTime(range.getFirst(), range.getSecond());
+                    if (rebuildTime != null) {
+                        lowerBoundTimeStamp = Math.max(timeStamp, rebuildTime - overlapTime);
+                    }
+                    TableRef dataTableRef = new TableRef(dataPTable, Long.MAX_VALUE, lowerBoundTimeStamp);
+                    int batchSize = throttle.getBatchSize();
+                    if (batchSize <= 0) {
+                        rowCount += client.buildPartialIndex(indexPTable, dataTableRef, range.getFirst(), range.getSecond());
+                    } else {
+                        // Build the range a few rows at a time, so that the rebuild is paced
+                        // while it runs rather than between ranges
+                        byte[] batchStartKey = range.getFirst();
+                        while (batchStartKey != null) {
+                            long batchStartTime = EnvironmentEdgeManager.currentTimeMillis();
+                            byte[] batchStopKey = getBatchStopKey(conn, dataPTable, batchStartKey,
+                                range.getSecond(), lowerBoundTimeStamp, batchSize);
+                            long rows = client.buildPartialIndex(indexPTable, dataTableRef, batchStartKey,
+                                batchStopKey == null ? range.getSecond() : batchStopKey);
+                            rowCount += rows;
+                            throttle.throttle(batchStartTime, rows);
+                            batchStartKey = batchStopKey;
+                        }
+                    }
+                    checkpoint.add(range.getFirst(), range.getSecond(), startTime);
+                }
+                return rowCount;
+            } finally {
+                conn.close();
+            }
+        }
+
+        /**
+         * @return the key of the data row following the given number of rows changed since the
+         *         time stamp in the key range, or null if the range has no more rows than that
+         */
+        private static byte[] getBatchStopKey(PhoenixConnection conn, PTable dataPTable, byte[] startKey,
+                byte[] stopKey, long timeStamp, int batchSize) throws SQLException, IOException {
+            Scan scan = new Scan(startKey, stopKey);
+            // Every row has a cell in the empty column family, which is all that is needed of it
+            scan.addFamily(SchemaUtil.getEmptyColumnFamily(dataPTable));
+            scan.setFilter(new FilterList(new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+            scan.setTimeRange(timeStamp, HConstants.LATEST_TIMESTAMP);
+            scan.setCaching(batchSize + 1);
+            scan.setCacheBlocks(false);
+            HTableInterface table = conn.getQueryServices().getTable(dataPTable.getPhysicalName().getBytes());
+            try {
+                ResultScanner scanner = table.getScanner(scan);
+                try {
+                    Result[] results = scanner.next(batchSize + 1);
+                    return results.length <= batchSize ? null : results[batchSize].getRow();
+                } finally {
+                    scanner.close();
+                }
+            } finally {
+                table.close();
+            }
+        }
+
+        /**
+         * @return for each region of the data table, the key ranges in which to rebuild it, split
+         *         at the guide posts of the region. The rows of a salted table are rebuilt as a whole.
+         */
+        private static List<List<Pair<byte[], byte[]>>> getRegionRanges(PhoenixConnection conn, PTable dataPTable)
+                throws SQLException {
+            List<List<Pair<byte[], byte[]>>> regionRanges = Lists.newArrayList();
+            if (dataPTable.getBucketNum() != null) {
+                regionRanges.add(Lists.newArrayList(new Pair<byte[], byte[]>(HConstants.EMPTY_START_ROW,
+                    HConstants.EMPTY_END_ROW)));
+                return regionRanges;
+            }
+            List<byte[]> guidePosts = null;
+            GuidePostsInfo guidePostsInfo = dataPTable.getTableStats().getGuidePosts().get(
+                SchemaUtil.getEmptyColumnFamily(dataPTable));
+            if (guidePostsInfo != null) {
+                guidePosts = guidePostsInfo.getGuidePosts();
+            } else {
+                guidePosts = Lists.newArrayList();
+            }
+            int guideIndex = 0;
+            for (HRegionLocation location : conn.getQueryServices().getAllTableRegions(
+                    dataPTable.getPhysicalName().getBytes())) {
+                HRegionInfo regionInfo = location.getRegionInfo();
+                byte[] startKey = regionInfo.getStartKey();
+                byte[] endKey = regionInfo.getEndKey();
+                List<Pair<byte[], byte[]>> ranges = Lists.newArrayList();
+                while (guideIndex < guidePosts.size()
+                        && Bytes.compareTo(guidePosts.get(guideIndex), startKey) <= 0) {
+                    guideIndex++;
+                }
+                while (guideIndex < guidePosts.size() && (endKey.length == 0
+                        || Bytes.compareTo(guidePosts.get(guideIndex), endKey) < 0)) {
+                    byte[] guidePost = guidePosts.get(guideIndex++);
+                    ranges.add(new Pair<byte[], byte[]>(startKey, guidePost));
+                    startKey = guidePost;
+                }
+                ranges.add(new Pair<byte[], byte[]>(startKey, endKey));
+                regionRanges.add(ranges);
+            }
+            return regionRanges;
+        }
+
+        /**
+         * Keeps the checkpoint of the rebuild of an index up to date in its header row.
+         */
+        private class CheckpointWriter {
+            private final byte[] key;
+            private final long timeStamp;
+            private final IndexRebuildCheckpoint checkpoint;
+
+            private CheckpointWriter(byte[] key, long timeStamp, IndexRebuildCheckpoint checkpoint) {
+                this.key = key;
+                this.timeStamp = timeStamp;
+                this.checkpoint = checkpoint;
+            }
+
+            private IndexRebuildCheckpoint getCheckpoint() {
+                return checkpoint;
+            }
+
+            private void add(byte[] startKey, byte[] stopKey, long time) throws IOException {
+                // Serialize the writes so that a checkpoint never overwrites a more recent one
+                synchronized (checkpoint) {
+                    checkpoint.add(startKey, stopKey, time);
+                    Put put = new Put(key);
+                    put.add(PhoenixDatabaseMetaData.TABLE_FAMILY_BYTES,
+                        PhoenixDatabaseMetaData.INDEX_REBUILD_CHECKPOINT_BYTES, timeStamp, checkpoint.toBytes());
+                    env.getRegion().put(put);
+                }
+            }
+
+            private void delete() throws IOException {
+                Delete delete = new Delete(key);
+                delete.deleteColumns(PhoenixDatabaseMetaData.TABLE_FAMILY_BYTES,
+                    PhoenixDatabaseMetaData.INDEX_REBUILD_CHECKPOINT_BYTES, timeStamp);
+                env.getRegion().delete(delete);
+            }
+        }
+    }
+
+    /**
+     * Limits the rate at which the rows of a data table are rebuilt across the regions being
+     * rebuilt in parallel, by making each of them wait until the rows it has built fit the rate.
+     * The rows are built in small batches, so that the waits are spread over the rebuild.
+     */
+    private static class RebuildThrottle {
+        private final long maxRowsPerSec;
+        private long nextTime;
+
+        private RebuildThrottle(long maxRowsPerSec) {
+            this.maxRowsPerSec = maxRowsPerSec;
+        }
+
+        /**
+         * @return the number of rows to build at a time, about a tenth of a second of the rate, or
+         *         0 if the rate is not limited
+         */
+        private int getBatchSize() {
+            if (maxRowsPerSec <= 0) {
+                return 0;
+            }
+            return (int)Math.max(1, Math.min(Integer.MAX_VALUE - 1, maxRowsPerSec / 10));
+        }
+
+        private void throttle(long startTime, long rows) throws InterruptedException {
+            if (maxRowsPerSec <= 0) {
+                return;
+            }
+            long sleepTime;
+            synchronized (this) {
+                nextTime = Math.max(nextTime, startTime) + rows * 1000 / maxRowsPerSec;
+                sleepTime = nextTime - EnvironmentEdgeManager.currentTimeMillis();
+            }
+            if (sleepTime > 0) {
+                Thread.sleep(sleepTime);
+            }
+        }
     }
 }
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.coprocessor;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.ipc.RpcCallContext;
+import org.apache.hadoop.hbase.ipc.RpcServer;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.exception.SQLExceptionCode;
+import org.apache.phoenix.exception.SQLExceptionInfo;
+import org.apache.phoenix.util.ServerUtil;
+
+/**
+ * Budget of the work a region observer does for a scan, and check that the scan was not
+ * abandoned by the client.
+ * <p>
+ * When the client sets {@link BaseScannerRegionObserver#SERVER_PAGE_TIME_MS} or
+ * {@link BaseScannerRegionObserver#SERVER_PAGE_ROWS} on an aggregate scan, the observer returns
+ * the partial aggregation state of the rows processed so far once the budget is used up, and
+ * continues the aggregation on the next call, the client merging the partial states as it does
+ * the states of different regions. The budget is that of an RPC: it is reset when a page is
+ * started by a new RPC, so that an RPC holds a handler for about the page time whatever the
+ * scanner caching, the following pages of an RPC whose budget is used up holding a single row.
+ * At least one row is processed per page, so that the scan always makes progress.
+ * <p>
+ * A scan is abandoned when the client disconnected while waiting for an RPC of the scan, or
+ * when the {@link BaseScannerRegionObserver#DEADLINE} of its query has passed. A paged scan is
+ * also abandoned when its scanner is closed while a page is computed. A paged scan whose
+ * client gave up is otherwise stopped between pages, when its lease expires and the scanner
+ * is not called again. HBase suspends the lease during an RPC, so expiry never interrupts a
+ * page. A scan that is not paged does all its work while the scanner is opened, before the
+ * client has a scanner to close, so only a disconnect or the deadline stops it.
+ *
+ * @since 4.4.0
+ */
+public class ScanBudget {
+    private final long pageTimeMs;
+    private final long pageRows;
+    private final long deadline;
+    private volatile boolean closed;
+    private RpcCallContext pageCall;
+    private long pageStartTime;
+    private long pageRowCount;
+
+    public ScanBudget(Scan scan) {
+        this.pageTimeMs = getLongAttribute(scan, BaseScannerRegionObserver.SERVER_PAGE_TIME_MS, 0);
+        this.pageRows = getLongAttribute(scan, BaseScannerRegionObserver.SERVER_PAGE_ROWS, 0);
+        this.deadline = getLongAttribute(scan, BaseScannerRegionObserver.DEADLINE, Long.MAX_VALUE);
+    }
+
+    private static long getLongAttribute(Scan scan, String name, long defaultValue) {
+        byte[] value = scan.getAttribute(name);
+        return value == null ? defaultValue : Bytes.toLong(value);
+    }
+
+    /**
+     * @return true if partial aggregation states should be returned once the budget is used up
+     */
+    public boolean isPaged() {
+        return pageTimeMs > 0 || pageRows > 0;
+    }
+
+    /**
+     * Starts a page, resetting the budget if the page is the first one of an RPC
+     */
+    public void startPage() {
+        RpcCallContext call = RpcServer.getCurrentCall();
+        if (call == null || call != pageCall) {
+            pageCall = call;
+            pageStartTime = System.currentTimeMillis();
+            pageRowCount = 0;
+        }
+    }
+
+    /**
+     * Counts a row processed by the scan
+     * @throws IOException if the scan was abandoned
+     */
+    public void rowProcessed() throws IOException {
+        pageRowCount++;
+        checkAbandoned();
+    }
+
+    /**
+     * @return true if the scan is paged and the budget of the current page is used up
+     */
+    public boolean isPageFull() {
+        return (pageRows > 0 && pageRowCount >= pageRows)
+                || (pageTimeMs > 0 && System.currentTimeMillis() - pageStartTime >= pageTimeMs);
+    }
+
+    private void checkAbandoned() throws IOException {
+        if (closed) {
+            throw new DoNotRetryIOException("Scanner closed");
+        }
+        RpcCallContext call = RpcServer.getCurrentCall();
+        if (call != null && call.disconnectSince() >= 0) {
+            throw new DoNotRetryIOException("Client disconnected");
+        }
+        if (deadline != Long.MAX_VALUE && System.currentTimeMillis() > deadline) {
+            SQLException e = new SQLExceptionInfo.Builder(SQLExceptionCode.OPERATION_TIMED_OUT)
+                    .setMessage(". Deadline of the query passed while scanning").build().buildException();
+            ServerUtil.throwIOException("Deadline passed", e);
+        }
+    }
+
+    /**
+     * Marks the scan as abandoned, which the observer notices at the next row it processes.
+     * Called when the scanner of a paged scan is closed, possibly by another thread than the
+     * one computing a page.
+     */
+    public void close() {
+        closed = true;
+    }
+}
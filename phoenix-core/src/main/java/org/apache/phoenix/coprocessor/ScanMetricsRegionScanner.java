@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.coprocessor;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.regionserver.RegionScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.filter.BooleanExpressionFilter;
+import org.apache.phoenix.monitoring.MetricType;
+import org.apache.phoenix.monitoring.RequestMetrics;
+import org.apache.phoenix.util.ByteUtil;
+import org.apache.phoenix.util.ScanUtil;
+
+/**
+ *
+ * Region scanner that reports the rows a scan read and filtered out on the server, and the time
+ * it spent doing so, to the client for EXPLAIN ANALYZE. As HBase has no means to return custom
+ * metrics of a scan, they are returned as an additional row after the last row of the region,
+ * which {@link org.apache.phoenix.iterate.ScanningResultIterator} removes again.
+ *
+ * Used for scans with the {@link BaseScannerRegionObserver#SCAN_METRICS} attribute only.
+ *
+ */
+public class ScanMetricsRegionScanner extends DelegateRegionScanner {
+    private static final byte[] SCAN_METRICS_COLUMN = Bytes.toBytes(BaseScannerRegionObserver.SCAN_METRICS);
+
+    private final Scan scan;
+    private final RowCountingRegionScanner rowCountingScanner;
+    private long scanTime;
+    private Cell lastCell;
+    private boolean hasMore = true;
+    private boolean isReported;
+
+    /**
+     * Scanner counting the rows a region scanner returns, which are the rows that passed the
+     * filter of the scan. Wraps the scanner of the region before the observer processes its rows.
+     */
+    public static class RowCountingRegionScanner extends DelegateRegionScanner {
+        private long rowCount;
+
+        public RowCountingRegionScanner(RegionScanner scanner) {
+            super(scanner);
+        }
+
+        private boolean count(boolean hasMore, List<Cell> results) {
+            if (!results.isEmpty()) {
+                rowCount++;
+            }
+            return hasMore;
+        }
+
+        @Override
+        public boolean next(List<Cell> results) throws IOException {
+            return count(delegate.next(results), results);
+        }
+
+        @Override
+        public boolean next(List<Cell> results, int limit) throws IOException {
+            return count(delegate.next(results, limit), results);
+        }
+
+        @Override
+        public boolean nextRaw(List<Cell> results) throws IOException {
+            return count(delegate.nextRaw(results), results);
+        }
+
+        @Override
+        public boolean nextRaw(List<Cell> results, int limit) throws IOException {
+            return count(delegate.nextRaw(results, limit), results);
+        }
+    }
+
+    /**
+     * @param scanner the scanner returned by the observer
+     * @param scan the scan of the scanner
+     * @param rowCountingScanner the scanner of the region the observer read from
+     * @param openTime time it took the observer to open its scanner, which includes
+     *        all the processing of aggregating observers
+     */
+    public ScanMetricsRegionScanner(RegionScanner scanner, Scan scan,
+            RowCountingRegionScanner rowCountingScanner, long openTime) {
+        super(scanner);
+        this.scan = scan;
+        this.rowCountingScanner = rowCountingScanner;
+        this.scanTime = openTime;
+    }
+
+    private boolean next(List<Cell> results, int limit, boolean isRaw) throws IOException {
+        if (!hasMore) {
+            addScanMetrics(results);
+            return false;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            if (isRaw) {
+                hasMore = limit < 0 ? delegate.nextRaw(results) : delegate.nextRaw(results, limit);
+            } else {
+                hasMore = limit < 0 ? delegate.next(results) : delegate.next(results, limit);
+            }
+        } finally {
+            scanTime += System.currentTimeMillis() - startTime;
+        }
+        if (!results.isEmpty()) {
+            lastCell = results.get(results.size() - 1);
+            // Report the metrics in the next call, as the client expects them after the last row
+            return true;
+        }
+        if (!hasMore) {
+            addScanMetrics(results);
+        }
+        return hasMore;
+    }
+
+    private void addScanMetrics(List<Cell> results) {
+        if (isReported) {
+            return;
+        }
+        isReported = true;
+        long rowsReturned = rowCountingScanner.rowCount;
+        long rowsExamined = rowsReturned;
+        Iterator<Filter> filterIterator = ScanUtil.getFilterIterator(scan);
+        while (filterIterator.hasNext()) {
+            Filter filter = filterIterator.next();
+            if (filter instanceof BooleanExpressionFilter) {
+                rowsExamined = Math.max(rowsExamined, ((BooleanExpressionFilter)filter).getRowsExamined());
+            }
+        }
+        byte[] value = ByteUtil.concat(Bytes.toBytes(rowsExamined), Bytes.toBytes(rowsExamined - rowsReturned),
+                Bytes.toBytes(scanTime));
+        // Use the row of the last cell, so that a scanner restarted by the client after the
+        // metrics doesn't skip any row
+        byte[] row = lastCell == null ? scan.getStartRow() : CellUtil.cloneRow(lastCell);
+        results.add(new KeyValue(row, SCAN_METRICS_COLUMN, SCAN_METRICS_COLUMN, value));
+    }
+
+    @Override
+    public boolean isFilterDone() throws IOException {
+        // Keep the region server calling next until the metrics have been returned
+        return isReported && delegate.isFilterDone();
+    }
+
+    @Override
+    public boolean next(List<Cell> results) throws IOException {
+        return next(results, -1, false);
+    }
+
+    @Override
+    public boolean next(List<Cell> results, int limit) throws IOException {
+        return next(results, limit, false);
+    }
+
+    @Override
+    public boolean nextRaw(List<Cell> results) throws IOException {
+        return next(results, -1, true);
+    }
+
+    @Override
+    public boolean nextRaw(List<Cell> results, int limit) throws IOException {
+        return next(results, limit, true);
+    }
+
+    /**
+     * @return true if the result is the row with the metrics of a scan rather than a row of the table
+     */
+    public static boolean isScanMetricsResult(Result result) {
+        return result.size() == 1 && result.containsColumn(SCAN_METRICS_COLUMN, SCAN_METRICS_COLUMN);
+    }
+
+    /**
+     * Add the metrics of a scan, as returned by the server, to the given metrics
+     * @param result a result for which {@link #isScanMetricsResult(Result)} is true
+     */
+    public static void updateRequestMetrics(Result result, RequestMetrics requestMetrics) {
+        byte[] value = result.getValue(SCAN_METRICS_COLUMN, SCAN_METRICS_COLUMN);
+        requestMetrics.update(MetricType.SERVER_ROWS_SCANNED, Bytes.toLong(value, 0));
+        requestMetrics.update(MetricType.SERVER_ROWS_FILTERED, Bytes.toLong(value, Bytes.SIZEOF_LONG));
+        requestMetrics.update(MetricType.SERVER_SCAN_TIME, Bytes.toLong(value, 2 * Bytes.SIZEOF_LONG));
+    }
+}
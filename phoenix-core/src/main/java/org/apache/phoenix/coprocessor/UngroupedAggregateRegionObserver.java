@@ -82,6 +82,7 @@ import org.apache.phoenix.schema.PTableImpl;
 import org.apache.phoenix.schema.SortOrder;
 import org.apache.phoenix.schema.stats.StatisticsCollector;
 import org.apache.phoenix.schema.tuple.MultiKeyValueTuple;
+import org.apache.phoenix.schema.tuple.PositionBasedMultiKeyValueTuple;
 import org.apache.phoenix.schema.types.PDataType;
 import org.apache.phoenix.util.ByteUtil;
 import org.apache.phoenix.util.IndexUtil;
@@ -237,17 +238,22 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
         int batchSize = 0;
         List<Mutation> mutations = Collections.emptyList();
         boolean buildLocalIndex = indexMaintainers != null && dataColumns==null && !localIndexScan;
-        if (isDelete || isUpsert || (deleteCQ != null && deleteCF != null) || emptyCF != null || buildLocalIndex) {
+        boolean isMutation = isDelete || isUpsert || (deleteCQ != null && deleteCF != null) || emptyCF != null || buildLocalIndex;
+        if (isMutation) {
             // TODO: size better
             mutations = Lists.newArrayListWithExpectedSize(1024);
             batchSize = c.getEnvironment().getConfiguration().getInt(MUTATE_BATCH_SIZE_ATTRIB, QueryServicesOptions.DEFAULT_MUTATE_BATCH_SIZE);
         }
         Aggregators aggregators = ServerAggregators.deserialize(
                 scan.getAttribute(BaseScannerRegionObserver.AGGREGATORS), c.getEnvironment().getConfiguration());
+        ScanBudget budget = new ScanBudget(scan);
+        if (budget.isPaged() && stats == null && !isMutation) {
+            return scanPaged(c, scan, theScanner, aggregators, budget);
+        }
         Aggregator[] rowAggregators = aggregators.getAggregators();
         boolean hasMore;
         boolean hasAny = false;
-        MultiKeyValueTuple result = new MultiKeyValueTuple();
+        MultiKeyValueTuple result = new PositionBasedMultiKeyValueTuple();
         if (logger.isDebugEnabled()) {
         	logger.debug(LogUtil.addCustomAnnotations("Starting ungrouped coprocessor scan " + scan + " "+region.getRegionInfo(), ScanUtil.getCustomAnnotations(scan)));
         }
@@ -267,6 +273,7 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
                     }
                     if (!results.isEmpty()) {
                         rowCount++;
+                        budget.rowProcessed();
                         result.setKeyValues(results);
                         try {
                             if (buildLocalIndex) {
@@ -473,6 +480,80 @@ public class UngroupedAggregateRegionObserver extends BaseScannerRegionObserver{
         return scanner;
     }
 
+    /**
+     * Used for an aggregate query when the client asked for paging. Instead of aggregating the
+     * whole region when the scanner is opened, each call aggregates the rows until the budget of
+     * the page is used up and returns the partial state of the aggregation, which the client
+     * merges with the other states of the query.
+     */
+    private RegionScanner scanPaged(final ObserverContext<RegionCoprocessorEnvironment> c, final Scan scan,
+            final RegionScanner innerScanner, final Aggregators aggregators, final ScanBudget budget) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(LogUtil.addCustomAnnotations("Starting paged ungrouped coprocessor scan " + scan + " "
+                    + c.getEnvironment().getRegion().getRegionInfo(), ScanUtil.getCustomAnnotations(scan)));
+        }
+        return new BaseRegionScanner() {
+            private final Aggregator[] rowAggregators = aggregators.getAggregators();
+            private final MultiKeyValueTuple result = new PositionBasedMultiKeyValueTuple();
+            private boolean hasMore = true;
+
+            @Override
+            public HRegionInfo getRegionInfo() {
+                return innerScanner.getRegionInfo();
+            }
+
+            @Override
+            public boolean isFilterDone() {
+                return !hasMore;
+            }
+
+            @Override
+            public void close() throws IOException {
+                budget.close();
+                innerScanner.close();
+            }
+
+            @Override
+            public boolean next(List<Cell> results) throws IOException {
+                if (!hasMore) {
+                    return false;
+                }
+                boolean hasAny = false;
+                budget.startPage();
+                HRegion region = c.getEnvironment().getRegion();
+                region.startRegionOperation();
+                try {
+                    synchronized (innerScanner) {
+                        do {
+                            List<Cell> kvs = new ArrayList<Cell>();
+                            hasMore = innerScanner.nextRaw(kvs);
+                            if (!kvs.isEmpty()) {
+                                budget.rowProcessed();
+                                result.setKeyValues(kvs);
+                                aggregators.aggregate(rowAggregators, result);
+                                hasAny = true;
+                            }
+                        } while (hasMore && !(hasAny && budget.isPageFull()));
+                    }
+                } finally {
+                    region.closeRegionOperation();
+                }
+                if (hasAny) {
+                    byte[] value = aggregators.toBytes(rowAggregators);
+                    results.add(KeyValueUtil.newKeyValue(UNGROUPED_AGG_ROW_KEY, SINGLE_COLUMN_FAMILY, SINGLE_COLUMN,
+                            AGG_TIMESTAMP, value, 0, value.length));
+                    aggregators.reset(rowAggregators);
+                }
+                return hasMore;
+            }
+
+            @Override
+            public long getMaxResultSize() {
+                return scan.getMaxResultSize();
+            }
+        };
+    }
+
     private void commitIndexMutations(final ObserverContext<RegionCoprocessorEnvironment> c,
             HRegion region, List<Mutation> indexMutations) throws IOException {
         // Get indexRegion corresponding to data region
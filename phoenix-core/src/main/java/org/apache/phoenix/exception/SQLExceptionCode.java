@@ -247,6 +247,10 @@ public enum SQLExceptionCode {
     NO_LOCAL_INDEXES(1054, "43A11", "Local secondary indexes are not supported for HBase versions " + 
         MetaDataUtil.decodeHBaseVersionAsString(PhoenixDatabaseMetaData.MIN_LOCAL_SI_VERSION_DISALLOW) + " through " + MetaDataUtil.decodeHBaseVersionAsString(PhoenixDatabaseMetaData.MAX_LOCAL_SI_VERSION_DISALLOW) + " inclusive."),
     UNALLOWED_LOCAL_INDEXES(1055, "43A12", "Local secondary indexes are configured to not be allowed."),
+    PACKED_COLUMNS_REQUIRE_IMMUTABLE_ROWS(1056, "43A13", "Columns may only be packed for tables with immutable rows."),
+    CANNOT_DROP_PACKED_COLUMN(1057, "43A14", "Columns may not be dropped from a table with packed columns."),
+    NO_LOCAL_INDEX_ON_PACKED_COLUMNS(1058, "43A15", "Local secondary indexes may not be created on a table with packed columns."),
+    NO_VIEW_ON_PACKED_COLUMNS(1059, "43A16", "Views may not be created on a table with packed columns."),
 
     /** Sequence related */
     SEQUENCE_ALREADY_EXIST(1200, "42Z00", "Sequence already exists.", new Factory() {
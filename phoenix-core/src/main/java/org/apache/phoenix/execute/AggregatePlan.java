@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.List;
 
 import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.phoenix.compile.GroupByCompiler.GroupBy;
 import org.apache.phoenix.compile.OrderByCompiler.OrderBy;
 import org.apache.phoenix.compile.RowProjector;
@@ -56,6 +57,7 @@ import org.apache.phoenix.query.QueryServices;
 import org.apache.phoenix.query.QueryServicesOptions;
 import org.apache.phoenix.schema.TableRef;
 import org.apache.phoenix.schema.types.PInteger;
+import org.apache.phoenix.util.ReadOnlyProps;
 
 
 
@@ -125,6 +127,25 @@ public class AggregatePlan extends BaseQueryPlan {
         }
     }
 
+    /**
+     * Has the region observers return the partial state of the aggregation after the configured
+     * time or rows, which the client merges as it merges the states of different regions.
+     */
+    private void setServerPaging(Scan scan) {
+        ReadOnlyProps props = context.getConnection().getQueryServices().getProps();
+        long pageTimeMs = props.getLong(QueryServices.SERVER_PAGE_TIME_MS_ATTRIB, QueryServicesOptions.DEFAULT_SERVER_PAGE_TIME_MS);
+        long pageRows = props.getLong(QueryServices.SERVER_PAGE_ROWS_ATTRIB, QueryServicesOptions.DEFAULT_SERVER_PAGE_ROWS);
+        if (pageTimeMs <= 0 && pageRows <= 0) {
+            return;
+        }
+        scan.setAttribute(BaseScannerRegionObserver.SERVER_PAGE_TIME_MS, Bytes.toBytes(Math.max(0, pageTimeMs)));
+        scan.setAttribute(BaseScannerRegionObserver.SERVER_PAGE_ROWS, Bytes.toBytes(Math.max(0, pageRows)));
+        if (groupBy.isEmpty()) {
+            // Each page of an ungrouped aggregation is a single row, returned by its own RPC
+            scan.setCaching(1);
+        }
+    }
+
     private ParallelIteratorFactory wrapParallelIteratorFactory () {
         ParallelIteratorFactory innerFactory;
         QueryServices services = context.getConnection().getQueryServices();
@@ -175,6 +196,7 @@ public class AggregatePlan extends BaseQueryPlan {
                 context.getScan().setAttribute(BaseScannerRegionObserver.GROUP_BY_LIMIT, PInteger.INSTANCE.toBytes(limit));
             }
         }
+        setServerPaging(context.getScan());
         ParallelIterators parallelIterators = new ParallelIterators(this, null, wrapParallelIteratorFactory());
         splits = parallelIterators.getSplits();
         scans = parallelIterators.getScans();
@@ -38,7 +38,9 @@ import org.apache.phoenix.index.IndexMaintainer;
 import org.apache.phoenix.index.IndexMetaDataCacheClient;
 import org.apache.phoenix.index.PhoenixIndexCodec;
 import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.monitoring.MetricType;
 import org.apache.phoenix.monitoring.PhoenixMetrics;
+import org.apache.phoenix.monitoring.RequestMetrics;
 import org.apache.phoenix.query.QueryConstants;
 import org.apache.phoenix.schema.IllegalDataException;
 import org.apache.phoenix.schema.MetaDataClient;
@@ -338,11 +340,13 @@ public class MutationState implements SQLCloseable {
     private static void logMutationSize(HTableInterface htable, List<Mutation> mutations, PhoenixConnection connection) {
         long byteSize = 0;
         int keyValueCount = 0;
-        if (PhoenixMetrics.isMetricsEnabled() || logger.isDebugEnabled()) {
+        RequestMetrics requestMetrics = connection.getRequestMetrics();
+        if (PhoenixMetrics.isMetricsEnabled() || requestMetrics.isEnabled() || logger.isDebugEnabled()) {
             for (Mutation mutation : mutations) {
                 byteSize += mutation.heapSize();
             }
             MUTATION_BYTES.update(byteSize);
+            requestMetrics.update(MetricType.MUTATION_BYTES, byteSize);
             if (logger.isDebugEnabled()) {
                 logger.debug(LogUtil.addCustomAnnotations("Sending " + mutations.size() + " mutations for " + Bytes.toString(htable.getTableName()) + " with " + keyValueCount + " key values of total size " + byteSize + " bytes", connection));
             }
@@ -417,12 +421,14 @@ public class MutationState implements SQLCloseable {
                     try {
                         logMutationSize(hTable, mutations, connection);
                         MUTATION_BATCH_SIZE.update(mutations.size());
+                        connection.getRequestMetrics().update(MetricType.MUTATION_BATCH_SIZE, mutations.size());
                         long startTime = System.currentTimeMillis();
                         child.addTimelineAnnotation("Attempt " + retryCount);
                         hTable.batch(mutations);
                         child.stop();
                         long duration = System.currentTimeMillis() - startTime;
                         MUTATION_COMMIT_TIME.update(duration);
+                        connection.getRequestMetrics().update(MetricType.MUTATION_COMMIT_TIME, duration);
                         shouldRetry = false;
                         if (logger.isDebugEnabled()) logger.debug(LogUtil.addCustomAnnotations("Total time for batch call of  " + mutations.size() + " mutations into " + table.getName().getString() + ": " + duration + " ms", connection));
                         committedList.add(entry);
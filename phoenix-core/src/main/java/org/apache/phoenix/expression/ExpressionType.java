@@ -19,6 +19,8 @@ package org.apache.phoenix.expression;
 
 import java.util.Map;
 
+import org.apache.phoenix.expression.function.ApproxCountDistinctAggregateFunction;
+import org.apache.phoenix.expression.function.ApproxPercentileAggregateFunction;
 import org.apache.phoenix.expression.function.ArrayAllComparisonExpression;
 import org.apache.phoenix.expression.function.ArrayAnyComparisonExpression;
 import org.apache.phoenix.expression.function.ArrayAppendFunction;
@@ -227,7 +229,10 @@ public enum ExpressionType {
     InstrFunction(InstrFunction.class),
     MinuteFunction(MinuteFunction.class),
     DayOfMonthFunction(DayOfMonthFunction.class),
-    ArrayAppendFunction(ArrayAppendFunction.class)
+    ArrayAppendFunction(ArrayAppendFunction.class),
+    ApproxCountDistinctAggregateFunction(ApproxCountDistinctAggregateFunction.class),
+    ApproxPercentileAggregateFunction(ApproxPercentileAggregateFunction.class),
+    PackedKeyValue(PackedKeyValueColumnExpression.class)
     ;
 
     ExpressionType(Class<? extends Expression> clazz) {
@@ -57,9 +57,13 @@ public class KeyValueColumnExpression extends ColumnExpression {
     }
 
     public KeyValueColumnExpression(PColumn column, String displayName) {
+        this(column, column.getFamilyName().getBytes(), column.getName().getBytes(), displayName);
+    }
+
+    protected KeyValueColumnExpression(PDatum column, byte[] cf, byte[] cq, String displayName) {
         super(column);
-        this.cf = column.getFamilyName().getBytes();
-        this.cq = column.getName().getBytes();
+        this.cf = cf;
+        this.cq = cq;
         this.displayName = displayName;
     }
 
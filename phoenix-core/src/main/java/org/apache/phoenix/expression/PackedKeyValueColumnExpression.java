@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.phoenix.query.QueryConstants;
+import org.apache.phoenix.schema.PColumn;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.util.PackedColumnUtil;
+
+
+/**
+ *
+ * Class to access a column value packed with the values of the other columns of its family
+ * in a single KeyValue. The column family and name are those of the packed KeyValue, so that
+ * the scan and the filters fetch it like the KeyValue of any other column.
+ *
+ *
+ * @since 4.4.0
+ */
+public class PackedKeyValueColumnExpression extends KeyValueColumnExpression {
+    private int slot;
+
+    public PackedKeyValueColumnExpression() {
+    }
+
+    public PackedKeyValueColumnExpression(PColumn column, String displayName) {
+        super(column, column.getFamilyName().getBytes(), QueryConstants.PACKED_COLUMN_BYTES, displayName);
+        this.slot = PackedColumnUtil.getSlot(column);
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + slot;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+        PackedKeyValueColumnExpression other = (PackedKeyValueColumnExpression)obj;
+        return slot == other.slot;
+    }
+
+    @Override
+    public boolean evaluate(Tuple tuple, ImmutableBytesWritable ptr) {
+        if (!super.evaluate(tuple, ptr)) {
+            return false;
+        }
+        PackedColumnUtil.unpack(ptr, slot);
+        return true;
+    }
+
+    @Override
+    public void readFields(DataInput input) throws IOException {
+        super.readFields(input);
+        slot = WritableUtils.readVInt(input);
+    }
+
+    @Override
+    public void write(DataOutput output) throws IOException {
+        super.write(output);
+        WritableUtils.writeVInt(output, slot);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression.aggregator;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.schema.SortOrder;
+import org.apache.phoenix.schema.tuple.SingleKeyValueTuple;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.schema.types.PDataType;
+import org.apache.phoenix.schema.types.PLong;
+import org.apache.phoenix.schema.types.PVarbinary;
+import org.apache.phoenix.util.SizedUtil;
+
+/**
+ * Client side Aggregator for APPROX_COUNT_DISTINCT aggregations, which merges the sketches
+ * returned by the regions byte by byte and estimates the number of distinct values from them.
+ *
+ *
+ * @since 4.4.0
+ */
+public class ApproxCountDistinctClientAggregator extends BaseAggregator {
+    private final HyperLogLog sketch;
+    private Long cachedResult;
+
+    public ApproxCountDistinctClientAggregator(int precision, SortOrder sortOrder) {
+        super(sortOrder);
+        sketch = new HyperLogLog(precision);
+    }
+
+    @Override
+    public void aggregate(Tuple tuple, ImmutableBytesWritable ptr) {
+        if (tuple instanceof SingleKeyValueTuple) {
+            // Case when scanners do look ahead and re-aggregate result row.The result is already available in the ptr
+            cachedResult = (Long)PLong.INSTANCE.toObject(ptr, PLong.INSTANCE, sortOrder);
+        } else {
+            sketch.merge(ptr);
+        }
+    }
+
+    @Override
+    public boolean evaluate(Tuple tuple, ImmutableBytesWritable ptr) {
+        long estimate = cachedResult != null ? cachedResult : sketch.estimate();
+        ptr.set(PLong.INSTANCE.toBytes(estimate));
+        return true;
+    }
+
+    @Override
+    public boolean isNullable() {
+        return false;
+    }
+
+    @Override
+    public PDataType getDataType() {
+        // The type of the sketches returned by the server, while the estimate is a LONG
+        return PVarbinary.INSTANCE;
+    }
+
+    @Override
+    public void reset() {
+        sketch.clear();
+        cachedResult = null;
+        super.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "APPROX COUNT DISTINCT";
+    }
+
+    @Override
+    public int getSize() {
+        return super.getSize() + SizedUtil.OBJECT_SIZE + SizedUtil.ARRAY_SIZE
+                + HyperLogLog.getSerializedSize(sketch.getPrecision());
+    }
+}
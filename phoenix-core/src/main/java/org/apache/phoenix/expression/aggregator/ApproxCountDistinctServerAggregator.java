@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression.aggregator;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.schema.SortOrder;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.schema.types.PDataType;
+import org.apache.phoenix.schema.types.PVarbinary;
+import org.apache.phoenix.util.SizedUtil;
+
+/**
+ * Server side Aggregator which adds the values to a {@link HyperLogLog} sketch, and returns
+ * the serialized sketch, which has the same size regardless of the number of distinct values.
+ *
+ *
+ * @since 4.4.0
+ */
+public class ApproxCountDistinctServerAggregator extends BaseAggregator {
+    private final HyperLogLog sketch;
+
+    public ApproxCountDistinctServerAggregator(int precision) {
+        super(SortOrder.getDefault());
+        sketch = new HyperLogLog(precision);
+    }
+
+    @Override
+    public void aggregate(Tuple tuple, ImmutableBytesWritable ptr) {
+        sketch.offer(ptr);
+    }
+
+    /**
+     * Merge a sketch returned by {@link #evaluate(Tuple, ImmutableBytesWritable)}, used to
+     * restore the aggregator after it was spilled to disk
+     */
+    public void merge(ImmutableBytesWritable ptr) {
+        sketch.merge(ptr);
+    }
+
+    @Override
+    public boolean isNullable() {
+        return false;
+    }
+
+    @Override
+    public boolean evaluate(Tuple tuple, ImmutableBytesWritable ptr) {
+        ptr.set(sketch.toBytes());
+        return true;
+    }
+
+    @Override
+    public final PDataType getDataType() {
+        return PVarbinary.INSTANCE;
+    }
+
+    @Override
+    public void reset() {
+        sketch.clear();
+        super.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "APPROX COUNT DISTINCT SKETCH";
+    }
+
+    @Override
+    public int getSize() {
+        return super.getSize() + SizedUtil.OBJECT_SIZE + SizedUtil.ARRAY_SIZE
+                + HyperLogLog.getSerializedSize(sketch.getPrecision());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression.aggregator;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.schema.SortOrder;
+import org.apache.phoenix.schema.tuple.SingleKeyValueTuple;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.schema.types.PDataType;
+import org.apache.phoenix.schema.types.PDouble;
+import org.apache.phoenix.schema.types.PVarbinary;
+
+/**
+ * Client side Aggregator for APPROX_PERCENTILE aggregations, which merges the digests returned
+ * by the regions and estimates the value at the percentile from them.
+ *
+ *
+ * @since 4.4.0
+ */
+public class ApproxPercentileClientAggregator extends BaseAggregator {
+    private final double percentile;
+    private final TDigest digest;
+    private Double cachedResult;
+
+    public ApproxPercentileClientAggregator(double percentile, int compression, SortOrder sortOrder) {
+        super(sortOrder);
+        this.percentile = percentile;
+        this.digest = new TDigest(compression);
+    }
+
+    @Override
+    public void aggregate(Tuple tuple, ImmutableBytesWritable ptr) {
+        if (tuple instanceof SingleKeyValueTuple) {
+            // Case when scanners do look ahead and re-aggregate result row.The result is already available in the ptr
+            cachedResult = (Double)PDouble.INSTANCE.toObject(ptr, PDouble.INSTANCE, sortOrder);
+        } else {
+            digest.merge(ptr);
+        }
+    }
+
+    @Override
+    public boolean evaluate(Tuple tuple, ImmutableBytesWritable ptr) {
+        if (cachedResult != null) {
+            ptr.set(PDouble.INSTANCE.toBytes(cachedResult));
+            return true;
+        }
+        if (digest.isEmpty()) {
+            return false;
+        }
+        ptr.set(PDouble.INSTANCE.toBytes(digest.quantile(percentile)));
+        return true;
+    }
+
+    @Override
+    public PDataType getDataType() {
+        // The type of the digests returned by the server, while the estimate is a DOUBLE
+        return PVarbinary.INSTANCE;
+    }
+
+    @Override
+    public void reset() {
+        digest.clear();
+        cachedResult = null;
+        super.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "APPROX PERCENTILE";
+    }
+
+    @Override
+    public int getSize() {
+        return super.getSize() + TDigest.getHeapSize(digest.getCompression());
+    }
+}
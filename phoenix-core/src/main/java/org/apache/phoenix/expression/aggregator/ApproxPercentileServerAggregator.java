@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression.aggregator;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.schema.SortOrder;
+import org.apache.phoenix.schema.tuple.Tuple;
+import org.apache.phoenix.schema.types.PDataType;
+import org.apache.phoenix.schema.types.PVarbinary;
+
+/**
+ * Server side Aggregator which adds the values to a {@link TDigest}, and returns the serialized
+ * digest, whose size is bounded by its compression regardless of the number of values.
+ *
+ *
+ * @since 4.4.0
+ */
+public class ApproxPercentileServerAggregator extends BaseAggregator {
+    private final PDataType valueType;
+    private final SortOrder valueSortOrder;
+    private final TDigest digest;
+
+    /**
+     * @param valueType type of the values to aggregate
+     * @param valueSortOrder sort order of the values to aggregate
+     * @param compression compression of the digest
+     */
+    public ApproxPercentileServerAggregator(PDataType valueType, SortOrder valueSortOrder, int compression) {
+        super(SortOrder.getDefault());
+        this.valueType = valueType;
+        this.valueSortOrder = valueSortOrder;
+        this.digest = new TDigest(compression);
+    }
+
+    @Override
+    public void aggregate(Tuple tuple, ImmutableBytesWritable ptr) {
+        Number value = (Number)valueType.toObject(ptr, valueSortOrder);
+        digest.add(value.doubleValue());
+    }
+
+    /**
+     * Merge a digest returned by {@link #evaluate(Tuple, ImmutableBytesWritable)}, used to
+     * restore the aggregator after it was spilled to disk
+     */
+    public void merge(ImmutableBytesWritable ptr) {
+        digest.merge(ptr);
+    }
+
+    @Override
+    public boolean isNullable() {
+        return false;
+    }
+
+    @Override
+    public boolean evaluate(Tuple tuple, ImmutableBytesWritable ptr) {
+        ptr.set(digest.toBytes());
+        return true;
+    }
+
+    @Override
+    public final PDataType getDataType() {
+        return PVarbinary.INSTANCE;
+    }
+
+    @Override
+    public void reset() {
+        digest.clear();
+        super.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "APPROX PERCENTILE DIGEST";
+    }
+
+    @Override
+    public int getSize() {
+        return super.getSize() + TDigest.getHeapSize(digest.getCompression());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression.aggregator;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * HyperLogLog sketch to estimate the number of distinct values. The sketch has 2^precision
+ * registers of one byte, so its size does not depend on the number of values, and the relative
+ * standard error of the estimate is about 1.04 / sqrt(2^precision).
+ *
+ * The serialized form is the precision followed by the registers, so that two serialized sketches
+ * of the same precision are merged by taking the max of each of their bytes.
+ *
+ *
+ * @since 4.4.0
+ */
+public class HyperLogLog {
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+    public static final int DEFAULT_PRECISION = 12;
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        Preconditions.checkArgument(precision >= MIN_PRECISION && precision <= MAX_PRECISION,
+                "Invalid precision: %s", precision);
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @return the size of the serialized form of a sketch of the given precision
+     */
+    public static int getSerializedSize(int precision) {
+        return 1 + (1 << precision);
+    }
+
+    /**
+     * Add the value in the given pointer
+     */
+    public void offer(ImmutableBytesWritable ptr) {
+        long hash = HASH_FUNCTION.hashBytes(ptr.get(), ptr.getOffset(), ptr.getLength()).asLong();
+        // The first bits select the register, and the position of the first one bit in the
+        // remaining bits is the value. The guard bit limits the value to 64 - precision + 1.
+        int index = (int)(hash >>> (Long.SIZE - precision));
+        byte value = (byte)(Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (value > registers[index]) {
+            registers[index] = value;
+        }
+    }
+
+    /**
+     * Merge a serialized sketch into this one
+     * @param ptr pointer to a sketch serialized by {@link #toBytes()}
+     */
+    public void merge(ImmutableBytesWritable ptr) {
+        byte[] bytes = ptr.get();
+        int offset = ptr.getOffset();
+        if (ptr.getLength() != getSerializedSize(precision) || bytes[offset] != precision) {
+            throw new IllegalArgumentException("Cannot merge a sketch of " + ptr.getLength()
+                    + " bytes into a sketch of precision " + precision);
+        }
+        offset++;
+        for (int i = 0; i < registers.length; i++) {
+            byte value = bytes[offset + i];
+            if (value > registers[i]) {
+                registers[i] = value;
+            }
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct values added to the sketch and the sketches merged
+     *         into it
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeroCount = 0;
+        for (byte value : registers) {
+            sum += 1.0 / (1L << value);
+            if (value == 0) {
+                zeroCount++;
+            }
+        }
+        double estimate = getAlpha(m) * m * m / sum;
+        // Use linear counting for small cardinalities, for which the raw estimate is biased.
+        // There is no correction for large ones, as the hash has 64 bits.
+        if (estimate <= 2.5 * m && zeroCount > 0) {
+            estimate = m * Math.log((double)m / zeroCount);
+        }
+        return Math.round(estimate);
+    }
+
+    private static double getAlpha(int m) {
+        switch (m) {
+        case 16:
+            return 0.673;
+        case 32:
+            return 0.697;
+        case 64:
+            return 0.709;
+        default:
+            return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    public byte[] toBytes() {
+        byte[] bytes = new byte[getSerializedSize(precision)];
+        bytes[0] = (byte)precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+
+    public void clear() {
+        Arrays.fill(registers, (byte)0);
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression.aggregator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.util.SizedUtil;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Merging t-digest to estimate the percentiles of a stream of values. The values are summarized
+ * by centroids, a mean with a weight, that are small near the extremes and larger in the middle,
+ * so that the estimate of percentiles close to 0 and 1 is more accurate. The number of centroids
+ * is bounded by about twice the compression, regardless of the number of values.
+ *
+ * The values are added to a buffer, which is merged with the centroids when it is full. Two
+ * digests are merged by adding the centroids of one to the other.
+ *
+ *
+ * @since 4.4.0
+ */
+public class TDigest {
+    public static final int MIN_COMPRESSION = 10;
+    public static final int MAX_COMPRESSION = 1000;
+    public static final int DEFAULT_COMPRESSION = 100;
+
+    private final int compression;
+    // Merged centroids, sorted by mean
+    private double[] means;
+    private double[] weights;
+    private int centroidCount;
+    // Centroids not merged yet
+    private final double[] bufferMeans;
+    private final double[] bufferWeights;
+    private int bufferCount;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private int compressionCount;
+
+    public TDigest(int compression) {
+        Preconditions.checkArgument(compression >= MIN_COMPRESSION && compression <= MAX_COMPRESSION,
+                "Invalid compression: %s", compression);
+        this.compression = compression;
+        this.means = new double[getMaxCentroidCount(compression)];
+        this.weights = new double[getMaxCentroidCount(compression)];
+        this.bufferMeans = new double[getBufferSize(compression)];
+        this.bufferWeights = new double[getBufferSize(compression)];
+    }
+
+    public int getCompression() {
+        return compression;
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    private void add(double mean, double weight) {
+        if (bufferCount == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[bufferCount] = mean;
+        bufferWeights[bufferCount] = weight;
+        bufferCount++;
+        totalWeight += weight;
+        min = Math.min(min, mean);
+        max = Math.max(max, mean);
+    }
+
+    /**
+     * Merge a serialized digest into this one
+     * @param ptr pointer to a digest serialized by {@link #toBytes()}
+     */
+    public void merge(ImmutableBytesWritable ptr) {
+        byte[] bytes = ptr.get();
+        int offset = ptr.getOffset();
+        int count = Bytes.toInt(bytes, offset);
+        offset += Bytes.SIZEOF_INT;
+        if (ptr.getLength() != getSerializedSize(count)) {
+            throw new IllegalArgumentException("Invalid digest of " + ptr.getLength() + " bytes");
+        }
+        if (count == 0) {
+            return;
+        }
+        double otherMin = Bytes.toDouble(bytes, offset);
+        offset += Bytes.SIZEOF_DOUBLE;
+        double otherMax = Bytes.toDouble(bytes, offset);
+        offset += Bytes.SIZEOF_DOUBLE;
+        for (int i = 0; i < count; i++) {
+            double mean = Bytes.toDouble(bytes, offset);
+            offset += Bytes.SIZEOF_DOUBLE;
+            double weight = Bytes.toDouble(bytes, offset);
+            offset += Bytes.SIZEOF_DOUBLE;
+            add(mean, weight);
+        }
+        // The extremes may not be the mean of a centroid
+        min = Math.min(min, otherMin);
+        max = Math.max(max, otherMax);
+    }
+
+    /**
+     * Merge the buffer with the centroids
+     */
+    private void compress() {
+        if (bufferCount == 0) {
+            return;
+        }
+        int count = centroidCount + bufferCount;
+        double[] allMeans = new double[count];
+        double[] allWeights = new double[count];
+        System.arraycopy(means, 0, allMeans, 0, centroidCount);
+        System.arraycopy(weights, 0, allWeights, 0, centroidCount);
+        System.arraycopy(bufferMeans, 0, allMeans, centroidCount, bufferCount);
+        System.arraycopy(bufferWeights, 0, allWeights, centroidCount, bufferCount);
+        sort(allMeans, allWeights, count);
+        bufferCount = 0;
+        // Alternate the direction of the merge, as merging always from the lowest value would
+        // make the centroids on that side larger
+        boolean isReversed = (compressionCount++ & 1) == 1;
+        if (isReversed) {
+            reverse(allMeans, count);
+            reverse(allWeights, count);
+        }
+
+        // Merge adjacent centroids as long as the merged one spans at most one unit of the scale
+        // function, which limits the size of the centroids near the extremes
+        double weightSoFar = 0;
+        double qLimit = getQ(getK(0) + 1);
+        int n = 0;
+        means[0] = allMeans[0];
+        weights[0] = allWeights[0];
+        for (int i = 1; i < count; i++) {
+            double q = (weightSoFar + weights[n] + allWeights[i]) / totalWeight;
+            if (q <= qLimit) {
+                weights[n] += allWeights[i];
+                means[n] += (allMeans[i] - means[n]) * allWeights[i] / weights[n];
+            } else {
+                weightSoFar += weights[n];
+                qLimit = getQ(getK(weightSoFar / totalWeight) + 1);
+                n++;
+                if (n == means.length) {
+                    growCentroids();
+                }
+                means[n] = allMeans[i];
+                weights[n] = allWeights[i];
+            }
+        }
+        centroidCount = n + 1;
+        if (isReversed) {
+            reverse(means, centroidCount);
+            reverse(weights, centroidCount);
+        }
+    }
+
+    private static void reverse(double[] values, int count) {
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            double value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    private void growCentroids() {
+        double[] newMeans = new double[means.length * 2];
+        double[] newWeights = new double[weights.length * 2];
+        System.arraycopy(means, 0, newMeans, 0, means.length);
+        System.arraycopy(weights, 0, newWeights, 0, weights.length);
+        means = newMeans;
+        weights = newWeights;
+    }
+
+    // Scale function mapping a quantile to the number of centroids up to it
+    private double getK(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+    }
+
+    private double getQ(double k) {
+        if (k >= compression / 4.0) {
+            return 1;
+        }
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+
+    private static void sort(double[] keys, double[] values, int count) {
+        // Sort the positions by key, to then reorder the keys and values alike
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        final double[] sortKeys = keys;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Double.compare(sortKeys[o1], sortKeys[o2]);
+            }
+        });
+        double[] sortedKeys = new double[count];
+        double[] sortedValues = new double[count];
+        for (int i = 0; i < count; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedValues[i] = values[order[i]];
+        }
+        System.arraycopy(sortedKeys, 0, keys, 0, count);
+        System.arraycopy(sortedValues, 0, values, 0, count);
+    }
+
+    /**
+     * @return true if no values were added to the digest
+     */
+    public boolean isEmpty() {
+        return totalWeight == 0;
+    }
+
+    /**
+     * Estimate the value at the given percentile, interpolating between the means of the
+     * centroids around it, whose weight is taken to be spread evenly around their mean
+     * @param percentile between 0 and 1
+     * @return the estimated value, or NaN if the digest is empty
+     */
+    public double quantile(double percentile) {
+        Preconditions.checkArgument(percentile >= 0 && percentile <= 1, "Invalid percentile: %s", percentile);
+        compress();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        if (centroidCount == 1) {
+            return means[0];
+        }
+        double index = percentile * totalWeight;
+        if (index < weights[0] / 2) {
+            return min + index / (weights[0] / 2) * (means[0] - min);
+        }
+        double weightSoFar = weights[0] / 2;
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double delta = (weights[i] + weights[i + 1]) / 2;
+            if (weightSoFar + delta > index) {
+                return means[i] + (index - weightSoFar) / delta * (means[i + 1] - means[i]);
+            }
+            weightSoFar += delta;
+        }
+        int last = centroidCount - 1;
+        double value = means[last] + (index - weightSoFar) / (weights[last] / 2) * (max - means[last]);
+        return Math.min(value, max);
+    }
+
+    private static int getSerializedSize(int centroidCount) {
+        return Bytes.SIZEOF_INT + (centroidCount == 0 ? 0 : 2 * Bytes.SIZEOF_DOUBLE)
+                + centroidCount * 2 * Bytes.SIZEOF_DOUBLE;
+    }
+
+    /**
+     * @return the estimated heap size of a digest of the given compression
+     */
+    public static int getHeapSize(int compression) {
+        // The arrays of the centroids and of the buffer
+        return SizedUtil.OBJECT_SIZE + 4 * SizedUtil.ARRAY_SIZE
+                + (2 * getMaxCentroidCount(compression) + 2 * getBufferSize(compression)) * Bytes.SIZEOF_DOUBLE;
+    }
+
+    private static int getMaxCentroidCount(int compression) {
+        return 2 * compression + 10;
+    }
+
+    private static int getBufferSize(int compression) {
+        return 5 * compression;
+    }
+
+    /**
+     * Serialize the digest as the number of centroids, the min and the max, followed by the
+     * mean and the weight of each centroid
+     */
+    public byte[] toBytes() {
+        compress();
+        byte[] bytes = new byte[getSerializedSize(centroidCount)];
+        int offset = Bytes.putInt(bytes, 0, centroidCount);
+        if (centroidCount == 0) {
+            return bytes;
+        }
+        offset = Bytes.putDouble(bytes, offset, min);
+        offset = Bytes.putDouble(bytes, offset, max);
+        for (int i = 0; i < centroidCount; i++) {
+            offset = Bytes.putDouble(bytes, offset, means[i]);
+            offset = Bytes.putDouble(bytes, offset, weights[i]);
+        }
+        return bytes;
+    }
+
+    public void clear() {
+        centroidCount = 0;
+        bufferCount = 0;
+        totalWeight = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression.function;
+
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.expression.Expression;
+import org.apache.phoenix.expression.LiteralExpression;
+import org.apache.phoenix.expression.aggregator.Aggregator;
+import org.apache.phoenix.expression.aggregator.ApproxCountDistinctClientAggregator;
+import org.apache.phoenix.expression.aggregator.ApproxCountDistinctServerAggregator;
+import org.apache.phoenix.expression.aggregator.HyperLogLog;
+import org.apache.phoenix.parse.FunctionParseNode.Argument;
+import org.apache.phoenix.parse.FunctionParseNode.BuiltInFunction;
+import org.apache.phoenix.schema.types.PDataType;
+import org.apache.phoenix.schema.types.PInteger;
+import org.apache.phoenix.schema.types.PLong;
+
+/**
+ *
+ * Built-in function for APPROX_COUNT_DISTINCT(<expression> [, <precision>]) aggregate function.
+ * Estimates the number of distinct values with a {@link HyperLogLog} sketch of 2^precision bytes
+ * instead of shipping each distinct value to the client like COUNT(DISTINCT <expression>).
+ * A higher precision gives a more accurate estimate for a larger sketch.
+ *
+ *
+ * @since 4.4.0
+ */
+@BuiltInFunction(name = ApproxCountDistinctAggregateFunction.NAME, args = { @Argument(),
+        @Argument(allowedTypes = { PInteger.class }, isConstant = true,
+                defaultValue = "" + HyperLogLog.DEFAULT_PRECISION,
+                minValue = "" + HyperLogLog.MIN_PRECISION, maxValue = "" + HyperLogLog.MAX_PRECISION) })
+public class ApproxCountDistinctAggregateFunction extends SingleAggregateFunction {
+    public static final String NAME = "APPROX_COUNT_DISTINCT";
+
+    public ApproxCountDistinctAggregateFunction() {
+    }
+
+    public ApproxCountDistinctAggregateFunction(List<Expression> childExpressions) {
+        super(childExpressions);
+    }
+
+    private int getPrecision() {
+        if (children.size() < 2) {
+            return HyperLogLog.DEFAULT_PRECISION;
+        }
+        return ((Number)((LiteralExpression)children.get(1)).getValue()).intValue();
+    }
+
+    /**
+     * The APPROX_COUNT_DISTINCT function never returns null
+     */
+    @Override
+    public boolean isNullable() {
+        return false;
+    }
+
+    @Override
+    public PDataType getDataType() {
+        return PLong.INSTANCE;
+    }
+
+    @Override
+    public Aggregator newClientAggregator() {
+        return new ApproxCountDistinctClientAggregator(getPrecision(),
+                getAggregatorExpression().getSortOrder());
+    }
+
+    @Override
+    public Aggregator newServerAggregator(Configuration conf) {
+        return new ApproxCountDistinctServerAggregator(getPrecision());
+    }
+
+    @Override
+    public Aggregator newServerAggregator(Configuration config, ImmutableBytesWritable ptr) {
+        ApproxCountDistinctServerAggregator agg = new ApproxCountDistinctServerAggregator(getPrecision());
+        agg.merge(ptr);
+        return agg;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression.function;
+
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.expression.Expression;
+import org.apache.phoenix.expression.LiteralExpression;
+import org.apache.phoenix.expression.aggregator.Aggregator;
+import org.apache.phoenix.expression.aggregator.ApproxPercentileClientAggregator;
+import org.apache.phoenix.expression.aggregator.ApproxPercentileServerAggregator;
+import org.apache.phoenix.expression.aggregator.TDigest;
+import org.apache.phoenix.parse.FunctionParseNode.Argument;
+import org.apache.phoenix.parse.FunctionParseNode.BuiltInFunction;
+import org.apache.phoenix.schema.types.PDataType;
+import org.apache.phoenix.schema.types.PDecimal;
+import org.apache.phoenix.schema.types.PDouble;
+import org.apache.phoenix.schema.types.PInteger;
+
+/**
+ *
+ * Built-in function for APPROX_PERCENTILE(<expression>, <percentile> [, <compression>]) aggregate
+ * function. Estimates the value at the percentile with a {@link TDigest} computed per region and
+ * merged on the client, instead of shipping each distinct value to the client like
+ * PERCENTILE_CONT and PERCENTILE_DISC. A higher compression gives a more accurate estimate for a
+ * larger digest.
+ *
+ *
+ * @since 4.4.0
+ */
+@BuiltInFunction(name = ApproxPercentileAggregateFunction.NAME, args = {
+        @Argument(allowedTypes = { PDecimal.class }),
+        @Argument(allowedTypes = { PDecimal.class }, isConstant = true, minValue = "0", maxValue = "1"),
+        @Argument(allowedTypes = { PInteger.class }, isConstant = true,
+                defaultValue = "" + TDigest.DEFAULT_COMPRESSION,
+                minValue = "" + TDigest.MIN_COMPRESSION, maxValue = "" + TDigest.MAX_COMPRESSION) })
+public class ApproxPercentileAggregateFunction extends SingleAggregateFunction {
+    public static final String NAME = "APPROX_PERCENTILE";
+
+    public ApproxPercentileAggregateFunction() {
+    }
+
+    public ApproxPercentileAggregateFunction(List<Expression> childExpressions) {
+        super(childExpressions);
+    }
+
+    private double getPercentile() {
+        if (children.size() < 2) {
+            return 0.5;
+        }
+        return ((Number)((LiteralExpression)children.get(1)).getValue()).doubleValue();
+    }
+
+    private int getCompression() {
+        if (children.size() < 3) {
+            return TDigest.DEFAULT_COMPRESSION;
+        }
+        return ((Number)((LiteralExpression)children.get(2)).getValue()).intValue();
+    }
+
+    @Override
+    public PDataType getDataType() {
+        return PDouble.INSTANCE;
+    }
+
+    @Override
+    public Aggregator newClientAggregator() {
+        return new ApproxPercentileClientAggregator(getPercentile(), getCompression(),
+                getAggregatorExpression().getSortOrder());
+    }
+
+    @Override
+    public Aggregator newServerAggregator(Configuration conf) {
+        Expression child = getAggregatorExpression();
+        return new ApproxPercentileServerAggregator(child.getDataType(), child.getSortOrder(), getCompression());
+    }
+
+    @Override
+    public Aggregator newServerAggregator(Configuration config, ImmutableBytesWritable ptr) {
+        Expression child = getAggregatorExpression();
+        ApproxPercentileServerAggregator agg = new ApproxPercentileServerAggregator(child.getDataType(),
+                child.getSortOrder(), getCompression());
+        agg.merge(ptr);
+        return agg;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
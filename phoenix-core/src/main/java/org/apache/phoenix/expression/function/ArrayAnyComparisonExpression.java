@@ -26,11 +26,13 @@ import org.apache.phoenix.expression.ComparisonExpression;
 import org.apache.phoenix.expression.Expression;
 import org.apache.phoenix.expression.visitor.ExpressionVisitor;
 import org.apache.phoenix.schema.tuple.Tuple;
-import org.apache.phoenix.schema.types.PArrayDataType;
+import org.apache.phoenix.schema.types.PArrayDataType.PArrayDataTypeArrayView;
 import org.apache.phoenix.schema.types.PBoolean;
 import org.apache.phoenix.schema.types.PDataType;
 
 public class ArrayAnyComparisonExpression extends BaseCompoundExpression {
+    private PArrayDataTypeArrayView arrayView;
+
     public ArrayAnyComparisonExpression () {
     }
     public ArrayAnyComparisonExpression(List<Expression> children) {
@@ -43,20 +45,30 @@ public class ArrayAnyComparisonExpression extends BaseCompoundExpression {
         if (!arrayKVExpression.evaluate(tuple, ptr)) {
             return false;
         } else if (ptr.getLength() == 0) { return true; }
-        int length = PArrayDataType.getArrayLength(ptr,
-                PDataType.fromTypeId(children.get(0).getDataType().getSqlType() - PDataType.ARRAY_TYPE_BASE),
-                arrayKVExpression.getMaxLength());
-        boolean elementAvailable = false;
-        for (int i = 0; i < length; i++) {
-            Expression comparisonExpr = children.get(1);
-            Expression arrayElemRef = ((ComparisonExpression)comparisonExpr).getChildren().get(1);
-            ((ArrayElemRefExpression)arrayElemRef).setIndex(i + 1);
-            comparisonExpr.evaluate(tuple, ptr);
-            if (expectedReturnResult(resultFound(ptr))) { return result(); }
-            elementAvailable = true;
+        if (arrayView == null) {
+            arrayView = new PArrayDataTypeArrayView(
+                    PDataType.fromTypeId(children.get(0).getDataType().getSqlType() - PDataType.ARRAY_TYPE_BASE),
+                    arrayKVExpression.getMaxLength());
+        }
+        // Decode the array once, and position at its elements without evaluating it again for each one
+        arrayView.set(ptr);
+        int length = arrayView.getNoOfElements();
+        Expression comparisonExpr = children.get(1);
+        ArrayElemRefExpression arrayElemRef = (ArrayElemRefExpression)((ComparisonExpression)comparisonExpr).getChildren().get(1);
+        arrayElemRef.setArrayView(arrayView);
+        try {
+            boolean elementAvailable = false;
+            for (int i = 0; i < length; i++) {
+                arrayElemRef.setIndex(i + 1);
+                comparisonExpr.evaluate(tuple, ptr);
+                if (expectedReturnResult(resultFound(ptr))) { return result(); }
+                elementAvailable = true;
+            }
+            if (!elementAvailable) { return false; }
+            return true;
+        } finally {
+            arrayElemRef.setArrayView(null);
         }
-        if (!elementAvailable) { return false; }
-        return true;
     }
     protected boolean resultFound(ImmutableBytesWritable ptr) {
         if(Bytes.equals(ptr.get(), PDataType.TRUE_BYTES)) {
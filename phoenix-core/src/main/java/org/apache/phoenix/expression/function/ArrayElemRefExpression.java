@@ -28,11 +28,13 @@ import org.apache.phoenix.expression.Expression;
 import org.apache.phoenix.expression.visitor.ExpressionVisitor;
 import org.apache.phoenix.schema.tuple.Tuple;
 import org.apache.phoenix.schema.types.PArrayDataType;
+import org.apache.phoenix.schema.types.PArrayDataType.PArrayDataTypeArrayView;
 import org.apache.phoenix.schema.types.PDataType;
 
 public class ArrayElemRefExpression extends BaseCompoundExpression {
 
     private int index;
+    private PArrayDataTypeArrayView arrayView;
 
     public ArrayElemRefExpression() {
     }
@@ -45,8 +47,20 @@ public class ArrayElemRefExpression extends BaseCompoundExpression {
         this.index = index;
     }
 
+    /**
+     * Set the view over the array to position at the element of, instead of evaluating the array
+     * expression, or null to evaluate it again
+     */
+    public void setArrayView(PArrayDataTypeArrayView arrayView) {
+        this.arrayView = arrayView;
+    }
+
     @Override
     public boolean evaluate(Tuple tuple, ImmutableBytesWritable ptr) {
+        if (arrayView != null) {
+            arrayView.positionAtElement(ptr, index - 1);
+            return true;
+        }
         Expression arrayExpr = children.get(0);
         return PArrayDataType.positionAtArrayElement(tuple, ptr, index, arrayExpr, getDataType(), getMaxLength());
     }
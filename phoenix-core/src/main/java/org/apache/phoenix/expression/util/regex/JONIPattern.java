@@ -102,7 +102,7 @@ public class JONIPattern extends AbstractBasePattern implements AbstractBaseSpli
             }
         }
         int srcRange = srcOffset + srcLen;
-        Matcher matcher = pattern.matcher(srcBytes, 0, srcRange);
+        Matcher matcher = pattern.matcher(srcBytes, srcOffset, srcRange);
         int cur = srcOffset;
         List<PairInt> searchResults = new LinkedList<PairInt>();
         int totalBytesNeeded = 0;
@@ -112,9 +112,10 @@ public class JONIPattern extends AbstractBasePattern implements AbstractBaseSpli
                 totalBytesNeeded += srcRange - cur;
                 break;
             }
-            searchResults.add(new PairInt(matcher.getBegin(), matcher.getEnd()));
-            totalBytesNeeded += (nextCur - cur) + replaceLen;
-            cur = matcher.getEnd();
+            // Match positions are relative to the start of the matcher
+            searchResults.add(new PairInt(srcOffset + matcher.getBegin(), srcOffset + matcher.getEnd()));
+            totalBytesNeeded += (srcOffset + nextCur - cur) + replaceLen;
+            cur = srcOffset + matcher.getEnd();
         }
         byte[] ret = new byte[totalBytesNeeded];
         int curPosInSrc = srcOffset, curPosInRet = 0;
@@ -137,16 +138,21 @@ public class JONIPattern extends AbstractBasePattern implements AbstractBaseSpli
         int offsetInBytes = StringUtil.calculateUTF8Offset(srcPtr.get(), srcPtr.getOffset(),
             srcPtr.getLength(), SortOrder.ASC, offsetInStr);
         if (offsetInBytes < 0) return false;
-        substr(srcPtr.get(), offsetInBytes, srcPtr.getOffset() + srcPtr.getLength(), outPtr);
+        substr(srcPtr.get(), srcPtr.getOffset(), offsetInBytes,
+            srcPtr.getOffset() + srcPtr.getLength(), outPtr);
         return true;
     }
 
-    private boolean substr(byte[] srcBytes, int offset, int range, ImmutableBytesWritable outPtr) {
-        Matcher matcher = pattern.matcher(srcBytes, 0, range);
+    // The matcher starts at the beginning of the value rather than of the underlying byte array,
+    // so that anchors such as ^ aren't evaluated against the bytes preceding the value. Match
+    // positions are relative to that start.
+    private boolean substr(byte[] srcBytes, int start, int offset, int range,
+            ImmutableBytesWritable outPtr) {
+        Matcher matcher = pattern.matcher(srcBytes, start, range);
         boolean ret = matcher.search(offset, range, Option.DEFAULT) >= 0;
         if (ret) {
             int len = matcher.getEnd() - matcher.getBegin();
-            outPtr.set(srcBytes, matcher.getBegin(), len);
+            outPtr.set(srcBytes, start + matcher.getBegin(), len);
         } else {
             outPtr.set(ByteUtil.EMPTY_BYTE_ARRAY);
         }
@@ -163,7 +169,7 @@ public class JONIPattern extends AbstractBasePattern implements AbstractBaseSpli
         PArrayDataTypeBytesArrayBuilder builder =
                 new PArrayDataTypeBytesArrayBuilder(PVarchar.INSTANCE, SortOrder.ASC);
         int srcRange = srcOffset + srcLen;
-        Matcher matcher = pattern.matcher(srcBytes, 0, srcRange);
+        Matcher matcher = pattern.matcher(srcBytes, srcOffset, srcRange);
         int cur = srcOffset;
         boolean append;
         while (true) {
@@ -174,17 +180,20 @@ public class JONIPattern extends AbstractBasePattern implements AbstractBaseSpli
                 break;
             }
 
+            // Match positions are relative to the start of the matcher
+            int begin = srcOffset + matcher.getBegin();
+
             // To handle the following case, which adds null at first.
             // REGEXP_SPLIT("12ONE34TWO56THREE78","[0-9]+")={null, "ONE", "TWO", "THREE", null}
-            if (cur == matcher.getBegin()) {
+            if (cur == begin) {
                 builder.appendElem(srcBytes, cur, 0);
             }
 
-            if (cur < matcher.getBegin()) {
-                append = builder.appendElem(srcBytes, cur, matcher.getBegin() - cur);
+            if (cur < begin) {
+                append = builder.appendElem(srcBytes, cur, begin - cur);
                 if (!append) return false;
             }
-            cur = matcher.getEnd();
+            cur = srcOffset + matcher.getEnd();
 
             // To handle the following case, which adds null at last.
             // REGEXP_SPLIT("12ONE34TWO56THREE78","[0-9]+")={null, "ONE", "TWO", "THREE", null}
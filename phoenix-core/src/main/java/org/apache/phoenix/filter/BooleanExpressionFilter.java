@@ -45,6 +45,7 @@ abstract public class BooleanExpressionFilter extends FilterBase implements Writ
 
     protected Expression expression;
     private ImmutableBytesWritable tempPtr = new ImmutableBytesWritable();
+    private long rowsExamined;
     
     public BooleanExpressionFilter() {
     }
@@ -56,6 +57,24 @@ abstract public class BooleanExpressionFilter extends FilterBase implements Writ
     public Expression getExpression() {
         return expression;
     }
+
+    /**
+     * Counts the rows the region scanner presents to this filter, as the expression itself
+     * is evaluated in filterKeyValue or filterRow.
+     */
+    @Override
+    public boolean filterRowKey(byte[] buffer, int offset, int length) {
+        rowsExamined++;
+        return false;
+    }
+
+    /**
+     * @return the number of rows this filter examined on the server, which includes the rows
+     * of deleted cells because of HBASE-6562
+     */
+    public long getRowsExamined() {
+        return rowsExamined;
+    }
     
     @Override
     public boolean hasFilterRow() {
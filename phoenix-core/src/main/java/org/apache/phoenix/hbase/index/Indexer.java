@@ -105,6 +105,13 @@ public class Indexer extends BaseRegionObserver {
 
   private static final String INDEX_RECOVERY_FAILURE_POLICY_KEY = "org.apache.hadoop.hbase.index.recovery.failurepolicy";
 
+  /**
+   * Configuration key for the number of index updates recovered from the WAL to write to the index
+   * tables at once
+   */
+  public static final String INDEX_RECOVERY_BATCH_SIZE_KEY = "org.apache.hadoop.hbase.index.recovery.batchsize";
+  public static final int DEFAULT_INDEX_RECOVERY_BATCH_SIZE = 1000;
+
   /**
    * cache the failed updates to the various regions. Used for making the WAL recovery mechanisms
    * more robust in the face of recoverying index regions that were on the same server as the
@@ -118,6 +125,20 @@ public class Indexer extends BaseRegionObserver {
    */
   private IndexWriter recoveryWriter;
 
+  /**
+   * index updates recovered from the WAL, not yet written by the recovery writer. They are written
+   * in batches, the last one once the region is open or, for the edits replayed to a region that
+   * is already open, at the end of each replay. Guarded by this, as edits may be replayed to an
+   * open region concurrently
+   */
+  private List<Pair<Mutation, byte[]>> recoveredIndexUpdates = new ArrayList<Pair<Mutation, byte[]>>();
+  private int recoveryBatchSize;
+
+  /**
+   * Whether the region is open, after which edits are only replayed by distributed log replay
+   */
+  private volatile boolean regionOpened;
+
   private boolean stopped;
   private boolean disabled;
 
@@ -166,6 +187,8 @@ public class Indexer extends BaseRegionObserver {
               + " and failure policy: " + policy.getClass());
           recoveryWriter =
               new IndexWriter(recoveryCommmiter, policy, env, serverName + "-recovery-writer");
+          recoveryBatchSize = env.getConfiguration().getInt(INDEX_RECOVERY_BATCH_SIZE_KEY,
+            DEFAULT_INDEX_RECOVERY_BATCH_SIZE);
         } catch (Exception ex) {
           throw new IOException("Could not instantiate recovery failure policy!", ex);
         }
@@ -502,6 +525,16 @@ public class Indexer extends BaseRegionObserver {
 
   @Override
   public void postOpen(final ObserverContext<RegionCoprocessorEnvironment> c) {
+    regionOpened = true;
+    if (!this.disabled) {
+      // write the last batch of the index updates recovered from the WAL, the failed ones going
+      // to the cache of failed edits like the previous batches
+      try {
+        writeRecoveredIndexUpdates();
+      } catch (IOException e) {
+        LOG.error("Exception thrown while writing the index updates recovered from the WAL", e);
+      }
+    }
     Multimap<HTableInterfaceReference, Mutation> updates = failedIndexEdits.getEdits(c.getEnvironment().getRegion());
     
     if (this.disabled) {
@@ -542,6 +575,42 @@ public class Indexer extends BaseRegionObserver {
      * hopes they come up before the primary table finishes.
      */
     Collection<Pair<Mutation, byte[]>> indexUpdates = extractIndexUpdate(logEdit);
+    boolean batchFull;
+    synchronized (this) {
+      recoveredIndexUpdates.addAll(indexUpdates);
+      batchFull = recoveredIndexUpdates.size() >= recoveryBatchSize;
+    }
+    if (batchFull) {
+      writeRecoveredIndexUpdates();
+    }
+  }
+
+  @Override
+  public void postWALRestore(ObserverContext<RegionCoprocessorEnvironment> env, HRegionInfo info,
+      HLogKey logKey, WALEdit logEdit) throws IOException {
+    // With distributed log replay, the edits are replayed to a region that is already open, and
+    // there is no postOpen to write the last batch, so it is written once the edits of a replay
+    // are applied. This is called for each of them, and only the first call finds a batch to write
+    if (!this.disabled && regionOpened) {
+      writeRecoveredIndexUpdates();
+    }
+  }
+
+  /**
+   * Write the index updates recovered from the WAL since the last batch. While the region is
+   * opening, they are all written before it is open, so delaying them until a batch is full does
+   * not expose the recovered data without its index updates. Once the region is open, a replay
+   * writes its last batch when its edits are applied.
+   */
+  private void writeRecoveredIndexUpdates() throws IOException {
+    List<Pair<Mutation, byte[]>> indexUpdates;
+    synchronized (this) {
+      if (recoveredIndexUpdates.isEmpty()) {
+        return;
+      }
+      indexUpdates = recoveredIndexUpdates;
+      recoveredIndexUpdates = new ArrayList<Pair<Mutation, byte[]>>();
+    }
     recoveryWriter.write(indexUpdates);
   }
 
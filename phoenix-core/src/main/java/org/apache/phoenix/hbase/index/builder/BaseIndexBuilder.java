@@ -58,6 +58,11 @@ public abstract class BaseIndexBuilder implements IndexBuilder {
   public void batchCompleted(MiniBatchOperationInProgress<Mutation> miniBatchOp) {
     // noop
   }
+
+  @Override
+  public void batchIndexUpdatesBuilt(MiniBatchOperationInProgress<Mutation> miniBatchOp) {
+    // noop
+  }
   
   /**
    * By default, we always attempt to index the mutation. Commonly this can be slow (because the
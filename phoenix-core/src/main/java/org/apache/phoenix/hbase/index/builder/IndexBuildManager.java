@@ -115,9 +115,17 @@ public class IndexBuildManager implements Stoppable {
   public Collection<Pair<Mutation, byte[]>> getIndexUpdate(
       MiniBatchOperationInProgress<Mutation> miniBatchOp,
       Collection<? extends Mutation> mutations) throws Throwable {
-    // notify the delegate that we have started processing a batch
-    this.delegate.batchStarted(miniBatchOp);
+    try {
+      // notify the delegate that we have started processing a batch
+      this.delegate.batchStarted(miniBatchOp);
+      return getIndexUpdate(mutations);
+    } finally {
+      this.delegate.batchIndexUpdatesBuilt(miniBatchOp);
+    }
+  }
 
+  private Collection<Pair<Mutation, byte[]>> getIndexUpdate(
+      Collection<? extends Mutation> mutations) throws Throwable {
     // parallelize each mutation into its own task
     // each task is cancelable via two mechanisms: (1) underlying HRegion is closing (which would
     // fail lookups/scanning) and (2) by stopping this via the #stop method. Interrupts will only be
@@ -117,6 +117,14 @@ public interface IndexBuilder extends Stoppable {
    */
   public void batchStarted(MiniBatchOperationInProgress<Mutation> miniBatchOp) throws IOException;
 
+  /**
+   * Notification that the index updates for a batch have been built, or that building them
+   * failed. Unlike {@link #batchCompleted}, this is called while the batch still holds the locks on
+   * its rows, so any state kept for the batch since {@link #batchStarted} should be released here.
+   * @param miniBatchOp the full batch operation to be written
+   */
+  public void batchIndexUpdatesBuilt(MiniBatchOperationInProgress<Mutation> miniBatchOp);
+
   /**
    * This allows the codec to dynamically change whether or not indexing should take place for a
    * table. If it doesn't take place, we can save a lot of time on the regular Put patch. By making
@@ -45,7 +45,6 @@ import org.apache.hadoop.hbase.util.Pair;
 import com.google.common.collect.Lists;
 import com.google.common.primitives.Longs;
 import org.apache.phoenix.hbase.index.builder.BaseIndexBuilder;
-import org.apache.phoenix.hbase.index.covered.data.LocalHBaseState;
 import org.apache.phoenix.hbase.index.covered.data.LocalTable;
 import org.apache.phoenix.hbase.index.covered.update.ColumnTracker;
 import org.apache.phoenix.hbase.index.covered.update.IndexUpdateManager;
@@ -67,7 +66,7 @@ public class CoveredColumnsIndexBuilder extends BaseIndexBuilder {
 
   protected RegionCoprocessorEnvironment env;
   protected IndexCodec codec;
-  protected LocalHBaseState localTable;
+  protected LocalTable localTable;
 
   @Override
   public void setup(RegionCoprocessorEnvironment env) throws IOException {
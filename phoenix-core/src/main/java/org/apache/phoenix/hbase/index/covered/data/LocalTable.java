@@ -21,7 +21,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.KeyValue;
@@ -33,6 +37,7 @@ import org.apache.hadoop.hbase.regionserver.HRegion;
 import org.apache.hadoop.hbase.regionserver.RegionScanner;
 
 import org.apache.phoenix.hbase.index.covered.update.ColumnReference;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
 import org.apache.phoenix.hbase.index.util.IndexManagementUtil;
 
 /**
@@ -43,19 +48,58 @@ import org.apache.phoenix.hbase.index.util.IndexManagementUtil;
  * row accessed multiple times will likely be in HBase's block cache, invalidating any extra caching
  * we are doing here. In the end, its simpler and about as efficient to just get the current state
  * of the row from HBase and let HBase manage caching the row from disk on its own.
+ * <p>
+ * The one exception is the state of the rows of a batch whose index updates are being built. It
+ * can be read for all rows of the batch with a single scan up front and added with
+ * {@link #addBatchRowState}, which saves opening a scanner per row. As the batch holds the locks
+ * on its rows until the index updates are built, that state can't change in the meantime and
+ * there's nothing to invalidate - it just has to be removed again with
+ * {@link #removeBatchRowState} before the row locks are released.
  */
 public class LocalTable implements LocalHBaseState {
 
   private RegionCoprocessorEnvironment env;
+  private final ConcurrentMap<ImmutableBytesPtr, BatchRowState> batchRowStates =
+      new ConcurrentHashMap<ImmutableBytesPtr, BatchRowState>();
 
   public LocalTable(RegionCoprocessorEnvironment env) {
     this.env = env;
   }
 
+  /**
+   * Add the current state of a row of the batch being indexed, to be returned by
+   * {@link #getCurrentRowState} until it is removed again. Must only be called while the row is
+   * locked by the batch.
+   * @param row the row key
+   * @param families the column families that were read for the row. All of their cells must be
+   *          included in the state, as in the result of {@link #getCurrentRowState}
+   * @param cells the raw state of the row, in scan order
+   */
+  public void addBatchRowState(byte[] row, Set<ImmutableBytesPtr> families, List<Cell> cells) {
+    batchRowStates.put(new ImmutableBytesPtr(row), new BatchRowState(families, cells));
+  }
+
+  /**
+   * Remove the state of a row added with {@link #addBatchRowState}, if any.
+   * @param row the row key
+   */
+  public void removeBatchRowState(byte[] row) {
+    batchRowStates.remove(new ImmutableBytesPtr(row));
+  }
+
   @Override
   public Result getCurrentRowState(Mutation m, Collection<? extends ColumnReference> columns)
       throws IOException {
     byte[] row = m.getRow();
+    if (!batchRowStates.isEmpty()) {
+      BatchRowState batchRowState = batchRowStates.get(new ImmutableBytesPtr(row));
+      if (batchRowState != null) {
+        Result r = batchRowState.getResult(columns);
+        if (r != null) {
+          return r;
+        }
+      }
+    }
     // need to use a scan here so we can get raw state, which Get doesn't provide.
     Scan s = IndexManagementUtil.newLocalStateScan(Collections.singletonList(columns));
     s.setStartRow(row);
@@ -70,4 +114,45 @@ public class LocalTable implements LocalHBaseState {
     scanner.close();
     return r;
   }
-}
\ No newline at end of file
+
+  /**
+   * State of a row read for a batch, covering whole column families like the scan in
+   * {@link LocalTable#getCurrentRowState}
+   */
+  private static class BatchRowState {
+    private final Set<ImmutableBytesPtr> families;
+    private final List<Cell> cells;
+
+    public BatchRowState(Set<ImmutableBytesPtr> families, List<Cell> cells) {
+      this.families = families;
+      this.cells = cells;
+    }
+
+    /**
+     * @return the state of the row restricted to the families of the given columns, or
+     *         <tt>null</tt> if not all of those families have been read
+     */
+    public Result getResult(Collection<? extends ColumnReference> columns) {
+      Set<ImmutableBytesPtr> requested = new HashSet<ImmutableBytesPtr>();
+      for (ColumnReference ref : columns) {
+        // the family of a reference is read-only, which doesn't compare equal to a plain pointer
+        requested.add(new ImmutableBytesPtr(ref.getFamilyWritable()));
+      }
+      if (!families.containsAll(requested)) {
+        return null;
+      }
+      if (requested.size() == families.size()) {
+        return Result.create(cells);
+      }
+      List<Cell> kvs = new ArrayList<Cell>(cells.size());
+      ImmutableBytesPtr family = new ImmutableBytesPtr();
+      for (Cell cell : cells) {
+        family.set(cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength());
+        if (requested.contains(family)) {
+          kvs.add(cell);
+        }
+      }
+      return Result.create(kvs);
+    }
+  }
+}
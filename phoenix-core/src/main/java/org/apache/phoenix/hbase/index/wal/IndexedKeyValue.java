@@ -22,19 +22,30 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Durability;
 import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.io.util.Dictionary;
 import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MutationProto;
 import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MutationProto.MutationType;
 import org.apache.hadoop.hbase.regionserver.wal.WALEdit;
 import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.WritableUtils;
 import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
 
 public class IndexedKeyValue extends KeyValue {
     public static final byte [] COLUMN_QUALIFIER = Bytes.toBytes("INDEXEDKEYVALUE_FAKED_COLUMN");
+
+    // flags of the compact serialization of the mutation
+    private static final byte DELETE_FLAG = 0x01;
+    private static final byte LATEST_TIMESTAMP_FLAG = 0x02;
   
     private static int calcHashCode(ImmutableBytesPtr indexTableName, Mutation mutation) {
         final int prime = 31;
@@ -181,6 +192,150 @@ public class IndexedKeyValue extends KeyValue {
         this.hashCode = calcHashCode(indexTableName, mutation);
     }
 
+    /**
+     * Internal write the underlying data for the entry in a compact form, as an alternative to
+     * {@link #writeData(DataOutput)}. The mutation is written cell by cell, with the family written
+     * once for all its cells and the time stamp of each cell written as a delta from the previous
+     * one. If dictionaries are given, the index table name, the families and the qualifiers are
+     * written as references to their previous occurrence in the stream. Writing should be done via
+     * {@link KeyValueCodec#writeCompact(DataOutput, KeyValue)} or a WAL codec using the same
+     * dictionaries to read the entries back.
+     * 
+     * @param out
+     *            to write data to. Does not close or flush the passed object.
+     * @param tableDict
+     *            dictionary of the index table names, or <tt>null</tt> to write them in full
+     * @param familyDict
+     *            dictionary of the families, or <tt>null</tt> to write them in full
+     * @param qualifierDict
+     *            dictionary of the qualifiers, or <tt>null</tt> to write them in full
+     * @throws IOException
+     *             if there is a problem writing the underlying data
+     */
+    public void writeCompactData(DataOutput out, Dictionary tableDict, Dictionary familyDict,
+            Dictionary qualifierDict) throws IOException {
+        byte flags;
+        if (mutation instanceof Put) {
+            flags = 0;
+        } else if (mutation instanceof Delete) {
+            flags = DELETE_FLAG;
+        } else {
+            throw new IOException("Put/Delete mutations only supported");
+        }
+        long timestamp = mutation.getTimeStamp();
+        if (timestamp == HConstants.LATEST_TIMESTAMP) {
+            flags |= LATEST_TIMESTAMP_FLAG;
+        }
+        writeBytes(out, indexTableName.get(), indexTableName.getOffset(), indexTableName.getLength(), tableDict);
+        out.writeByte(flags);
+        Bytes.writeByteArray(out, mutation.getRow());
+        if (timestamp != HConstants.LATEST_TIMESTAMP) {
+            WritableUtils.writeVLong(out, timestamp);
+        }
+        out.writeByte(mutation.getDurability().ordinal());
+        Map<String, byte[]> attributes = mutation.getAttributesMap();
+        WritableUtils.writeVInt(out, attributes.size());
+        for (Map.Entry<String, byte[]> attribute : attributes.entrySet()) {
+            WritableUtils.writeString(out, attribute.getKey());
+            Bytes.writeByteArray(out, attribute.getValue());
+        }
+        Map<byte[], List<Cell>> familyCellMap = mutation.getFamilyCellMap();
+        WritableUtils.writeVInt(out, familyCellMap.size());
+        long previousTimestamp = 0;
+        for (Map.Entry<byte[], List<Cell>> entry : familyCellMap.entrySet()) {
+            byte[] family = entry.getKey();
+            writeBytes(out, family, 0, family.length, familyDict);
+            WritableUtils.writeVInt(out, entry.getValue().size());
+            for (Cell cell : entry.getValue()) {
+                writeBytes(out, cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength(),
+                    qualifierDict);
+                WritableUtils.writeVLong(out, cell.getTimestamp() - previousTimestamp);
+                previousTimestamp = cell.getTimestamp();
+                out.writeByte(cell.getTypeByte());
+                WritableUtils.writeVInt(out, cell.getValueLength());
+                out.write(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            }
+        }
+    }
+
+    /**
+     * The complement to {@link #writeCompactData(DataOutput, Dictionary, Dictionary, Dictionary)}, which
+     * must be given the same dictionaries.
+     */
+    public void readCompactFields(DataInput in, Dictionary tableDict, Dictionary familyDict,
+            Dictionary qualifierDict) throws IOException {
+        this.indexTableName = new ImmutableBytesPtr(readBytes(in, tableDict));
+        byte flags = in.readByte();
+        byte[] row = Bytes.readByteArray(in);
+        long timestamp = (flags & LATEST_TIMESTAMP_FLAG) != 0 ? HConstants.LATEST_TIMESTAMP : WritableUtils.readVLong(in);
+        Mutation mutation = (flags & DELETE_FLAG) != 0 ? new Delete(row, timestamp) : new Put(row, timestamp);
+        mutation.setDurability(Durability.values()[in.readByte()]);
+        int nAttributes = WritableUtils.readVInt(in);
+        for (int i = 0; i < nAttributes; i++) {
+            mutation.setAttribute(WritableUtils.readString(in), Bytes.readByteArray(in));
+        }
+        int nFamilies = WritableUtils.readVInt(in);
+        long previousTimestamp = 0;
+        for (int i = 0; i < nFamilies; i++) {
+            byte[] family = readBytes(in, familyDict);
+            int nCells = WritableUtils.readVInt(in);
+            for (int j = 0; j < nCells; j++) {
+                byte[] qualifier = readBytes(in, qualifierDict);
+                long cellTimestamp = previousTimestamp + WritableUtils.readVLong(in);
+                previousTimestamp = cellTimestamp;
+                KeyValue.Type type = KeyValue.Type.codeToType(in.readByte());
+                byte[] value = new byte[WritableUtils.readVInt(in)];
+                in.readFully(value);
+                KeyValue kv = new KeyValue(row, family, qualifier, cellTimestamp, type, value);
+                if (mutation instanceof Put) {
+                    ((Put)mutation).add(kv);
+                } else {
+                    ((Delete)mutation).addDeleteMarker(kv);
+                }
+            }
+        }
+        this.mutation = mutation;
+        this.hashCode = calcHashCode(indexTableName, mutation);
+    }
+
+    /**
+     * Write bytes as a reference to their previous occurrence in the dictionary, if there is one, in
+     * the same way as the WAL compression of HBase.
+     */
+    private static void writeBytes(DataOutput out, byte[] bytes, int offset, int length, Dictionary dict)
+            throws IOException {
+        if (dict != null) {
+            short index = dict.findEntry(bytes, offset, length);
+            if (index != Dictionary.NOT_IN_DICTIONARY) {
+                out.writeShort(index);
+                return;
+            }
+            out.writeByte(Dictionary.NOT_IN_DICTIONARY);
+        }
+        WritableUtils.writeVInt(out, length);
+        out.write(bytes, offset, length);
+    }
+
+    private static byte[] readBytes(DataInput in, Dictionary dict) throws IOException {
+        if (dict != null) {
+            byte status = in.readByte();
+            if (status != Dictionary.NOT_IN_DICTIONARY) {
+                short index = (short)(((status & 0xFF) << 8) | (in.readByte() & 0xFF));
+                byte[] entry = dict.getEntry(index);
+                if (entry == null) {
+                    throw new IOException("Missing dictionary entry for index " + index);
+                }
+                return entry;
+            }
+        }
+        byte[] bytes = new byte[WritableUtils.readVInt(in)];
+        in.readFully(bytes);
+        if (dict != null) {
+            dict.addEntry(bytes, 0, bytes.length);
+        }
+        return bytes;
+    }
+
     public boolean getBatchFinished() {
         return this.batchFinished;
     }
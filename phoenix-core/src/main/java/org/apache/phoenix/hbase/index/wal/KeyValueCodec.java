@@ -40,6 +40,12 @@ public class KeyValueCodec {
    */
   public static final int INDEX_TYPE_LENGTH_MARKER = -1;
 
+  /**
+   * KeyValue length marker specifying that its actually an {@link IndexedKeyValue} written in the
+   * compact form of {@link IndexedKeyValue#writeCompactData}.
+   */
+  public static final int COMPACT_INDEX_TYPE_LENGTH_MARKER = -2;
+
   /**
    * Read a {@link List} of {@link KeyValue} from the input stream - may contain regular
    * {@link KeyValue}s or {@link IndexedKeyValue}s.
@@ -73,6 +79,10 @@ public class KeyValueCodec {
       IndexedKeyValue kv = new IndexedKeyValue();
       kv.readFields(in);
       return kv;
+    } else if (length == COMPACT_INDEX_TYPE_LENGTH_MARKER) {
+      IndexedKeyValue kv = new IndexedKeyValue();
+      kv.readCompactFields(in, null, null, null);
+      return kv;
     } else {
       return KeyValue.create(length, in);
     }
@@ -93,4 +103,21 @@ public class KeyValueCodec {
         KeyValue.write(kv, out);
     }
   }
+
+  /**
+   * Write a {@link KeyValue} or an {@link IndexedKeyValue} to the output stream, like
+   * {@link #write(DataOutput, KeyValue)} but writing {@link IndexedKeyValue}s in their compact form.
+   * These can be read back via {@link #readKeyValue(DataInput)} or {@link #readKeyValues(DataInput)}.
+   * @param out to write to
+   * @param kv {@link KeyValue} to which to write
+   * @throws IOException if there is an error writing
+   */
+  public static void writeCompact(DataOutput out, KeyValue kv) throws IOException {
+    if (kv instanceof IndexedKeyValue) {
+      out.writeInt(COMPACT_INDEX_TYPE_LENGTH_MARKER);
+      ((IndexedKeyValue) kv).writeCompactData(out, null, null, null);
+    } else {
+        KeyValue.write(kv, out);
+    }
+  }
 }
\ No newline at end of file
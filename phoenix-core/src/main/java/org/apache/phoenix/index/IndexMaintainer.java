@@ -80,6 +80,7 @@ import org.apache.phoenix.util.BitSet;
 import org.apache.phoenix.util.ByteUtil;
 import org.apache.phoenix.util.IndexUtil;
 import org.apache.phoenix.util.MetaDataUtil;
+import org.apache.phoenix.util.PackedColumnUtil;
 import org.apache.phoenix.util.SchemaUtil;
 import org.apache.phoenix.util.TrustedByteArrayOutputStream;
 
@@ -88,6 +89,7 @@ import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.primitives.Ints;
 
 /**
  * 
@@ -168,25 +170,35 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
                 return;
             }
         }
-        int nIndexes = 0;
+        indexesItr =
+                dataTable.isImmutableRows() ? enabledLocalIndexIterator(indexes.iterator())
+                        : nonDisabledIndexIterator(indexes.iterator());
+        serializeAll(dataTable, ptr, Lists.newArrayList(indexesItr), connection);
+    }
+
+    /**
+     * For client-side to serialize the IndexMaintainers of the given indexes, whatever their state
+     * and whether or not they are maintained on the server side, for example to build the rows of
+     * an index in a map reduce job.
+     * @param dataTable data table
+     * @param ptr bytes pointer to hold returned serialized value
+     * @param indexes indexes to serialize
+     */
+    public static void serializeAll(PTable dataTable, ImmutableBytesWritable ptr,
+            List<PTable> indexes, PhoenixConnection connection) {
         int estimatedSize = dataTable.getRowKeySchema().getEstimatedByteSize() + 2;
-        while (indexesItr.hasNext()) {
-            nIndexes++;
-            PTable index = indexesItr.next();
+        for (PTable index : indexes) {
             estimatedSize += index.getIndexMaintainer(dataTable, connection).getEstimatedByteSize();
         }
         TrustedByteArrayOutputStream stream = new TrustedByteArrayOutputStream(estimatedSize + 1);
         DataOutput output = new DataOutputStream(stream);
         try {
             // Encode data table salting in sign of number of indexes
-            WritableUtils.writeVInt(output, nIndexes * (dataTable.getBucketNum() == null ? 1 : -1));
+            WritableUtils.writeVInt(output, indexes.size() * (dataTable.getBucketNum() == null ? 1 : -1));
             // Write out data row key schema once, since it's the same for all index maintainers
             dataTable.getRowKeySchema().write(output);
-            indexesItr =
-                    dataTable.isImmutableRows() ? enabledLocalIndexIterator(indexes.iterator())
-                            : nonDisabledIndexIterator(indexes.iterator());
-            while (indexesItr.hasNext()) {
-                    indexesItr.next().getIndexMaintainer(dataTable, connection).write(output);
+            for (PTable index : indexes) {
+                index.getIndexMaintainer(dataTable, connection).write(output);
             }
         } catch (IOException e) {
             throw new RuntimeException(e); // Impossible
@@ -256,6 +268,11 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
     private int[] dataPkPosition;
     private int maxTrailingNulls;
     private ColumnReference dataEmptyKeyValueRef;
+    // Slot of each covered column in the packed cell of its family, if the data table has packed
+    // columns. Not serialized: of the indexes of a table with immutable rows, as a table with packed
+    // columns must be, only the maintainers of local indexes are serialized, and a table with
+    // packed columns cannot have local indexes.
+    private int[] coveredColumnSlots;
     
     private IndexMaintainer(RowKeySchema dataRowKeySchema, boolean isDataTableSalted) {
         this.dataRowKeySchema = dataRowKeySchema;
@@ -369,13 +386,19 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
             }
         }
         this.estimatedExpressionSize = expressionIndexCompiler.getTotalNodeCount() * ESTIMATED_EXPRESSION_SIZE;
+        List<Integer> coveredColumnSlots = Lists.newArrayListWithExpectedSize(nIndexColumns-nIndexPKColumns);
         for (int i = 0; i < index.getColumnFamilies().size(); i++) {
             PColumnFamily family = index.getColumnFamilies().get(i);
             for (PColumn indexColumn : family.getColumns()) {
                 PColumn column = IndexUtil.getDataColumn(dataTable, indexColumn.getName().getString());
-                this.coveredColumns.add(new ColumnReference(column.getFamilyName().getBytes(), column.getName().getBytes()));
+                if (this.coveredColumns.add(new ColumnReference(column.getFamilyName().getBytes(), column.getName().getBytes()))) {
+                    coveredColumnSlots.add(PackedColumnUtil.getSlot(column));
+                }
             }
         }
+        if (dataTable.isPackedColumns()) {
+            this.coveredColumnSlots = Ints.toArray(coveredColumnSlots);
+        }
         this.estimatedIndexRowKeyBytes = estimateIndexRowKeyByteSize(indexColByteSize);
         initCachedState();
     }
@@ -765,8 +788,22 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
         }
         int i = 0;
         for (ColumnReference ref : this.getCoverededColumns()) {
-            ImmutableBytesPtr cq = this.indexQualifiers.get(i++);
-            ImmutableBytesPtr value = valueGetter.getLatestValue(ref);
+            ImmutableBytesPtr cq = this.indexQualifiers.get(i);
+            ImmutableBytesPtr value;
+            if (coveredColumnSlots == null) {
+                value = valueGetter.getLatestValue(ref);
+            } else {
+                // Unpack the value of the column from the cell of its family
+                value = valueGetter.getLatestValue(new ColumnReference(ref.getFamily(), QueryConstants.PACKED_COLUMN_BYTES));
+                if (value != null) {
+                    value = new ImmutableBytesPtr(value);
+                    PackedColumnUtil.unpack(value, coveredColumnSlots[i]);
+                    if (value.getLength() == 0) {
+                        value = null;
+                    }
+                }
+            }
+            i++;
             byte[] indexRowKey = this.buildRowKey(valueGetter, dataRowKeyPtr, regionStartKey, regionEndKey);
             ImmutableBytesPtr rowKey = new ImmutableBytesPtr(indexRowKey);
             if (value != null) {
@@ -1099,7 +1136,13 @@ public class IndexMaintainer implements Writable, Iterable<ColumnReference> {
             expression.accept(visitor);
         }
         allColumns.addAll(indexedColumns);
-        allColumns.addAll(coveredColumns);
+        if (coveredColumnSlots == null) {
+            allColumns.addAll(coveredColumns);
+        } else {
+            for (ColumnReference ref : coveredColumns) {
+                allColumns.add(new ColumnReference(ref.getFamily(), QueryConstants.PACKED_COLUMN_BYTES));
+            }
+        }
         
         int dataPkOffset = (isDataTableSalted ? 1 : 0) + (isMultiTenant ? 1 : 0);
         int nIndexPkColumns = getIndexPkColumnCount();
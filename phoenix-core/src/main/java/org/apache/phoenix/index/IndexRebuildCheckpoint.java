@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.index;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.phoenix.util.TrustedByteArrayOutputStream;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Progress of the rebuild of a disabled index, stored in the INDEX_REBUILD_CHECKPOINT column of
+ * the index header row in SYSTEM.CATALOG so that an interrupted rebuild may be resumed. The
+ * checkpoint is the list of the key ranges of the data table for which the index rows have been
+ * rebuilt, each with the time at which its rebuild started. When a rebuild is resumed, a range
+ * that was already rebuilt only needs to take into account the data rows changed since then.
+ *
+ *
+ * @since 4.4.0
+ */
+public class IndexRebuildCheckpoint {
+
+    private static class Range {
+        private final byte[] startKey;
+        private final byte[] stopKey;
+        private final long time;
+
+        private Range(byte[] startKey, byte[] stopKey, long time) {
+            this.startKey = startKey;
+            this.stopKey = stopKey;
+            this.time = time;
+        }
+    }
+
+    // Sorted and non overlapping ranges, adjacent ranges being merged
+    private final List<Range> ranges = Lists.newArrayList();
+
+    public IndexRebuildCheckpoint() {
+    }
+
+    /**
+     * @param value the serialized checkpoint, null or empty for no progress
+     */
+    public static IndexRebuildCheckpoint fromBytes(byte[] value) {
+        IndexRebuildCheckpoint checkpoint = new IndexRebuildCheckpoint();
+        if (value == null || value.length == 0) {
+            return checkpoint;
+        }
+        DataInput input = new DataInputStream(new ByteArrayInputStream(value));
+        try {
+            int nRanges = WritableUtils.readVInt(input);
+            for (int i = 0; i < nRanges; i++) {
+                byte[] startKey = Bytes.readByteArray(input);
+                byte[] stopKey = Bytes.readByteArray(input);
+                long time = WritableUtils.readVLong(input);
+                checkpoint.ranges.add(new Range(startKey, stopKey, time));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e); // Impossible
+        }
+        return checkpoint;
+    }
+
+    public synchronized byte[] toBytes() {
+        TrustedByteArrayOutputStream stream = new TrustedByteArrayOutputStream(16 + ranges.size() * 32);
+        DataOutput output = new DataOutputStream(stream);
+        try {
+            WritableUtils.writeVInt(output, ranges.size());
+            for (Range range : ranges) {
+                Bytes.writeByteArray(output, range.startKey);
+                Bytes.writeByteArray(output, range.stopKey);
+                WritableUtils.writeVLong(output, range.time);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e); // Impossible
+        }
+        return stream.toByteArray();
+    }
+
+    private static int compareStopKeys(byte[] stopKey1, byte[] stopKey2) {
+        if (stopKey1.length == 0) {
+            return stopKey2.length == 0 ? 0 : 1;
+        }
+        return stopKey2.length == 0 ? -1 : Bytes.compareTo(stopKey1, stopKey2);
+    }
+
+    /**
+     * Record that the index rows of a key range of the data table have been rebuilt
+     * @param startKey inclusive start key of the range, empty for the start of the table
+     * @param stopKey exclusive stop key of the range, empty for the end of the table
+     * @param time time at which the rebuild of the range started
+     */
+    public synchronized void add(byte[] startKey, byte[] stopKey, long time) {
+        // Merge the ranges overlapping or adjacent to the new one, keeping the earliest time
+        int i = 0;
+        while (i < ranges.size() && ranges.get(i).stopKey.length > 0
+                && Bytes.compareTo(ranges.get(i).stopKey, startKey) < 0) {
+            i++;
+        }
+        while (i < ranges.size() && (stopKey.length == 0
+                || Bytes.compareTo(ranges.get(i).startKey, stopKey) <= 0)) {
+            Range range = ranges.remove(i);
+            if (Bytes.compareTo(range.startKey, startKey) < 0) {
+                startKey = range.startKey;
+            }
+            if (compareStopKeys(range.stopKey, stopKey) > 0) {
+                stopKey = range.stopKey;
+            }
+            time = Math.min(time, range.time);
+        }
+        ranges.add(i, new Range(startKey, stopKey, time));
+    }
+
+    /**
+     * @return the time at which the rebuild of the given key range of the data table started, or
+     *         null if the index rows of some of the range have not been rebuilt
+     */
+    public synchronized Long getRebuildTime(byte[] startKey, byte[] stopKey) {
+        for (Range range : ranges) {
+            if (Bytes.compareTo(range.startKey, startKey) <= 0 && compareStopKeys(range.stopKey, stopKey) >= 0) {
+                return range.time;
+            }
+        }
+        return null;
+    }
+
+    public synchronized boolean isEmpty() {
+        return ranges.isEmpty();
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder buf = new StringBuilder("[");
+        for (Range range : ranges) {
+            if (buf.length() > 1) {
+                buf.append(", ");
+            }
+            buf.append(Bytes.toStringBinary(range.startKey)).append(" - ")
+                    .append(range.stopKey.length == 0 ? "END" : Bytes.toStringBinary(range.stopKey))
+                    .append(" @ ").append(range.time);
+        }
+        return buf.append("]").toString();
+    }
+}
@@ -21,23 +21,31 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HConstants.OperationStatusCode;
+import org.apache.hadoop.hbase.KeyValueUtil;
 import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.regionserver.HRegion;
 import org.apache.hadoop.hbase.regionserver.MiniBatchOperationInProgress;
 import org.apache.hadoop.hbase.regionserver.RegionScanner;
-import org.apache.phoenix.compile.ScanRanges;
 import org.apache.phoenix.hbase.index.covered.CoveredColumnsIndexBuilder;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
 import org.apache.phoenix.hbase.index.util.IndexManagementUtil;
-import org.apache.phoenix.query.KeyRange;
-import org.apache.phoenix.schema.types.PVarbinary;
-import org.apache.phoenix.util.ScanUtil;
-import org.apache.phoenix.util.SchemaUtil;
+import org.apache.phoenix.query.QueryConstants;
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.query.QueryServicesOptions;
+import org.apache.phoenix.util.ByteUtil;
 
 import com.google.common.collect.Lists;
 
@@ -46,18 +54,35 @@ import com.google.common.collect.Lists;
  */
 public class PhoenixIndexBuilder extends CoveredColumnsIndexBuilder {
 
+    private long maxBatchRowStateSize;
+
+    @Override
+    public void setup(RegionCoprocessorEnvironment env) throws IOException {
+        super.setup(env);
+        this.maxBatchRowStateSize = env.getConfiguration().getLong(
+                QueryServices.INDEX_BATCH_ROW_STATE_MAX_SIZE_ATTRIB,
+                QueryServicesOptions.DEFAULT_INDEX_BATCH_ROW_STATE_MAX_SIZE);
+    }
+
     @Override
     public void batchStarted(MiniBatchOperationInProgress<Mutation> miniBatchOp) throws IOException {
-        // The entire purpose of this method impl is to get the existing rows for the
-        // table rows being indexed into the block cache, as the index maintenance code
-        // does a point scan per row
-        List<KeyRange> keys = Lists.newArrayListWithExpectedSize(miniBatchOp.size());
+        // Read the existing state of the table rows being indexed with a single scanner and hand
+        // it to the local table, so that the index maintenance code doesn't have to open a
+        // scanner per row. Rows whose state doesn't fit into the configured size are looked up
+        // again by the point scan.
+        // Seek to each row in key order instead of using a skip scan over the row keys, as the
+        // var binary row key schema would strip trailing zero bytes from them
+        SortedSet<ImmutableBytesPtr> rows = new TreeSet<ImmutableBytesPtr>();
         Map<ImmutableBytesWritable, IndexMaintainer> maintainers =
                 new HashMap<ImmutableBytesWritable, IndexMaintainer>();
         ImmutableBytesWritable indexTableName = new ImmutableBytesWritable();
         for (int i = 0; i < miniBatchOp.size(); i++) {
             Mutation m = miniBatchOp.getOperation(i);
-            keys.add(PVarbinary.INSTANCE.getKeyRange(m.getRow()));
+            // Only read the state of rows locked by this batch, as no one else can change it
+            // until the index updates have been built
+            if (isRowLocked(miniBatchOp, i)) {
+                rows.add(new ImmutableBytesPtr(m.getRow()));
+            }
             List<IndexMaintainer> indexMaintainers = getCodec().getIndexMaintainers(m.getAttributesMap());
             
             for(IndexMaintainer indexMaintainer: indexMaintainers) {
@@ -68,25 +93,57 @@ public class PhoenixIndexBuilder extends CoveredColumnsIndexBuilder {
             }
             
         }
-        if (maintainers.isEmpty()) return;
+        if (maintainers.isEmpty() || rows.isEmpty() || maxBatchRowStateSize <= 0) return;
         Scan scan = IndexManagementUtil.newLocalStateScan(new ArrayList<IndexMaintainer>(maintainers.values()));
-        ScanRanges scanRanges = ScanRanges.create(SchemaUtil.VAR_BINARY_SCHEMA, Collections.singletonList(keys), ScanUtil.SINGLE_COLUMN_SLOT_SPAN);
-        scanRanges.initializeScan(scan);
-        scan.setFilter(scanRanges.getSkipScanFilter());
+        // Nothing to read if the indexes only reference row key columns
+        if (!scan.hasFamilies()) return;
+        scan.setStartRow(rows.first().copyBytesIfNecessary());
+        scan.setStopRow(ByteUtil.concat(rows.last().copyBytesIfNecessary(), QueryConstants.SEPARATOR_BYTE_ARRAY));
+        Set<ImmutableBytesPtr> families = new HashSet<ImmutableBytesPtr>();
+        for (byte[] family : scan.getFamilies()) {
+            families.add(new ImmutableBytesPtr(family));
+        }
+        List<Cell> noCells = Collections.emptyList();
+        long batchRowStateSize = 0;
         HRegion region = this.env.getRegion();
         RegionScanner scanner = region.getScanner(scan);
         // Run through the scanner using internal nextRaw method
         region.startRegionOperation();
         try {
             synchronized (scanner) {
-                boolean hasMore;
-                do {
-                    List<Cell> results = Lists.newArrayList();
-                    // Results are potentially returned even when the return value of s.next is
-                    // false since this is an indication of whether or not there are more values
-                    // after the ones returned
-                    hasMore = scanner.nextRaw(results);
-                } while (hasMore);
+                // The first row at or after the last row sought to, which has not been used yet
+                List<Cell> results = null;
+                ImmutableBytesPtr resultRow = null;
+                boolean hasMore = true;
+                for (ImmutableBytesPtr row : rows) {
+                    if (resultRow != null && resultRow.compareTo(row) < 0) {
+                        results = null;
+                        resultRow = null;
+                    }
+                    if (results == null && hasMore) {
+                        scanner.reseek(row.copyBytesIfNecessary());
+                        results = Lists.newArrayList();
+                        // Results are potentially returned even when the return value of s.next is
+                        // false since this is an indication of whether or not there are more values
+                        // after the ones returned
+                        hasMore = scanner.nextRaw(results);
+                        resultRow = results.isEmpty() ? null : new ImmutableBytesPtr(CellUtil.cloneRow(results.get(0)));
+                    }
+                    if (resultRow == null || !resultRow.equals(row)) {
+                        // The row doesn't exist yet, so there's nothing to look up for it
+                        localTable.addBatchRowState(row.copyBytesIfNecessary(), families, noCells);
+                        continue;
+                    }
+                    for (Cell cell : results) {
+                        batchRowStateSize += KeyValueUtil.length(cell);
+                    }
+                    if (batchRowStateSize > maxBatchRowStateSize) {
+                        break;
+                    }
+                    localTable.addBatchRowState(row.copyBytesIfNecessary(), families, results);
+                    results = null;
+                    resultRow = null;
+                }
             }
         } finally {
             try {
@@ -97,6 +154,23 @@ public class PhoenixIndexBuilder extends CoveredColumnsIndexBuilder {
         }
     }
 
+    @Override
+    public void batchIndexUpdatesBuilt(MiniBatchOperationInProgress<Mutation> miniBatchOp) {
+        for (int i = 0; i < miniBatchOp.size(); i++) {
+            if (isRowLocked(miniBatchOp, i)) {
+                localTable.removeBatchRowState(miniBatchOp.getOperation(i).getRow());
+            }
+        }
+    }
+
+    /**
+     * Mutations that failed before the batch was started, for example in sanity checks, are part
+     * of the batch but don't have their row locked
+     */
+    private static boolean isRowLocked(MiniBatchOperationInProgress<Mutation> miniBatchOp, int i) {
+        return miniBatchOp.getOperationStatus(i).getOperationStatusCode() == OperationStatusCode.NOT_RUN;
+    }
+
     private PhoenixIndexCodec getCodec() {
         return (PhoenixIndexCodec)this.codec;
     }
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.iterate;
+
+import org.apache.phoenix.schema.tuple.Tuple;
+
+/**
+ * Counts the rows returned by a client side iterator, so that once the iterator ran, as it does
+ * for EXPLAIN ANALYZE, the step of the plan it explains shows its actual rows.
+ *
+ * @since 4.4.0
+ */
+class ActualRowCounter {
+    // Negative until the iterator returns its first tuple or runs out of them
+    private long rowCount = -1;
+
+    Tuple count(Tuple tuple) {
+        if (rowCount < 0) {
+            rowCount = 0;
+        }
+        if (tuple != null) {
+            rowCount++;
+        }
+        return tuple;
+    }
+
+    /**
+     * @return the actual rows to add to the plan step, or an empty string if the iterator did not run
+     */
+    String explain() {
+        return rowCount < 0 ? "" : " (ACTUAL ROWS=" + rowCount + ")";
+    }
+}
@@ -45,6 +45,7 @@ public abstract class BaseGroupedAggregatingResultIterator implements
     protected final Aggregators aggregators;
     private ImmutableBytesWritable currentKey;
     private ImmutableBytesWritable nextKey;    
+    final ActualRowCounter actualRowCounter = new ActualRowCounter();
 
     public BaseGroupedAggregatingResultIterator(
             PeekingResultIterator resultIterator, Aggregators aggregators) {
@@ -63,7 +64,7 @@ public abstract class BaseGroupedAggregatingResultIterator implements
     public Tuple next() throws SQLException {
         Tuple result = resultIterator.next();
         if (result == null) {
-            return null;
+            return actualRowCounter.count(null);
         }
         if (currentKey.get() == UNITIALIZED_KEY_BUFFER) {
             getGroupingKey(result, currentKey);
@@ -82,7 +83,7 @@ public abstract class BaseGroupedAggregatingResultIterator implements
         byte[] value = aggregators.toBytes(rowAggregators);
         Tuple tuple = wrapKeyValueAsResult(KeyValueUtil.newKeyValue(currentKey, SINGLE_COLUMN_FAMILY, SINGLE_COLUMN, AGG_TIMESTAMP, value, 0, value.length));
         currentKey.set(nextKey.get(), nextKey.getOffset(), nextKey.getLength());
-        return tuple;
+        return actualRowCounter.count(tuple);
     }
     
     @Override
@@ -100,6 +101,14 @@ public abstract class BaseGroupedAggregatingResultIterator implements
     @Override
     public void explain(List<String> planSteps) {
         resultIterator.explain(planSteps);
+        // The aggregation has no client step of its own, so its actual rows go to the server step
+        String actualRows = actualRowCounter.explain();
+        for (int i = planSteps.size() - 1; i >= 0 && !actualRows.isEmpty(); i--) {
+            if (planSteps.get(i).startsWith("    SERVER AGGREGATE INTO")) {
+                planSteps.set(i, planSteps.get(i) + actualRows);
+                break;
+            }
+        }
     }
 
 }
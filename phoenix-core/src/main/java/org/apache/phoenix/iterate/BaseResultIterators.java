@@ -17,7 +17,9 @@
  */
 package org.apache.phoenix.iterate;
 
+import static org.apache.phoenix.coprocessor.BaseScannerRegionObserver.DEADLINE;
 import static org.apache.phoenix.coprocessor.BaseScannerRegionObserver.EXPECTED_UPPER_REGION_KEY;
+import static org.apache.phoenix.coprocessor.BaseScannerRegionObserver.QUERY_CLASS;
 import static org.apache.phoenix.monitoring.PhoenixMetrics.CountMetric.FAILED_QUERY;
 import static org.apache.phoenix.monitoring.PhoenixMetrics.CountMetric.QUERY_TIMEOUT;
 import static org.apache.phoenix.util.ByteUtil.EMPTY_BYTE_ARRAY;
@@ -33,6 +35,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -49,14 +52,22 @@ import org.apache.phoenix.compile.QueryPlan;
 import org.apache.phoenix.compile.RowProjector;
 import org.apache.phoenix.compile.ScanRanges;
 import org.apache.phoenix.compile.StatementContext;
+import org.apache.phoenix.coprocessor.BaseScannerRegionObserver;
 import org.apache.phoenix.exception.SQLExceptionCode;
 import org.apache.phoenix.exception.SQLExceptionInfo;
 import org.apache.phoenix.filter.ColumnProjectionFilter;
 import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.job.JobManager.PrioritizedJob;
+import org.apache.phoenix.join.HashJoinInfo;
+import org.apache.phoenix.monitoring.MetricType;
+import org.apache.phoenix.monitoring.RequestMetrics;
 import org.apache.phoenix.parse.FilterableStatement;
+import org.apache.phoenix.parse.HintNode;
 import org.apache.phoenix.parse.HintNode.Hint;
 import org.apache.phoenix.query.ConnectionQueryServices;
 import org.apache.phoenix.query.KeyRange;
+import org.apache.phoenix.query.QueryClass;
 import org.apache.phoenix.query.QueryConstants;
 import org.apache.phoenix.query.QueryServices;
 import org.apache.phoenix.query.QueryServicesOptions;
@@ -71,6 +82,7 @@ import org.apache.phoenix.schema.TableRef;
 import org.apache.phoenix.schema.stats.GuidePostsInfo;
 import org.apache.phoenix.schema.stats.PTableStats;
 import org.apache.phoenix.util.LogUtil;
+import org.apache.phoenix.util.ReadOnlyProps;
 import org.apache.phoenix.util.SQLCloseables;
 import org.apache.phoenix.util.ScanUtil;
 import org.apache.phoenix.util.SchemaUtil;
@@ -78,6 +90,7 @@ import org.apache.phoenix.util.ServerUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
@@ -91,7 +104,7 @@ import com.google.common.collect.Lists;
  * 
  * @since 0.1
  */
-public abstract class BaseResultIterators extends ExplainTable implements ResultIterators {
+public abstract class BaseResultIterators extends ExplainTable implements ResultIterators, PrioritizedJob {
 	private static final Logger logger = LoggerFactory.getLogger(BaseResultIterators.class);
     private static final int ESTIMATED_GUIDEPOSTS_PER_REGION = 20;
 
@@ -101,6 +114,11 @@ public abstract class BaseResultIterators extends ExplainTable implements Result
     private final byte[] physicalTableName;
     private final QueryPlan plan;
     protected final String scanId;
+    private final Object shareKey;
+    private final int priority;
+    private final QueryClass queryClass;
+    private final boolean useSmallScans;
+    private volatile long deadline = Long.MAX_VALUE;
     // TODO: too much nesting here - breakup into new classes.
     private final List<List<List<Pair<Scan,Future<PeekingResultIterator>>>>> allFutures;
     
@@ -111,6 +129,34 @@ public abstract class BaseResultIterators extends ExplainTable implements Result
         }
     };
 
+    private static int getPriority(HintNode hint, ReadOnlyProps props) {
+        int priority = props.getInt(QueryServices.QUERY_PRIORITY_ATTRIB, QueryServicesOptions.DEFAULT_QUERY_PRIORITY);
+        String priorityHint = hint.getHint(Hint.PRIORITY);
+        // The value of the hint is enclosed in parenthesis
+        if (priorityHint != null && priorityHint.length() > 2) {
+            try {
+                priority = Integer.parseInt(priorityHint.substring(1, priorityHint.length() - 1));
+            } catch (NumberFormatException e) { // Ignore invalid priorities like other invalid hints
+            }
+        }
+        return Math.max(PrioritizedJob.DEFAULT_PRIORITY, priority);
+    }
+
+    @Override
+    public Object getShareKey() {
+        return shareKey;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public long getDeadline() {
+        return deadline;
+    }
+
     private PTable getTable() {
         return plan.getTableRef().getTable();
     }
@@ -144,6 +190,11 @@ public abstract class BaseResultIterators extends ExplainTable implements Result
         Scan scan = context.getScan();
         // Used to tie all the scans together during logging
         scanId = UUID.randomUUID().toString();
+        PhoenixConnection connection = context.getConnection();
+        // The queries of a tenant share the thread pool fairly with those of other tenants,
+        // otherwise the queries of each connection do
+        shareKey = connection.getTenantId() == null ? connection : connection.getTenantId();
+        priority = getPriority(statement.getHint(), connection.getQueryServices().getProps());
         Map<byte [], NavigableSet<byte []>> familyMap = scan.getFamilyMap();
         boolean keyOnlyFilter = familyMap.isEmpty() && context.getWhereCoditionColumns().isEmpty();
         if (projector.isProjectEmptyKeyValue()) {
@@ -192,10 +243,75 @@ public abstract class BaseResultIterators extends ExplainTable implements Result
             }
         }
         this.splits = ImmutableList.copyOf(splitRanges);
+        this.queryClass = getQueryClass(connection.getQueryServices().getProps());
+        this.useSmallScans = queryClass != QueryClass.LONG_SCAN && connection.getQueryServices().getProps().getBoolean(
+                QueryServices.QUERY_CLASS_SMALL_SCANS_ENABLED_ATTRIB,
+                QueryServicesOptions.DEFAULT_QUERY_CLASS_SMALL_SCANS_ENABLED);
         // If split detected, this will be more than one, but that's unlikely
         this.allFutures = Lists.newArrayListWithExpectedSize(1);
     }
 
+    /**
+     * Classifies the query by the expected cost of its scans: a point lookup, a bounded key range
+     * covered by a few parallel scans as estimated from the guideposts, or any other scan.
+     */
+    private QueryClass getQueryClass(ReadOnlyProps props) {
+        ScanRanges scanRanges = context.getScanRanges();
+        if (scanRanges.isPointLookup()) {
+            return QueryClass.POINT_LOOKUP;
+        }
+        int maxShortScans = props.getInt(QueryServices.SHORT_SCAN_MAX_PARALLEL_SCANS_ATTRIB,
+                QueryServicesOptions.DEFAULT_SHORT_SCAN_MAX_PARALLEL_SCANS);
+        if (!scanRanges.isEverything() && splits.size() <= maxShortScans) {
+            return QueryClass.SHORT_SCAN;
+        }
+        return QueryClass.LONG_SCAN;
+    }
+
+    /**
+     * Sets the attributes from which the region servers schedule the scans and reject the ones
+     * opened after the query timed out. Only the call opening a scanner carries its attributes,
+     * so when {@link QueryServices#QUERY_CLASS_SMALL_SCANS_ENABLED_ATTRIB} is set, the scans of
+     * cheap queries are made small scans where it is safe, for each of their calls to carry the
+     * scan and be scheduled by its {@link QueryClass}.
+     */
+    private void setSchedulingAttributes(List<List<Scan>> nestedScans, long maxQueryEndTime) {
+        byte[] queryClassValue = queryClass.getSerializedValue();
+        byte[] deadlineValue = Bytes.toBytes(maxQueryEndTime);
+        for (List<Scan> scanList : nestedScans) {
+            for (Scan scan : scanList) {
+                scan.setAttribute(QUERY_CLASS, queryClassValue);
+                scan.setAttribute(DEADLINE, deadlineValue);
+                if (useSmallScans && canBeSmall(scan)) {
+                    scan.setSmall(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * A small scan reopens its scanner after the last row it returned on each call, which is only
+     * correct when the rows are those of the region in key order, or when a region returns a single
+     * row in one call. The rows of a grouped aggregation or of a server side ORDER BY are computed
+     * when the scanner is opened and are keyed otherwise, and a paged aggregation returns a row per
+     * page, so their scans are left to the regular scanner. So are the scans of a hash join, which
+     * returns a row per match under the same key, and of a local index, whose rows are keyed by the
+     * data row instead of the scanned index row.
+     */
+    @VisibleForTesting
+    static boolean canBeSmall(Scan scan) {
+        if (HashJoinInfo.isHashJoin(scan) || ScanUtil.isLocalIndex(scan)) {
+            return false;
+        }
+        if (scan.getAttribute(BaseScannerRegionObserver.NON_AGGREGATE_QUERY) != null) {
+            return scan.getAttribute(BaseScannerRegionObserver.TOPN) == null;
+        }
+        return scan.getAttribute(BaseScannerRegionObserver.UNGROUPED_AGG) != null
+                && scan.getAttribute(BaseScannerRegionObserver.SERVER_PAGE_TIME_MS) == null
+                && scan.getAttribute(BaseScannerRegionObserver.SERVER_PAGE_ROWS) == null
+                && scan.getCaching() > 1;
+    }
+
     private void doColumnProjectionOptimization(StatementContext context, Scan scan, PTable table, FilterableStatement statement) {
         Map<byte[], NavigableSet<byte[]>> familyMap = scan.getFamilyMap();
         if (familyMap != null && !familyMap.isEmpty()) {
@@ -522,6 +638,9 @@ public abstract class BaseResultIterators extends ExplainTable implements Result
         int queryTimeOut = context.getStatement().getQueryTimeout() * 1000;
         final long startTime = System.currentTimeMillis();
         final long maxQueryEndTime = startTime + queryTimeOut;
+        // Scans still waiting for a thread after the query timed out are dropped
+        deadline = maxQueryEndTime;
+        setSchedulingAttributes(scans, maxQueryEndTime);
         try {
             submitWork(scans, futures, allIterators, splits.size());
             boolean clearedCache = false;
@@ -557,6 +676,7 @@ public abstract class BaseResultIterators extends ExplainTable implements Result
                             // as we need these to be in order
                             addIterator(iterators, concatIterators);
                             concatIterators = Lists.newArrayList();
+                            setSchedulingAttributes(newNestedScans, maxQueryEndTime);
                             submitWork(newNestedScans, newFutures, allIterators, newNestedScans.size());
                             allFutures.add(newFutures);
                             for (List<Pair<Scan,Future<PeekingResultIterator>>> newFuture : reverseIfNecessary(newFutures, isReverse)) {
@@ -585,6 +705,13 @@ public abstract class BaseResultIterators extends ExplainTable implements Result
             toThrow = new SQLExceptionInfo.Builder(SQLExceptionCode.OPERATION_TIMED_OUT)
                     .setMessage(". Query couldn't be completed in the alloted time: " + queryTimeOut + " ms")
                     .setRootCause(e).build().buildException();
+        } catch (CancellationException e) {
+            QUERY_TIMEOUT.increment();
+            // thrown when a scan was dropped from the queue of the executor, as it was still
+            // waiting for a thread when the query timed out
+            toThrow = new SQLExceptionInfo.Builder(SQLExceptionCode.OPERATION_TIMED_OUT)
+                    .setMessage(". Query couldn't be completed in the alloted time: " + queryTimeOut + " ms")
+                    .setRootCause(e).build().buildException();
         } catch (SQLException e) {
             toThrow = e;
         } catch (Exception e) {
@@ -694,7 +821,40 @@ public abstract class BaseResultIterators extends ExplainTable implements Result
                 QueryServicesOptions.DEFAULT_EXPLAIN_CHUNK_COUNT);
         StringBuilder buf = new StringBuilder();
         buf.append("CLIENT " + (displayChunkCount ? (this.splits.size() + "-CHUNK ") : "") + getName() + " " + size() + "-WAY ");
+        int scanStepIndex = planSteps.size();
         explain(buf.toString(),planSteps);
+        RequestMetrics requestMetrics = context.getRequestMetrics();
+        // Once the scans ran, add what they actually did for EXPLAIN ANALYZE
+        if (requestMetrics.isEnabled() && !allFutures.isEmpty()) {
+            explainActuals(requestMetrics, planSteps, scanStepIndex);
+        }
+    }
+
+    private static void explainActuals(RequestMetrics requestMetrics, List<String> planSteps, int scanStepIndex) {
+        StringBuilder buf = new StringBuilder(planSteps.get(scanStepIndex));
+        buf.append(" (ACTUAL ROWS=" + requestMetrics.getValue(MetricType.SCAN_ROWS)
+                + ", BYTES=" + requestMetrics.getValue(MetricType.SCAN_BYTES)
+                + ", SCANS=" + requestMetrics.getValue(MetricType.PARALLEL_SCANS)
+                + ", CHUNKS=" + requestMetrics.getValue(MetricType.SCAN_CHUNKS)
+                + ", RPCS=" + requestMetrics.getValue(MetricType.SCAN_RPC_CALLS));
+        if (requestMetrics.isServerMetricsEnabled()) {
+            buf.append(", SERVER ROWS=" + requestMetrics.getValue(MetricType.SERVER_ROWS_SCANNED)
+                    + ", SERVER TIME=" + requestMetrics.getValue(MetricType.SERVER_SCAN_TIME) + " MS");
+        }
+        if (requestMetrics.getValue(MetricType.SPOOL_FILES) > 0) {
+            buf.append(", SPOOL FILES=" + requestMetrics.getValue(MetricType.SPOOL_FILES)
+                    + ", SPOOL BYTES=" + requestMetrics.getValue(MetricType.SPOOL_FILE_BYTES));
+        }
+        buf.append(")");
+        planSteps.set(scanStepIndex, buf.toString());
+        if (requestMetrics.isServerMetricsEnabled()) {
+            for (int i = scanStepIndex + 1; i < planSteps.size() && planSteps.get(i).startsWith("    SERVER"); i++) {
+                if (planSteps.get(i).startsWith("    SERVER FILTER BY")) {
+                    planSteps.set(i, planSteps.get(i) + " (ACTUAL FILTERED ROWS="
+                            + requestMetrics.getValue(MetricType.SERVER_ROWS_FILTERED) + ")");
+                }
+            }
+        }
     }
 
 	@Override
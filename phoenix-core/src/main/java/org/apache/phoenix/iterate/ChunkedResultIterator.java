@@ -27,6 +27,7 @@ import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.phoenix.compile.StatementContext;
+import org.apache.phoenix.monitoring.MetricType;
 import org.apache.phoenix.query.QueryServices;
 import org.apache.phoenix.query.QueryServicesOptions;
 import org.apache.phoenix.schema.TableRef;
@@ -90,6 +91,7 @@ public class ChunkedResultIterator implements PeekingResultIterator {
         ResultIterator singleChunkResultIterator = new SingleChunkResultIterator(
                 new TableResultIterator(context, tableRef, scan), chunkSize);
         resultIterator = delegateIteratorFactory.newIterator(context, singleChunkResultIterator, scan);
+        context.getRequestMetrics().increment(MetricType.SCAN_CHUNKS);
     }
 
     @Override
@@ -121,6 +123,7 @@ public class ChunkedResultIterator implements PeekingResultIterator {
             ResultIterator singleChunkResultIterator = new SingleChunkResultIterator(
                     new TableResultIterator(context, tableRef, scan), chunkSize);
             resultIterator = delegateIteratorFactory.newIterator(context, singleChunkResultIterator, scan);
+            context.getRequestMetrics().increment(MetricType.SCAN_CHUNKS);
         }
         return resultIterator;
     }
@@ -43,6 +43,7 @@ public class DistinctAggregatingResultIterator implements AggregatingResultItera
     private Iterator<ResultEntry> resultIterator;
     private final ImmutableBytesWritable ptr1 = new ImmutableBytesWritable();
     private final ImmutableBytesWritable ptr2 = new ImmutableBytesWritable();
+    private final ActualRowCounter actualRowCounter = new ActualRowCounter();
 
     private class ResultEntry {
         private final int hashCode;
@@ -117,10 +118,10 @@ public class DistinctAggregatingResultIterator implements AggregatingResultItera
             ResultEntry entry = iterator.next();
             Tuple tuple = entry.getResult();
             aggregate(tuple);
-            return tuple;
+            return actualRowCounter.count(tuple);
         }
         resultIterator = Iterators.emptyIterator();
-        return null;
+        return actualRowCounter.count(null);
     }
     
     private Iterator<ResultEntry> getResultIterator() throws SQLException {
@@ -151,7 +152,7 @@ public class DistinctAggregatingResultIterator implements AggregatingResultItera
     @Override
     public void explain(List<String> planSteps) {
         delegate.explain(planSteps);
-        planSteps.add("CLIENT DISTINCT ON " + rowProjector.toString());
+        planSteps.add("CLIENT DISTINCT ON " + rowProjector.toString() + actualRowCounter.explain());
     }
 
     @Override
@@ -42,6 +42,7 @@ public class FilterAggregatingResultIterator  implements AggregatingResultIterat
     private final AggregatingResultIterator delegate;
     private final Expression expression;
     private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+    private final ActualRowCounter actualRowCounter = new ActualRowCounter();
     
     public FilterAggregatingResultIterator(AggregatingResultIterator delegate, Expression expression) {
         this.delegate = delegate;
@@ -57,7 +58,7 @@ public class FilterAggregatingResultIterator  implements AggregatingResultIterat
         do {
             next = delegate.next();
         } while (next != null && expression.evaluate(next, ptr) && Boolean.FALSE.equals(expression.getDataType().toObject(ptr)));
-        return next;
+        return actualRowCounter.count(next);
     }
 
     @Override
@@ -73,7 +74,7 @@ public class FilterAggregatingResultIterator  implements AggregatingResultIterat
     @Override
     public void explain(List<String> planSteps) {
         delegate.explain(planSteps);
-        planSteps.add("CLIENT FILTER BY " + expression.toString());
+        planSteps.add("CLIENT FILTER BY " + expression.toString() + actualRowCounter.explain());
     }
 
 	@Override
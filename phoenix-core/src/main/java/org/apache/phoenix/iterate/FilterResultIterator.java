@@ -42,6 +42,7 @@ public class FilterResultIterator  extends LookAheadResultIterator {
     private final ResultIterator delegate;
     private final Expression expression;
     private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+    private final ActualRowCounter actualRowCounter = new ActualRowCounter();
     
     public FilterResultIterator(ResultIterator delegate, Expression expression) {
         if (delegate instanceof AggregatingResultIterator) {
@@ -61,7 +62,7 @@ public class FilterResultIterator  extends LookAheadResultIterator {
             next = delegate.next();
             expression.reset();
         } while (next != null && (!expression.evaluate(next, ptr) || Boolean.FALSE.equals(expression.getDataType().toObject(ptr))));
-        return next;
+        return actualRowCounter.count(next);
     }
     
     @Override
@@ -72,7 +73,7 @@ public class FilterResultIterator  extends LookAheadResultIterator {
     @Override
     public void explain(List<String> planSteps) {
         delegate.explain(planSteps);
-        planSteps.add("CLIENT FILTER BY " + expression.toString());
+        planSteps.add("CLIENT FILTER BY " + expression.toString() + actualRowCounter.explain());
     }
 
 	@Override
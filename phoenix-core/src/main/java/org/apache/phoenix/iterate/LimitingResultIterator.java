@@ -32,6 +32,7 @@ import org.apache.phoenix.schema.tuple.Tuple;
 public class LimitingResultIterator extends DelegateResultIterator {
     private int rowCount;
     private final int limit;
+    private final ActualRowCounter actualRowCounter = new ActualRowCounter();
     
     public LimitingResultIterator(ResultIterator delegate, int limit) {
         super(delegate);
@@ -42,15 +43,15 @@ public class LimitingResultIterator extends DelegateResultIterator {
     public Tuple next() throws SQLException {
         if (rowCount++ >= limit) {
             close(); // Free resources early
-            return null;
+            return actualRowCounter.count(null);
         }
-        return super.next();
+        return actualRowCounter.count(super.next());
     }
 
     @Override
     public void explain(List<String> planSteps) {
         super.explain(planSteps);
-        planSteps.add("CLIENT " + limit + " ROW LIMIT");
+        planSteps.add("CLIENT " + limit + " ROW LIMIT" + actualRowCounter.explain());
     }
 
 	@Override
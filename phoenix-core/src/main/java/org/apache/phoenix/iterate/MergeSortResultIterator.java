@@ -38,6 +38,7 @@ public abstract class MergeSortResultIterator implements PeekingResultIterator {
     protected final ResultIterators resultIterators;
     protected final ImmutableBytesWritable tempPtr = new ImmutableBytesWritable();
     private List<PeekingResultIterator> iterators;
+    final ActualRowCounter actualRowCounter = new ActualRowCounter();
     
     public MergeSortResultIterator(ResultIterators iterators) {
         this.resultIterators = iterators;
@@ -109,6 +110,6 @@ public abstract class MergeSortResultIterator implements PeekingResultIterator {
     @Override
     public Tuple next() throws SQLException {
         PeekingResultIterator iterator = minIterator();
-        return iterator.next();
+        return actualRowCounter.count(iterator.next());
     }
 }
@@ -89,7 +89,7 @@ public class MergeSortTopNResultIterator extends MergeSortResultIterator {
     @Override
     public void explain(List<String> planSteps) {
         resultIterators.explain(planSteps);
-        planSteps.add("CLIENT MERGE SORT");
+        planSteps.add("CLIENT MERGE SORT" + actualRowCounter.explain());
     }
 
 	@Override
@@ -96,6 +96,7 @@ public class OrderedResultIterator implements PeekingResultIterator {
     
     private PeekingResultIterator resultIterator;
     private long byteSize;
+    private final ActualRowCounter actualRowCounter = new ActualRowCounter();
 
     protected ResultIterator getDelegate() {
         return delegate;
@@ -166,7 +167,7 @@ public class OrderedResultIterator implements PeekingResultIterator {
 
     @Override
     public Tuple next() throws SQLException {
-        return getResultIterator().next();
+        return actualRowCounter.count(getResultIterator().next());
     }
     
     private PeekingResultIterator getResultIterator() throws SQLException {
@@ -249,7 +250,8 @@ public class OrderedResultIterator implements PeekingResultIterator {
     @Override
     public void explain(List<String> planSteps) {
         delegate.explain(planSteps);
-        planSteps.add("CLIENT" + (limit == null ? "" : " TOP " + limit + " ROW"  + (limit == 1 ? "" : "S"))  + " SORTED BY " + orderByExpressions.toString());
+        planSteps.add("CLIENT" + (limit == null ? "" : " TOP " + limit + " ROW"  + (limit == 1 ? "" : "S"))  + " SORTED BY " + orderByExpressions.toString()
+                + actualRowCounter.explain());
     }
 
 	@Override
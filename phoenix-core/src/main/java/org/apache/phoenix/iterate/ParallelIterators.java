@@ -29,6 +29,8 @@ import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.util.Pair;
 import org.apache.phoenix.compile.QueryPlan;
 import org.apache.phoenix.job.JobManager.JobCallable;
+import org.apache.phoenix.monitoring.MetricType;
+import org.apache.phoenix.monitoring.RequestMetrics;
 import org.apache.phoenix.trace.util.Tracing;
 import org.apache.phoenix.util.LogUtil;
 import org.apache.phoenix.util.ScanUtil;
@@ -63,7 +65,7 @@ public class ParallelIterators extends BaseResultIterators {
         // we get better utilization of the cluster since our thread executor
         // will spray the scans across machines as opposed to targeting a
         // single one since the scans are in row key order.
-        ExecutorService executor = context.getConnection().getQueryServices().getExecutor();
+        ExecutorService executor = context.getConnection().getQueryServices().getScanExecutor();
         List<ScanLocator> scanLocations = Lists.newArrayListWithExpectedSize(estFlattenedSize);
         for (int i = 0; i < nestedScans.size(); i++) {
             List<Scan> scans = nestedScans.get(i);
@@ -79,19 +81,24 @@ public class ParallelIterators extends BaseResultIterators {
         // before we fill up the thread pool
         Collections.shuffle(scanLocations);
         PARALLEL_SCANS.update(scanLocations.size());
+        final RequestMetrics requestMetrics = context.getRequestMetrics();
+        requestMetrics.update(MetricType.PARALLEL_SCANS, scanLocations.size());
         for (ScanLocator scanLocation : scanLocations) {
             final Scan scan = scanLocation.getScan();
+            final long submitTime = System.currentTimeMillis();
             Future<PeekingResultIterator> future = executor.submit(Tracing.wrap(new JobCallable<PeekingResultIterator>() {
 
                 @Override
                 public PeekingResultIterator call() throws Exception {
                     long startTime = System.currentTimeMillis();
+                    requestMetrics.update(MetricType.TASK_QUEUE_WAIT_TIME, startTime - submitTime);
                     ResultIterator scanner = new TableResultIterator(context, tableRef, scan);
                     if (logger.isDebugEnabled()) {
                         logger.debug(LogUtil.addCustomAnnotations("Id: " + scanId + ", Time: " + (System.currentTimeMillis() - startTime) + "ms, Scan: " + scan, ScanUtil.getCustomAnnotations(scan)));
                     }
                     PeekingResultIterator iterator = iteratorFactory.newIterator(context, scanner, scan);
                     allIterators.add(iterator);
+                    requestMetrics.update(MetricType.TASK_EXECUTION_TIME, System.currentTimeMillis() - startTime);
                     return iterator;
                 }
 
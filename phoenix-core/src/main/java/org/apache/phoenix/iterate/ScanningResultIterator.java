@@ -28,15 +28,25 @@ import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.KeyValueUtil;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.phoenix.coprocessor.ScanMetricsRegionScanner;
+import org.apache.phoenix.monitoring.MetricType;
 import org.apache.phoenix.monitoring.PhoenixMetrics;
+import org.apache.phoenix.monitoring.RequestMetrics;
 import org.apache.phoenix.schema.tuple.ResultTuple;
 import org.apache.phoenix.schema.tuple.Tuple;
 import org.apache.phoenix.util.ServerUtil;
 
 public class ScanningResultIterator implements ResultIterator {
     private final ResultScanner scanner;
+    private final RequestMetrics requestMetrics;
+
     public ScanningResultIterator(ResultScanner scanner) {
+        this(scanner, RequestMetrics.NO_OP_METRICS);
+    }
+
+    public ScanningResultIterator(ResultScanner scanner, RequestMetrics requestMetrics) {
         this.scanner = scanner;
+        this.requestMetrics = requestMetrics;
     }
     
     @Override
@@ -48,6 +58,12 @@ public class ScanningResultIterator implements ResultIterator {
     public Tuple next() throws SQLException {
         try {
             Result result = scanner.next();
+            if (requestMetrics.isServerMetricsEnabled()) {
+                while (result != null && ScanMetricsRegionScanner.isScanMetricsResult(result)) {
+                    ScanMetricsRegionScanner.updateRequestMetrics(result, requestMetrics);
+                    result = scanner.next();
+                }
+            }
             calculateScanSize(result);
             // TODO: use ResultTuple.setResult(result)
             // Need to create a new one if holding on to it (i.e. OrderedResultIterator)
@@ -66,8 +82,8 @@ public class ScanningResultIterator implements ResultIterator {
 		return "ScanningResultIterator [scanner=" + scanner + "]";
 	}
 	
-	private static void calculateScanSize(Result result) {
-	    if (PhoenixMetrics.isMetricsEnabled()) {
+	private void calculateScanSize(Result result) {
+	    if (PhoenixMetrics.isMetricsEnabled() || requestMetrics.isEnabled()) {
 	        if (result != null) {
 	            Cell[] cells = result.rawCells();
 	            long scanResultSize = 0;
@@ -76,6 +92,8 @@ public class ScanningResultIterator implements ResultIterator {
 	                scanResultSize += kv.heapSize();
 	            }
 	            SCAN_BYTES.update(scanResultSize);
+	            requestMetrics.update(MetricType.SCAN_BYTES, scanResultSize);
+	            requestMetrics.increment(MetricType.SCAN_ROWS);
 	        }
 	    }
 	}
@@ -32,6 +32,7 @@ import org.apache.phoenix.schema.tuple.Tuple;
  */
 public class SequenceResultIterator extends DelegateResultIterator {
     private final SequenceManager sequenceManager;
+    private final ActualRowCounter actualRowCounter = new ActualRowCounter();
     
     public SequenceResultIterator(ResultIterator delegate, SequenceManager sequenceManager) throws SQLException {
         super(delegate);
@@ -42,17 +43,17 @@ public class SequenceResultIterator extends DelegateResultIterator {
     public Tuple next() throws SQLException {
         Tuple next = super.next();
         if (next == null) {
-            return null;
+            return actualRowCounter.count(null);
         }
         next = sequenceManager.newSequenceTuple(next);
-        return next;
+        return actualRowCounter.count(next);
     }
 
     @Override
     public void explain(List<String> planSteps) {
         super.explain(planSteps);
         int nSequences = sequenceManager.getSequenceCount();
-        planSteps.add("CLIENT RESERVE VALUES FROM " + nSequences + " SEQUENCE" + (nSequences == 1 ? "" : "S"));
+        planSteps.add("CLIENT RESERVE VALUES FROM " + nSequences + " SEQUENCE" + (nSequences == 1 ? "" : "S") + actualRowCounter.explain());
     }
 
 	@Override
@@ -28,6 +28,8 @@ import org.apache.hadoop.hbase.util.Pair;
 import org.apache.phoenix.compile.QueryPlan;
 import org.apache.phoenix.iterate.TableResultIterator.ScannerCreation;
 import org.apache.phoenix.job.JobManager.JobCallable;
+import org.apache.phoenix.monitoring.MetricType;
+import org.apache.phoenix.monitoring.RequestMetrics;
 import org.apache.phoenix.trace.util.Tracing;
 import org.apache.phoenix.util.LogUtil;
 import org.apache.phoenix.util.ScanUtil;
@@ -66,17 +68,21 @@ public class SerialIterators extends BaseResultIterators {
         // we get better utilization of the cluster since our thread executor
         // will spray the scans across machines as opposed to targeting a
         // single one since the scans are in row key order.
-        ExecutorService executor = context.getConnection().getQueryServices().getExecutor();
+        ExecutorService executor = context.getConnection().getQueryServices().getScanExecutor();
+        final RequestMetrics requestMetrics = context.getRequestMetrics();
         
         for (final List<Scan> scans : nestedScans) {
             Scan firstScan = scans.get(0);
             Scan lastScan = scans.get(scans.size()-1);
             final Scan overallScan = ScanUtil.newScan(firstScan);
             overallScan.setStopRow(lastScan.getStopRow());
+            final long submitTime = System.currentTimeMillis();
             Future<PeekingResultIterator> future = executor.submit(Tracing.wrap(new JobCallable<PeekingResultIterator>() {
 
                 @Override
                 public PeekingResultIterator call() throws Exception {
+                    long taskStartTime = System.currentTimeMillis();
+                    requestMetrics.update(MetricType.TASK_QUEUE_WAIT_TIME, taskStartTime - submitTime);
                 	List<PeekingResultIterator> concatIterators = Lists.newArrayListWithExpectedSize(scans.size());
                 	for (final Scan scan : scans) {
 	                    long startTime = System.currentTimeMillis();
@@ -88,6 +94,7 @@ public class SerialIterators extends BaseResultIterators {
                 	}
                 	PeekingResultIterator concatIterator = ConcatResultIterator.newIterator(concatIterators);
                     allIterators.add(concatIterator);
+                    requestMetrics.update(MetricType.TASK_EXECUTION_TIME, System.currentTimeMillis() - taskStartTime);
                     return concatIterator;
                 }
 
@@ -37,6 +37,8 @@ import org.apache.hadoop.io.WritableUtils;
 import org.apache.phoenix.compile.StatementContext;
 import org.apache.phoenix.memory.MemoryManager;
 import org.apache.phoenix.memory.MemoryManager.MemoryChunk;
+import org.apache.phoenix.monitoring.MetricType;
+import org.apache.phoenix.monitoring.RequestMetrics;
 import org.apache.phoenix.query.QueryServices;
 import org.apache.phoenix.query.QueryServicesOptions;
 import org.apache.phoenix.schema.tuple.ResultTuple;
@@ -65,30 +67,47 @@ public class SpoolingResultIterator implements PeekingResultIterator {
         }
         @Override
         public PeekingResultIterator newIterator(StatementContext context, ResultIterator scanner, Scan scan) throws SQLException {
-            return new SpoolingResultIterator(scanner, services);
+            return new SpoolingResultIterator(scanner, context.getMemoryManager(), context.getRequestMetrics(), services);
         }
 
     }
 
     public SpoolingResultIterator(ResultIterator scanner, QueryServices services) throws SQLException {
-        this (scanner, services.getMemoryManager(),
+        this (scanner, services.getMemoryManager(), services);
+    }
+
+    public SpoolingResultIterator(ResultIterator scanner, MemoryManager mm, QueryServices services) throws SQLException {
+        this (scanner, mm, RequestMetrics.NO_OP_METRICS, services);
+    }
+
+    public SpoolingResultIterator(ResultIterator scanner, MemoryManager mm, RequestMetrics requestMetrics, QueryServices services) throws SQLException {
+        this (scanner, mm, requestMetrics,
                 services.getProps().getInt(QueryServices.SPOOL_THRESHOLD_BYTES_ATTRIB, QueryServicesOptions.DEFAULT_SPOOL_THRESHOLD_BYTES),
                 services.getProps().getLong(QueryServices.MAX_SPOOL_TO_DISK_BYTES_ATTRIB, QueryServicesOptions.DEFAULT_MAX_SPOOL_TO_DISK_BYTES),
                 services.getProps().get(QueryServices.SPOOL_DIRECTORY, QueryServicesOptions.DEFAULT_SPOOL_DIRECTORY));
     }
 
+    SpoolingResultIterator(ResultIterator scanner, MemoryManager mm, final int thresholdBytes, final long maxSpoolToDisk, final String spoolDirectory) throws SQLException {
+        this (scanner, mm, RequestMetrics.NO_OP_METRICS, thresholdBytes, maxSpoolToDisk, spoolDirectory);
+    }
+
     /**
     * Create a result iterator by iterating through the results of a scan, spooling them to disk once
     * a threshold has been reached. The scanner passed in is closed prior to returning.
     * @param scanner the results of a table scan
     * @param mm memory manager tracking memory usage across threads.
+    * @param requestMetrics metrics of the statement the scan is run for
     * @param thresholdBytes the requested threshold.  Will be dialed down if memory usage (as determined by
     *  the memory manager) is exceeded.
     * @throws SQLException
     */
-    SpoolingResultIterator(ResultIterator scanner, MemoryManager mm, final int thresholdBytes, final long maxSpoolToDisk, final String spoolDirectory) throws SQLException {
+    SpoolingResultIterator(ResultIterator scanner, MemoryManager mm, RequestMetrics requestMetrics, final int thresholdBytes, final long maxSpoolToDisk, final String spoolDirectory) throws SQLException {
         boolean success = false;
+        long startTime = requestMetrics.isEnabled() ? System.currentTimeMillis() : 0;
         final MemoryChunk chunk = mm.allocate(0, thresholdBytes);
+        if (requestMetrics.isEnabled()) {
+            requestMetrics.update(MetricType.MEMORY_WAIT_TIME, System.currentTimeMillis() - startTime);
+        }
         DeferredFileOutputStream spoolTo = null;
         try {
             // Can't be bigger than int, since it's the max of the above allocation
@@ -118,6 +137,8 @@ public class SpoolingResultIterator implements PeekingResultIterator {
             } else {
                 NUM_SPOOL_FILE.increment();
                 SPOOL_FILE_SIZE.update(spoolTo.getFile().length());
+                requestMetrics.increment(MetricType.SPOOL_FILES);
+                requestMetrics.update(MetricType.SPOOL_FILE_BYTES, spoolTo.getFile().length());
                 spoolFrom = new OnDiskResultIterator(spoolTo.getFile());
                 if (spoolTo.getFile() != null) {
                     spoolTo.getFile().deleteOnExit();
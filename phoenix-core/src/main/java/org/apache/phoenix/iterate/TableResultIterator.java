@@ -21,10 +21,15 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 
+import org.apache.hadoop.hbase.HRegionLocation;
 import org.apache.hadoop.hbase.client.HTableInterface;
 import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.metrics.ScanMetrics;
 import org.apache.phoenix.compile.StatementContext;
+import org.apache.phoenix.coprocessor.BaseScannerRegionObserver;
+import org.apache.phoenix.monitoring.RequestMetrics;
 import org.apache.phoenix.schema.TableRef;
+import org.apache.phoenix.schema.types.PDataType;
 import org.apache.phoenix.schema.tuple.Tuple;
 import org.apache.phoenix.util.Closeables;
 import org.apache.phoenix.util.ServerUtil;
@@ -43,6 +48,7 @@ public class TableResultIterator extends ExplainTable implements ResultIterator
 	
     private final Scan scan;
     private final HTableInterface htable;
+    private final RequestMetrics requestMetrics;
     private volatile ResultIterator delegate;
 
     public TableResultIterator(StatementContext context, TableRef tableRef) throws SQLException {
@@ -62,7 +68,7 @@ public class TableResultIterator extends ExplainTable implements ResultIterator
                 delegate = this.delegate;
                 if (delegate == null) {
                     try {
-                        this.delegate = delegate = isClosing ? ResultIterator.EMPTY_ITERATOR : new ScanningResultIterator(htable.getScanner(scan));
+                        this.delegate = delegate = isClosing ? ResultIterator.EMPTY_ITERATOR : new ScanningResultIterator(htable.getScanner(scan), requestMetrics);
                     } catch (IOException e) {
                         Closeables.closeQuietly(htable);
                         throw ServerUtil.parseServerException(e);
@@ -80,6 +86,14 @@ public class TableResultIterator extends ExplainTable implements ResultIterator
     public TableResultIterator(StatementContext context, TableRef tableRef, Scan scan, ScannerCreation creationMode) throws SQLException {
         super(context, tableRef);
         this.scan = scan;
+        this.requestMetrics = context.getRequestMetrics();
+        if (requestMetrics.isEnabled()) {
+            // Have the scanner count its RPCs, which it writes back to the scan when closed
+            scan.setScanMetricsEnabled(true);
+            if (requestMetrics.isServerMetricsEnabled()) {
+                scan.setAttribute(BaseScannerRegionObserver.SCAN_METRICS, PDataType.TRUE_BYTES);
+            }
+        }
         htable = context.getConnection().getQueryServices().getTable(tableRef.getTable().getPhysicalName().getBytes());
         if (creationMode == ScannerCreation.IMMEDIATE) {
         	getDelegate(false);
@@ -90,6 +104,9 @@ public class TableResultIterator extends ExplainTable implements ResultIterator
     public void close() throws SQLException {
         try {
             getDelegate(true).close();
+            if (requestMetrics.isEnabled()) {
+                updateRpcCalls();
+            }
         } finally {
             try {
                 htable.close();
@@ -99,6 +116,24 @@ public class TableResultIterator extends ExplainTable implements ResultIterator
         }
     }
 
+    /**
+     * Attribute the RPCs made by the scan to the region server of its start row. A scan
+     * normally stays within a single region, but in case a region split while it was running,
+     * the RPCs to the daughter regions are counted towards that server as well.
+     */
+    private void updateRpcCalls() throws SQLException {
+        ScanMetrics scanMetrics = scan.getScanMetrics();
+        if (scanMetrics == null) {
+            return;
+        }
+        long rpcCalls = scanMetrics.countOfRPCcalls.get();
+        if (rpcCalls > 0) {
+            HRegionLocation location = context.getConnection().getQueryServices()
+                    .getTableRegionLocation(htable.getTableName(), scan.getStartRow());
+            requestMetrics.updateRpcCalls(location.getHostnamePort(), rpcCalls);
+        }
+    }
+
     @Override
     public Tuple next() throws SQLException {
         return getDelegate(false).next();
@@ -47,6 +47,7 @@ public class UngroupedAggregatingResultIterator extends GroupedAggregatingResult
                             SINGLE_COLUMN, 
                             AGG_TIMESTAMP, 
                             value));
+            actualRowCounter.count(result);
         }
         hasRows = true;
         return result;
@@ -63,6 +63,7 @@ import org.apache.phoenix.execute.MutationState;
 import org.apache.phoenix.expression.function.FunctionArgumentType;
 import org.apache.phoenix.hbase.index.util.KeyValueBuilder;
 import org.apache.phoenix.jdbc.PhoenixStatement.PhoenixStatementParser;
+import org.apache.phoenix.monitoring.RequestMetrics;
 import org.apache.phoenix.query.ConnectionQueryServices;
 import org.apache.phoenix.query.DelegateConnectionQueryServices;
 import org.apache.phoenix.query.MetaDataMutated;
@@ -125,6 +126,7 @@ public class PhoenixConnection implements Connection, org.apache.phoenix.jdbc.Jd
     private final Map<PDataType<?>, Format> formatters = new HashMap<>();
     private final MutationState mutationState;
     private final int mutateBatchSize;
+    private final RequestMetrics requestMetrics;
     private final Long scn;
     private boolean isAutoCommit = false;
     private PMetaData metaData;
@@ -212,6 +214,8 @@ public class PhoenixConnection implements Connection, org.apache.phoenix.jdbc.Jd
                          QueryServicesOptions.DEFAULT_CONSISTENCY_LEVEL));
         this.tenantId = tenantId;
         this.mutateBatchSize = JDBCUtil.getMutateBatchSize(url, this.info, this.services.getProps());
+        this.requestMetrics = this.services.getProps().getBoolean(QueryServices.REQUEST_METRICS_ENABLED_ATTRIB,
+                QueryServicesOptions.DEFAULT_REQUEST_METRICS_ENABLED) ? new RequestMetrics(null) : RequestMetrics.NO_OP_METRICS;
         datePattern = this.services.getProps().get(QueryServices.DATE_FORMAT_ATTRIB, DateUtil.DEFAULT_DATE_FORMAT);
         timePattern = this.services.getProps().get(QueryServices.TIME_FORMAT_ATTRIB, DateUtil.DEFAULT_TIME_FORMAT);
         timestampPattern = this.services.getProps().get(QueryServices.TIMESTAMP_FORMAT_ATTRIB, DateUtil.DEFAULT_TIMESTAMP_FORMAT);
@@ -375,6 +379,14 @@ public class PhoenixConnection implements Connection, org.apache.phoenix.jdbc.Jd
     public MutationState getMutationState() {
         return mutationState;
     }
+
+    /**
+     * @return the metrics of all statements executed and mutations committed on this
+     * connection since it was opened or the metrics were last reset
+     */
+    public RequestMetrics getRequestMetrics() {
+        return requestMetrics;
+    }
     
     public String getDatePattern() {
         return datePattern;
@@ -144,6 +144,8 @@ public class PhoenixDatabaseMetaData implements DatabaseMetaData, org.apache.pho
     public static final byte[] SALT_BUCKETS_BYTES = Bytes.toBytes(SALT_BUCKETS);
     public static final String STORE_NULLS = "STORE_NULLS";
     public static final byte[] STORE_NULLS_BYTES = Bytes.toBytes(STORE_NULLS);
+    public static final String PACKED_COLUMNS = "PACKED_COLUMNS";
+    public static final byte[] PACKED_COLUMNS_BYTES = Bytes.toBytes(PACKED_COLUMNS);
 
     public static final String DATA_TABLE_NAME = "DATA_TABLE_NAME";
     public static final byte[] DATA_TABLE_NAME_BYTES = Bytes.toBytes(DATA_TABLE_NAME);
@@ -243,6 +245,8 @@ public class PhoenixDatabaseMetaData implements DatabaseMetaData, org.apache.pho
     public static final String TYPE_ID = "TYPE_ID";
     public static final String INDEX_DISABLE_TIMESTAMP = "INDEX_DISABLE_TIMESTAMP";
     public static final byte[] INDEX_DISABLE_TIMESTAMP_BYTES = Bytes.toBytes(INDEX_DISABLE_TIMESTAMP);
+    public static final String INDEX_REBUILD_CHECKPOINT = "INDEX_REBUILD_CHECKPOINT";
+    public static final byte[] INDEX_REBUILD_CHECKPOINT_BYTES = Bytes.toBytes(INDEX_REBUILD_CHECKPOINT);
 
     public static final String REGION_NAME = "REGION_NAME";
     public static final byte[] REGION_NAME_BYTES = Bytes.toBytes(REGION_NAME);
@@ -49,6 +49,8 @@ import org.apache.phoenix.compile.RowProjector;
 import org.apache.phoenix.exception.SQLExceptionCode;
 import org.apache.phoenix.exception.SQLExceptionInfo;
 import org.apache.phoenix.iterate.ResultIterator;
+import org.apache.phoenix.monitoring.MetricType;
+import org.apache.phoenix.monitoring.RequestMetrics;
 import org.apache.phoenix.schema.tuple.ResultTuple;
 import org.apache.phoenix.schema.tuple.Tuple;
 import org.apache.phoenix.schema.types.PBoolean;
@@ -108,6 +110,7 @@ public class PhoenixResultSet implements ResultSet, SQLCloseable, org.apache.pho
     private final ResultIterator scanner;
     private final RowProjector rowProjector;
     private final PhoenixStatement statement;
+    private final RequestMetrics requestMetrics;
     private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
 
     private Tuple currentRow = BEFORE_FIRST;
@@ -118,6 +121,7 @@ public class PhoenixResultSet implements ResultSet, SQLCloseable, org.apache.pho
         this.rowProjector = rowProjector;
         this.scanner = resultIterator;
         this.statement = statement;
+        this.requestMetrics = statement.getRequestMetrics();
     }
 
     @Override
@@ -755,6 +759,9 @@ public class PhoenixResultSet implements ResultSet, SQLCloseable, org.apache.pho
         try {
             currentRow = scanner.next();
             rowProjector.reset();
+            if (currentRow != null) {
+                requestMetrics.increment(MetricType.RESULT_SET_ROWS);
+            }
         } catch (RuntimeException e) {
             // FIXME: Expression.evaluate does not throw SQLException
             // so this will unwrap throws from that.
@@ -766,6 +773,13 @@ public class PhoenixResultSet implements ResultSet, SQLCloseable, org.apache.pho
         return currentRow != null;
     }
 
+    /**
+     * @return the metrics of the statement execution that produced this result set
+     */
+    public RequestMetrics getRequestMetrics() {
+        return requestMetrics;
+    }
+
     @Override
     public boolean previous() throws SQLException {
         throw new SQLFeatureNotSupportedException();
@@ -67,10 +67,13 @@ import org.apache.phoenix.coprocessor.MetaDataProtocol;
 import org.apache.phoenix.exception.BatchUpdateExecution;
 import org.apache.phoenix.exception.SQLExceptionCode;
 import org.apache.phoenix.exception.SQLExceptionInfo;
+import org.apache.phoenix.execute.BaseQueryPlan;
 import org.apache.phoenix.execute.MutationState;
 import org.apache.phoenix.expression.RowKeyColumnExpression;
 import org.apache.phoenix.iterate.MaterializedResultIterator;
 import org.apache.phoenix.iterate.ResultIterator;
+import org.apache.phoenix.monitoring.MetricType;
+import org.apache.phoenix.monitoring.RequestMetrics;
 import org.apache.phoenix.parse.AddColumnStatement;
 import org.apache.phoenix.parse.AliasedNode;
 import org.apache.phoenix.parse.AlterIndexStatement;
@@ -194,10 +197,25 @@ public class PhoenixStatement implements Statement, SQLCloseable, org.apache.pho
     private int maxRows;
     private int fetchSize = -1;
     private int queryTimeout;
+    private RequestMetrics requestMetrics;
     
     public PhoenixStatement(PhoenixConnection connection) {
         this.connection = connection;
         this.queryTimeout = getDefaultQueryTimeout();
+        this.requestMetrics = newRequestMetrics();
+    }
+    
+    private RequestMetrics newRequestMetrics() {
+        RequestMetrics connectionMetrics = connection.getRequestMetrics();
+        return connectionMetrics.isEnabled() ? new RequestMetrics(connectionMetrics) : RequestMetrics.NO_OP_METRICS;
+    }
+    
+    /**
+     * @return the metrics of the statement execution that started last, which are tracked by
+     * the {@link StatementContext} of its plan
+     */
+    public RequestMetrics getRequestMetrics() {
+        return requestMetrics;
     }
     
     private int getDefaultQueryTimeout() {
@@ -230,6 +248,7 @@ public class PhoenixStatement implements Statement, SQLCloseable, org.apache.pho
     
     protected PhoenixResultSet executeQuery(final CompilableStatement stmt) throws SQLException {
         QUERY_COUNT.increment();
+        requestMetrics = newRequestMetrics();
         try {
             return CallRunner.run(
                 new CallRunner.CallableThrowable<PhoenixResultSet, SQLException>() {
@@ -282,6 +301,7 @@ public class PhoenixStatement implements Statement, SQLCloseable, org.apache.pho
                 build().buildException();
         }
 	    MUTATION_COUNT.increment();
+        requestMetrics = newRequestMetrics();
         try {
             return CallRunner
                     .run(
@@ -390,8 +410,8 @@ public class PhoenixStatement implements Statement, SQLCloseable, org.apache.pho
             ), 0, true);
     private static class ExecutableExplainStatement extends ExplainStatement implements CompilableStatement {
 
-        public ExecutableExplainStatement(BindableStatement statement) {
-            super(statement);
+        public ExecutableExplainStatement(BindableStatement statement, boolean isAnalyze) {
+            super(statement, isAnalyze);
         }
 
         @Override
@@ -404,12 +424,72 @@ public class PhoenixStatement implements Statement, SQLCloseable, org.apache.pho
             return getStatement().getBindCount();
         }
 
+        /**
+         * Run the query to completion and explain the steps of the iterators that ran it, so
+         * that they can add what they actually did to the plan, followed by a summary of the query.
+         * The scan steps show what the scans did, and the client steps the rows they returned.
+         * Joins, unions and other client side plans only show their plan, with a note that its
+         * steps have no actuals, as they explain their sub plans without the iterators that ran them.
+         */
+        private static List<String> analyze(QueryPlan plan, RequestMetrics requestMetrics) throws SQLException {
+            long startTime = System.currentTimeMillis();
+            long rowCount = 0;
+            ResultIterator iterator = plan.iterator();
+            try {
+                while (iterator.next() != null) {
+                    rowCount++;
+                }
+            } finally {
+                iterator.close();
+            }
+            long elapsedTime = System.currentTimeMillis() - startTime;
+            List<String> planSteps;
+            // Joins and other client side plans explain their sub plans themselves, without executing them
+            if (plan instanceof BaseQueryPlan && !plan.isDegenerate()) {
+                planSteps = Lists.newArrayList();
+                iterator.explain(planSteps);
+            } else {
+                planSteps = Lists.newArrayList(plan.getExplainPlan().getPlanSteps());
+                planSteps.add("NO ACTUALS FOR THE STEPS OF THIS PLAN");
+            }
+            planSteps.add("ACTUAL ROWS=" + rowCount + ", TIME=" + elapsedTime + " MS"
+                    + ", SCAN ROWS=" + requestMetrics.getValue(MetricType.SCAN_ROWS)
+                    + ", SCAN BYTES=" + requestMetrics.getValue(MetricType.SCAN_BYTES)
+                    + ", SERVER ROWS=" + requestMetrics.getValue(MetricType.SERVER_ROWS_SCANNED)
+                    + ", SERVER FILTERED ROWS=" + requestMetrics.getValue(MetricType.SERVER_ROWS_FILTERED)
+                    + ", SPOOL FILES=" + requestMetrics.getValue(MetricType.SPOOL_FILES)
+                    + ", SPOOL BYTES=" + requestMetrics.getValue(MetricType.SPOOL_FILE_BYTES)
+                    + ", MEMORY WAIT=" + requestMetrics.getValue(MetricType.MEMORY_WAIT_TIME) + " MS"
+                    + ", TASK QUEUE WAIT=" + requestMetrics.getValue(MetricType.TASK_QUEUE_WAIT_TIME) + " MS");
+            return planSteps;
+        }
+
         @SuppressWarnings("unchecked")
         @Override
         public QueryPlan compilePlan(PhoenixStatement stmt, Sequence.ValueOp seqAction) throws SQLException {
             CompilableStatement compilableStmt = getStatement();
-            final StatementPlan plan = compilableStmt.compilePlan(stmt, Sequence.ValueOp.VALIDATE_SEQUENCE);
-            List<String> planSteps = plan.getExplainPlan().getPlanSteps();
+            final StatementPlan plan;
+            List<String> planSteps;
+            if (isAnalyze()) {
+                if (compilableStmt.getOperation() != Operation.QUERY) {
+                    throw new SQLFeatureNotSupportedException("EXPLAIN ANALYZE is only supported for queries");
+                }
+                // Collect the metrics of the query, including those of the server, regardless of whether
+                // they are collected for the connection. They are added to the connection if they are.
+                RequestMetrics statementMetrics = stmt.requestMetrics;
+                RequestMetrics connectionMetrics = stmt.connection.getRequestMetrics();
+                stmt.requestMetrics = new RequestMetrics(connectionMetrics.isEnabled() ? connectionMetrics : null, true);
+                try {
+                    QueryPlan queryPlan = stmt.optimizeQuery(compilableStmt);
+                    planSteps = analyze(queryPlan, stmt.requestMetrics);
+                    plan = queryPlan;
+                } finally {
+                    stmt.requestMetrics = statementMetrics;
+                }
+            } else {
+                plan = compilableStmt.compilePlan(stmt, Sequence.ValueOp.VALIDATE_SEQUENCE);
+                planSteps = plan.getExplainPlan().getPlanSteps();
+            }
             List<Tuple> tuples = Lists.newArrayListWithExpectedSize(planSteps.size());
             for (String planStep : planSteps) {
                 Tuple tuple = new SingleKeyValueTuple(KeyValueUtil.newKeyValue(PVarchar.INSTANCE.toBytes(planStep), EXPLAIN_PLAN_FAMILY, EXPLAIN_PLAN_COLUMN, MetaDataProtocol.MIN_TABLE_TIMESTAMP, ByteUtil.EMPTY_BYTE_ARRAY));
@@ -976,8 +1056,8 @@ public class PhoenixStatement implements Statement, SQLCloseable, org.apache.pho
         }
 
         @Override
-        public ExplainStatement explain(BindableStatement statement) {
-            return new ExecutableExplainStatement(statement);
+        public ExplainStatement explain(BindableStatement statement, boolean isAnalyze) {
+            return new ExecutableExplainStatement(statement, isAnalyze);
         }
 
         @Override
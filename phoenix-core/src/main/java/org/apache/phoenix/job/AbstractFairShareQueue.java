@@ -0,0 +1,366 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.job;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * A bounded blocking queue implementation that keeps a virtual queue of elements on per-producer
+ * basis and hands them out by weighted fair queuing on two levels. Producers are grouped into
+ * shares, for example all queries of a tenant or connection. Each share gets a part of the
+ * elements taken from the queue that is proportional to its weight, which is the highest
+ * priority of its producers, and within a share each producer gets a part proportional to its
+ * priority. With equal priorities this degrades to round robin across shares and then across
+ * the producers of a share.
+ * <p>
+ * Fairness is tracked with virtual time (start-time fair queuing): every share and producer
+ * has a pass that advances by the inverse of its weight each time one of its elements is taken,
+ * and the element with the lowest pass goes first. Shares and producers that become active
+ * start at the current virtual time, so that they neither starve the others nor get credit for
+ * the time they were idle.
+ *
+ */
+public abstract class AbstractFairShareQueue<E> extends AbstractQueue<E>
+        implements BlockingQueue<E> {
+
+    // Virtual time charged for taking one element of a share or producer with weight 1
+    private static final long STRIDE = 1L << 20;
+
+    /**
+     * Construct an AbstractFairShareQueue that limits the size of the queued elements to at most
+     * maxSize. Attempts to insert new elements after that point will fail.
+     * @param maxSize
+     */
+    public AbstractFairShareQueue(int maxSize) {
+        this.shares = new LinkedHashMap<Object,Share<E>>();
+        this.lock = new Object();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Implementations must extract the producer object which is used as the key to identify a unique producer.
+     */
+    protected abstract Object extractProducer(E o);
+
+    /**
+     * Implementations must extract the key of the share the producer of an element belongs to.
+     */
+    protected abstract Object extractShare(E o);
+
+    /**
+     * Implementations must extract the priority of the producer of an element, which is used as
+     * its weight and must be at least 1.
+     */
+    protected abstract int extractPriority(E o);
+
+    /**
+     * Called for an element that is about to be taken from the queue. Implementations may drop
+     * elements that are no longer worth handing out, such as the tasks of a query that has
+     * already timed out.
+     * @return true if the element has been dropped, in which case the next one is taken instead
+     */
+    protected abstract boolean dropIfExpired(E o);
+
+    @Override
+    public Iterator<E> iterator() {
+        synchronized(lock) {
+            ArrayList<E> allElements = new ArrayList<E>(this.size);
+            for (Share<E> share : shares.values()) {
+                for (ProducerList<E> producerList : share.producers.values()) {
+                    allElements.addAll(producerList.list);
+                }
+            }
+            return allElements.iterator();
+        }
+    }
+
+    @Override
+    public boolean offer(E o, long timeout, TimeUnit unit) throws InterruptedException {
+        boolean taken = false;
+        long endAt = System.currentTimeMillis() + unit.toMillis(timeout);
+        synchronized(lock) {
+            long waitTime = endAt - System.currentTimeMillis();
+            while (!(taken = offer(o)) && waitTime > 0) {
+                this.lock.wait(waitTime);
+                waitTime = endAt - System.currentTimeMillis();
+            }
+        }
+        return taken;
+    }
+
+    @Override
+    public boolean offer(E o) {
+        if (o == null)
+            throw new NullPointerException();
+
+        final Object producerKey = extractProducer(o);
+        final Object shareKey = extractShare(o);
+        final int weight = Math.max(1, extractPriority(o));
+
+        synchronized(lock) {
+            if (this.size == this.maxSize) {
+                return false;
+            }
+            Share<E> share = this.shares.get(shareKey);
+            if (share == null) {
+                share = new Share<E>(shareKey, this.virtualTime);
+                this.shares.put(shareKey, share);
+            }
+            ProducerList<E> producerList = share.producers.get(producerKey);
+            if (producerList == null) {
+                producerList = new ProducerList<E>(producerKey, share.virtualTime, weight);
+                share.producers.put(producerKey, producerList);
+            } else {
+                producerList.weight = Math.max(producerList.weight, weight);
+            }
+            producerList.list.add(o);
+            this.size++;
+            lock.notifyAll();
+        }
+        return true;
+    }
+
+    @Override
+    public void put(E o) {
+        offer(o);
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        synchronized(lock) {
+            E element;
+            // Elements may be dropped while polling, so wait until one is actually taken
+            while ((element = poll()) == null) {
+                this.lock.wait();
+            }
+            return element;
+        }
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long endAt = System.currentTimeMillis() + unit.toMillis(timeout);
+        synchronized(lock) {
+            E element;
+            long waitTime = endAt - System.currentTimeMillis();
+            while ((element = poll()) == null && waitTime > 0) {
+                this.lock.wait(waitTime);
+                waitTime = endAt - System.currentTimeMillis();
+            }
+            return element;
+        }
+    }
+
+    @Override
+    public E poll() {
+        synchronized(lock) {
+            while (this.size > 0) {
+                Share<E> share = nextShare();
+                ProducerList<E> producerList = share.nextProducer();
+                E element = producerList.list.removeFirst();
+                this.size--;
+                assert element != null;
+                if (producerList.list.isEmpty()) {
+                    share.producers.remove(producerList.producer);
+                    if (share.producers.isEmpty()) {
+                        this.shares.remove(share.key);
+                    }
+                }
+                lock.notifyAll();
+                if (dropIfExpired(element)) {
+                    continue;
+                }
+                // This is the fair share part. The share and the producer are charged for the
+                // element taken, and the virtual time moves on to the start of this element.
+                this.virtualTime = Math.max(this.virtualTime, share.pass);
+                share.virtualTime = Math.max(share.virtualTime, producerList.pass);
+                share.pass += STRIDE / Math.min(STRIDE, share.weight());
+                producerList.pass += STRIDE / Math.min(STRIDE, producerList.weight);
+                return element;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public E peek() {
+        synchronized(lock) {
+            if (this.size == 0) {
+                return null;
+            }
+            return nextShare().nextProducer().list.getFirst();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        synchronized(lock) {
+            Iterator<Share<E>> shareIter = this.shares.values().iterator();
+            while (shareIter.hasNext()) {
+                Share<E> share = shareIter.next();
+                Iterator<ProducerList<E>> producerIter = share.producers.values().iterator();
+                while (producerIter.hasNext()) {
+                    ProducerList<E> producerList = producerIter.next();
+                    if (producerList.list.remove(o)) {
+                        this.size--;
+                        if (producerList.list.isEmpty()) {
+                            producerIter.remove();
+                            if (share.producers.isEmpty()) {
+                                shareIter.remove();
+                            }
+                        }
+                        lock.notifyAll();
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+
+        synchronized(this.lock) {
+            int drained = drainTo(c, this.size);
+            assert this.size == 0;
+            assert this.shares.isEmpty();
+            return drained;
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == null)
+            throw new NullPointerException();
+        if (c == this)
+            throw new IllegalArgumentException();
+
+        synchronized(this.lock) {
+            int i = 0;
+            while(i < maxElements) {
+                E element = poll();
+                if (element != null) {
+                    c.add(element);
+                    i++;
+                } else {
+                    break;
+                }
+            }
+            return i;
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int size() {
+        synchronized(this.lock) {
+            return this.size;
+        }
+    }
+
+    /**
+     * Find the share with the lowest pass. On ties the share that became active last wins, so
+     * that new queries move to the front of the queue; this reduces latency.
+     */
+    private Share<E> nextShare() {
+        Share<E> next = null;
+        for (Share<E> share : this.shares.values()) {
+            if (next == null || share.pass <= next.pass) {
+                next = share;
+            }
+        }
+        assert next != null;
+        return next;
+    }
+
+    private static class Share<E> {
+        public Share(Object key, long pass) {
+            this.key = key;
+            this.pass = pass;
+            this.virtualTime = 0;
+            this.producers = new LinkedHashMap<Object,ProducerList<E>>();
+        }
+
+        /**
+         * The weight of a share is the highest priority of its producers
+         */
+        private int weight() {
+            int weight = 1;
+            for (ProducerList<E> producerList : producers.values()) {
+                weight = Math.max(weight, producerList.weight);
+            }
+            return weight;
+        }
+
+        /**
+         * Find the producer with the lowest pass, preferring the one that became active last.
+         */
+        private ProducerList<E> nextProducer() {
+            ProducerList<E> next = null;
+            for (ProducerList<E> producerList : producers.values()) {
+                if (next == null || producerList.pass <= next.pass) {
+                    next = producerList;
+                }
+            }
+            assert next != null;
+            return next;
+        }
+
+        private final Object key;
+        private final Map<Object,ProducerList<E>> producers;
+        private long pass;
+        private long virtualTime;
+    }
+
+    private static class ProducerList<E> {
+        public ProducerList(Object producer, long pass, int weight) {
+            this.producer = producer;
+            this.pass = pass;
+            this.weight = weight;
+            this.list = new LinkedList<E>();
+        }
+        private final Object producer;
+        private final LinkedList<E> list;
+        private long pass;
+        private int weight;
+    }
+
+    private final Map<Object,Share<E>> shares;
+    private final Object lock;
+    private final int maxSize;
+    private long virtualTime;
+    private int size;
+}
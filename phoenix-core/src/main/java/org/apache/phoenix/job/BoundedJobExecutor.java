@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.job;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.phoenix.job.JobManager.JobFutureTask;
+import org.apache.phoenix.job.JobManager.JobRunnable;
+
+/**
+ *
+ * Executor that runs tasks on another executor, but limits how many of them are in flight at
+ * the same time. Tasks over the limit wait in a {@link JobManager} queue of their own, rather
+ * than in the queue of the underlying executor, and are handed to it by fair share as running
+ * tasks complete. This caps the number of concurrent region scans of the client below the size
+ * of the thread pool, which the other tasks of the client share. It does not change how a scan
+ * uses its thread once it runs: the thread is held until the scan of its region is done.
+ *
+ *
+ * @since 4.5
+ */
+public class BoundedJobExecutor extends AbstractExecutorService {
+    private final ExecutorService executor;
+    private final JobManager<BoundedJobFutureTask<?>> pending;
+    private final int maxInFlight;
+    private final Object lock = new Object();
+    private int inFlight;
+
+    /**
+     * @param executor the executor that runs the tasks
+     * @param maxInFlight the maximum number of tasks handed to the executor at the same time
+     * @param maxPending the maximum number of tasks waiting for others to complete, after which
+     *            new tasks are rejected
+     */
+    public BoundedJobExecutor(ExecutorService executor, int maxInFlight, int maxPending) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max number of tasks in flight must be positive, but was " + maxInFlight);
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.pending = new JobManager<BoundedJobFutureTask<?>>(maxPending);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> call) {
+        return new BoundedJobFutureTask<T>(call);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new BoundedJobFutureTask<T>(runnable, value);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        BoundedJobFutureTask<?> task = command instanceof BoundedJobFutureTask
+                ? (BoundedJobFutureTask<?>)command : new BoundedJobFutureTask<Object>(command, null);
+        synchronized (lock) {
+            if (inFlight >= maxInFlight) {
+                if (!pending.offer(task)) {
+                    throw new RejectedExecutionException("Task " + task + " rejected from " + this);
+                }
+                return;
+            }
+            inFlight++;
+            task.dispatched = true;
+        }
+        try {
+            executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            // Not in flight after all, which is taken care of when the task is done
+            task.cancel(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Called when a task that was in flight is done, to hand the next pending ones to the executor
+     */
+    private void release() {
+        while (true) {
+            BoundedJobFutureTask<?> next;
+            synchronized (lock) {
+                // Skip tasks that were cancelled while pending. Those of timed out queries are
+                // dropped by the queue itself.
+                do {
+                    next = pending.poll();
+                } while (next != null && next.isDone());
+                if (next == null) {
+                    inFlight--;
+                    return;
+                }
+                // The permit of the task that is done is passed on to the next one
+                next.dispatched = true;
+            }
+            try {
+                executor.submit(next);
+                return;
+            } catch (RejectedExecutionException e) {
+                if (!next.reject(e)) {
+                    // Cancelled in the meantime, which released the permit already
+                    return;
+                }
+                // Otherwise pass the permit on to the task after it
+            }
+        }
+    }
+
+    /**
+     * @return the number of tasks currently handed to the underlying executor
+     */
+    public int getInFlightCount() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * @return the number of tasks waiting for others to complete
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Task that releases its permit when it is done, so that the next pending task may run.
+     * It is scheduled by the job of its callable both while pending here and, being a
+     * {@link JobRunnable}, while queued by the underlying executor. If it is dropped from the
+     * queue of the underlying executor, the {@link JobFutureTask} wrapping it there cancels it,
+     * which releases its permit as well.
+     */
+    private class BoundedJobFutureTask<T> extends JobFutureTask<T> implements JobRunnable<T> {
+        // Both guarded by the lock of the executor
+        private boolean dispatched;
+        private boolean rejected;
+
+        public BoundedJobFutureTask(Runnable r, T t) {
+            super(r, t);
+        }
+
+        public BoundedJobFutureTask(Callable<T> c) {
+            super(c);
+        }
+
+        /**
+         * Fail a task that was rejected by the underlying executor, keeping its permit
+         * @return false if the task has been done already, in which case the permit was released
+         */
+        private boolean reject(RejectedExecutionException e) {
+            synchronized (lock) {
+                if (isDone()) {
+                    return false;
+                }
+                rejected = true;
+            }
+            setException(e);
+            return true;
+        }
+
+        @Override
+        protected void done() {
+            boolean wasDispatched;
+            synchronized (lock) {
+                if (rejected) {
+                    return;
+                }
+                wasDispatched = dispatched;
+            }
+            if (wasDispatched) {
+                release();
+            } else {
+                // Cancelled while pending, so make room for other tasks
+                pending.remove(this);
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@
  */
 package org.apache.phoenix.job;
 
+import static org.apache.phoenix.monitoring.PhoenixMetrics.CountMetric.EXPIRED_TASK_COUNT;
 import static org.apache.phoenix.monitoring.PhoenixMetrics.CountMetric.REJECTED_TASK_COUNT;
 import static org.apache.phoenix.monitoring.PhoenixMetrics.CountMetric.TASK_COUNT;
 import static org.apache.phoenix.monitoring.PhoenixMetrics.SizeMetric.TASK_END_TO_END_TIME;
@@ -26,6 +27,7 @@ import static org.apache.phoenix.monitoring.PhoenixMetrics.SizeMetric.TASK_QUEUE
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
@@ -36,21 +38,26 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.htrace.wrappers.TraceCallable;
+
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 /**
  * 
  * Thread pool executor that executes scans in parallel
  *
+ * Tasks waiting for a thread are scheduled by weighted fair queuing across the shares
+ * and priorities of their jobs (see {@link PrioritizedJob}), and tasks of jobs that
+ * are past their deadline are dropped instead of being run.
  * 
  * @since 0.1
  */
 @SuppressWarnings("rawtypes")
-public class JobManager<T> extends AbstractRoundRobinQueue<T> {
+public class JobManager<T> extends AbstractFairShareQueue<T> {
 	
     private static final AtomicLong PHOENIX_POOL_INDEX = new AtomicLong(1);
 	
     public JobManager(int maxSize) {
-        super(maxSize, true); // true -> new producers move to front of queue; this reduces latency.
+        super(maxSize);
     }
 
 	@Override
@@ -61,10 +68,67 @@ public class JobManager<T> extends AbstractRoundRobinQueue<T> {
         return o;
     }        
 
+    @Override
+    protected Object extractShare(T o) {
+        Object jobId = extractProducer(o);
+        if (jobId instanceof PrioritizedJob) {
+            return ((PrioritizedJob)jobId).getShareKey();
+        }
+        return jobId;
+    }
+
+    @Override
+    protected int extractPriority(T o) {
+        Object jobId = extractProducer(o);
+        if (jobId instanceof PrioritizedJob) {
+            return ((PrioritizedJob)jobId).getPriority();
+        }
+        return PrioritizedJob.DEFAULT_PRIORITY;
+    }
+
+    @Override
+    protected boolean dropIfExpired(T o) {
+        Object jobId = extractProducer(o);
+        if (jobId instanceof PrioritizedJob
+                && ((PrioritizedJob)jobId).getDeadline() < System.currentTimeMillis()) {
+            // Nobody is waiting for the result anymore, as the query has already timed out
+            ((JobFutureTask)o).cancel(false);
+            EXPIRED_TASK_COUNT.increment();
+            return true;
+        }
+        return false;
+    }
+
     public static interface JobRunnable<T> extends Runnable {
         public Object getJobId();
     }
 
+    /**
+     * Job id of tasks that are scheduled by priority and fair share, rather than just round
+     * robin with the tasks of other jobs.
+     */
+    public static interface PrioritizedJob {
+        public static final int DEFAULT_PRIORITY = 1;
+
+        /**
+         * @return the key of the share the job belongs to, such as its tenant or connection.
+         * Shares get a part of the thread pool proportional to the highest priority of their
+         * jobs, regardless of how many tasks each of them submits.
+         */
+        public Object getShareKey();
+
+        /**
+         * @return the relative weight of the job within its share, at least 1
+         */
+        public int getPriority();
+
+        /**
+         * @return the time in milliseconds after which the tasks of the job that are still
+         * waiting in the queue are dropped, or Long.MAX_VALUE if there is none
+         */
+        public long getDeadline();
+    }
+
     public static ThreadPoolExecutor createThreadPoolExec(int keepAliveMs, int size, int queueSize, boolean useInstrumentedThreadPool) {
         BlockingQueue<Runnable> queue;
         if (queueSize == 0) {
@@ -113,10 +177,12 @@ public class JobManager<T> extends AbstractRoundRobinQueue<T> {
     }
 
     /**
-     * Subclasses FutureTask for the sole purpose of providing {@link #getCallable()}, which is used to extract the producer in the {@link JobBasedRoundRobinQueue}
+     * Subclasses FutureTask for the sole purpose of providing {@link #getCallable()}, which is used to extract the producer in the {@link AbstractFairShareQueue}
      */
     static class JobFutureTask<T> extends FutureTask<T> {
         private final Object jobId;
+        // Future wrapped by this task, when one is submitted as a plain runnable
+        private final Future<?> delegate;
         
         public JobFutureTask(Runnable r, T t) {
             super(r, t);
@@ -125,10 +191,16 @@ public class JobManager<T> extends AbstractRoundRobinQueue<T> {
             } else {
             	this.jobId = this;
             }
+            this.delegate = r instanceof Future ? (Future<?>)r : null;
         }
         
         public JobFutureTask(Callable<T> c) {
             super(c);
+            this.delegate = null;
+            if (c instanceof TraceCallable) {
+                // Look through the wrapper used when tracing
+                c = ((TraceCallable<T>) c).getImpl();
+            }
             // FIXME: this fails when executor used by hbase
             if (c instanceof JobCallable) {
                 this.jobId = ((JobCallable<T>) c).getJobId();
@@ -140,6 +212,15 @@ public class JobManager<T> extends AbstractRoundRobinQueue<T> {
         public Object getJobId() {
             return jobId;
         }
+
+        @Override
+        protected void done() {
+            // The wrapped future never runs if this task is cancelled while queued, such as when
+            // its query timed out, so cancel it too to let whoever waits on it know
+            if (delegate != null && isCancelled()) {
+                delegate.cancel(false);
+            }
+        }
     }
     
     /**
@@ -96,6 +96,8 @@ public class CsvBulkLoadTool extends Configured implements Tool {
     static final Option ARRAY_DELIMITER_OPT = new Option("a", "array-delimiter", true, "Array element delimiter (optional)");
     static final Option IMPORT_COLUMNS_OPT = new Option("c", "import-columns", true, "Comma-separated list of columns to be imported");
     static final Option IGNORE_ERRORS_OPT = new Option("g", "ignore-errors", false, "Ignore input errors");
+    static final Option DIRECT_ENCODING_OPT = new Option("de", "direct-encoding", false, "Encode records directly into KeyValues instead of executing UPSERT statements (data table only)");
+    static final Option LOCAL_OPT = new Option("l", "local", false, "Run the import with multiple threads in this process instead of as a MapReduce job");
     static final Option HELP_OPT = new Option("h", "help", false, "Show this help and quit");
 
     public static void main(String[] args) throws Exception {
@@ -157,6 +159,8 @@ public class CsvBulkLoadTool extends Configured implements Tool {
         options.addOption(ARRAY_DELIMITER_OPT);
         options.addOption(IMPORT_COLUMNS_OPT);
         options.addOption(IGNORE_ERRORS_OPT);
+        options.addOption(DIRECT_ENCODING_OPT);
+        options.addOption(LOCAL_OPT);
         options.addOption(HELP_OPT);
         return options;
     }
@@ -256,8 +260,14 @@ public class CsvBulkLoadTool extends Configured implements Tool {
 	        	if(qualifiedTableName.compareToIgnoreCase(table.getLogicalName()) != 0) {
                     jobConf.set(CsvToKeyValueMapper.INDEX_TABLE_NAME_CONFKEY, table.getPhysicalName());
 	        	}
-	        	TableLoader tableLoader = new TableLoader(
-                        jobConf, table.getPhysicalName(), inputPath, tablePath);
+	        	Callable<Boolean> tableLoader;
+	        	if (cmdLine.hasOption(LOCAL_OPT.getOpt())) {
+	        	    tableLoader = new LocalCsvBulkLoader(
+	        	            jobConf, table.getPhysicalName(), inputPath, tablePath);
+	        	} else {
+	        	    tableLoader = new TableLoader(
+	        	            jobConf, table.getPhysicalName(), inputPath, tablePath);
+	        	}
 	        	runningJobs.add(executor.submit(tableLoader));
 	        }
         } finally {
@@ -364,6 +374,10 @@ public class CsvBulkLoadTool extends Configured implements Tool {
             conf.set(HConstants.ZOOKEEPER_QUORUM, zkQuorum);
         }
 
+        if (cmdLine.hasOption(DIRECT_ENCODING_OPT.getOpt())) {
+            conf.setBoolean(CsvToKeyValueMapper.DIRECT_ENCODING_CONFKEY, true);
+        }
+
         CsvBulkImportUtil.initCsvImportJob(
                 conf,
                 getQualifiedTableName(
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Properties;
+
+import org.apache.commons.csv.CSVRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.jdbc.PhoenixDriver;
+import org.apache.phoenix.mapreduce.util.PhoenixConfigurationUtil;
+import org.apache.phoenix.util.CSVCommonsLoader;
+import org.apache.phoenix.util.ColumnInfo;
+import org.apache.phoenix.util.PhoenixRuntime;
+import org.apache.phoenix.util.csv.CsvKeyValueEncoder;
+import org.apache.phoenix.util.csv.CsvUpsertExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Converts parsed CSV records into the KeyValues to be written to the target table of a bulk
+ * import.
+ * <p/>
+ * If direct encoding is enabled and the target is the data table itself, records are encoded
+ * with a {@link CsvKeyValueEncoder}. Otherwise UPSERT statements are executed on a Phoenix
+ * connection, after which the created KeyValues are extracted and the statement execution is
+ * rolled back before it is committed to HBase.
+ */
+class CsvKeyValueConverter implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CsvKeyValueConverter.class);
+
+    private final PhoenixConnection conn;
+    private final byte[] tableName;
+    private final CsvKeyValueEncoder keyValueEncoder;
+    private final CsvUpsertExecutor upsertExecutor;
+    private final ImportPreUpsertKeyValueProcessor preUpdateProcessor;
+
+    CsvKeyValueConverter(Configuration conf, CsvUpsertExecutor.UpsertListener upsertListener)
+            throws SQLException {
+        String dataTableName = conf.get(CsvToKeyValueMapper.TABLE_NAME_CONFKEY);
+        Preconditions.checkNotNull(dataTableName, "table name is not configured");
+        String indexTableName = conf.get(CsvToKeyValueMapper.INDEX_TABLE_NAME_CONFKEY, "");
+        String arraySeparator = conf.get(CsvToKeyValueMapper.ARRAY_DELIMITER_CONFKEY,
+                CSVCommonsLoader.DEFAULT_ARRAY_ELEMENT_SEPARATOR);
+        List<ColumnInfo> columnInfoList = CsvToKeyValueMapper.buildColumnInfoList(conf);
+
+        this.conn = createConnection(conf);
+        this.preUpdateProcessor = PhoenixConfigurationUtil.loadPreUpsertProcessor(conf);
+        if (!indexTableName.isEmpty()) {
+            this.tableName = Bytes.toBytes(indexTableName);
+        } else {
+            this.tableName = Bytes.toBytes(dataTableName);
+        }
+        if (indexTableName.isEmpty()
+                && conf.getBoolean(CsvToKeyValueMapper.DIRECT_ENCODING_CONFKEY, false)
+                && CsvKeyValueEncoder.isSupported(PhoenixRuntime.getTable(conn, dataTableName))) {
+            this.keyValueEncoder = CsvKeyValueEncoder.create(
+                    conn, dataTableName, columnInfoList, upsertListener, arraySeparator);
+            this.upsertExecutor = null;
+        } else {
+            this.keyValueEncoder = null;
+            this.upsertExecutor = CsvUpsertExecutor.create(
+                    conn, dataTableName, columnInfoList, upsertListener, arraySeparator);
+        }
+    }
+
+    /**
+     * Open a Phoenix connection based on the given configuration, passing the configuration on
+     * to the driver.
+     */
+    static PhoenixConnection createConnection(Configuration conf) throws SQLException {
+        String jdbcUrl = CsvToKeyValueMapper.getJdbcUrl(conf);
+
+        // pass client configuration into driver
+        Properties clientInfos = new Properties();
+        Iterator<Entry<String, String>> iterator = conf.iterator();
+        while(iterator.hasNext()) {
+            Entry<String,String> entry = iterator.next();
+            clientInfos.setProperty(entry.getKey(), entry.getValue());
+        }
+
+        // This statement also ensures that the driver class is loaded
+        LOG.info("Connection with driver {} with url {}", PhoenixDriver.class.getName(), jdbcUrl);
+
+        return (PhoenixConnection) DriverManager.getConnection(jdbcUrl, clientInfos);
+    }
+
+    /**
+     * Convert a single CSV record into KeyValues for the target table.
+     *
+     * @param csvRecord the record to be converted
+     * @return the KeyValues to be written, which is empty if the record could not be converted
+     */
+    List<KeyValue> convert(CSVRecord csvRecord) throws SQLException {
+        if (keyValueEncoder != null) {
+            List<KeyValue> keyValueList = keyValueEncoder.encode(csvRecord);
+            if (keyValueList.isEmpty()) {
+                return keyValueList;
+            }
+            return preUpdateProcessor.preUpsert(tableName, keyValueList);
+        }
+
+        upsertExecutor.execute(ImmutableList.of(csvRecord));
+        List<KeyValue> keyValues = Collections.emptyList();
+        Iterator<Pair<byte[], List<KeyValue>>> uncommittedDataIterator
+                = PhoenixRuntime.getUncommittedDataIterator(conn, true);
+        while (uncommittedDataIterator.hasNext()) {
+            Pair<byte[], List<KeyValue>> kvPair = uncommittedDataIterator.next();
+            if (Bytes.compareTo(tableName, kvPair.getFirst()) != 0) {
+                // skip edits for other tables
+                continue;
+            }
+            List<KeyValue> keyValueList = preUpdateProcessor.preUpsert(kvPair.getFirst(), kvPair.getSecond());
+            if (keyValues.isEmpty()) {
+                keyValues = keyValueList;
+            } else {
+                keyValues = Lists.newArrayList(keyValues);
+                keyValues.addAll(keyValueList);
+            }
+        }
+        conn.rollback();
+        return keyValues;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (upsertExecutor != null) {
+                upsertExecutor.close();
+            }
+        } finally {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
@@ -19,12 +19,8 @@ package org.apache.phoenix.mapreduce;
 
 import java.io.IOException;
 import java.io.StringReader;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.Properties;
 
 import javax.annotation.Nullable;
 
@@ -35,15 +31,9 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
-import org.apache.hadoop.hbase.util.Bytes;
-import org.apache.hadoop.hbase.util.Pair;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Mapper;
-import org.apache.phoenix.jdbc.PhoenixConnection;
-import org.apache.phoenix.jdbc.PhoenixDriver;
-import org.apache.phoenix.mapreduce.util.PhoenixConfigurationUtil;
-import org.apache.phoenix.util.CSVCommonsLoader;
 import org.apache.phoenix.util.ColumnInfo;
 import org.apache.phoenix.util.PhoenixRuntime;
 import org.apache.phoenix.util.csv.CsvUpsertExecutor;
@@ -53,9 +43,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
-import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 
@@ -64,7 +52,9 @@ import com.google.common.collect.Lists;
  * <p/>
  * KeyValues are produced by executing UPSERT statements on a Phoenix connection and then
  * extracting the created KeyValues and rolling back the statement execution before it is
- * committed to HBase.
+ * committed to HBase. If {@link #DIRECT_ENCODING_CONFKEY} is set, records for the data table are
+ * instead encoded directly from the table's row key schema and column types (see
+ * {@link CsvKeyValueConverter}).
  */
 public class CsvToKeyValueMapper extends Mapper<LongWritable,Text,ImmutableBytesWritable,
         KeyValue> {
@@ -97,48 +87,25 @@ public class CsvToKeyValueMapper extends Mapper<LongWritable,Text,ImmutableBytes
     /** Configuration key for the flag to ignore invalid rows */
     public static final String IGNORE_INVALID_ROW_CONFKEY = "phoenix.mapreduce.import.ignoreinvalidrow";
 
-    private PhoenixConnection conn;
-    private CsvUpsertExecutor csvUpsertExecutor;
-    private MapperUpsertListener upsertListener;
+    /** Configuration key for the flag to encode records directly instead of through UPSERTs */
+    public static final String DIRECT_ENCODING_CONFKEY = "phoenix.mapreduce.import.directencoding";
+
+    private CsvKeyValueConverter keyValueConverter;
     private CsvLineParser csvLineParser;
-    private ImportPreUpsertKeyValueProcessor preUpdateProcessor;
-    private byte[] tableName;
 
     @Override
     protected void setup(Context context) throws IOException, InterruptedException {
 
         Configuration conf = context.getConfiguration();
-        String jdbcUrl = getJdbcUrl(conf);
-
-        // pass client configuration into driver
-        Properties clientInfos = new Properties();
-        Iterator<Entry<String, String>> iterator = conf.iterator();
-        while(iterator.hasNext()) {
-            Entry<String,String> entry = iterator.next();
-            clientInfos.setProperty(entry.getKey(), entry.getValue());
-        }
-        
-        // This statement also ensures that the driver class is loaded
-        LOG.info("Connection with driver {} with url {}", PhoenixDriver.class.getName(), jdbcUrl);
-
+        MapperUpsertListener upsertListener = new MapperUpsertListener(
+                context, conf.getBoolean(IGNORE_INVALID_ROW_CONFKEY, true));
         try {
-            conn = (PhoenixConnection) DriverManager.getConnection(jdbcUrl, clientInfos);
+            keyValueConverter = new CsvKeyValueConverter(conf, upsertListener);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
-
-        upsertListener = new MapperUpsertListener(
-                context, conf.getBoolean(IGNORE_INVALID_ROW_CONFKEY, true));
-        csvUpsertExecutor = buildUpsertExecutor(conf);
         csvLineParser = new CsvLineParser(conf.get(FIELD_DELIMITER_CONFKEY).charAt(0), conf.get(QUOTE_CHAR_CONFKEY).charAt(0),
                 conf.get(ESCAPE_CHAR_CONFKEY).charAt(0));
-
-        preUpdateProcessor = PhoenixConfigurationUtil.loadPreUpsertProcessor(conf);
-        if(!conf.get(CsvToKeyValueMapper.INDEX_TABLE_NAME_CONFKEY, "").isEmpty()){
-        	tableName = Bytes.toBytes(conf.get(CsvToKeyValueMapper.INDEX_TABLE_NAME_CONFKEY));
-        } else {
-        	tableName = Bytes.toBytes(conf.get(CsvToKeyValueMapper.TABLE_NAME_CONFKEY, ""));
-        }
     }
 
     @SuppressWarnings("deprecation")
@@ -157,24 +124,10 @@ public class CsvToKeyValueMapper extends Mapper<LongWritable,Text,ImmutableBytes
                 context.getCounter(COUNTER_GROUP_NAME, "Empty records").increment(1L);
                 return;
             }
-            csvUpsertExecutor.execute(ImmutableList.of(csvRecord));
-
-            Iterator<Pair<byte[], List<KeyValue>>> uncommittedDataIterator
-                    = PhoenixRuntime.getUncommittedDataIterator(conn, true);
-            while (uncommittedDataIterator.hasNext()) {
-                Pair<byte[], List<KeyValue>> kvPair = uncommittedDataIterator.next();
-                if (Bytes.compareTo(tableName, kvPair.getFirst()) != 0) {
-                	// skip edits for other tables
-                	continue;
-                }
-                List<KeyValue> keyValueList = kvPair.getSecond();
-                keyValueList = preUpdateProcessor.preUpsert(kvPair.getFirst(), keyValueList);
-                for (KeyValue kv : keyValueList) {
-                    outputKey.set(kv.getRowArray(), kv.getRowOffset(), kv.getRowLength());
-                    context.write(outputKey, kv);
-                }
+            for (KeyValue kv : keyValueConverter.convert(csvRecord)) {
+                outputKey.set(kv.getRowArray(), kv.getRowOffset(), kv.getRowLength());
+                context.write(outputKey, kv);
             }
-            conn.rollback();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -182,11 +135,7 @@ public class CsvToKeyValueMapper extends Mapper<LongWritable,Text,ImmutableBytes
 
     @Override
     protected void cleanup(Context context) throws IOException, InterruptedException {
-        try {
-            conn.close();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        keyValueConverter.close();
     }
 
     /**
@@ -203,18 +152,6 @@ public class CsvToKeyValueMapper extends Mapper<LongWritable,Text,ImmutableBytes
         return PhoenixRuntime.JDBC_PROTOCOL + PhoenixRuntime.JDBC_PROTOCOL_SEPARATOR + zkQuorum;
     }
 
-    @VisibleForTesting
-    CsvUpsertExecutor buildUpsertExecutor(Configuration conf) {
-        String tableName = conf.get(TABLE_NAME_CONFKEY);
-        String arraySeparator = conf.get(ARRAY_DELIMITER_CONFKEY,
-                                            CSVCommonsLoader.DEFAULT_ARRAY_ELEMENT_SEPARATOR);
-        Preconditions.checkNotNull(tableName, "table name is not configured");
-
-        List<ColumnInfo> columnInfoList = buildColumnInfoList(conf);
-
-        return CsvUpsertExecutor.create(conn, tableName, columnInfoList, upsertListener, arraySeparator);
-    }
-
     /**
      * Write the list of to-import columns to a job configuration.
      *
@@ -0,0 +1,510 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.csv.CSVRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.KeyValueUtil;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.io.hfile.CacheConfig;
+import org.apache.hadoop.hbase.io.hfile.HFileContext;
+import org.apache.hadoop.hbase.io.hfile.HFileContextBuilder;
+import org.apache.hadoop.hbase.mapreduce.LoadIncrementalHFiles;
+import org.apache.hadoop.hbase.regionserver.BloomType;
+import org.apache.hadoop.hbase.regionserver.HStore;
+import org.apache.hadoop.hbase.regionserver.KeyValueHeap;
+import org.apache.hadoop.hbase.regionserver.StoreFile;
+import org.apache.hadoop.hbase.regionserver.StoreFileScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.phoenix.util.csv.CsvUpsertExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs a CSV import into a single table within the client process instead of as a MapReduce job.
+ * <p/>
+ * Input lines are handed out in batches to a pool of worker threads, each of which has its own
+ * {@link CsvKeyValueConverter}. A worker buffers the KeyValues of its records and, whenever the
+ * buffer is full and at the end of the input, sorts the buffer and spills it to HFiles that are
+ * split on the region boundaries of the target table. Once all input is read, the spills of each
+ * region are merged into a single HFile per column family, as bulk loading accepts only a limited
+ * number of HFiles per region and family. The HFiles are then bulk loaded in the same way as the
+ * output of the MapReduce import.
+ */
+class LocalCsvBulkLoader implements Callable<Boolean> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalCsvBulkLoader.class);
+
+    /** Configuration key for the number of worker threads of a local import */
+    public static final String THREADS_CONFKEY = "phoenix.mapreduce.import.local.threads";
+
+    /** Configuration key for the number of KeyValue bytes a worker buffers before writing HFiles */
+    public static final String FLUSH_SIZE_CONFKEY = "phoenix.mapreduce.import.local.flushsize";
+
+    /** Configuration key for the number of input lines handed to a worker at a time */
+    public static final String BATCH_SIZE_CONFKEY = "phoenix.mapreduce.import.local.batchsize";
+
+    public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+    public static final long DEFAULT_FLUSH_SIZE = 64 * 1024 * 1024;
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final List<String> END_OF_INPUT = Collections.emptyList();
+
+    /** Name of the directory under the output path to which the workers spill their buffers */
+    private static final String SPILL_DIR = "_spill";
+
+    private final Configuration conf;
+    private final String tableName;
+    private final Path inputPath;
+    private final Path outputPath;
+    private final int threads;
+    private final AtomicLong upsertCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    LocalCsvBulkLoader(Configuration conf, String qualifiedTableName, Path inputPath,
+            Path outputPath) {
+        this.conf = new Configuration(conf);
+        // Don't use the block cache for the HFiles we write
+        this.conf.setFloat(HConstants.HFILE_BLOCK_CACHE_SIZE_KEY, 0.0f);
+        this.tableName = qualifiedTableName;
+        this.inputPath = inputPath;
+        this.outputPath = outputPath;
+        this.threads = Math.max(1, conf.getInt(THREADS_CONFKEY, DEFAULT_THREADS));
+    }
+
+    @Override
+    public Boolean call() {
+        LOG.info("Configuring HFile output path to {}", outputPath);
+        try {
+            HTable htable = new HTable(conf, tableName);
+            try {
+                LOG.info("Running local import with {} threads from {} to {}",
+                        new Object[] { threads, inputPath, outputPath });
+                importData(htable);
+                LOG.info("Imported {} records with {} errors into HFiles for table={}",
+                        new Object[] { upsertCount.get(), errorCount.get(), tableName });
+
+                LOG.info("Loading HFiles from {}", outputPath);
+                LoadIncrementalHFiles loader = new LoadIncrementalHFiles(conf);
+                loader.doBulkLoad(outputPath, htable);
+            } finally {
+                htable.close();
+            }
+            LOG.info("Incremental load complete for table=" + tableName);
+
+            LOG.info("Removing output directory {}", outputPath);
+            if (!FileSystem.get(conf).delete(outputPath, true)) {
+                LOG.error("Removing output directory {} failed", outputPath);
+            }
+            return true;
+        } catch(Exception ex) {
+            LOG.error("Import job on table=" + tableName + " failed due to exception:" + ex);
+            return false;
+        }
+    }
+
+    private void importData(HTable htable) throws Exception {
+        byte[][] startKeys = htable.getStartKeys();
+        HTableDescriptor tableDescriptor = htable.getTableDescriptor();
+        BlockingQueue<List<String>> queue = new ArrayBlockingQueue<List<String>>(threads * 2);
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setDaemon(true)
+                        .setNameFormat("phoenix-local-import-" + tableName + "-%d").build());
+        final RegionHFileWriter writer = new RegionHFileWriter(conf, tableDescriptor, startKeys,
+                new Path(outputPath, SPILL_DIR), outputPath);
+        // All workers use the same timestamp, so that the same cell of different records is
+        // resolved when merging their spills, whichever worker converted them
+        byte[] now = Bytes.toBytes(System.currentTimeMillis());
+        try {
+            List<Future<Void>> workers = Lists.newArrayListWithExpectedSize(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(new ImportWorker(queue, writer, now)));
+            }
+            readInput(queue, workers);
+            for (int i = 0; i < threads; i++) {
+                put(queue, END_OF_INPUT, workers);
+            }
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+
+            List<Future<Void>> merges = Lists.newArrayList();
+            for (final Path regionSpillPath : writer.getSpilledRegions()) {
+                merges.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        writer.merge(regionSpillPath);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> merge : merges) {
+                merge.get();
+            }
+            writer.deleteSpills();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void readInput(BlockingQueue<List<String>> queue, List<Future<Void>> workers)
+            throws IOException, InterruptedException, ExecutionException {
+        FileSystem fs = inputPath.getFileSystem(conf);
+        CompressionCodecFactory codecs = new CompressionCodecFactory(conf);
+        int batchSize = conf.getInt(BATCH_SIZE_CONFKEY, DEFAULT_BATCH_SIZE);
+        for (FileStatus file : listInputFiles(fs)) {
+            CompressionCodec codec = codecs.getCodec(file.getPath());
+            InputStream in = fs.open(file.getPath());
+            if (codec != null) {
+                in = codec.createInputStream(in);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charsets.UTF_8));
+            try {
+                List<String> batch = Lists.newArrayListWithExpectedSize(batchSize);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    batch.add(line);
+                    if (batch.size() >= batchSize) {
+                        put(queue, batch, workers);
+                        batch = Lists.newArrayListWithExpectedSize(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    put(queue, batch, workers);
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private List<FileStatus> listInputFiles(FileSystem fs) throws IOException {
+        List<FileStatus> files = Lists.newArrayList();
+        FileStatus inputStatus = fs.getFileStatus(inputPath);
+        if (!inputStatus.isDirectory()) {
+            files.add(inputStatus);
+            return files;
+        }
+        for (FileStatus status : fs.listStatus(inputPath)) {
+            String name = status.getPath().getName();
+            // Skip hidden files, in the same way as FileInputFormat
+            if (status.isFile() && !name.startsWith("_") && !name.startsWith(".")) {
+                files.add(status);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Hand a batch of lines to the workers, failing fast if one of the workers has died.
+     */
+    private static void put(BlockingQueue<List<String>> queue, List<String> batch,
+            List<Future<Void>> workers) throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, 1, TimeUnit.SECONDS)) {
+            for (Future<Void> worker : workers) {
+                if (worker.isDone()) {
+                    worker.get();
+                    throw new IllegalStateException("Import worker stopped before end of input");
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts batches of input lines into KeyValues and writes them out as HFiles.
+     */
+    private class ImportWorker implements Callable<Void>, CsvUpsertExecutor.UpsertListener {
+
+        private final BlockingQueue<List<String>> queue;
+        private final RegionHFileWriter writer;
+        private final boolean ignoreRecordErrors;
+        private final long flushSize;
+        private final byte[] now;
+
+        private ImportWorker(BlockingQueue<List<String>> queue, RegionHFileWriter writer, byte[] now) {
+            this.queue = queue;
+            this.writer = writer;
+            this.now = now;
+            this.ignoreRecordErrors = conf.getBoolean(
+                    CsvToKeyValueMapper.IGNORE_INVALID_ROW_CONFKEY, true);
+            this.flushSize = conf.getLong(FLUSH_SIZE_CONFKEY, DEFAULT_FLUSH_SIZE);
+        }
+
+        @Override
+        public Void call() throws Exception {
+            CsvToKeyValueMapper.CsvLineParser csvLineParser = new CsvToKeyValueMapper.CsvLineParser(
+                    conf.get(CsvToKeyValueMapper.FIELD_DELIMITER_CONFKEY).charAt(0),
+                    conf.get(CsvToKeyValueMapper.QUOTE_CHAR_CONFKEY).charAt(0),
+                    conf.get(CsvToKeyValueMapper.ESCAPE_CHAR_CONFKEY).charAt(0));
+            List<KeyValue> buffer = Lists.newArrayList();
+            long bufferSize = 0;
+            CsvKeyValueConverter converter = new CsvKeyValueConverter(conf, this);
+            try {
+                List<String> batch;
+                while ((batch = queue.take()) != END_OF_INPUT) {
+                    for (String line : batch) {
+                        CSVRecord csvRecord = null;
+                        try {
+                            csvRecord = csvLineParser.parse(line);
+                        } catch (IOException e) {
+                            errorCount.incrementAndGet();
+                        }
+                        if (csvRecord == null) {
+                            continue;
+                        }
+                        for (KeyValue kv : converter.convert(csvRecord)) {
+                            kv.updateLatestStamp(now);
+                            buffer.add(kv);
+                            bufferSize += kv.getLength();
+                        }
+                    }
+                    if (bufferSize >= flushSize) {
+                        writer.write(buffer);
+                        buffer.clear();
+                        bufferSize = 0;
+                    }
+                }
+                writer.write(buffer);
+            } finally {
+                converter.close();
+            }
+            return null;
+        }
+
+        @Override
+        public void upsertDone(long upsertCount) {
+            LocalCsvBulkLoader.this.upsertCount.incrementAndGet();
+        }
+
+        @Override
+        public void errorOnRecord(CSVRecord csvRecord, String errorMessage) {
+            LOG.error("Error on record {}: {}", csvRecord, errorMessage);
+            errorCount.incrementAndGet();
+            if (!ignoreRecordErrors) {
+                throw new RuntimeException("Error on record, " + errorMessage + ", " +
+                        "record =" + csvRecord);
+            }
+        }
+    }
+
+    /**
+     * Spills sorted KeyValues into HFiles per region and column family of the target table, and
+     * merges the spills of a region into a single HFile per column family.
+     */
+    static class RegionHFileWriter {
+
+        private final Configuration conf;
+        private final FileSystem fs;
+        private final CacheConfig cacheConf;
+        private final HTableDescriptor tableDescriptor;
+        private final byte[][] startKeys;
+        private final Path spillPath;
+        private final Path outputPath;
+
+        RegionHFileWriter(Configuration conf, HTableDescriptor tableDescriptor,
+                byte[][] startKeys, Path spillPath, Path outputPath) throws IOException {
+            this.conf = conf;
+            this.fs = outputPath.getFileSystem(conf);
+            this.cacheConf = new CacheConfig(conf);
+            this.tableDescriptor = tableDescriptor;
+            this.startKeys = startKeys;
+            this.spillPath = spillPath;
+            this.outputPath = outputPath;
+        }
+
+        /**
+         * Sort the given KeyValues and spill them, under a directory per region. Of KeyValues with
+         * the same key only the first one is kept, as is done by the KeyValueSortReducer of the
+         * MapReduce import. May be called concurrently.
+         */
+        void write(List<KeyValue> keyValues) throws IOException {
+            if (keyValues.isEmpty()) {
+                return;
+            }
+            Collections.sort(keyValues, KeyValue.COMPARATOR);
+            Map<byte[], StoreFile.Writer> writers =
+                    new TreeMap<byte[], StoreFile.Writer>(Bytes.BYTES_COMPARATOR);
+            int region = 0;
+            KeyValue previous = null;
+            try {
+                for (KeyValue kv : keyValues) {
+                    if (previous != null && KeyValue.COMPARATOR.compare(previous, kv) == 0) {
+                        continue;
+                    }
+                    previous = kv;
+                    int kvRegion = region;
+                    while (kvRegion + 1 < startKeys.length
+                            && Bytes.compareTo(kv.getRowArray(), kv.getRowOffset(), kv.getRowLength(),
+                                    startKeys[kvRegion + 1], 0, startKeys[kvRegion + 1].length) >= 0) {
+                        kvRegion++;
+                    }
+                    if (kvRegion != region) {
+                        close(writers);
+                        region = kvRegion;
+                    }
+                    byte[] family = kv.getFamily();
+                    StoreFile.Writer writer = writers.get(family);
+                    if (writer == null) {
+                        writer = createWriter(new Path(spillPath, Integer.toString(region)), family);
+                        writers.put(family, writer);
+                    }
+                    writer.append(kv);
+                }
+            } finally {
+                close(writers);
+            }
+        }
+
+        /**
+         * @return the spill directories of the regions that KeyValues were written to
+         */
+        List<Path> getSpilledRegions() throws IOException {
+            List<Path> regionSpillPaths = Lists.newArrayList();
+            if (!fs.exists(spillPath)) {
+                return regionSpillPaths;
+            }
+            for (FileStatus status : fs.listStatus(spillPath)) {
+                if (status.isDirectory()) {
+                    regionSpillPaths.add(status.getPath());
+                }
+            }
+            return regionSpillPaths;
+        }
+
+        /**
+         * Merge the spills of a region into a single HFile per column family under the output
+         * path. Of KeyValues with the same key in different spills only one is kept.
+         */
+        void merge(Path regionSpillPath) throws IOException {
+            for (FileStatus familyStatus : fs.listStatus(regionSpillPath)) {
+                byte[] family = Bytes.toBytes(familyStatus.getPath().getName());
+                List<StoreFile> spills = Lists.newArrayList();
+                for (FileStatus spillStatus : fs.listStatus(familyStatus.getPath())) {
+                    spills.add(new StoreFile(fs, spillStatus.getPath(), conf, cacheConf, BloomType.NONE));
+                }
+                StoreFile.Writer writer = null;
+                KeyValueHeap heap = null;
+                try {
+                    List<StoreFileScanner> scanners =
+                            StoreFileScanner.getScannersForStoreFiles(spills, false, false, Long.MAX_VALUE);
+                    for (StoreFileScanner scanner : scanners) {
+                        scanner.seek(KeyValue.LOWESTKEY);
+                    }
+                    heap = new KeyValueHeap(scanners, KeyValue.COMPARATOR);
+                    writer = createWriter(outputPath, family);
+                    KeyValue previous = null;
+                    Cell cell;
+                    while ((cell = heap.next()) != null) {
+                        KeyValue kv = KeyValueUtil.ensureKeyValue(cell);
+                        if (previous != null && KeyValue.COMPARATOR.compare(previous, kv) == 0) {
+                            continue;
+                        }
+                        previous = kv;
+                        writer.append(kv);
+                    }
+                } finally {
+                    if (heap != null) {
+                        heap.close();
+                    }
+                    if (writer != null) {
+                        close(writer);
+                    }
+                    for (StoreFile spill : spills) {
+                        spill.closeReader(true);
+                    }
+                }
+            }
+        }
+
+        void deleteSpills() throws IOException {
+            if (fs.exists(spillPath) && !fs.delete(spillPath, true)) {
+                throw new IOException("Removing spill directory " + spillPath + " failed");
+            }
+        }
+
+        private StoreFile.Writer createWriter(Path path, byte[] family) throws IOException {
+            HColumnDescriptor familyDescriptor = tableDescriptor.getFamily(family);
+            if (familyDescriptor == null) {
+                throw new IOException("Unknown column family " + Bytes.toString(family)
+                        + " for table " + tableDescriptor.getNameAsString());
+            }
+            HFileContext fileContext = new HFileContextBuilder()
+                    .withCompression(familyDescriptor.getCompression())
+                    .withChecksumType(HStore.getChecksumType(conf))
+                    .withBytesPerCheckSum(HStore.getBytesPerChecksum(conf))
+                    .withBlockSize(familyDescriptor.getBlocksize())
+                    .withDataBlockEncoding(familyDescriptor.getDataBlockEncoding())
+                    .build();
+            return new StoreFile.WriterBuilder(conf, cacheConf, fs)
+                    .withOutputDir(new Path(path, Bytes.toString(family)))
+                    .withBloomType(familyDescriptor.getBloomFilterType())
+                    .withComparator(KeyValue.COMPARATOR)
+                    .withFileContext(fileContext)
+                    .build();
+        }
+
+        private static void close(Map<byte[], StoreFile.Writer> writers) throws IOException {
+            for (StoreFile.Writer writer : writers.values()) {
+                close(writer);
+            }
+            writers.clear();
+        }
+
+        private static void close(StoreFile.Writer writer) throws IOException {
+            writer.appendFileInfo(StoreFile.BULKLOAD_TIME_KEY,
+                    Bytes.toBytes(System.currentTimeMillis()));
+            writer.appendFileInfo(StoreFile.MAJOR_COMPACTION_KEY, Bytes.toBytes(true));
+            writer.appendFileInfo(StoreFile.EXCLUDE_FROM_MINOR_COMPACTION_KEY,
+                    Bytes.toBytes(false));
+            writer.appendTrackedTimestampsToMetadata();
+            writer.close();
+        }
+    }
+}
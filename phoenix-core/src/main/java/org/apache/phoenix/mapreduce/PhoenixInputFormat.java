@@ -27,7 +27,9 @@ import java.util.Properties;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HRegionLocation;
 import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.InputFormat;
 import org.apache.hadoop.mapreduce.InputSplit;
@@ -40,8 +42,13 @@ import org.apache.phoenix.jdbc.PhoenixStatement;
 import org.apache.phoenix.mapreduce.util.ConnectionUtil;
 import org.apache.phoenix.mapreduce.util.PhoenixConfigurationUtil;
 import org.apache.phoenix.query.KeyRange;
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.query.QueryServicesOptions;
+import org.apache.phoenix.schema.stats.GuidePostsInfo;
 import org.apache.phoenix.util.PhoenixRuntime;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 
@@ -77,19 +84,112 @@ public class PhoenixInputFormat<T extends DBWritable> extends InputFormat<NullWr
         final Configuration configuration = context.getConfiguration();
         final QueryPlan queryPlan = getQueryPlan(context,configuration);
         final List<KeyRange> allSplits = queryPlan.getSplits();
-        final List<InputSplit> splits = generateSplits(queryPlan,allSplits);
+        final List<InputSplit> splits = generateSplits(queryPlan,allSplits,configuration);
         return splits;
     }
 
-    private List<InputSplit> generateSplits(final QueryPlan qplan, final List<KeyRange> splits) throws IOException {
+    /**
+     * Generates the input splits from the parallel scans of the query plan, which are aligned on
+     * guideposts. Each scan (guidepost chunk) becomes a split of its own, unless a split target size
+     * is configured, in which case adjacent chunks served by the same region server are combined
+     * until the estimated size of the split reaches the target size.
+     */
+    private List<InputSplit> generateSplits(final QueryPlan qplan, final List<KeyRange> splits,
+            final Configuration configuration) throws IOException {
         Preconditions.checkNotNull(qplan);
         Preconditions.checkNotNull(splits);
-        final List<InputSplit> psplits = Lists.newArrayListWithExpectedSize(splits.size());
-        for (List<Scan> scans : qplan.getScans()) {
-            psplits.add(new PhoenixInputSplit(scans));
+        final long targetSize = PhoenixConfigurationUtil.getSplitTargetSize(configuration);
+        final List<HRegionLocation> regionLocations;
+        try {
+            regionLocations = qplan.getContext().getConnection().getQueryServices()
+                    .getAllTableRegions(qplan.getTableRef().getTable().getPhysicalName().getBytes());
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+        final long chunkSize = estimateChunkSize(qplan);
+        final List<InputSplit> psplits = combineScans(qplan.getScans(), regionLocations, chunkSize, targetSize);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(String.format("Generated %d input splits with target size %d and estimated chunk size %d",
+                psplits.size(), targetSize, chunkSize));
         }
         return psplits;
     }
+
+    /**
+     * Combines adjacent scans served by the same region server into input splits, whether or not
+     * they are in the same region, until the estimated size of a split reaches the target size.
+     * @param scans the parallel scans of the query plan, grouped by region
+     * @param regionLocations the locations of all the regions of the table, ordered by start key
+     * @param chunkSize the estimated size of a scan
+     * @param targetSize the target size of a split, at most one scan per split if zero
+     */
+    @VisibleForTesting
+    static List<InputSplit> combineScans(final List<List<Scan>> scans, final List<HRegionLocation> regionLocations,
+            final long chunkSize, final long targetSize) {
+        final List<InputSplit> psplits = Lists.newArrayList();
+        List<Scan> splitScans = Lists.newArrayList();
+        String splitLocation = null;
+        long splitSize = 0;
+        for (List<Scan> regionScans : scans) {
+            for (Scan scan : regionScans) {
+                final String location = getRegionLocation(regionLocations, scan.getStartRow());
+                if (!splitScans.isEmpty()
+                        && (splitSize + chunkSize > targetSize || !Objects.equal(location, splitLocation))) {
+                    psplits.add(new PhoenixInputSplit(splitScans, splitLocation, splitSize));
+                    splitScans = Lists.newArrayList();
+                    splitSize = 0;
+                }
+                splitScans.add(scan);
+                splitLocation = location;
+                splitSize += chunkSize;
+            }
+        }
+        if (!splitScans.isEmpty()) {
+            psplits.add(new PhoenixInputSplit(splitScans, splitLocation, splitSize));
+        }
+        return psplits;
+    }
+
+    /**
+     * Estimates the number of bytes covered by a single guidepost chunk from the table statistics,
+     * falling back to the configured guidepost width if the table has no statistics.
+     */
+    private static long estimateChunkSize(final QueryPlan qplan) {
+        long byteCount = 0;
+        int chunkCount = 0;
+        for (GuidePostsInfo guidePostsInfo : qplan.getTableRef().getTable().getTableStats().getGuidePosts().values()) {
+            byteCount += guidePostsInfo.getByteCount();
+            chunkCount = Math.max(chunkCount, guidePostsInfo.getGuidePosts().size() + 1);
+        }
+        if (byteCount > 0) {
+            return byteCount / chunkCount;
+        }
+        return qplan.getContext().getConnection().getQueryServices().getProps().getLong(
+                QueryServices.STATS_GUIDEPOST_WIDTH_BYTES_ATTRIB,
+                QueryServicesOptions.DEFAULT_STATS_GUIDEPOST_WIDTH_BYTES);
+    }
+
+    /**
+     * Returns the host name of the region server serving the region containing the given row.
+     */
+    private static String getRegionLocation(final List<HRegionLocation> regionLocations, final byte[] row) {
+        if (regionLocations.isEmpty()) {
+            return null;
+        }
+        int index = 0;
+        int low = 1;
+        int high = regionLocations.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Bytes.compareTo(regionLocations.get(mid).getRegionInfo().getStartKey(), row) <= 0) {
+                index = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return regionLocations.get(index).getHostname();
+    }
     
     /**
      * Returns the query plan associated with the select query.
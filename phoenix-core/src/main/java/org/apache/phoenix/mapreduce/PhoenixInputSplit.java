@@ -40,6 +40,8 @@ public class PhoenixInputSplit extends InputSplit implements Writable {
 
     private List<Scan> scans;
     private KeyRange keyRange;
+    private String regionLocation;
+    private long regionSize;
    
     /**
      * No Arg constructor
@@ -52,9 +54,21 @@ public class PhoenixInputSplit extends InputSplit implements Writable {
     * @param keyRange
     */
     public PhoenixInputSplit(final List<Scan> scans) {
+        this(scans, null, 0);
+    }
+
+    /**
+     * 
+     * @param scans the scans to be run by this split, in key order
+     * @param regionLocation host name of the region server serving the scans, may be null
+     * @param regionSize estimated number of bytes read by the scans
+     */
+    public PhoenixInputSplit(final List<Scan> scans, final String regionLocation, final long regionSize) {
         Preconditions.checkNotNull(scans);
         Preconditions.checkState(!scans.isEmpty());
         this.scans = scans;
+        this.regionLocation = regionLocation;
+        this.regionSize = regionSize;
         init();
     }
     
@@ -81,6 +95,8 @@ public class PhoenixInputSplit extends InputSplit implements Writable {
             Scan scan = ProtobufUtil.toScan(protoScan);
             scans.add(scan);
         }
+        regionLocation = WritableUtils.readString(input);
+        regionSize = WritableUtils.readVLong(input);
         init();
     }
     
@@ -94,16 +110,21 @@ public class PhoenixInputSplit extends InputSplit implements Writable {
             WritableUtils.writeVInt(output, protoScanBytes.length);
             output.write(protoScanBytes);
         }
+        WritableUtils.writeString(output, regionLocation);
+        WritableUtils.writeVLong(output, regionSize);
     }
 
     @Override
     public long getLength() throws IOException, InterruptedException {
-         return 0;
+         return regionSize;
     }
 
     @Override
     public String[] getLocations() throws IOException, InterruptedException {
-        return new String[]{};
+        if (regionLocation == null) {
+            return new String[]{};
+        }
+        return new String[]{regionLocation};
     }
 
     @Override
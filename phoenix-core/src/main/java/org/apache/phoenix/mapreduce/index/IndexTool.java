@@ -17,10 +17,12 @@
  */
 package org.apache.phoenix.mapreduce.index;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.cli.CommandLine;
@@ -37,26 +39,34 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.mapreduce.HFileOutputFormat;
 import org.apache.hadoop.hbase.mapreduce.LoadIncrementalHFiles;
 import org.apache.hadoop.hbase.mapreduce.TableMapReduceUtil;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 import org.apache.hadoop.util.Tool;
 import org.apache.hadoop.util.ToolRunner;
 import org.apache.phoenix.compile.PostIndexDDLCompiler;
+import org.apache.phoenix.index.IndexMaintainer;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.mapreduce.util.ColumnInfoToStringEncoderDecoder;
 import org.apache.phoenix.mapreduce.util.ConnectionUtil;
 import org.apache.phoenix.mapreduce.util.PhoenixConfigurationUtil;
 import org.apache.phoenix.mapreduce.util.PhoenixMapReduceUtil;
 import org.apache.phoenix.parse.HintNode.Hint;
+import org.apache.phoenix.parse.ParseNodeFactory;
+import org.apache.phoenix.parse.TableName;
+import org.apache.phoenix.schema.MetaDataClient;
 import org.apache.phoenix.schema.PIndexState;
 import org.apache.phoenix.schema.PTable;
 import org.apache.phoenix.schema.PTable.IndexType;
+import org.apache.phoenix.schema.PTableType;
 import org.apache.phoenix.schema.TableRef;
 import org.apache.phoenix.util.ColumnInfo;
+import org.apache.phoenix.util.EnvironmentEdgeManager;
 import org.apache.phoenix.util.MetaDataUtil;
 import org.apache.phoenix.util.PhoenixRuntime;
 import org.apache.phoenix.util.QueryUtil;
@@ -67,7 +77,11 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Preconditions;
 
 /**
- * An MR job to populate the index table from the data table.
+ * An MR job to populate the index table from the data table. By default the rows of the data table
+ * are read through a Phoenix query and the index rows are built by upserting them into the index.
+ * In direct mode the cells of the data table are scanned and the index rows are built from them
+ * directly, optionally limited to a range of data row keys, and to the changes made in a time range
+ * for an incremental rebuild.
  *
  */
 public class IndexTool extends Configured implements Tool {
@@ -78,8 +92,15 @@ public class IndexTool extends Configured implements Tool {
     private static final Option DATA_TABLE_OPTION = new Option("dt", "data-table", true, "Data table name (mandatory)");
     private static final Option INDEX_TABLE_OPTION = new Option("it", "index-table", true, "Index table name(mandatory)");
     private static final Option OUTPUT_PATH_OPTION = new Option("op", "output-path", true, "Output path where the files are written(mandatory)");
+    private static final Option DIRECT_OPTION = new Option("direct", "direct", false, "Build the index rows directly from the cells of the data table (optional)");
+    private static final Option START_TIME_OPTION = new Option("st", "start-time", true, "Only apply the data changes made since this timestamp, requires direct (optional)");
+    private static final Option END_TIME_OPTION = new Option("et", "end-time", true, "Build the index as of this timestamp, requires direct (optional)");
+    private static final Option START_ROW_OPTION = new Option("sr", "start-row", true, "Binary escaped data row key to start the rebuild from, requires direct (optional)");
+    private static final Option END_ROW_OPTION = new Option("er", "end-row", true, "Binary escaped data row key to stop the rebuild before, requires direct (optional)");
     private static final Option HELP_OPTION = new Option("h", "help", false, "Help");
     
+    private static final ParseNodeFactory FACTORY = new ParseNodeFactory();
+    
     private static final String ALTER_INDEX_QUERY_TEMPLATE = "ALTER INDEX IF EXISTS %s ON %s %s";  
     private static final String INDEX_JOB_NAME_TEMPLATE = "PHOENIX_%s_INDX_%s";
     
@@ -90,6 +111,11 @@ public class IndexTool extends Configured implements Tool {
         options.addOption(DATA_TABLE_OPTION);
         options.addOption(INDEX_TABLE_OPTION);
         options.addOption(OUTPUT_PATH_OPTION);
+        options.addOption(DIRECT_OPTION);
+        options.addOption(START_TIME_OPTION);
+        options.addOption(END_TIME_OPTION);
+        options.addOption(START_ROW_OPTION);
+        options.addOption(END_ROW_OPTION);
         options.addOption(HELP_OPTION);
         return options;
     }
@@ -131,6 +157,15 @@ public class IndexTool extends Configured implements Tool {
             throw new IllegalStateException(OUTPUT_PATH_OPTION.getLongOpt() + " is a mandatory " 
                    + "parameter");
         }
+
+        if (!cmdLine.hasOption(DIRECT_OPTION.getOpt())) {
+            for (Option option : new Option[] {START_TIME_OPTION, END_TIME_OPTION, START_ROW_OPTION, END_ROW_OPTION}) {
+                if (cmdLine.hasOption(option.getOpt())) {
+                    throw new IllegalStateException(option.getLongOpt() + " requires the "
+                            + DIRECT_OPTION.getLongOpt() + " parameter");
+                }
+            }
+        }
         return cmdLine;
     }
 
@@ -168,12 +203,38 @@ public class IndexTool extends Configured implements Tool {
                 throw new IllegalArgumentException(String.format(" %s is not an index table for %s ",qIndexTable,qDataTable));
             }
             
+            final boolean direct = cmdLine.hasOption(DIRECT_OPTION.getOpt());
             final PTable pdataTable = PhoenixRuntime.getTable(connection, dataTable);
-            final PTable pindexTable = PhoenixRuntime.getTable(connection, indexTable);
+            PTable pindexTable = PhoenixRuntime.getTable(connection, indexTable);
+            if (direct) {
+                // refresh the index, as the cached state of the index may be stale
+                final MetaDataClient client = new MetaDataClient(connection.unwrap(PhoenixConnection.class));
+                client.updateCache(schemaName, indexTable);
+                pindexTable = PhoenixRuntime.getTable(connection, indexTable);
+                if (pindexTable.getIndexState() == PIndexState.DISABLE) {
+                    // maintain the index from now on while the rows written before are rebuilt
+                    client.alterIndex(FACTORY.alterIndex(FACTORY.namedTable(null,
+                        TableName.create(pindexTable.getSchemaName().getString(), pindexTable.getTableName().getString())),
+                        pdataTable.getTableName().getString(), false, PIndexState.INACTIVE));
+                }
+            }
+            
+            final long startTime = direct && cmdLine.hasOption(START_TIME_OPTION.getOpt())
+                    ? Long.parseLong(cmdLine.getOptionValue(START_TIME_OPTION.getOpt())) : 0;
             
             // this is set to ensure index tables remains consistent post population.
             long indxTimestamp = pindexTable.getTimeStamp();
-            configuration.set(PhoenixConfigurationUtil.CURRENT_SCN_VALUE,Long.toString(indxTimestamp + 1));
+            long currentScn = indxTimestamp + 1;
+            if (direct && cmdLine.hasOption(END_TIME_OPTION.getOpt())) {
+                currentScn = Long.parseLong(cmdLine.getOptionValue(END_TIME_OPTION.getOpt()));
+            } else if (startTime > 0) {
+                // an incremental rebuild applies the changes made up to now
+                currentScn = EnvironmentEdgeManager.currentTimeMillis();
+            }
+            if (startTime > 0 && startTime >= currentScn) {
+                throw new IllegalArgumentException(String.format("Start time %d is not before end time %d", startTime, currentScn));
+            }
+            configuration.set(PhoenixConfigurationUtil.CURRENT_SCN_VALUE,Long.toString(currentScn));
             
             // check if the index type is LOCAL, if so, set the logicalIndexName that is computed from the dataTable name.
             String logicalIndexTable = qIndexTable;
@@ -182,30 +243,35 @@ public class IndexTool extends Configured implements Tool {
             }
             
             final PhoenixConnection pConnection = connection.unwrap(PhoenixConnection.class);
-            final PostIndexDDLCompiler ddlCompiler = new PostIndexDDLCompiler(pConnection,new TableRef(pdataTable));
-            ddlCompiler.compile(pindexTable);
-            
-            final List<String> indexColumns = ddlCompiler.getIndexColumnNames();
-            final String selectQuery = ddlCompiler.getSelectQuery();
-            final String upsertQuery = QueryUtil.constructUpsertStatement(indexTable, indexColumns, Hint.NO_INDEX);
-       
-            configuration.set(PhoenixConfigurationUtil.UPSERT_STATEMENT, upsertQuery);
-            PhoenixConfigurationUtil.setOutputTableName(configuration, logicalIndexTable);
-            PhoenixConfigurationUtil.setUpsertColumnNames(configuration,indexColumns.toArray(new String[indexColumns.size()]));
-            final List<ColumnInfo> columnMetadataList = PhoenixRuntime.generateColumnInfo(connection, qIndexTable, indexColumns);
-            final String encodedColumnInfos = ColumnInfoToStringEncoderDecoder.encode(columnMetadataList);
-            configuration.set(PhoenixConfigurationUtil.UPSERT_COLUMN_INFO_KEY, encodedColumnInfos);
-            
             final Path outputPath =  new Path(cmdLine.getOptionValue(OUTPUT_PATH_OPTION.getOpt()),logicalIndexTable);
             
             final String jobName = String.format(INDEX_JOB_NAME_TEMPLATE,dataTable,indexTable);
             final Job job = Job.getInstance(configuration, jobName);
             job.setJarByClass(IndexTool.class);
+            
+            if (direct) {
+                configureDirectJob(job, pConnection, pdataTable, pindexTable, startTime, cmdLine);
+            } else {
+                final Configuration jobConfiguration = job.getConfiguration();
+                final PostIndexDDLCompiler ddlCompiler = new PostIndexDDLCompiler(pConnection,new TableRef(pdataTable));
+                ddlCompiler.compile(pindexTable);
+                
+                final List<String> indexColumns = ddlCompiler.getIndexColumnNames();
+                final String selectQuery = ddlCompiler.getSelectQuery();
+                final String upsertQuery = QueryUtil.constructUpsertStatement(indexTable, indexColumns, Hint.NO_INDEX);
            
-            job.setMapperClass(PhoenixIndexImportMapper.class);
-            job.setMapOutputKeyClass(ImmutableBytesWritable.class); 
-            job.setMapOutputValueClass(KeyValue.class);
-            PhoenixMapReduceUtil.setInput(job,PhoenixIndexDBWritable.class,dataTable,selectQuery);
+                jobConfiguration.set(PhoenixConfigurationUtil.UPSERT_STATEMENT, upsertQuery);
+                PhoenixConfigurationUtil.setOutputTableName(jobConfiguration, logicalIndexTable);
+                PhoenixConfigurationUtil.setUpsertColumnNames(jobConfiguration,indexColumns.toArray(new String[indexColumns.size()]));
+                final List<ColumnInfo> columnMetadataList = PhoenixRuntime.generateColumnInfo(connection, qIndexTable, indexColumns);
+                final String encodedColumnInfos = ColumnInfoToStringEncoderDecoder.encode(columnMetadataList);
+                jobConfiguration.set(PhoenixConfigurationUtil.UPSERT_COLUMN_INFO_KEY, encodedColumnInfos);
+                
+                job.setMapperClass(PhoenixIndexImportMapper.class);
+                job.setMapOutputKeyClass(ImmutableBytesWritable.class); 
+                job.setMapOutputValueClass(KeyValue.class);
+                PhoenixMapReduceUtil.setInput(job,PhoenixIndexDBWritable.class,dataTable,selectQuery);
+            }
      
             TableMapReduceUtil.initCredentials(job);
             FileOutputFormat.setOutputPath(job, outputPath);
@@ -249,6 +315,57 @@ public class IndexTool extends Configured implements Tool {
         }
     }
 
+    /**
+     * Configures the job to scan the data table with a {@link PhoenixIndexImportDirectMapper}, which
+     * builds the index rows from the cells of the data rows using the {@link IndexMaintainer} of
+     * the index. Only global indexes on tables are supported, since the rows of a local index
+     * are prefixed by the start key of their region and the rows of a view need its WHERE clause.
+     */
+    private void configureDirectJob(Job job, PhoenixConnection connection, PTable pdataTable,
+            PTable pindexTable, long startTime, CommandLine cmdLine) throws IOException {
+        if (IndexType.LOCAL.equals(pindexTable.getIndexType())) {
+            throw new IllegalArgumentException("The direct mode does not support local indexes");
+        }
+        if (pdataTable.getType() != PTableType.TABLE || pdataTable.isPackedColumns()) {
+            throw new IllegalArgumentException("The direct mode only supports indexes on tables without packed columns");
+        }
+        // use the index as known by the data table, since the state of the index may have changed since
+        PTable index = null;
+        for (PTable dataTableIndex : pdataTable.getIndexes()) {
+            if (dataTableIndex.getName().equals(pindexTable.getName())) {
+                index = dataTableIndex;
+            }
+        }
+        Preconditions.checkNotNull(index);
+        final Configuration configuration = job.getConfiguration();
+        final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        IndexMaintainer.serializeAll(pdataTable, ptr, Collections.singletonList(index), connection);
+        PhoenixConfigurationUtil.setIndexMaintainers(configuration, ptr);
+        
+        final long currentScn = Long.parseLong(configuration.get(PhoenixConfigurationUtil.CURRENT_SCN_VALUE));
+        final Scan scan = new Scan();
+        scan.setCacheBlocks(false);
+        for (byte[] family : PhoenixIndexImportDirectMapper.getDataFamilies(index.getIndexMaintainer(pdataTable, connection))) {
+            scan.addFamily(family);
+        }
+        if (startTime > 0) {
+            // find the rows with changes, including deletes, in the time range
+            PhoenixConfigurationUtil.setIndexRebuildStartTime(configuration, startTime);
+            scan.setRaw(true);
+            scan.setTimeRange(startTime, currentScn);
+        } else {
+            scan.setTimeRange(0, currentScn);
+        }
+        if (cmdLine.hasOption(START_ROW_OPTION.getOpt())) {
+            scan.setStartRow(Bytes.toBytesBinary(cmdLine.getOptionValue(START_ROW_OPTION.getOpt())));
+        }
+        if (cmdLine.hasOption(END_ROW_OPTION.getOpt())) {
+            scan.setStopRow(Bytes.toBytesBinary(cmdLine.getOptionValue(END_ROW_OPTION.getOpt())));
+        }
+        TableMapReduceUtil.initTableMapperJob(pdataTable.getPhysicalName().getString(), scan,
+                PhoenixIndexImportDirectMapper.class, ImmutableBytesWritable.class, KeyValue.class, job, false);
+    }
+
     /**
      * Checks for the validity of the index table passed to the job.
      * @param connection
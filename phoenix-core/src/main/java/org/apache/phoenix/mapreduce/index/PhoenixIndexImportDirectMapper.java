@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce.index;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.KeyValueUtil;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.mapreduce.TableInputFormat;
+import org.apache.hadoop.hbase.mapreduce.TableMapper;
+import org.apache.phoenix.hbase.index.ValueGetter;
+import org.apache.phoenix.hbase.index.covered.update.ColumnReference;
+import org.apache.phoenix.hbase.index.util.GenericKeyValueBuilder;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
+import org.apache.phoenix.hbase.index.util.KeyValueBuilder;
+import org.apache.phoenix.index.IndexMaintainer;
+import org.apache.phoenix.mapreduce.PhoenixJobCounters;
+import org.apache.phoenix.mapreduce.util.PhoenixConfigurationUtil;
+import org.apache.phoenix.query.QueryConstants;
+import org.apache.phoenix.util.ByteUtil;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Mapper that builds the rows of a global index directly from the cells of the data table rows,
+ * without going through the Phoenix query and upsert path.
+ * <p>
+ * For a full rebuild the rows of the data table are scanned as of the index timestamp. For an
+ * incremental rebuild, the rows changed in the time range of the rebuild are scanned, and all the
+ * versions and delete markers of each of them are read with a raw scan, from which its state at
+ * the start and at the end of the time range are built: the index row of the old state is deleted
+ * and the index row of the new state is written, so that the data rows that are deleted or whose
+ * indexed columns change are handled as well. The old state can't be read with a time range, as
+ * the delete markers written after the start of the time range would still hide its cells, unless
+ * the table keeps deleted cells.
+ */
+public class PhoenixIndexImportDirectMapper extends TableMapper<ImmutableBytesWritable, KeyValue> {
+
+    private final KeyValueBuilder kvBuilder = GenericKeyValueBuilder.INSTANCE;
+
+    private IndexMaintainer maintainer;
+
+    private byte[][] dataFamilies;
+
+    private byte[][] indexFamilies;
+
+    private long indexTimestamp;
+
+    private long startTime;
+
+    private HTable dataTable;
+
+    @Override
+    protected void setup(final Context context) throws IOException, InterruptedException {
+        super.setup(context);
+        final Configuration configuration = context.getConfiguration();
+        maintainer = PhoenixConfigurationUtil.getIndexMaintainers(configuration).get(0);
+        dataFamilies = getDataFamilies(maintainer);
+        indexFamilies = getIndexFamilies(maintainer);
+        indexTimestamp = Long.parseLong(configuration.get(PhoenixConfigurationUtil.CURRENT_SCN_VALUE));
+        startTime = PhoenixConfigurationUtil.getIndexRebuildStartTime(configuration);
+        if (startTime > 0) {
+            dataTable = new HTable(configuration, configuration.get(TableInputFormat.INPUT_TABLE));
+        }
+    }
+
+    /**
+     * @return the families of the data table that the index references
+     */
+    static byte[][] getDataFamilies(IndexMaintainer maintainer) {
+        Set<ImmutableBytesPtr> families = Sets.newLinkedHashSet();
+        families.add(new ImmutableBytesPtr(maintainer.getDataEmptyKeyValueCF()));
+        for (ColumnReference ref : maintainer.getAllColumns()) {
+            families.add(new ImmutableBytesPtr(ref.getFamily()));
+        }
+        return toByteArrays(families);
+    }
+
+    /**
+     * @return the families of the index table
+     */
+    static byte[][] getIndexFamilies(IndexMaintainer maintainer) {
+        Set<ImmutableBytesPtr> families = Sets.newLinkedHashSet();
+        families.add(maintainer.getEmptyKeyValueFamily());
+        for (ColumnReference ref : maintainer.getCoverededColumns()) {
+            families.add(new ImmutableBytesPtr(ref.getFamily()));
+        }
+        return toByteArrays(families);
+    }
+
+    private static byte[][] toByteArrays(Set<ImmutableBytesPtr> families) {
+        byte[][] bytes = new byte[families.size()][];
+        int i = 0;
+        for (ImmutableBytesPtr family : families) {
+            bytes[i++] = family.copyBytesIfNecessary();
+        }
+        return bytes;
+    }
+
+    @Override
+    protected void map(ImmutableBytesWritable key, Result result, Context context)
+            throws IOException, InterruptedException {
+        context.getCounter(PhoenixJobCounters.INPUT_RECORDS).increment(1);
+        if (dataTable == null) {
+            writeIndexRow(result.getRow(), Arrays.asList(result.rawCells()), context);
+            return;
+        }
+        rebuildRow(result.getRow(), context);
+    }
+
+    private Scan newRawScan(byte[] row) throws IOException {
+        Scan scan = new Scan(row, ByteUtil.concat(row, QueryConstants.SEPARATOR_BYTE_ARRAY));
+        for (byte[] family : dataFamilies) {
+            scan.addFamily(family);
+        }
+        scan.setRaw(true);
+        scan.setMaxVersions();
+        scan.setTimeRange(0, indexTimestamp);
+        scan.setSmall(true);
+        scan.setCacheBlocks(false);
+        return scan;
+    }
+
+    /**
+     * Reads all the versions and delete markers of a changed row, and replaces the index row of its
+     * state at the start of the time range of the rebuild by the index row of its state at the end
+     * of it. HBase has no raw Get, so the row is read with a small raw scan.
+     */
+    private void rebuildRow(byte[] row, Context context) throws IOException, InterruptedException {
+        List<Cell> cells = Lists.newArrayList();
+        ResultScanner scanner = dataTable.getScanner(newRawScan(row));
+        try {
+            for (Result result = scanner.next(); result != null; result = scanner.next()) {
+                cells.addAll(Arrays.asList(result.rawCells()));
+            }
+        } finally {
+            scanner.close();
+        }
+        deleteIndexRow(row, getRowState(cells, startTime), context);
+        writeIndexRow(row, getRowState(cells, indexTimestamp), context);
+    }
+
+    /**
+     * Builds the state of a row as of a time from its raw cells, sorted as a raw scan returns them:
+     * the latest version of each column before the time, that no delete marker before the time
+     * hides.
+     * @param cells all the versions and delete markers of the row
+     * @param maxTimestamp the time, exclusive
+     * @return the cells of the state of the row, empty if the row did not exist
+     */
+    @VisibleForTesting
+    static List<Cell> getRowState(List<Cell> cells, long maxTimestamp) {
+        List<Cell> state = Lists.newArrayList();
+        Cell previous = null;
+        // Delete markers of the current family, and of the current column
+        long familyDeleteTimestamp = -1;
+        Set<Long> familyVersionDeletes = Sets.newHashSet();
+        long columnDeleteTimestamp = -1;
+        Set<Long> columnVersionDeletes = Sets.newHashSet();
+        boolean hasColumnValue = false;
+        for (Cell cell : cells) {
+            if (previous == null || !CellUtil.matchingFamily(previous, cell)) {
+                familyDeleteTimestamp = -1;
+                familyVersionDeletes.clear();
+            }
+            if (previous == null || !CellUtil.matchingColumn(previous, cell)) {
+                columnDeleteTimestamp = -1;
+                columnVersionDeletes.clear();
+                hasColumnValue = false;
+            }
+            previous = cell;
+            long timestamp = cell.getTimestamp();
+            if (timestamp >= maxTimestamp) {
+                continue;
+            }
+            switch (KeyValue.Type.codeToType(cell.getTypeByte())) {
+            case DeleteFamily:
+                familyDeleteTimestamp = Math.max(familyDeleteTimestamp, timestamp);
+                break;
+            case DeleteFamilyVersion:
+                familyVersionDeletes.add(timestamp);
+                break;
+            case DeleteColumn:
+                columnDeleteTimestamp = Math.max(columnDeleteTimestamp, timestamp);
+                break;
+            case Delete:
+                columnVersionDeletes.add(timestamp);
+                break;
+            case Put:
+                // The versions of a column are sorted from the latest, after the delete markers
+                // of the same timestamp
+                if (!hasColumnValue && timestamp > familyDeleteTimestamp && timestamp > columnDeleteTimestamp
+                        && !familyVersionDeletes.contains(timestamp) && !columnVersionDeletes.contains(timestamp)) {
+                    state.add(cell);
+                    hasColumnValue = true;
+                }
+                break;
+            default:
+                break;
+            }
+        }
+        return state;
+    }
+
+    private ValueGetter getValueGetter(byte[] row, List<Cell> cells) {
+        return maintainer.createGetterFromKeyValues(row, cells);
+    }
+
+    /**
+     * Deletes the index row of the given state of a data row. The delete is one less than the
+     * index timestamp, so that it does not hide the index row of the new state of the data row
+     * when that has the same key.
+     */
+    private void deleteIndexRow(byte[] row, List<Cell> cells, Context context) throws IOException, InterruptedException {
+        if (cells.isEmpty()) {
+            return;
+        }
+        byte[] indexRowKey = maintainer.buildRowKey(getValueGetter(row, cells),
+                new ImmutableBytesWritable(row), null, null);
+        ImmutableBytesWritable outputKey = new ImmutableBytesWritable(indexRowKey);
+        for (byte[] family : indexFamilies) {
+            context.write(outputKey, new KeyValue(indexRowKey, family, null, indexTimestamp - 1,
+                    KeyValue.Type.DeleteFamily));
+        }
+    }
+
+    private void writeIndexRow(byte[] row, List<Cell> cells, Context context) throws IOException, InterruptedException {
+        if (cells.isEmpty()) {
+            return;
+        }
+        Put put = maintainer.buildUpdateMutation(kvBuilder, getValueGetter(row, cells),
+                new ImmutableBytesWritable(row), indexTimestamp, null, null);
+        if (put == null) {
+            return;
+        }
+        ImmutableBytesWritable outputKey = new ImmutableBytesWritable(put.getRow());
+        for (List<Cell> familyCells : put.getFamilyCellMap().values()) {
+            for (Cell cell : familyCells) {
+                context.write(outputKey, KeyValueUtil.ensureKeyValue(cell));
+            }
+        }
+        context.getCounter(PhoenixJobCounters.OUTPUT_RECORDS).increment(1);
+    }
+
+    @Override
+    protected void cleanup(Context context) throws IOException, InterruptedException {
+        if (dataTable != null) {
+            dataTable.close();
+        }
+        super.cleanup(context);
+    }
+}
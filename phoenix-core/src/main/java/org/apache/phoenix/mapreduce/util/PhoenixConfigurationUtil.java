@@ -32,11 +32,14 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.mapreduce.TableMapReduceUtil;
+import org.apache.hadoop.hbase.util.Base64;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.lib.db.DBInputFormat.NullDBWritable;
 import org.apache.hadoop.mapreduce.lib.db.DBWritable;
 import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.phoenix.index.IndexMaintainer;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.mapreduce.CsvToKeyValueMapper.DefaultImportPreUpsertKeyValueProcessor;
 import org.apache.phoenix.mapreduce.ImportPreUpsertKeyValueProcessor;
@@ -95,6 +98,17 @@ public final class PhoenixConfigurationUtil {
     
     public static final String MAPREDUCE_OUTPUT_CLUSTER_QUORUM = "phoneix.mapreduce.output.cluster.quorum";
 
+    /** Configuration key for the target number of bytes per input split, 0 for one split per guidepost chunk */
+    public static final String MAPREDUCE_SPLIT_TARGET_SIZE = "phoenix.mapreduce.split.targetsize";
+
+    public static final long DEFAULT_SPLIT_TARGET_SIZE = 0;
+
+    /** Configuration key for the serialized IndexMaintainers used to build index rows from raw data rows */
+    public static final String INDEX_MAINTAINERS = "phoenix.mapreduce.index.maintainers";
+
+    /** Configuration key for the start of the time range of the data changes an incremental index rebuild applies */
+    public static final String INDEX_REBUILD_START_TIME = "phoenix.mapreduce.index.rebuild.starttime";
+
     public enum SchemaType {
         TABLE,
         QUERY;
@@ -191,6 +205,64 @@ public final class PhoenixConfigurationUtil {
         configuration.set(MAPREDUCE_OUTPUT_CLUSTER_QUORUM, quorum);
     }
         
+    /**
+     * Sets the target size of the input splits of a Phoenix MapReduce job. Adjacent guidepost chunks on the
+     * same region server are combined into a single split until the estimated size of the split reaches the
+     * target size.
+     * @param configuration
+     * @param targetSize target number of bytes per split, or 0 for one split per guidepost chunk
+     */
+    public static void setSplitTargetSize(final Configuration configuration, final long targetSize) {
+        Preconditions.checkNotNull(configuration);
+        Preconditions.checkArgument(targetSize >= 0, "Split target size may not be negative");
+        configuration.setLong(MAPREDUCE_SPLIT_TARGET_SIZE, targetSize);
+    }
+
+    public static long getSplitTargetSize(final Configuration configuration) {
+        Preconditions.checkNotNull(configuration);
+        return configuration.getLong(MAPREDUCE_SPLIT_TARGET_SIZE, DEFAULT_SPLIT_TARGET_SIZE);
+    }
+
+    /**
+     * Sets the IndexMaintainers, as serialized by {@link IndexMaintainer#serializeAll}, that a
+     * MapReduce job uses to build index rows from the rows of the data table.
+     * @param configuration
+     * @param indexMaintainers serialized IndexMaintainers
+     */
+    public static void setIndexMaintainers(final Configuration configuration,
+            final ImmutableBytesWritable indexMaintainers) {
+        Preconditions.checkNotNull(configuration);
+        Preconditions.checkNotNull(indexMaintainers);
+        configuration.set(INDEX_MAINTAINERS, Base64.encodeBytes(indexMaintainers.copyBytes()));
+    }
+
+    public static List<IndexMaintainer> getIndexMaintainers(final Configuration configuration) {
+        Preconditions.checkNotNull(configuration);
+        final String encoded = configuration.get(INDEX_MAINTAINERS);
+        Preconditions.checkNotNull(encoded, "Index maintainers are not set");
+        return IndexMaintainer.deserialize(Base64.decode(encoded));
+    }
+
+    /**
+     * Sets the start of the time range of the data changes that an index rebuild applies, making the
+     * rebuild incremental. The end of the time range is the {@link #CURRENT_SCN_VALUE}.
+     * @param configuration
+     * @param startTime start of the time range, inclusive
+     */
+    public static void setIndexRebuildStartTime(final Configuration configuration, final long startTime) {
+        Preconditions.checkNotNull(configuration);
+        Preconditions.checkArgument(startTime > 0, "Index rebuild start time must be positive");
+        configuration.setLong(INDEX_REBUILD_START_TIME, startTime);
+    }
+
+    /**
+     * @return the start of the time range of an incremental index rebuild, or 0 for a full rebuild
+     */
+    public static long getIndexRebuildStartTime(final Configuration configuration) {
+        Preconditions.checkNotNull(configuration);
+        return configuration.getLong(INDEX_REBUILD_START_TIME, 0);
+    }
+
     public static Class<?> getInputClass(final Configuration configuration) {
         return configuration.getClass(INPUT_CLASS, NullDBWritable.class);
     }
@@ -26,6 +26,9 @@ import org.apache.http.annotation.ThreadSafe;
  * but enforces that at most a threshold percentage is used by this
  * memory manager.  No blocking is done if the threshold is exceeded,
  * but the standard blocking will be done by the global memory manager.
+ * Child memory managers may be nested, for example to give each query
+ * a share of the memory of its tenant, in which case an allocation has
+ * to fit into the threshold of every level.
  *
  * 
  * @since 0.1
@@ -39,9 +42,6 @@ public class ChildMemoryManager extends DelegatingMemoryManager {
     
     public ChildMemoryManager(MemoryManager mm, int maxPercOfTotal) {
         super(mm);
-        if (mm instanceof ChildMemoryManager) {
-            throw new IllegalStateException("ChildMemoryManager cannot delegate to another ChildMemoryManager");
-        }
         this.maxPercOfTotal = maxPercOfTotal;
         if (maxPercOfTotal <= 0 || maxPercOfTotal > 100) {
             throw new IllegalArgumentException("Max percentage of total memory (" + maxPercOfTotal + "%) must be greater than zero and less than or equal to 100");
@@ -62,38 +62,60 @@ public class ChildMemoryManager extends DelegatingMemoryManager {
     
     @Override
     public MemoryChunk allocate(long minBytes, long nBytes) {
+        // Reserve the bytes up front, so that the lock isn't held while the global memory
+        // manager blocks waiting for memory to become available
         synchronized (sync) {
             nBytes = adjustAllocation(minBytes, nBytes);
-            final MemoryChunk chunk = super.allocate(minBytes, nBytes);
-            allocatedBytes += chunk.getSize();
-            // Instantiate delegate chunk to track allocatedBytes correctly
-            return new MemoryChunk() {
-                @Override
-                public void close() {
-                    synchronized (sync) {
-                        allocatedBytes -= chunk.getSize();
-                        chunk.close();
-                    }
-                }
-    
-                @Override
-                public long getSize() {
-                    return chunk.getSize();
+            allocatedBytes += nBytes;
+        }
+        final MemoryChunk chunk;
+        try {
+            chunk = super.allocate(minBytes, nBytes);
+        } catch (RuntimeException e) {
+            release(nBytes);
+            throw e;
+        }
+        // Return what was reserved but not allocated
+        release(nBytes - chunk.getSize());
+        // Instantiate delegate chunk to track allocatedBytes correctly
+        return new MemoryChunk() {
+            @Override
+            public void close() {
+                synchronized (sync) {
+                    allocatedBytes -= chunk.getSize();
+                    chunk.close();
                 }
-    
-                @Override
-                public void resize(long nBytes) {
-                    synchronized (sync) {
-                        long size = getSize();
-                        long deltaBytes = nBytes - size;
-                        if (deltaBytes > 0) {
-                            adjustAllocation(deltaBytes,deltaBytes); // Throw if too much memory
-                        }
-                        chunk.resize(nBytes);
-                        allocatedBytes += deltaBytes;
+            }
+
+            @Override
+            public long getSize() {
+                return chunk.getSize();
+            }
+
+            @Override
+            public void resize(long nBytes) {
+                long deltaBytes;
+                synchronized (sync) {
+                    long size = getSize();
+                    deltaBytes = nBytes - size;
+                    if (deltaBytes > 0) {
+                        adjustAllocation(deltaBytes,deltaBytes); // Throw if too much memory
                     }
+                    allocatedBytes += deltaBytes;
+                }
+                try {
+                    chunk.resize(nBytes);
+                } catch (RuntimeException e) {
+                    release(deltaBytes);
+                    throw e;
                 }
-            };
+            }
+        };
+    }
+
+    private void release(long nBytes) {
+        synchronized (sync) {
+            allocatedBytes -= nBytes;
         }
     }
 
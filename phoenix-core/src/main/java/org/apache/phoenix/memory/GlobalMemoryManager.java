@@ -20,12 +20,25 @@ package org.apache.phoenix.memory;
 import static org.apache.phoenix.monitoring.PhoenixMetrics.SizeMetric.MEMORY_MANAGER_BYTES;
 import static org.apache.phoenix.monitoring.PhoenixMetrics.SizeMetric.MEMORY_WAIT_TIME;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.apache.http.annotation.GuardedBy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 /**
  * 
  * Global memory manager to track course grained memory usage across all requests.
+ * <p>
+ * As long as nobody is waiting for memory, allocations are done with a compare-and-set on the
+ * used memory, without taking a lock. Allocations that can't be satisfied wait in a FIFO queue,
+ * and only the request at its head may allocate, so that a stream of small requests can't starve
+ * a large one. New requests don't jump the queue either while others are waiting.
  *
  * 
  * @since 0.1
@@ -33,11 +46,15 @@ import org.slf4j.LoggerFactory;
 public class GlobalMemoryManager implements MemoryManager {
     private static final Logger logger = LoggerFactory.getLogger(GlobalMemoryManager.class);
     
-    private final Object sync = new Object();
     private final long maxMemoryBytes;
     private final int maxWaitMs;
-    @GuardedBy("sync")
-    private volatile long usedMemoryBytes;
+    private final AtomicLong usedMemoryBytes = new AtomicLong();
+    private final ReentrantLock waitLock = new ReentrantLock();
+    @GuardedBy("waitLock")
+    private final Deque<Condition> waiters = new ArrayDeque<Condition>();
+    // Number of waiters, readable without taking the lock to decide on the fast path
+    private final AtomicInteger waiterCount = new AtomicInteger();
+
     public GlobalMemoryManager(long maxBytes, int maxWaitMs) {
         if (maxBytes <= 0) {
             throw new IllegalStateException("Total number of available bytes (" + maxBytes + ") must be greater than zero");
@@ -47,14 +64,11 @@ public class GlobalMemoryManager implements MemoryManager {
         }
         this.maxMemoryBytes = maxBytes;
         this.maxWaitMs = maxWaitMs;
-        this.usedMemoryBytes = 0;
     }
     
     @Override
     public long getAvailableMemory() {
-        synchronized(sync) {
-            return maxMemoryBytes - usedMemoryBytes;
-        }
+        return maxMemoryBytes - usedMemoryBytes.get();
     }
 
     @Override
@@ -62,8 +76,6 @@ public class GlobalMemoryManager implements MemoryManager {
         return maxMemoryBytes;
     }
 
-
-    // TODO: Work on fairness: One big memory request can cause all others to block here.
     private long allocateBytes(long minBytes, long reqBytes) {
         if (minBytes < 0 || reqBytes < 0) {
             throw new IllegalStateException("Minimum requested bytes (" + minBytes + ") and requested bytes (" + reqBytes + ") must be greater than zero");
@@ -71,30 +83,86 @@ public class GlobalMemoryManager implements MemoryManager {
         if (minBytes > maxMemoryBytes) { // No need to wait, since we'll never have this much available
             throw new InsufficientMemoryException("Requested memory of " + minBytes + " bytes is larger than global pool of " + maxMemoryBytes + " bytes.");
         }
-        long startTimeMs = System.currentTimeMillis(); // Get time outside of sync block to account for waiting for lock
-        long nBytes;
-        synchronized(sync) {
-            while (usedMemoryBytes + minBytes > maxMemoryBytes) { // Only wait if minBytes not available
-                try {
+        long startTimeMs = System.currentTimeMillis();
+        long nBytes = waiterCount.get() == 0 ? tryAllocateBytes(minBytes, reqBytes) : -1;
+        if (nBytes < 0) {
+            nBytes = waitAndAllocateBytes(minBytes, reqBytes, startTimeMs);
+        }
+        MEMORY_WAIT_TIME.update(System.currentTimeMillis() - startTimeMs);
+        MEMORY_MANAGER_BYTES.update(nBytes);
+        return nBytes;
+    }
+
+    /**
+     * Allocate at most reqBytes, but at least minBytes, if that much memory is available.
+     * @return the number of allocated bytes, or -1 if minBytes aren't available
+     */
+    private long tryAllocateBytes(long minBytes, long reqBytes) {
+        while (true) {
+            long usedBytes = usedMemoryBytes.get();
+            long availBytes = maxMemoryBytes - usedBytes;
+            if (availBytes < minBytes) {
+                return -1;
+            }
+            long nBytes = Math.min(reqBytes, availBytes);
+            if (usedMemoryBytes.compareAndSet(usedBytes, usedBytes + nBytes)) {
+                return nBytes;
+            }
+        }
+    }
+
+    private long waitAndAllocateBytes(long minBytes, long reqBytes, long startTimeMs) {
+        waitLock.lock();
+        try {
+            Condition turn = waitLock.newCondition();
+            waiters.addLast(turn);
+            waiterCount.incrementAndGet();
+            try {
+                while (true) {
+                    if (waiters.peekFirst() == turn) {
+                        long nBytes = tryAllocateBytes(minBytes, reqBytes);
+                        if (nBytes >= 0) {
+                            return nBytes;
+                        }
+                    }
                     long remainingWaitTimeMs = maxWaitMs - (System.currentTimeMillis() - startTimeMs);
                     if (remainingWaitTimeMs <= 0) { // Ran out of time waiting for some memory to get freed up
-                        throw new InsufficientMemoryException("Requested memory of " + minBytes + " bytes could not be allocated from remaining memory of " + usedMemoryBytes + " bytes from global pool of " + maxMemoryBytes + " bytes after waiting for " + maxWaitMs + "ms.");
+                        throw new InsufficientMemoryException("Requested memory of " + minBytes + " bytes could not be allocated from remaining memory of " + getAvailableMemory() + " bytes from global pool of " + maxMemoryBytes + " bytes after waiting for " + maxWaitMs + "ms.");
                     }
-                    sync.wait(remainingWaitTimeMs);
-                } catch (InterruptedException ie) {
-                    throw new RuntimeException("Interrupted allocation of " + minBytes + " bytes", ie);
+                    turn.await(remainingWaitTimeMs, TimeUnit.MILLISECONDS);
                 }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted allocation of " + minBytes + " bytes", ie);
+            } finally {
+                waiters.remove(turn);
+                waiterCount.decrementAndGet();
+                // Whether we got our memory or gave up, the next waiter may be able to proceed now
+                signalFirstWaiter();
             }
-            // Allocate at most reqBytes, but at least minBytes
-            nBytes = Math.min(reqBytes, maxMemoryBytes - usedMemoryBytes);
-            if (nBytes < minBytes) {
-                throw new IllegalStateException("Allocated bytes (" + nBytes + ") should be at least the minimum requested bytes (" + minBytes + ")");
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    private void freeBytes(long nBytes) {
+        usedMemoryBytes.addAndGet(-nBytes);
+        if (waiterCount.get() > 0) {
+            waitLock.lock();
+            try {
+                signalFirstWaiter();
+            } finally {
+                waitLock.unlock();
             }
-            usedMemoryBytes += nBytes;
         }
-        MEMORY_WAIT_TIME.update(System.currentTimeMillis() - startTimeMs);
-        MEMORY_MANAGER_BYTES.update(nBytes);
-        return nBytes;
+    }
+
+    @GuardedBy("waitLock")
+    private void signalFirstWaiter() {
+        Condition first = waiters.peekFirst();
+        if (first != null) {
+            first.signal();
+        }
     }
 
     @Override
@@ -124,27 +192,21 @@ public class GlobalMemoryManager implements MemoryManager {
 
         @Override
         public long getSize() {
-            synchronized(sync) {
-                return size; // TODO: does this need to be synchronized?
-            }
+            return size;
         }
         
         @Override
-        public void resize(long nBytes) {
+        public synchronized void resize(long nBytes) {
             if (nBytes < 0) {
                 throw new IllegalStateException("Number of bytes to resize to must be greater than zero, but instead is " + nBytes);
             }
-            synchronized(sync) {
-                long nAdditionalBytes = (nBytes - size);
-                if (nAdditionalBytes < 0) {
-                    usedMemoryBytes += nAdditionalBytes;
-                    size = nBytes;
-                    sync.notifyAll();
-                } else {
-                    allocateBytes(nAdditionalBytes, nAdditionalBytes);
-                    size = nBytes;
-                }
+            long nAdditionalBytes = (nBytes - size);
+            if (nAdditionalBytes < 0) {
+                freeBytes(-nAdditionalBytes);
+            } else {
+                allocateBytes(nAdditionalBytes, nAdditionalBytes);
             }
+            size = nBytes;
         }
         
         /**
@@ -166,13 +228,9 @@ public class GlobalMemoryManager implements MemoryManager {
         }
         
         @Override
-        public void close() {
-            synchronized(sync) {
-                usedMemoryBytes -= size;
-                size = 0;
-                sync.notifyAll();
-            }
+        public synchronized void close() {
+            freeBytes(size);
+            size = 0;
         }
     }
 }
- 
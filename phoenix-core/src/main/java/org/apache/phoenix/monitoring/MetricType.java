@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.monitoring;
+
+/**
+ * Metrics tracked per statement and per connection by {@link RequestMetrics}.
+ * Times are in milliseconds.
+ */
+public enum MetricType {
+    SCAN_BYTES("Number of bytes read by scans"),
+    SCAN_ROWS("Number of rows returned by scans"),
+    SCAN_RPC_CALLS("Number of RPCs made by scans"),
+    PARALLEL_SCANS("Number of scans executed in parallel"),
+    SCAN_CHUNKS("Number of chunks scans were split into to limit the rows held per scan"),
+    RESULT_SET_ROWS("Number of rows returned by result sets"),
+    SPOOL_FILES("Number of spool files created"),
+    SPOOL_FILE_BYTES("Number of bytes spooled to disk"),
+    MEMORY_WAIT_TIME("Time spent waiting for memory to be allocated through the memory manager"),
+    TASK_QUEUE_WAIT_TIME("Time tasks had to wait in the queue of the thread pool executor"),
+    TASK_EXECUTION_TIME("Time tasks took to execute"),
+    MUTATION_BATCH_SIZE("Number of mutations sent to the server"),
+    MUTATION_BYTES("Size of mutations sent to the server in bytes"),
+    MUTATION_COMMIT_TIME("Time it took to send mutations to the server"),
+    SERVER_ROWS_SCANNED("Number of rows read by scans on the server, only reported for EXPLAIN ANALYZE"),
+    SERVER_ROWS_FILTERED("Number of rows filtered out by scans on the server, only reported for EXPLAIN ANALYZE"),
+    SERVER_SCAN_TIME("Time spent processing scans on the server, only reported for EXPLAIN ANALYZE");
+
+    private final String description;
+
+    private MetricType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -77,6 +77,7 @@ public class PhoenixMetrics {
         QUERY_COUNT("NumQueryCounter", "Counter for number of queries"),
         TASK_COUNT("NumberOfTasksCounter", "Counter for number of tasks submitted to the thread pool executor"),
         REJECTED_TASK_COUNT("RejectedTasksCounter", "Counter for number of tasks that were rejected by the thread pool executor"),
+        EXPIRED_TASK_COUNT("ExpiredTasksCounter", "Counter for number of tasks that were dropped from the thread pool queue after their query timed out"),
         QUERY_TIMEOUT("QueryTimeoutCounter", "Number of times query timed out"),
         FAILED_QUERY("QueryFailureCounter", "Number of times query failed"),
         NUM_SPOOL_FILE("NumSpoolFilesCounter", "Number of spool files created");
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.monitoring;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ *
+ * Metrics of a single statement execution or of all the statements of a connection, as opposed to
+ * the JVM wide {@link PhoenixMetrics}. The metrics of a statement are added to those of its
+ * connection as they are updated. They are only collected when
+ * {@link org.apache.phoenix.query.QueryServices#REQUEST_METRICS_ENABLED_ATTRIB} is set for the
+ * connection; otherwise {@link #NO_OP_METRICS} is used, which ignores all updates.
+ *
+ * Like the global metrics, the values are updated by the threads of the scans while a query runs,
+ * so they are not guaranteed to be in sync with each other until its result set has been read.
+ *
+ */
+@ThreadSafe
+public class RequestMetrics {
+    private static final MetricType[] METRIC_TYPES = MetricType.values();
+
+    public static final RequestMetrics NO_OP_METRICS = new RequestMetrics(null, false, false);
+
+    private final RequestMetrics parent;
+    private final boolean isEnabled;
+    private final boolean isServerMetricsEnabled;
+    private final AtomicLongArray values;
+    private final ConcurrentMap<String, AtomicLong> rpcCallsByServer;
+
+    /**
+     * @param parent metrics to which all updates are added as well, or null. Server metrics
+     *        are collected if they are collected for the parent.
+     */
+    public RequestMetrics(RequestMetrics parent) {
+        this(parent, true, parent != null && parent.isServerMetricsEnabled());
+    }
+
+    /**
+     * @param parent metrics to which all updates are added as well, or null
+     * @param isServerMetricsEnabled whether scans should have the server report the rows
+     *        it read and filtered out, at the cost of an additional row returned by each scan
+     */
+    public RequestMetrics(RequestMetrics parent, boolean isServerMetricsEnabled) {
+        this(parent, true, isServerMetricsEnabled);
+    }
+
+    private RequestMetrics(RequestMetrics parent, boolean isEnabled, boolean isServerMetricsEnabled) {
+        this.parent = parent;
+        this.isEnabled = isEnabled;
+        this.isServerMetricsEnabled = isServerMetricsEnabled;
+        this.values = new AtomicLongArray(isEnabled ? METRIC_TYPES.length : 0);
+        this.rpcCallsByServer = new ConcurrentHashMap<String, AtomicLong>();
+    }
+
+    /**
+     * @return true if updates are recorded. Callers may check this to avoid computing values
+     *         that would be ignored anyway.
+     */
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * @return true if scans should collect {@link MetricType#SERVER_ROWS_SCANNED},
+     *         {@link MetricType#SERVER_ROWS_FILTERED} and {@link MetricType#SERVER_SCAN_TIME}
+     */
+    public boolean isServerMetricsEnabled() {
+        return isServerMetricsEnabled;
+    }
+
+    public void update(MetricType type, long value) {
+        if (!isEnabled) {
+            return;
+        }
+        values.addAndGet(type.ordinal(), value);
+        if (parent != null) {
+            parent.update(type, value);
+        }
+    }
+
+    public void increment(MetricType type) {
+        update(type, 1);
+    }
+
+    /**
+     * Record the RPCs made to a region server, which are counted towards
+     * {@link MetricType#SCAN_RPC_CALLS} as well.
+     * @param server host and port of the region server
+     * @param count number of RPCs
+     */
+    public void updateRpcCalls(String server, long count) {
+        if (!isEnabled) {
+            return;
+        }
+        AtomicLong rpcCalls = rpcCallsByServer.get(server);
+        if (rpcCalls == null) {
+            AtomicLong newRpcCalls = new AtomicLong();
+            rpcCalls = rpcCallsByServer.putIfAbsent(server, newRpcCalls);
+            if (rpcCalls == null) {
+                rpcCalls = newRpcCalls;
+            }
+        }
+        rpcCalls.addAndGet(count);
+        values.addAndGet(MetricType.SCAN_RPC_CALLS.ordinal(), count);
+        if (parent != null) {
+            parent.updateRpcCalls(server, count);
+        }
+    }
+
+    public long getValue(MetricType type) {
+        return isEnabled ? values.get(type.ordinal()) : 0;
+    }
+
+    /**
+     * @return the current value of every metric
+     */
+    public Map<MetricType, Long> getValues() {
+        Map<MetricType, Long> map = new EnumMap<MetricType, Long>(MetricType.class);
+        for (MetricType type : METRIC_TYPES) {
+            map.put(type, getValue(type));
+        }
+        return map;
+    }
+
+    /**
+     * @return the number of RPCs made by scans by the host and port of the region server
+     *         they were sent to
+     */
+    public Map<String, Long> getRpcCallsByServer() {
+        if (!isEnabled) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> map = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : rpcCallsByServer.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().get());
+        }
+        return map;
+    }
+
+    /**
+     * Reset all metrics to zero, for example to only track the statements executed on a
+     * connection from now on. Does not affect the metrics of the parent.
+     */
+    public void reset() {
+        for (int i = 0; i < values.length(); i++) {
+            values.set(i, 0);
+        }
+        rpcCallsByServer.clear();
+    }
+
+    @Override
+    public String toString() {
+        if (!isEnabled) {
+            return "RequestMetrics [disabled]";
+        }
+        return "RequestMetrics [values=" + getValues() + ", rpcCallsByServer=" + getRpcCallsByServer() + "]";
+    }
+}
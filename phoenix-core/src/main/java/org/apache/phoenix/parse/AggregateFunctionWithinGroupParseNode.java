@@ -17,9 +17,21 @@
  */
 package org.apache.phoenix.parse;
 
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.phoenix.compile.ColumnResolver;
+import org.apache.phoenix.compile.StatementContext;
+import org.apache.phoenix.expression.Expression;
+import org.apache.phoenix.expression.LiteralExpression;
+import org.apache.phoenix.expression.function.ApproxPercentileAggregateFunction;
+import org.apache.phoenix.expression.function.PercentileContAggregateFunction;
+import org.apache.phoenix.expression.function.PercentileDiscAggregateFunction;
+import org.apache.phoenix.query.QueryServices;
+import org.apache.phoenix.query.QueryServicesOptions;
+import org.apache.phoenix.schema.types.PDecimal;
 
 public class AggregateFunctionWithinGroupParseNode extends AggregateFunctionParseNode {
 
@@ -27,6 +39,28 @@ public class AggregateFunctionWithinGroupParseNode extends AggregateFunctionPars
         super(name, children, info);
     }
 
+    /**
+     * Create an {@link ApproxPercentileAggregateFunction} instead of computing PERCENTILE_CONT
+     * and PERCENTILE_DISC exactly if {@link QueryServices#PERCENTILE_APPROXIMATE_ATTRIB} is set
+     */
+    @Override
+    public Expression create(List<Expression> children, StatementContext context) throws SQLException {
+        if ((getName().equals(PercentileContAggregateFunction.NAME) || getName().equals(PercentileDiscAggregateFunction.NAME))
+                && context.getConnection().getQueryServices().getProps().getBoolean(
+                        QueryServices.PERCENTILE_APPROXIMATE_ATTRIB, QueryServicesOptions.DEFAULT_PERCENTILE_APPROXIMATE)) {
+            boolean isAscending = Boolean.TRUE.equals(((LiteralExpression)children.get(1)).getValue());
+            LiteralExpression percentileLiteral = (LiteralExpression)children.get(2);
+            BigDecimal percentile = (BigDecimal)PDecimal.INSTANCE.toObject(percentileLiteral.getValue(),
+                    percentileLiteral.getDataType());
+            if (!isAscending) {
+                percentile = BigDecimal.ONE.subtract(percentile);
+            }
+            return new ApproxPercentileAggregateFunction(Arrays.<Expression>asList(children.get(0),
+                    LiteralExpression.newConstant(percentile)));
+        }
+        return super.create(children, context);
+    }
+
 
     @Override
     public void toSQL(ColumnResolver resolver, StringBuilder buf) {
@@ -21,9 +21,19 @@ import org.apache.phoenix.jdbc.PhoenixStatement.Operation;
 
 public class ExplainStatement implements BindableStatement {
     private final BindableStatement statement;
+    private final boolean isAnalyze;
     
-    public ExplainStatement(BindableStatement statement) {
+    public ExplainStatement(BindableStatement statement, boolean isAnalyze) {
         this.statement = statement;
+        this.isAnalyze = isAnalyze;
+    }
+
+    /**
+     * @return true for EXPLAIN ANALYZE, which runs the statement and annotates the plan with
+     * what it actually did
+     */
+    public boolean isAnalyze() {
+        return isAnalyze;
     }
 
     public BindableStatement getStatement() {
@@ -100,6 +100,11 @@ public class HintNode {
        * Saves an RPC call on the scan. See Scan.setSmall(true) in HBase documentation.
        */
      SMALL,
+     /**
+      * Hint of the form PRIORITY(<n>) to give the parallel scans of the query a
+      * weight of n relative to other queries in the client thread pool.
+      */
+     PRIORITY,
     };
 
     private final Map<Hint,String> hints;
@@ -195,8 +195,8 @@ public class ParseNodeFactory {
         return "$" + tempAliasCounter.incrementAndGet();
     }
 
-    public ExplainStatement explain(BindableStatement statement) {
-        return new ExplainStatement(statement);
+    public ExplainStatement explain(BindableStatement statement, boolean isAnalyze) {
+        return new ExplainStatement(statement, isAnalyze);
     }
 
     public AliasedNode aliasedNode(String alias, ParseNode expression) {
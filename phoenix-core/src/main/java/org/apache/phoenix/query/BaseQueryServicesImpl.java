@@ -17,8 +17,10 @@
  */
 package org.apache.phoenix.query;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 
+import org.apache.phoenix.job.BoundedJobExecutor;
 import org.apache.phoenix.job.JobManager;
 import org.apache.phoenix.memory.GlobalMemoryManager;
 import org.apache.phoenix.memory.MemoryManager;
@@ -36,6 +38,7 @@ import org.apache.phoenix.util.ReadOnlyProps;
  */
 public abstract class BaseQueryServicesImpl implements QueryServices {
     private final ThreadPoolExecutor executor;
+    private final ExecutorService scanExecutor;
     private final MemoryManager memoryManager;
     private final ReadOnlyProps props;
     private final QueryOptimizer queryOptimizer;
@@ -46,6 +49,13 @@ public abstract class BaseQueryServicesImpl implements QueryServices {
                 options.getThreadPoolSize(), 
                 options.getQueueSize(),
                 options.isMetricsEnabled());
+        // Scans held back by the limit wait in the queue of the bounded executor instead of the
+        // one of the thread pool, so allow as many of them to wait as the thread pool would have
+        // accepted without the limit
+        this.scanExecutor = options.getMaxConcurrentScans() > 0
+                ? new BoundedJobExecutor(executor, options.getMaxConcurrentScans(),
+                        Math.max(0, options.getThreadPoolSize() + options.getQueueSize() - options.getMaxConcurrentScans()))
+                : executor;
         this.memoryManager = new GlobalMemoryManager(
                 Runtime.getRuntime().maxMemory() * options.getMaxMemoryPerc() / 100,
                 options.getMaxMemoryWaitMs());
@@ -58,6 +68,11 @@ public abstract class BaseQueryServicesImpl implements QueryServices {
         return executor;
     }
 
+    @Override
+    public ExecutorService getScanExecutor() {
+        return scanExecutor;
+    }
+
     @Override
     public MemoryManager getMemoryManager() {
         return memoryManager;
@@ -67,6 +67,12 @@ public interface ConnectionQueryServices extends QueryServices, MetaDataMutated
 
     public List<HRegionLocation> getAllTableRegions(byte[] tableName) throws SQLException;
 
+    /**
+     * @return the location of the region of the table containing the given row, which is
+     * served from the region location cache if possible
+     */
+    public HRegionLocation getTableRegionLocation(byte[] tableName, byte[] row) throws SQLException;
+
     public PhoenixConnection connect(String url, Properties info) throws SQLException;
 
     public MetaDataMutationResult getTable(PName tenantId, byte[] schemaName, byte[] tableName, long tableTimestamp, long clientTimetamp) throws SQLException;
@@ -137,6 +137,7 @@ import org.apache.phoenix.schema.types.PBoolean;
 import org.apache.phoenix.schema.types.PDataType;
 import org.apache.phoenix.schema.types.PLong;
 import org.apache.phoenix.schema.types.PUnsignedTinyint;
+import org.apache.phoenix.schema.types.PVarbinary;
 import org.apache.phoenix.util.ByteUtil;
 import org.apache.phoenix.util.Closeables;
 import org.apache.phoenix.util.ConfigUtil;
@@ -440,6 +441,19 @@ public class ConnectionQueryServicesImpl extends DelegateQueryServices implement
         }
     }
 
+    @Override
+    public HRegionLocation getTableRegionLocation(byte[] tableName, byte[] row) throws SQLException {
+        try {
+            return connection.getRegionLocation(TableName.valueOf(tableName), row, false);
+        } catch (org.apache.hadoop.hbase.TableNotFoundException e) {
+            String fullName = Bytes.toString(tableName);
+            throw new TableNotFoundException(SchemaUtil.getSchemaNameFromFullName(fullName), SchemaUtil.getTableNameFromFullName(fullName));
+        } catch (IOException e) {
+            throw new SQLExceptionInfo.Builder(SQLExceptionCode.GET_TABLE_REGIONS_FAIL)
+                .setRootCause(e).build().buildException();
+        }
+    }
+
     @Override
     public PMetaData addTable(PTable table) throws SQLException {
         synchronized (latestMetaDataLock) {
@@ -1884,6 +1898,13 @@ public class ConnectionQueryServicesImpl extends DelegateQueryServices implement
                                             + ", " + PhoenixDatabaseMetaData.INDEX_DISABLE_TIMESTAMP + " " + PLong.INSTANCE.getSqlTypeName();
                                 }
 
+                                // We know that we always need to add the PACKED_COLUMNS and INDEX_REBUILD_CHECKPOINT columns for 4.4 release
+                                if (currentServerSideTableTimeStamp < MetaDataProtocol.MIN_SYSTEM_TABLE_TIMESTAMP_4_4_0) {
+                                    columnsToAdd += (columnsToAdd.isEmpty() ? "" : ", ")
+                                            + PhoenixDatabaseMetaData.PACKED_COLUMNS + " " + PBoolean.INSTANCE.getSqlTypeName()
+                                            + ", " + PhoenixDatabaseMetaData.INDEX_REBUILD_CHECKPOINT + " " + PVarbinary.INSTANCE.getSqlTypeName();
+                                }
+
                                 // Ugh..need to assign to another local variable to keep eclipse happy.
                                 PhoenixConnection newMetaConnection = addColumnsIfNotExists(metaConnection,
                                         PhoenixDatabaseMetaData.SYSTEM_CATALOG,
@@ -135,6 +135,17 @@ public class ConnectionlessQueryServicesImpl extends DelegateQueryServices imple
             SERVER_NAME, -1));
     }
 
+    @Override
+    public HRegionLocation getTableRegionLocation(byte[] tableName, byte[] row) throws SQLException {
+        List<HRegionLocation> regions = getAllTableRegions(tableName);
+        for (HRegionLocation region : regions) {
+            if (region.getRegionInfo().containsRow(row)) {
+                return region;
+            }
+        }
+        return regions.get(regions.size() - 1);
+    }
+
     @Override
     public PMetaData addTable(PTable table) throws SQLException {
         return metaData = metaData.addTable(table);
@@ -71,6 +71,11 @@ public class DelegateConnectionQueryServices extends DelegateQueryServices imple
         return getDelegate().getAllTableRegions(tableName);
     }
 
+    @Override
+    public HRegionLocation getTableRegionLocation(byte[] tableName, byte[] row) throws SQLException {
+        return getDelegate().getTableRegionLocation(tableName, row);
+    }
+
     @Override
     public PMetaData addTable(PTable table) throws SQLException {
         return getDelegate().addTable(table);
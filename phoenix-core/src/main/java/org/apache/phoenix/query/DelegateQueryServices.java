@@ -18,6 +18,7 @@
 package org.apache.phoenix.query;
 
 import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.phoenix.memory.MemoryManager;
@@ -50,6 +51,11 @@ public class DelegateQueryServices implements QueryServices {
         return parent.getExecutor();
     }
 
+    @Override
+    public ExecutorService getScanExecutor() {
+        return parent.getScanExecutor();
+    }
+
     @Override
     public MemoryManager getMemoryManager() {
         return parent.getMemoryManager();
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.query;
+
+/**
+ * Class of a query by the expected cost of its scans, set by the client as an attribute of the
+ * scans so that the RPC scheduler of the region servers may serve the scans of cheap queries
+ * separately from the scans of expensive ones.
+ *
+ * @since 4.4.0
+ */
+public enum QueryClass {
+    /**
+     * Query for a set of fully qualified row keys
+     */
+    POINT_LOOKUP,
+    /**
+     * Query for a bounded key range run as a few parallel scans
+     */
+    SHORT_SCAN,
+    /**
+     * Any other query, such as a full table scan
+     */
+    LONG_SCAN;
+
+    public byte[] getSerializedValue() {
+        return new byte[] {(byte)ordinal()};
+    }
+
+    /**
+     * @return the query class serialized by {@link #getSerializedValue()}, or null if the value
+     *         is not a valid query class
+     */
+    public static QueryClass fromSerializedValue(byte[] value) {
+        if (value == null || value.length != 1 || value[0] < 0 || value[0] >= values().length) {
+            return null;
+        }
+        return values()[value[0]];
+    }
+}
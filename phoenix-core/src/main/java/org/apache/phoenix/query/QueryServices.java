@@ -17,6 +17,7 @@
  */
 package org.apache.phoenix.query;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.http.annotation.Immutable;
@@ -43,6 +44,16 @@ public interface QueryServices extends SQLCloseable {
     public static final String THREAD_POOL_SIZE_ATTRIB = "phoenix.query.threadPoolSize";
     public static final String QUEUE_SIZE_ATTRIB = "phoenix.query.queueSize";
     public static final String THREAD_TIMEOUT_MS_ATTRIB = "phoenix.query.timeoutMs";
+    /**
+     * Relative weight of the tasks of a query in the queue of the client thread pool, which may
+     * be overridden per query with the PRIORITY hint. Can be set as a connection property.
+     */
+    public static final String QUERY_PRIORITY_ATTRIB = "phoenix.query.priority";
+    /**
+     * Max number of parallel scans handed to the client thread pool at the same time, or 0 for
+     * no limit. Scans over the limit are queued until others complete.
+     */
+    public static final String MAX_CONCURRENT_SCANS_ATTRIB = "phoenix.query.maxConcurrentScans";
     public static final String SPOOL_THRESHOLD_BYTES_ATTRIB = "phoenix.query.spoolThresholdBytes";
     public static final String HBASE_CLIENT_KEYTAB = "hbase.myclient.keytab";
     public static final String HBASE_CLIENT_PRINCIPAL = "hbase.myclient.principal";
@@ -72,6 +83,7 @@ public interface QueryServices extends SQLCloseable {
     public static final String MAX_MEMORY_PERC_ATTRIB = "phoenix.query.maxGlobalMemoryPercentage";
     public static final String MAX_MEMORY_WAIT_MS_ATTRIB = "phoenix.query.maxGlobalMemoryWaitMs";
     public static final String MAX_TENANT_MEMORY_PERC_ATTRIB = "phoenix.query.maxTenantMemoryPercentage";
+    public static final String MAX_QUERY_MEMORY_PERC_ATTRIB = "phoenix.query.maxQueryMemoryPercentage";
     public static final String MAX_SERVER_CACHE_SIZE_ATTRIB = "phoenix.query.maxServerCacheBytes";
     public static final String DATE_FORMAT_TIMEZONE_ATTRIB = "phoenix.query.dateFormatTimeZone";
     public static final String DATE_FORMAT_ATTRIB = "phoenix.query.dateFormat";
@@ -104,6 +116,8 @@ public interface QueryServices extends SQLCloseable {
     public static final String ZOOKEEPER_PORT_ATTRIB = "hbase.zookeeper.property.clientPort";
     public static final String ZOOKEEPER_ROOT_NODE_ATTRIB = "zookeeper.znode.parent";
     public static final String DISTINCT_VALUE_COMPRESS_THRESHOLD_ATTRIB = "phoenix.distinct.value.compress.threshold";
+    // Compute PERCENTILE_CONT and PERCENTILE_DISC like APPROX_PERCENTILE, with a digest per region
+    public static final String PERCENTILE_APPROXIMATE_ATTRIB = "phoenix.percentile.approximate";
     public static final String SEQUENCE_CACHE_SIZE_ATTRIB = "phoenix.sequence.cacheSize";
     public static final String INDEX_MAX_FILESIZE_PERC_ATTRIB = "phoenix.index.maxDataFileSizePerc";
     public static final String MAX_SERVER_METADATA_CACHE_TIME_TO_LIVE_MS_ATTRIB = "phoenix.coprocessor.maxMetaDataCacheTimeToLiveMs";
@@ -127,9 +141,19 @@ public interface QueryServices extends SQLCloseable {
     // Index will be partially re-built from index disable time stamp - following overlap time
     public static final String INDEX_FAILURE_HANDLING_REBUILD_OVERLAP_TIME_ATTRIB =
         "phoenix.index.failure.handling.rebuild.overlap.time";
+
+    // Max number of data regions for which an index is rebuilt at the same time
+    public static final String INDEX_FAILURE_HANDLING_REBUILD_PARALLELISM_ATTRIB =
+        "phoenix.index.failure.handling.rebuild.parallelism";
+
+    // Max number of data rows per second for which indexes are rebuilt, 0 for no limit
+    public static final String INDEX_FAILURE_HANDLING_REBUILD_MAX_ROWS_PER_SEC_ATTRIB =
+        "phoenix.index.failure.handling.rebuild.maxRowsPerSec";
     public static final String INDEX_PRIOIRTY_ATTRIB = "phoenix.index.rpc.priority";
     public static final String METADATA_PRIOIRTY_ATTRIB = "phoenix.metadata.rpc.priority";
     public static final String ALLOW_LOCAL_INDEX_ATTRIB = "phoenix.index.allowLocalIndex";
+    // Max size of the current row state read ahead for a batch of mutations to maintain its indexes
+    public static final String INDEX_BATCH_ROW_STATE_MAX_SIZE_ATTRIB = "phoenix.index.batchRowState.maxSize";
 
     // Config parameters for for configuring tracing
     public static final String TRACING_FREQ_ATTRIB = "phoenix.trace.frequency";
@@ -137,6 +161,17 @@ public interface QueryServices extends SQLCloseable {
     public static final String TRACING_PROBABILITY_THRESHOLD_ATTRIB = "phoenix.trace.probability.threshold";
     public static final String TRACING_STATS_TABLE_NAME_ATTRIB = "phoenix.trace.statsTableName";
     public static final String TRACING_CUSTOM_ANNOTATION_ATTRIB_PREFIX = "phoenix.trace.custom.annotation.";
+    // Max number of spans the tracing sink buffers before it drops new ones
+    public static final String TRACING_SINK_BUFFER_SIZE_ATTRIB = "phoenix.trace.sink.bufferSize";
+    // Max number of spans the tracing sink upserts per commit
+    public static final String TRACING_SINK_BATCH_SIZE_ATTRIB = "phoenix.trace.sink.batchSize";
+    public static final String TRACING_SINK_FLUSH_INTERVAL_MS_ATTRIB = "phoenix.trace.sink.flushIntervalMs";
+    // Traces with a span taking at least this long are always written in full
+    public static final String TRACING_SINK_SLOW_TRACE_THRESHOLD_MS_ATTRIB = "phoenix.trace.sink.slowTraceThresholdMs";
+    // Fraction of the other traces that are written
+    public static final String TRACING_SINK_FAST_TRACE_SAMPLING_RATE_ATTRIB = "phoenix.trace.sink.fastTraceSamplingRate";
+    // Max time spans of a trace are held back waiting for its root span, before it is sampled anyway
+    public static final String TRACING_SINK_MAX_PENDING_TIME_MS_ATTRIB = "phoenix.trace.sink.maxPendingTimeMs";
 
     public static final String USE_REVERSE_SCAN_ATTRIB = "phoenix.query.useReverseScan";
 
@@ -156,15 +191,36 @@ public interface QueryServices extends SQLCloseable {
     public static final String DEFAULT_KEEP_DELETED_CELLS_ATTRIB = "phoenix.table.default.keep.deleted.cells";
     public static final String DEFAULT_STORE_NULLS_ATTRIB = "phoenix.table.default.store.nulls";
     public static final String METRICS_ENABLED = "phoenix.query.metrics.enabled";
+    // Collect metrics per statement and connection, which may be set as a connection property
+    public static final String REQUEST_METRICS_ENABLED_ATTRIB = "phoenix.query.request.metrics.enabled";
     
     // rpc queue configs
     public static final String INDEX_HANDLER_COUNT_ATTRIB = "phoenix.rpc.index.handler.count";
     public static final String METADATA_HANDLER_COUNT_ATTRIB = "phoenix.rpc.metadata.handler.count";
+    // Serve the scans of point lookups, short scans and long scans from separate handler pools
+    public static final String QUERY_CLASS_SCHEDULING_ENABLED_ATTRIB = "phoenix.rpc.queryclass.scheduling.enabled";
+    public static final String QUERY_CLASS_HANDLER_COUNT_ATTRIB = "phoenix.rpc.queryclass.handler.count";
+    public static final String POINT_LOOKUP_HANDLER_WEIGHT_ATTRIB = "phoenix.rpc.queryclass.pointlookup.weight";
+    public static final String SHORT_SCAN_HANDLER_WEIGHT_ATTRIB = "phoenix.rpc.queryclass.shortscan.weight";
+    public static final String LONG_SCAN_HANDLER_WEIGHT_ATTRIB = "phoenix.rpc.queryclass.longscan.weight";
+    // Max number of parallel scans of a bounded query for it to be classified as a short scan
+    public static final String SHORT_SCAN_MAX_PARALLEL_SCANS_ATTRIB = "phoenix.query.shortScanMaxParallelScans";
+    // Whether the client makes the scans of point lookups and short scans small scans, for each of
+    // their calls to be scheduled by query class instead of only the call opening the scanner
+    public static final String QUERY_CLASS_SMALL_SCANS_ENABLED_ATTRIB = "phoenix.query.queryClassSmallScans.enabled";
+    // Time and rows after which a server-side aggregation returns its partial state, 0 for no limit
+    public static final String SERVER_PAGE_TIME_MS_ATTRIB = "phoenix.query.serverPageTimeMs";
+    public static final String SERVER_PAGE_ROWS_ATTRIB = "phoenix.query.serverPageRows";
 
     /**
      * Get executor service used for parallel scans
      */
     public ThreadPoolExecutor getExecutor();
+    /**
+     * Get executor service used for parallel scans, which runs them on the
+     * {@link #getExecutor() executor} but may limit how many of them are in flight
+     */
+    public ExecutorService getScanExecutor();
     /**
      * Get the memory manager used to track memory usage
      */
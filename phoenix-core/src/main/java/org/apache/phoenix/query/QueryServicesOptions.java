@@ -33,9 +33,11 @@ import static org.apache.phoenix.query.QueryServices.INDEX_MUTATE_BATCH_SIZE_THR
 import static org.apache.phoenix.query.QueryServices.KEEP_ALIVE_MS_ATTRIB;
 import static org.apache.phoenix.query.QueryServices.MASTER_INFO_PORT_ATTRIB;
 import static org.apache.phoenix.query.QueryServices.MAX_CLIENT_METADATA_CACHE_SIZE_ATTRIB;
+import static org.apache.phoenix.query.QueryServices.MAX_CONCURRENT_SCANS_ATTRIB;
 import static org.apache.phoenix.query.QueryServices.MAX_MEMORY_PERC_ATTRIB;
 import static org.apache.phoenix.query.QueryServices.MAX_MEMORY_WAIT_MS_ATTRIB;
 import static org.apache.phoenix.query.QueryServices.MAX_MUTATION_SIZE_ATTRIB;
+import static org.apache.phoenix.query.QueryServices.MAX_QUERY_MEMORY_PERC_ATTRIB;
 import static org.apache.phoenix.query.QueryServices.MAX_SERVER_CACHE_SIZE_ATTRIB;
 import static org.apache.phoenix.query.QueryServices.MAX_SERVER_CACHE_TIME_TO_LIVE_MS_ATTRIB;
 import static org.apache.phoenix.query.QueryServices.MAX_SERVER_METADATA_CACHE_SIZE_ATTRIB;
@@ -72,6 +74,7 @@ import org.apache.hadoop.hbase.client.Consistency;
 import org.apache.hadoop.hbase.ipc.RpcControllerFactory;
 import org.apache.hadoop.hbase.ipc.controller.ClientRpcControllerFactory;
 import org.apache.hadoop.hbase.regionserver.wal.WALCellCodec;
+import org.apache.phoenix.job.JobManager.PrioritizedJob;
 import org.apache.phoenix.schema.SaltingUtil;
 import org.apache.phoenix.trace.util.Tracing;
 import org.apache.phoenix.util.DateUtil;
@@ -89,11 +92,14 @@ public class QueryServicesOptions {
 	public static final int DEFAULT_THREAD_POOL_SIZE = 128;
 	public static final int DEFAULT_QUEUE_SIZE = 5000;
 	public static final int DEFAULT_THREAD_TIMEOUT_MS = 600000; // 10min
+	public static final int DEFAULT_QUERY_PRIORITY = PrioritizedJob.DEFAULT_PRIORITY;
+	public static final int DEFAULT_MAX_CONCURRENT_SCANS = 0; // unlimited
 	public static final int DEFAULT_SPOOL_THRESHOLD_BYTES = 1024 * 1024 * 20; // 20m
     public static final String DEFAULT_SPOOL_DIRECTORY = "/tmp";
 	public static final int DEFAULT_MAX_MEMORY_PERC = 15; // 15% of heap
 	public static final int DEFAULT_MAX_MEMORY_WAIT_MS = 10000;
 	public static final int DEFAULT_MAX_TENANT_MEMORY_PERC = 100;
+	public static final int DEFAULT_MAX_QUERY_MEMORY_PERC = 100;
 	public static final long DEFAULT_MAX_SERVER_CACHE_SIZE = 1024*1024*100;  // 100 Mb
     public static final int DEFAULT_TARGET_QUERY_CONCURRENCY = 32;
     public static final int DEFAULT_MAX_QUERY_CONCURRENCY = 64;
@@ -112,6 +118,7 @@ public class QueryServicesOptions {
     public static final int DEFAULT_SCAN_CACHE_SIZE = 1000;
     public static final int DEFAULT_MAX_INTRA_REGION_PARALLELIZATION = DEFAULT_MAX_QUERY_CONCURRENCY;
     public static final int DEFAULT_DISTINCT_VALUE_COMPRESS_THRESHOLD = 1024 * 1024 * 1; // 1 Mb
+    public static final boolean DEFAULT_PERCENTILE_APPROXIMATE = false;
     public static final int DEFAULT_INDEX_MUTATE_BATCH_SIZE_THRESHOLD = 5;
     public static final long DEFAULT_MAX_SPOOL_TO_DISK_BYTES = 1024000000;
     // Only the first chunked batches are fetched in parallel, so this default
@@ -141,6 +148,8 @@ public class QueryServicesOptions {
     public static final boolean DEFAULT_INDEX_FAILURE_HANDLING_REBUILD = true; // auto rebuild on
     public static final long DEFAULT_INDEX_FAILURE_HANDLING_REBUILD_INTERVAL = 10000; // 10 secs
     public static final long DEFAULT_INDEX_FAILURE_HANDLING_REBUILD_OVERLAP_TIME = 300000; // 5 mins
+    public static final int DEFAULT_INDEX_FAILURE_HANDLING_REBUILD_PARALLELISM = 4;
+    public static final long DEFAULT_INDEX_FAILURE_HANDLING_REBUILD_MAX_ROWS_PER_SEC = 0; // no limit
 
     /**
      * HConstants#HIGH_QOS is the max we will see to a standard table. We go higher to differentiate
@@ -149,8 +158,18 @@ public class QueryServicesOptions {
     public static final int DEFAULT_INDEX_PRIORITY = 1000;
     public static final int DEFAULT_METADATA_PRIORITY = 2000;
     public static final boolean DEFAULT_ALLOW_LOCAL_INDEX = true;
+    public static final long DEFAULT_INDEX_BATCH_ROW_STATE_MAX_SIZE = 1024L*1024L*32L; // 32 Mb
     public static final int DEFAULT_INDEX_HANDLER_COUNT = 30;
     public static final int DEFAULT_METADATA_HANDLER_COUNT = 30;
+    public static final boolean DEFAULT_QUERY_CLASS_SCHEDULING_ENABLED = false;
+    public static final int DEFAULT_QUERY_CLASS_HANDLER_COUNT = 30;
+    public static final int DEFAULT_POINT_LOOKUP_HANDLER_WEIGHT = 3;
+    public static final int DEFAULT_SHORT_SCAN_HANDLER_WEIGHT = 2;
+    public static final int DEFAULT_LONG_SCAN_HANDLER_WEIGHT = 1;
+    public static final int DEFAULT_SHORT_SCAN_MAX_PARALLEL_SCANS = 1;
+    public static final boolean DEFAULT_QUERY_CLASS_SMALL_SCANS_ENABLED = false;
+    public static final long DEFAULT_SERVER_PAGE_TIME_MS = 0; // not paged
+    public static final long DEFAULT_SERVER_PAGE_ROWS = 0; // not paged
 
     public static final int DEFAULT_TRACING_PAGE_SIZE = 100;
     /**
@@ -159,6 +178,13 @@ public class QueryServicesOptions {
     public static final String DEFAULT_TRACING_STATS_TABLE_NAME = "SYSTEM.TRACING_STATS";
     public static final String DEFAULT_TRACING_FREQ = Tracing.Frequency.NEVER.getKey();
     public static final double DEFAULT_TRACING_PROBABILITY_THRESHOLD = 0.05;
+    public static final int DEFAULT_TRACING_SINK_BUFFER_SIZE = 8192;
+    public static final int DEFAULT_TRACING_SINK_BATCH_SIZE = 1000;
+    public static final long DEFAULT_TRACING_SINK_FLUSH_INTERVAL_MS = 1000;
+    public static final long DEFAULT_TRACING_SINK_SLOW_TRACE_THRESHOLD_MS = 1000;
+    // Write all traces by default
+    public static final double DEFAULT_TRACING_SINK_FAST_TRACE_SAMPLING_RATE = 1.0;
+    public static final long DEFAULT_TRACING_SINK_MAX_PENDING_TIME_MS = 30000;
 
     public static final int DEFAULT_STATS_UPDATE_FREQ_MS = 15 * 60000; // 15min
     public static final int DEFAULT_STATS_GUIDEPOST_PER_REGION = 0; // Uses guidepost width by default
@@ -188,6 +214,7 @@ public class QueryServicesOptions {
     // TODO Change this to true as part of PHOENIX-1543
     public static final boolean DEFAULT_AUTO_COMMIT = false;
     public static final boolean DEFAULT_IS_METRICS_ENABLED = true;
+    public static final boolean DEFAULT_REQUEST_METRICS_ENABLED = false;
     
     private static final String DEFAULT_CLIENT_RPC_CONTROLLER_FACTORY = ClientRpcControllerFactory.class.getName();
     
@@ -225,6 +252,7 @@ public class QueryServicesOptions {
             .setIfUnset(MAX_MEMORY_PERC_ATTRIB, DEFAULT_MAX_MEMORY_PERC)
             .setIfUnset(MAX_MEMORY_WAIT_MS_ATTRIB, DEFAULT_MAX_MEMORY_WAIT_MS)
             .setIfUnset(MAX_TENANT_MEMORY_PERC_ATTRIB, DEFAULT_MAX_TENANT_MEMORY_PERC)
+            .setIfUnset(MAX_QUERY_MEMORY_PERC_ATTRIB, DEFAULT_MAX_QUERY_MEMORY_PERC)
             .setIfUnset(MAX_SERVER_CACHE_SIZE_ATTRIB, DEFAULT_MAX_SERVER_CACHE_SIZE)
             .setIfUnset(SCAN_CACHE_SIZE_ATTRIB, DEFAULT_SCAN_CACHE_SIZE)
             .setIfUnset(DATE_FORMAT_ATTRIB, DEFAULT_DATE_FORMAT)
@@ -323,6 +351,10 @@ public class QueryServicesOptions {
         return set(MAX_TENANT_MEMORY_PERC_ATTRIB, maxTenantMemoryPerc);
     }
 
+    public QueryServicesOptions setMaxQueryMemoryPerc(int maxQueryMemoryPerc) {
+        return set(MAX_QUERY_MEMORY_PERC_ATTRIB, maxQueryMemoryPerc);
+    }
+
     public QueryServicesOptions setMaxServerCacheSize(long maxServerCacheSize) {
         return set(MAX_SERVER_CACHE_SIZE_ATTRIB, maxServerCacheSize);
     }
@@ -408,6 +440,10 @@ public class QueryServicesOptions {
         return config.getInt(QUEUE_SIZE_ATTRIB, DEFAULT_QUEUE_SIZE);
     }
 
+    public int getMaxConcurrentScans() {
+        return config.getInt(MAX_CONCURRENT_SCANS_ATTRIB, DEFAULT_MAX_CONCURRENT_SCANS);
+    }
+
     public int getMaxMemoryPerc() {
         return config.getInt(MAX_MEMORY_PERC_ATTRIB, DEFAULT_MAX_MEMORY_PERC);
     }
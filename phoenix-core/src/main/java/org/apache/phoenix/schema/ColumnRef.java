@@ -20,6 +20,7 @@ package org.apache.phoenix.schema;
 import org.apache.http.annotation.Immutable;
 import org.apache.phoenix.expression.ColumnExpression;
 import org.apache.phoenix.expression.KeyValueColumnExpression;
+import org.apache.phoenix.expression.PackedKeyValueColumnExpression;
 import org.apache.phoenix.expression.ProjectedColumnExpression;
 import org.apache.phoenix.expression.RowKeyColumnExpression;
 import org.apache.phoenix.util.SchemaUtil;
@@ -109,6 +110,9 @@ public class ColumnRef {
         	return new ProjectedColumnExpression(column, table, displayName);
         }
        
+        if (table.isPackedColumns()) {
+            return new PackedKeyValueColumnExpression(column, displayName);
+        }
         return new KeyValueColumnExpression(column, displayName);
     }
 
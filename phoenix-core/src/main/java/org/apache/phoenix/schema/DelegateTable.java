@@ -191,6 +191,11 @@ public class DelegateTable implements PTable {
         return delegate.getStoreNulls();
     }
 
+    @Override
+    public boolean isPackedColumns() {
+        return delegate.isPackedColumns();
+    }
+
     @Override
     public ViewType getViewType() {
         return delegate.getViewType();
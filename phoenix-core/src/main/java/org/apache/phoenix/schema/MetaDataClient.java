@@ -44,6 +44,7 @@ import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.LINK_TYPE;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.MULTI_TENANT;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.NULLABLE;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.ORDINAL_POSITION;
+import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.PACKED_COLUMNS;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.PARENT_TENANT_ID;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.PHYSICAL_NAME;
 import static org.apache.phoenix.jdbc.PhoenixDatabaseMetaData.PK_NAME;
@@ -163,6 +164,7 @@ import org.apache.phoenix.util.LogUtil;
 import org.apache.phoenix.util.MetaDataUtil;
 import org.apache.phoenix.util.PhoenixRuntime;
 import org.apache.phoenix.util.ReadOnlyProps;
+import org.apache.phoenix.util.ScanUtil;
 import org.apache.phoenix.util.SchemaUtil;
 import org.apache.phoenix.util.StringUtil;
 import org.slf4j.Logger;
@@ -200,8 +202,9 @@ public class MetaDataClient {
             VIEW_TYPE + "," +
             VIEW_INDEX_ID + "," +
             INDEX_TYPE + "," +
-            STORE_NULLS +
-            ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            STORE_NULLS + "," +
+            PACKED_COLUMNS +
+            ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
     private static final String CREATE_LINK =
             "UPSERT INTO " + SYSTEM_CATALOG_SCHEMA + ".\"" + SYSTEM_CATALOG_TABLE + "\"( " +
             TENANT_ID + "," +
@@ -766,115 +769,145 @@ public class MetaDataClient {
         connection.rollback();
         try {
             connection.setAutoCommit(true);
-            MutationPlan mutationPlan;
-
-            // For local indexes, we optimize the initial index population by *not* sending Puts over
-            // the wire for the index rows, as we don't need to do that. Instead, we tap into our
-            // region observer to generate the index rows based on the data rows as we scan
-            if (index.getIndexType() == IndexType.LOCAL) {
-                final PhoenixStatement statement = new PhoenixStatement(connection);
-                String tableName = getFullTableName(dataTableRef);
-                String query = "SELECT count(*) FROM " + tableName;
-                final QueryPlan plan = statement.compileQuery(query);
-                TableRef tableRef = plan.getTableRef();
-                // Set attribute on scan that UngroupedAggregateRegionObserver will switch on.
-                // We'll detect that this attribute was set the server-side and write the index
-                // rows per region as a result. The value of the attribute will be our persisted
-                // index maintainers.
-                // Define the LOCAL_INDEX_BUILD as a new static in BaseScannerRegionObserver
-                Scan scan = plan.getContext().getScan();
-                try {
-                    if(plan.getContext().getScanTimeRange()==null) {
-                        Long scn = connection.getSCN();
-                        if (scn == null) {
-                            scn = plan.getContext().getCurrentTime();
-                            // Add one to server time since max of time range is exclusive
-                            // and we need to account of OSs with lower resolution clocks.
-                            if (scn < HConstants.LATEST_TIMESTAMP) {
-                                scn++;
-                            }
+            MutationPlan mutationPlan = compileIndexBuild(index, dataTableRef);
+            MutationState state = connection.getQueryServices().updateData(mutationPlan);
+            indexStatement = FACTORY.alterIndex(FACTORY.namedTable(null,
+                TableName.create(index.getSchemaName().getString(), index.getTableName().getString())),
+                dataTableRef.getTable().getTableName().getString(), false, PIndexState.ACTIVE);
+            alterIndex(indexStatement);
+
+            return state;
+        } finally {
+            connection.setAutoCommit(wasAutoCommit);
+        }
+    }
+
+    /**
+     * Build the rows of an index for the rows of the data table in the given key range, leaving
+     * the state of the index unchanged. Only the data rows changed since the lower bound time stamp
+     * of the data table reference are taken into account.
+     * @param startKey inclusive start key of the range, empty for the start of the table
+     * @param stopKey exclusive stop key of the range, empty for the end of the table
+     * @return the number of data rows for which index rows were built
+     */
+    public long buildPartialIndex(PTable index, TableRef dataTableRef, byte[] startKey, byte[] stopKey) throws SQLException {
+        boolean wasAutoCommit = connection.getAutoCommit();
+        connection.rollback();
+        try {
+            connection.setAutoCommit(true);
+            MutationPlan mutationPlan = compileIndexBuild(index, dataTableRef);
+            Scan scan = mutationPlan.getContext().getScan();
+            ScanUtil.intersectScanRange(scan, startKey, stopKey);
+            if (scan.getStopRow().length > 0 && Bytes.compareTo(scan.getStartRow(), scan.getStopRow()) >= 0) {
+                return 0;
+            }
+            return connection.getQueryServices().updateData(mutationPlan).getUpdateCount();
+        } finally {
+            connection.setAutoCommit(wasAutoCommit);
+        }
+    }
+
+    private MutationPlan compileIndexBuild(PTable index, TableRef dataTableRef) throws SQLException {
+        final MutationPlan mutationPlan;
+
+        // For local indexes, we optimize the initial index population by *not* sending Puts over
+        // the wire for the index rows, as we don't need to do that. Instead, we tap into our
+        // region observer to generate the index rows based on the data rows as we scan
+        if (index.getIndexType() == IndexType.LOCAL) {
+            final PhoenixStatement statement = new PhoenixStatement(connection);
+            String tableName = getFullTableName(dataTableRef);
+            String query = "SELECT count(*) FROM " + tableName;
+            final QueryPlan plan = statement.compileQuery(query);
+            TableRef tableRef = plan.getTableRef();
+            // Set attribute on scan that UngroupedAggregateRegionObserver will switch on.
+            // We'll detect that this attribute was set the server-side and write the index
+            // rows per region as a result. The value of the attribute will be our persisted
+            // index maintainers.
+            // Define the LOCAL_INDEX_BUILD as a new static in BaseScannerRegionObserver
+            Scan scan = plan.getContext().getScan();
+            try {
+                if(plan.getContext().getScanTimeRange()==null) {
+                    Long scn = connection.getSCN();
+                    if (scn == null) {
+                        scn = plan.getContext().getCurrentTime();
+                        // Add one to server time since max of time range is exclusive
+                        // and we need to account of OSs with lower resolution clocks.
+                        if (scn < HConstants.LATEST_TIMESTAMP) {
+                            scn++;
                         }
-                        plan.getContext().setScanTimeRange(new TimeRange(dataTableRef.getLowerBoundTimeStamp(),scn));
                     }
-                } catch (IOException e) {
-                    throw new SQLException(e);
+                    plan.getContext().setScanTimeRange(new TimeRange(dataTableRef.getLowerBoundTimeStamp(),scn));
                 }
-                ImmutableBytesWritable ptr = new ImmutableBytesWritable();
-                PTable dataTable = tableRef.getTable();
-                for(PTable idx: dataTable.getIndexes()) {
-                    if(idx.getName().equals(index.getName())) {
-                        index = idx;
-                        break;
-                    }
-                }
-                List<PTable> indexes = Lists.newArrayListWithExpectedSize(1);
-                // Only build newly created index.
-                indexes.add(index);
-                IndexMaintainer.serialize(dataTable, ptr, indexes, plan.getContext().getConnection());
-                scan.setAttribute(BaseScannerRegionObserver.LOCAL_INDEX_BUILD, ByteUtil.copyKeyBytesIfNecessary(ptr));
-                // By default, we'd use a FirstKeyOnly filter as nothing else needs to be projected for count(*).
-                // However, in this case, we need to project all of the data columns that contribute to the index.
-                IndexMaintainer indexMaintainer = index.getIndexMaintainer(dataTable, connection);
-                for (ColumnReference columnRef : indexMaintainer.getAllColumns()) {
-                    scan.addColumn(columnRef.getFamily(), columnRef.getQualifier());
+            } catch (IOException e) {
+                throw new SQLException(e);
+            }
+            ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+            PTable dataTable = tableRef.getTable();
+            for(PTable idx: dataTable.getIndexes()) {
+                if(idx.getName().equals(index.getName())) {
+                    index = idx;
+                    break;
                 }
+            }
+            List<PTable> indexes = Lists.newArrayListWithExpectedSize(1);
+            // Only build newly created index.
+            indexes.add(index);
+            IndexMaintainer.serialize(dataTable, ptr, indexes, plan.getContext().getConnection());
+            scan.setAttribute(BaseScannerRegionObserver.LOCAL_INDEX_BUILD, ByteUtil.copyKeyBytesIfNecessary(ptr));
+            // By default, we'd use a FirstKeyOnly filter as nothing else needs to be projected for count(*).
+            // However, in this case, we need to project all of the data columns that contribute to the index.
+            IndexMaintainer indexMaintainer = index.getIndexMaintainer(dataTable, connection);
+            for (ColumnReference columnRef : indexMaintainer.getAllColumns()) {
+                scan.addColumn(columnRef.getFamily(), columnRef.getQualifier());
+            }
 
-                // Go through MutationPlan abstraction so that we can create local indexes
-                // with a connectionless connection (which makes testing easier).
-                mutationPlan = new MutationPlan() {
-
-                    @Override
-                    public StatementContext getContext() {
-                        return plan.getContext();
-                    }
+            // Go through MutationPlan abstraction so that we can create local indexes
+            // with a connectionless connection (which makes testing easier).
+            mutationPlan = new MutationPlan() {
 
-                    @Override
-                    public ParameterMetaData getParameterMetaData() {
-                        return PhoenixParameterMetaData.EMPTY_PARAMETER_META_DATA;
-                    }
+                @Override
+                public StatementContext getContext() {
+                    return plan.getContext();
+                }
 
-                    @Override
-                    public ExplainPlan getExplainPlan() throws SQLException {
-                        return ExplainPlan.EMPTY_PLAN;
-                    }
+                @Override
+                public ParameterMetaData getParameterMetaData() {
+                    return PhoenixParameterMetaData.EMPTY_PARAMETER_META_DATA;
+                }
 
-                    @Override
-                    public PhoenixConnection getConnection() {
-                        return connection;
-                    }
+                @Override
+                public ExplainPlan getExplainPlan() throws SQLException {
+                    return ExplainPlan.EMPTY_PLAN;
+                }
 
-                    @Override
-                    public MutationState execute() throws SQLException {
-                        Cell kv = plan.iterator().next().getValue(0);
-                        ImmutableBytesWritable tmpPtr = new ImmutableBytesWritable(kv.getValueArray(), kv.getValueOffset(), kv.getValueLength());
-                        // A single Cell will be returned with the count(*) - we decode that here
-                        long rowCount = PLong.INSTANCE.getCodec().decodeLong(tmpPtr, SortOrder.getDefault());
-                        // The contract is to return a MutationState that contains the number of rows modified. In this
-                        // case, it's the number of rows in the data table which corresponds to the number of index
-                        // rows that were added.
-                        return new MutationState(0, connection, rowCount);
-                    }
+                @Override
+                public PhoenixConnection getConnection() {
+                    return connection;
+                }
 
-                };
-            } else {
-                PostIndexDDLCompiler compiler = new PostIndexDDLCompiler(connection, dataTableRef);
-                mutationPlan = compiler.compile(index);
-                try {
-                    mutationPlan.getContext().setScanTimeRange(new TimeRange(dataTableRef.getLowerBoundTimeStamp(), Long.MAX_VALUE));
-                } catch (IOException e) {
-                    throw new SQLException(e);
+                @Override
+                public MutationState execute() throws SQLException {
+                    Cell kv = plan.iterator().next().getValue(0);
+                    ImmutableBytesWritable tmpPtr = new ImmutableBytesWritable(kv.getValueArray(), kv.getValueOffset(), kv.getValueLength());
+                    // A single Cell will be returned with the count(*) - we decode that here
+                    long rowCount = PLong.INSTANCE.getCodec().decodeLong(tmpPtr, SortOrder.getDefault());
+                    // The contract is to return a MutationState that contains the number of rows modified. In this
+                    // case, it's the number of rows in the data table which corresponds to the number of index
+                    // rows that were added.
+                    return new MutationState(0, connection, rowCount);
                 }
-            }
-            MutationState state = connection.getQueryServices().updateData(mutationPlan);
-            indexStatement = FACTORY.alterIndex(FACTORY.namedTable(null,
-                TableName.create(index.getSchemaName().getString(), index.getTableName().getString())),
-                dataTableRef.getTable().getTableName().getString(), false, PIndexState.ACTIVE);
-            alterIndex(indexStatement);
 
-            return state;
-        } finally {
-            connection.setAutoCommit(wasAutoCommit);
+            };
+        } else {
+            PostIndexDDLCompiler compiler = new PostIndexDDLCompiler(connection, dataTableRef);
+            mutationPlan = compiler.compile(index);
+            try {
+                mutationPlan.getContext().setScanTimeRange(new TimeRange(dataTableRef.getLowerBoundTimeStamp(), Long.MAX_VALUE));
+            } catch (IOException e) {
+                throw new SQLException(e);
+            }
         }
+        return mutationPlan;
     }
 
     private String getFullTableName(TableRef dataTableRef) {
@@ -886,32 +919,6 @@ public class MetaDataClient {
         return fullName;
     }
 
-    /**
-     * Rebuild indexes from a timestamp which is the value from hbase row key timestamp field
-     */
-    public void buildPartialIndexFromTimeStamp(PTable index, TableRef dataTableRef) throws SQLException {
-        boolean needRestoreIndexState = false;
-        // Need to change index state from Disable to InActive when build index partially so that
-        // new changes will be indexed during index rebuilding
-        AlterIndexStatement indexStatement = FACTORY.alterIndex(FACTORY.namedTable(null,
-            TableName.create(index.getSchemaName().getString(), index.getTableName().getString())),
-            dataTableRef.getTable().getTableName().getString(), false, PIndexState.INACTIVE);
-        alterIndex(indexStatement);
-        needRestoreIndexState = true;
-        try {
-            buildIndex(index, dataTableRef);
-            needRestoreIndexState = false;
-        } finally {
-            if(needRestoreIndexState) {
-                // reset index state to disable
-                indexStatement = FACTORY.alterIndex(FACTORY.namedTable(null,
-                    TableName.create(index.getSchemaName().getString(), index.getTableName().getString())),
-                    dataTableRef.getTable().getTableName().getString(), false, PIndexState.DISABLE);
-                alterIndex(indexStatement);
-            }
-        }
-    }
-
     /**
      * Create an index table by morphing the CreateIndexStatement into a CreateTableStatement and calling
      * MetaDataClient.createTable. In doing so, we perform the following translations:
@@ -963,6 +970,9 @@ public class MetaDataClient {
                         throw new SQLFeatureNotSupportedException("An index may only be created for a VIEW through a tenant-specific connection");
                     }
                 }
+                if (isLocalIndex && dataTable.isPackedColumns()) {
+                    throw new SQLExceptionInfo.Builder(SQLExceptionCode.NO_LOCAL_INDEX_ON_PACKED_COLUMNS).setTableName(indexTableName.getTableName()).build().buildException();
+                }
                 if (!dataTable.isImmutableRows()) {
                     if (hbaseVersion < PhoenixDatabaseMetaData.MUTABLE_SI_VERSION_THRESHOLD) {
                         throw new SQLExceptionInfo.Builder(SQLExceptionCode.NO_MUTABLE_INDEXES).setTableName(indexTableName.getTableName()).build().buildException();
@@ -1223,6 +1233,7 @@ public class MetaDataClient {
             String tenantIdStr = tenantId == null ? null : connection.getTenantId().getString();
             boolean multiTenant = false;
             boolean storeNulls = false;
+            boolean packedColumns = false;
             Integer saltBucketNum = null;
             String defaultFamilyName = null;
             boolean isImmutableRows = false;
@@ -1352,6 +1363,16 @@ public class MetaDataClient {
                             QueryServicesOptions.DEFAULT_STORE_NULLS)
                     : storeNullsProp;
 
+            // Columns may only be packed for tables, as the storage of the other types follows theirs
+            if (tableType == PTableType.TABLE) {
+                Boolean packedColumnsProp = (Boolean) tableProps.remove(PhoenixDatabaseMetaData.PACKED_COLUMNS);
+                packedColumns = Boolean.TRUE.equals(packedColumnsProp);
+                if (packedColumns && !isImmutableRows) {
+                    throw new SQLExceptionInfo.Builder(SQLExceptionCode.PACKED_COLUMNS_REQUIRE_IMMUTABLE_ROWS)
+                        .setSchemaName(schemaName).setTableName(tableName).build().buildException();
+                }
+            }
+
             // Delay this check as it is supported to have IMMUTABLE_ROWS and SALT_BUCKETS defined on views
             if ((statement.getTableType() == PTableType.VIEW || indexId != null) && !tableProps.isEmpty()) {
                 throw new SQLExceptionInfo.Builder(SQLExceptionCode.VIEW_WITH_PROPERTIES).build()
@@ -1371,6 +1392,12 @@ public class MetaDataClient {
             }
 
             if (tableType == PTableType.VIEW) {
+                // The slots of the packed columns are their positions, which the columns added to
+                // different views of the same table would share
+                if (parent.isPackedColumns()) {
+                    throw new SQLExceptionInfo.Builder(SQLExceptionCode.NO_VIEW_ON_PACKED_COLUMNS)
+                        .setSchemaName(schemaName).setTableName(tableName).build().buildException();
+                }
                 physicalNames = Collections.singletonList(PNameFactory.newName(parent.getPhysicalName().getString()));
                 if (viewType == ViewType.MAPPED) {
                     columns = newArrayListWithExpectedSize(colDefs.size());
@@ -1677,6 +1704,7 @@ public class MetaDataClient {
                 tableUpsert.setByte(18, indexType.getSerializedValue());
             }
             tableUpsert.setBoolean(19, storeNulls);
+            tableUpsert.setBoolean(20, packedColumns);
             tableUpsert.execute();
 
             tableMetaData.addAll(connection.getMutationState().toMutations().next().getSecond());
@@ -1728,7 +1756,7 @@ public class MetaDataClient {
                         tenantId, newSchemaName, PNameFactory.newName(tableName), tableType, indexState, result.getMutationTime(),
                         PTable.INITIAL_SEQ_NUM, pkName == null ? null : PNameFactory.newName(pkName), saltBucketNum, columns,
                         dataTableName == null ? null : newSchemaName, dataTableName == null ? null : PNameFactory.newName(dataTableName), Collections.<PTable>emptyList(), isImmutableRows,
-                        physicalNames, defaultFamilyName == null ? null : PNameFactory.newName(defaultFamilyName), viewStatement, Boolean.TRUE.equals(disableWAL), multiTenant, storeNulls, viewType,
+                        physicalNames, defaultFamilyName == null ? null : PNameFactory.newName(defaultFamilyName), viewStatement, Boolean.TRUE.equals(disableWAL), multiTenant, storeNulls, packedColumns, viewType,
                         indexId, indexType);
                 result = new MetaDataMutationResult(code, result.getMutationTime(), table, true);
                 addTableToCache(result);
@@ -2124,6 +2152,10 @@ public class MetaDataClient {
                 Boolean isImmutableRows = null;
                 if (isImmutableRowsProp != null) {
                     if (isImmutableRowsProp.booleanValue() != table.isImmutableRows()) {
+                        if (!isImmutableRowsProp && table.isPackedColumns()) {
+                            throw new SQLExceptionInfo.Builder(SQLExceptionCode.PACKED_COLUMNS_REQUIRE_IMMUTABLE_ROWS)
+                                .setSchemaName(schemaName).setTableName(tableName).build().buildException();
+                        }
                         isImmutableRows = isImmutableRowsProp;
                         changingPhoenixTableProperty = true;
                     }
@@ -2442,6 +2474,11 @@ public class MetaDataClient {
                         throw new SQLExceptionInfo.Builder(SQLExceptionCode.CANNOT_DROP_PK)
                             .setColumnName(columnToDrop.getName().getString()).build().buildException();
                     }
+                    // The slots of the packed columns are their positions, which dropping a column would shift
+                    if (table.isPackedColumns()) {
+                        throw new SQLExceptionInfo.Builder(SQLExceptionCode.CANNOT_DROP_PACKED_COLUMN)
+                            .setColumnName(columnToDrop.getName().getString()).build().buildException();
+                    }
                     columnsToDrop.add(new ColumnRef(tableRef, columnToDrop.getPosition()));
                 }
 
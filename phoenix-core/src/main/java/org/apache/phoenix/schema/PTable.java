@@ -314,6 +314,11 @@ public interface PTable {
     boolean isWALDisabled();
     boolean isMultiTenant();
     boolean getStoreNulls();
+    /**
+     * @return true if the values of the non PK columns of a row are packed into a single cell
+     *         per column family instead of a cell per column
+     */
+    boolean isPackedColumns();
 
     ViewType getViewType();
     String getViewStatement();
@@ -46,7 +46,9 @@ public enum TableProperty {
 
 	TTL(HColumnDescriptor.TTL, COLUMN_FAMILY_NOT_ALLOWED_FOR_TTL, true, CANNOT_ALTER_PROPERTY, false),
 
-    STORE_NULLS(PhoenixDatabaseMetaData.STORE_NULLS, COLUMN_FAMILY_NOT_ALLOWED_TABLE_PROPERTY, true, false);
+    STORE_NULLS(PhoenixDatabaseMetaData.STORE_NULLS, COLUMN_FAMILY_NOT_ALLOWED_TABLE_PROPERTY, true, false),
+
+    PACKED_COLUMNS(PhoenixDatabaseMetaData.PACKED_COLUMNS, COLUMN_FAMILY_NOT_ALLOWED_TABLE_PROPERTY, false, false);
 
 
 	private final String propertyName;
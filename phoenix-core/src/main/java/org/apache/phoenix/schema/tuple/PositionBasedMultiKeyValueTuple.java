@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.schema.tuple;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Tuple over the cells of a row, which gives each column that is looked up a slot. The slots are
+ * filled with one pass over the cells of a row the first time one of its columns is looked up,
+ * instead of a binary search over the cells for every lookup, and the slot of a column is found
+ * by the identity of the family and qualifier arrays, as expressions look up their column with
+ * the same arrays for each row. Meant to be reused for all the rows of a scan, as the columns the
+ * expressions of the scan reference are the same for each row.
+ *
+ * The cells must be sorted like the cells returned by a region scanner.
+ */
+public class PositionBasedMultiKeyValueTuple extends MultiKeyValueTuple {
+    // Max number of arrays to remember the slot for, in case the callers don't reuse them
+    private static final int MAX_CACHED_POSITIONS = 1024;
+
+    // Family and qualifier of each slot, in the order the columns were first looked up
+    private byte[][] families = new byte[8][];
+    private byte[][] qualifiers = new byte[8][];
+    private int columnCount;
+    // Slots ordered by column, in the order of the cells of a row
+    private int[] sortedSlots = new int[8];
+    private Cell[] slots = new Cell[8];
+    private boolean isIndexed;
+    private List<Cell> cells;
+    // Slot of a column by its qualifier array, chained for columns of several families
+    private final IdentityHashMap<byte[], Position> positions = new IdentityHashMap<byte[], Position>();
+
+    private static class Position {
+        private final byte[] family;
+        private final int slot;
+        private final Position next;
+
+        private Position(byte[] family, int slot, Position next) {
+            this.family = family;
+            this.slot = slot;
+            this.next = next;
+        }
+    }
+
+    public PositionBasedMultiKeyValueTuple() {
+    }
+
+    @Override
+    public void setKeyValues(List<Cell> values) {
+        super.setKeyValues(values);
+        this.cells = values;
+        this.isIndexed = false;
+    }
+
+    @Override
+    public Cell getValue(byte[] family, byte[] qualifier) {
+        int slot = getSlot(family, qualifier);
+        if (!isIndexed) {
+            index();
+        }
+        return slots[slot];
+    }
+
+    private int getSlot(byte[] family, byte[] qualifier) {
+        Position first = positions.get(qualifier);
+        for (Position position = first; position != null; position = position.next) {
+            if (position.family == family) {
+                return position.slot;
+            }
+        }
+        int slot = findSlot(family, qualifier);
+        if (slot < 0) {
+            slot = addColumn(family, qualifier);
+        }
+        if (positions.size() < MAX_CACHED_POSITIONS) {
+            positions.put(qualifier, new Position(family, slot, first));
+        }
+        return slot;
+    }
+
+    private int compare(byte[] family, byte[] qualifier, int slot) {
+        int c = Bytes.compareTo(family, families[slot]);
+        return c != 0 ? c : Bytes.compareTo(qualifier, qualifiers[slot]);
+    }
+
+    /**
+     * @return the slot of the column, or the insertion point in the sorted slots minus one if
+     *         the column has no slot yet
+     */
+    private int findSlot(byte[] family, byte[] qualifier) {
+        int low = 0;
+        int high = columnCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = compare(family, qualifier, sortedSlots[mid]);
+            if (c > 0) {
+                low = mid + 1;
+            } else if (c < 0) {
+                high = mid - 1;
+            } else {
+                return sortedSlots[mid];
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int addColumn(byte[] family, byte[] qualifier) {
+        int insertionPoint = -(findSlot(family, qualifier) + 1);
+        if (columnCount == families.length) {
+            int length = columnCount * 2;
+            families = Arrays.copyOf(families, length);
+            qualifiers = Arrays.copyOf(qualifiers, length);
+            sortedSlots = Arrays.copyOf(sortedSlots, length);
+            slots = Arrays.copyOf(slots, length);
+        }
+        int slot = columnCount++;
+        families[slot] = family;
+        qualifiers[slot] = qualifier;
+        System.arraycopy(sortedSlots, insertionPoint, sortedSlots, insertionPoint + 1, slot - insertionPoint);
+        sortedSlots[insertionPoint] = slot;
+        // Index the current row again to fill the new slot
+        isIndexed = false;
+        return slot;
+    }
+
+    /**
+     * Fill the slots with the cells of the row, with one pass over both, as they are both sorted
+     * by column. The first cell of a column is its latest version.
+     */
+    private void index() {
+        Arrays.fill(slots, 0, columnCount, null);
+        int i = 0;
+        int cellCount = cells.size();
+        for (int j = 0; j < columnCount && i < cellCount; ) {
+            int slot = sortedSlots[j];
+            Cell cell = cells.get(i);
+            int c = Bytes.compareTo(families[slot], 0, families[slot].length,
+                    cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength());
+            if (c == 0) {
+                c = Bytes.compareTo(qualifiers[slot], 0, qualifiers[slot].length,
+                        cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+            }
+            if (c < 0) {
+                // The row has no cell for the column
+                j++;
+            } else if (c > 0) {
+                // No column was looked up for the cell
+                i++;
+            } else {
+                slots[slot] = cell;
+                j++;
+                i++;
+            }
+        }
+        isIndexed = true;
+    }
+}
@@ -295,27 +295,7 @@ public abstract class PArrayDataType<T> extends PDataType<T> {
 
             int indexOffset = Bytes.toInt(bytes,
                     (ptr.getOffset() + ptr.getLength() - (Bytes.SIZEOF_BYTE + 2 * Bytes.SIZEOF_INT))) + ptr.getOffset();
-            if(arrayIndex >= noOfElements) {
-                ptr.set(ByteUtil.EMPTY_BYTE_ARRAY);
-            } else {
-                // Skip those many offsets as given in the arrayIndex
-                // If suppose there are 5 elements in the array and the arrayIndex = 3
-                // This means we need to read the 4th element of the array
-                // So inorder to know the length of the 4th element we will read the offset of 4th element and the
-                // offset of 5th element.
-                // Subtracting the offset of 5th element and 4th element will give the length of 4th element
-                // So we could just skip reading the other elements.
-                int currOffset = getOffset(bytes, arrayIndex, useShort, indexOffset);
-                int elementLength = 0;
-                if (arrayIndex == (noOfElements - 1)) {
-                    elementLength = bytes[currOffset + initPos] == QueryConstants.SEPARATOR_BYTE ? 0 : indexOffset
-                            - (currOffset + initPos) - 3;
-                } else {
-                    elementLength = bytes[currOffset + initPos] == QueryConstants.SEPARATOR_BYTE ? 0 : getOffset(bytes,
-                            arrayIndex + 1, useShort, indexOffset) - currOffset - 1;
-                }
-                ptr.set(bytes, currOffset + initPos, elementLength);
-            }
+            positionAtVarLengthElement(ptr, bytes, initPos, arrayIndex, noOfElements, useShort, indexOffset);
         } else {
             int elemByteSize = (byteSize == null ? baseDataType.getByteSize() : byteSize);
             int offset = arrayIndex * elemByteSize;
@@ -374,6 +354,32 @@ public abstract class PArrayDataType<T> extends PDataType<T> {
         }
     }
 
+    /**
+     * Set ptr to an element of a variable length array, given the decoded header of the array
+     * @param initPos the position of the array in bytes
+     * @param indexOffset the position of the offset array in bytes
+     */
+    private static void positionAtVarLengthElement(ImmutableBytesWritable ptr, byte[] bytes, int initPos,
+            int arrayIndex, int noOfElements, boolean useShort, int indexOffset) {
+        // Skip those many offsets as given in the arrayIndex
+        // If suppose there are 5 elements in the array and the arrayIndex = 3
+        // This means we need to read the 4th element of the array
+        // So inorder to know the length of the 4th element we will read the offset of 4th element and the
+        // offset of 5th element.
+        // Subtracting the offset of 5th element and 4th element will give the length of 4th element
+        // So we could just skip reading the other elements.
+        int currOffset = getOffset(bytes, arrayIndex, useShort, indexOffset);
+        int elementLength = 0;
+        if (arrayIndex == (noOfElements - 1)) {
+            elementLength = bytes[currOffset + initPos] == QueryConstants.SEPARATOR_BYTE ? 0 : indexOffset
+                    - (currOffset + initPos) - 3;
+        } else {
+            elementLength = bytes[currOffset + initPos] == QueryConstants.SEPARATOR_BYTE ? 0 : getOffset(bytes,
+                    arrayIndex + 1, useShort, indexOffset) - currOffset - 1;
+        }
+        ptr.set(bytes, currOffset + initPos, elementLength);
+    }
+
     private static int getOffset(byte[] bytes, int arrayIndex, boolean useShort, int indexOffset) {
         int offset;
         if (useShort) {
@@ -512,7 +518,7 @@ public abstract class PArrayDataType<T> extends PDataType<T> {
                 } else {
                     int off = newOffsetArrayPosition;
                     for (int arrayIndex = 0; arrayIndex < Math.abs(arrayLength) - 1; arrayIndex++) {
-                        Bytes.putInt(newArray, off, getOffset(arrayBytes, arrayIndex, true, offsetArrayPosition));
+                        Bytes.putInt(newArray, off, getOffset(arrayBytes, arrayIndex, true, offset + offsetArrayPosition));
                         off += Bytes.SIZEOF_INT;
                     }
 
@@ -758,6 +764,67 @@ public abstract class PArrayDataType<T> extends PDataType<T> {
         return buf.toString();
     }
 
+    /**
+     * View over the elements of a serialized array, which decodes the header of the array once
+     * when it is set to the array, instead of for each element that is accessed. Meant to be
+     * reused for the arrays of all the rows an expression is evaluated on.
+     */
+    static public class PArrayDataTypeArrayView {
+        private final PDataType baseType;
+        private final Integer maxLength;
+        private byte[] bytes;
+        private int offset;
+        private int length;
+        private int noOfElements;
+        private boolean useShort;
+        private int indexOffset;
+
+        public PArrayDataTypeArrayView(PDataType baseType, Integer maxLength) {
+            this.baseType = baseType;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * Point the view to the serialized array ptr points to, which must not be empty
+         */
+        public void set(ImmutableBytesWritable ptr) {
+            bytes = ptr.get();
+            offset = ptr.getOffset();
+            length = ptr.getLength();
+            if (baseType.isFixedWidth()) {
+                noOfElements = length / getElementByteSize();
+            } else {
+                noOfElements = Bytes.toInt(bytes, offset + length - (Bytes.SIZEOF_BYTE + Bytes.SIZEOF_INT));
+                useShort = noOfElements >= 0;
+                noOfElements = Math.abs(noOfElements);
+                indexOffset = Bytes.toInt(bytes, offset + length - (Bytes.SIZEOF_BYTE + 2 * Bytes.SIZEOF_INT)) + offset;
+            }
+        }
+
+        public int getNoOfElements() {
+            return noOfElements;
+        }
+
+        private int getElementByteSize() {
+            return maxLength == null ? baseType.getByteSize() : maxLength;
+        }
+
+        /**
+         * Set ptr to an element of the array, or to an empty value if the array has no such element
+         * @param arrayIndex the zero based index of the element
+         */
+        public void positionAtElement(ImmutableBytesWritable ptr, int arrayIndex) {
+            if (arrayIndex < 0 || arrayIndex >= noOfElements) {
+                ptr.set(ByteUtil.EMPTY_BYTE_ARRAY);
+            } else if (baseType.isFixedWidth()) {
+                int elemByteSize = getElementByteSize();
+                ptr.set(bytes, offset + arrayIndex * elemByteSize, elemByteSize);
+            } else {
+                positionAtVarLengthElement(ptr, bytes, offset, arrayIndex, noOfElements, useShort, indexOffset);
+            }
+        }
+    }
+
     static public class PArrayDataTypeBytesArrayBuilder<T> {
         static private final int BYTE_ARRAY_DEFAULT_SIZE = 128;
 
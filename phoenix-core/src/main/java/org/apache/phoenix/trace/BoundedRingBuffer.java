@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.trace;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Bounded buffer that any number of threads can add to without locking or blocking, and from
+ * which a single thread at a time takes the elements in the order they were added. When the
+ * buffer is full, {@link #offer(Object)} fails instead of waiting for space, so that the threads
+ * producing the elements are never slowed down by the one consuming them.
+ *
+ * @param <E> the type of the elements
+ */
+public class BoundedRingBuffer<E> {
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    // Position of the next element to take, only advanced by the consumer
+    private final AtomicLong head = new AtomicLong();
+    // Position of the next slot to claim, advanced by the producers
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity max number of elements, which is rounded up to the next power of two
+     */
+    public BoundedRingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0 && capacity <= 1 << 30, "Invalid capacity: %s", capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<E>(size);
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * @return an estimate of the number of elements in the buffer
+     */
+    public int size() {
+        return (int)Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * Add an element to the buffer, from any thread.
+     * @return false if the buffer is full and the element was not added
+     */
+    public boolean offer(E element) {
+        Preconditions.checkNotNull(element);
+        while (true) {
+            long position = tail.get();
+            if (position - head.get() >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(position, position + 1)) {
+                // The consumer cleared the slot before advancing the head past it
+                slots.lazySet((int)position & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Take the oldest element of the buffer. Must not be called by multiple threads at once.
+     * @return the element, or null if the buffer is empty or the producer of the oldest element
+     *         has not finished adding it yet
+     */
+    public E poll() {
+        long position = head.get();
+        int index = (int)position & mask;
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head.lazySet(position + 1);
+        return element;
+    }
+
+    /**
+     * Take up to the given number of the oldest elements of the buffer. Must not be called by
+     * multiple threads at once.
+     * @return the number of elements added to the collection
+     */
+    public int drainTo(Collection<? super E> collection, int maxElements) {
+        int count = 0;
+        E element;
+        while (count < maxElements && (element = poll()) != null) {
+            collection.add(element);
+            count++;
+        }
+        return count;
+    }
+}
@@ -22,6 +22,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.SubsetConfiguration;
 import org.apache.commons.logging.Log;
@@ -42,6 +43,10 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.phoenix.metrics.MetricInfo.*;
 import static org.apache.phoenix.metrics.MetricInfo.HOSTNAME;
@@ -61,6 +66,14 @@ import static org.apache.phoenix.metrics.MetricInfo.HOSTNAME;
  * and
  * <tt>some instance name</tt> is just any unique name, so properties can be differentiated if
  * there are multiple sinks of the same type created
+ * <p>
+ * Spans are not written by the thread that puts them, but added to a bounded buffer without
+ * locking. A background thread takes them from the buffer every
+ * {@link QueryServices#TRACING_SINK_FLUSH_INTERVAL_MS_ATTRIB} and on {@link #flush()}, and upserts
+ * them in batches of {@link QueryServices#TRACING_SINK_BATCH_SIZE_ATTRIB} with a commit per batch.
+ * Spans put while the buffer is full are dropped and counted. With a
+ * {@link QueryServices#TRACING_SINK_FAST_TRACE_SAMPLING_RATE_ATTRIB} below 1, spans are held back
+ * until their trace is complete to sample it as a whole, see {@link TailSampler}.
  */
 public class PhoenixMetricsSink implements MetricsSink {
 
@@ -83,10 +96,19 @@ public class PhoenixMetricsSink implements MetricsSink {
      */
     private static final Joiner COMMAS = Joiner.on(',');
 
-    private Connection conn;
+    private volatile Connection conn;
 
     private String table;
 
+    private BoundedRingBuffer<MetricsRecord> buffer;
+    private TailSampler sampler;
+    private int batchSize;
+    private ScheduledExecutorService flusher;
+    private final AtomicLong droppedSpanCount = new AtomicLong();
+    private long loggedDroppedSpanCount;
+    // Held while taking spans from the buffer and writing them, by the flusher or flush()
+    private final Object writeLock = new Object();
+
     public PhoenixMetricsSink() {
         LOG.info("Writing tracing metrics to phoenix table");
 
@@ -102,6 +124,9 @@ public class PhoenixMetricsSink implements MetricsSink {
      * Initialize <tt>this</tt> only when we need it
      */
     private void lazyInitialize() {
+        if (this.conn != null) {
+            return;
+        }
         synchronized (this) {
             if (this.conn != null) {
                 return;
@@ -113,25 +138,53 @@ public class PhoenixMetricsSink implements MetricsSink {
                         Tracing.Frequency.NEVER.getKey());
                 org.apache.hadoop.conf.Configuration conf = HBaseConfiguration.create();
                 Connection conn = QueryUtil.getConnection(props, conf);
-                // enable bulk loading when we have enough data
-                conn.setAutoCommit(true);
+                // spans are committed in batches
+                conn.setAutoCommit(false);
 
                 String tableName =
                         conf.get(QueryServices.TRACING_STATS_TABLE_NAME_ATTRIB,
                                 QueryServicesOptions.DEFAULT_TRACING_STATS_TABLE_NAME);
 
-                initializeInternal(conn, tableName);
+                initializeInternal(conn, tableName, conf);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         }
     }
 
-    private void initializeInternal(Connection conn, String tableName) throws SQLException {
-        this.conn = conn;
-
+    private void initializeInternal(Connection conn, String tableName,
+            org.apache.hadoop.conf.Configuration conf) throws SQLException {
         // ensure that the target table already exists
         createTable(conn, tableName);
+
+        synchronized (writeLock) {
+            if (this.buffer == null) {
+                this.buffer = new BoundedRingBuffer<MetricsRecord>(
+                        conf.getInt(QueryServices.TRACING_SINK_BUFFER_SIZE_ATTRIB,
+                                QueryServicesOptions.DEFAULT_TRACING_SINK_BUFFER_SIZE));
+                this.sampler = new TailSampler(
+                        conf.getLong(QueryServices.TRACING_SINK_SLOW_TRACE_THRESHOLD_MS_ATTRIB,
+                                QueryServicesOptions.DEFAULT_TRACING_SINK_SLOW_TRACE_THRESHOLD_MS),
+                        conf.getDouble(QueryServices.TRACING_SINK_FAST_TRACE_SAMPLING_RATE_ATTRIB,
+                                QueryServicesOptions.DEFAULT_TRACING_SINK_FAST_TRACE_SAMPLING_RATE),
+                        conf.getLong(QueryServices.TRACING_SINK_MAX_PENDING_TIME_MS_ATTRIB,
+                                QueryServicesOptions.DEFAULT_TRACING_SINK_MAX_PENDING_TIME_MS));
+                this.batchSize = conf.getInt(QueryServices.TRACING_SINK_BATCH_SIZE_ATTRIB,
+                        QueryServicesOptions.DEFAULT_TRACING_SINK_BATCH_SIZE);
+                long flushIntervalMs = conf.getLong(QueryServices.TRACING_SINK_FLUSH_INTERVAL_MS_ATTRIB,
+                        QueryServicesOptions.DEFAULT_TRACING_SINK_FLUSH_INTERVAL_MS);
+                this.flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setDaemon(true).setNameFormat("phoenix-trace-sink-%d").build());
+                this.flusher.scheduleWithFixedDelay(new Runnable() {
+                    @Override
+                    public void run() {
+                        writeSpans(false);
+                    }
+                }, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        // publish the connection last, as it marks the sink as initialized
+        this.conn = conn;
     }
 
     /**
@@ -144,7 +197,18 @@ public class PhoenixMetricsSink implements MetricsSink {
      */
     @VisibleForTesting
     public void initForTesting(Connection conn) throws SQLException {
-        initializeInternal(conn, QueryServicesOptions.DEFAULT_TRACING_STATS_TABLE_NAME);
+        initForTesting(conn, new org.apache.hadoop.conf.Configuration(false));
+    }
+
+    /**
+     * Used for <b>TESTING ONLY</b>
+     * Like {@link #initForTesting(Connection)}, with the buffering and sampling settings of the
+     * given configuration
+     */
+    @VisibleForTesting
+    public void initForTesting(Connection conn, org.apache.hadoop.conf.Configuration conf)
+            throws SQLException {
+        initializeInternal(conn, QueryServicesOptions.DEFAULT_TRACING_STATS_TABLE_NAME, conf);
     }
 
     /**
@@ -175,18 +239,19 @@ public class PhoenixMetricsSink implements MetricsSink {
         this.table = table;
     }
 
+    /**
+     * Write all buffered spans, except those held back for sampling, and commit before returning
+     */
     @Override
     public void flush() {
-        try {
-            this.conn.commit();
-            this.conn.rollback();
-        } catch (SQLException e) {
-            LOG.error("Failed to commit changes to table", e);
+        if (this.conn == null) {
+            return;
         }
+        writeSpans(true);
     }
 
     /**
-     * Add a new metric record to be written.
+     * Add a new metric record to be written. Never blocks on writing it.
      *
      * @param record
      */
@@ -201,16 +266,101 @@ public class PhoenixMetricsSink implements MetricsSink {
         // don't initialize until we actually have something to write
         lazyInitialize();
 
+        if (!buffer.offer(record)) {
+            droppedSpanCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of spans that were dropped because the buffer was full
+     */
+    public long getDroppedSpanCount() {
+        return droppedSpanCount.get();
+    }
+
+    /**
+     * @return the number of spans that were not written because their trace was sampled out
+     */
+    public long getSampledOutSpanCount() {
+        synchronized (writeLock) {
+            return sampler == null ? 0 : sampler.getSampledOutSpanCount();
+        }
+    }
+
+    /**
+     * Take the spans from the buffer, decide which ones to keep, and upsert those in batches
+     * @param isFlush if true, commit even if there are no spans to write
+     */
+    private void writeSpans(boolean isFlush) {
+        synchronized (writeLock) {
+            long now = System.currentTimeMillis();
+            List<MetricsRecord> records = new ArrayList<MetricsRecord>(buffer.size());
+            buffer.drainTo(records, buffer.capacity());
+            List<MetricsRecord> keptSpans = new ArrayList<MetricsRecord>(records.size());
+            for (MetricsRecord record : records) {
+                sampler.add(getTraceId(record), record, now, keptSpans);
+            }
+            sampler.expire(now, keptSpans);
+            Map<String, PreparedStatement> statements = new HashMap<String, PreparedStatement>();
+            try {
+                for (int i = 0; i < keptSpans.size(); i++) {
+                    upsert(keptSpans.get(i), statements);
+                    if ((i + 1) % batchSize == 0) {
+                        conn.commit();
+                    }
+                }
+                if (isFlush || keptSpans.size() % batchSize != 0) {
+                    conn.commit();
+                }
+            } catch (SQLException e) {
+                LOG.error("Failed to commit changes to table", e);
+                try {
+                    conn.rollback();
+                } catch (SQLException e1) {
+                    LOG.error("Failed to roll back changes to table", e1);
+                }
+            } catch (RuntimeException e) {
+                // don't let the scheduled flusher die
+                LOG.error("Failed to write spans to table", e);
+            } finally {
+                for (PreparedStatement ps : statements.values()) {
+                    try {
+                        ps.close();
+                    } catch (SQLException e) {
+                        LOG.warn("Failed to close statement", e);
+                    }
+                }
+            }
+            long dropped = droppedSpanCount.get();
+            if (dropped > loggedDroppedSpanCount) {
+                LOG.warn("Dropped " + (dropped - loggedDroppedSpanCount) + " spans because the buffer of "
+                        + buffer.capacity() + " spans was full");
+                loggedDroppedSpanCount = dropped;
+            }
+        }
+    }
+
+    private static long getTraceId(MetricsRecord record) {
+        return Long.parseLong(record.name().substring(TracingUtils.METRIC_SOURCE_KEY.length()));
+    }
+
+    /**
+     * Upsert a span, without committing it
+     * @param statements the prepared statements of the batch, by their SQL, as spans with the
+     *        same number of tags and annotations share their statement
+     */
+    private void upsert(MetricsRecord record, Map<String, PreparedStatement> statements) {
         String stmt = "UPSERT INTO " + table + " (";
         // drop it into the queue of things that should be written
         List<String> keys = new ArrayList<String>();
         List<Object> values = new ArrayList<Object>();
         // we need to keep variable values in a separate set since they may have spaces, which
-        // causes the parser to barf. Instead, we need to add them after the statement is prepared
-        List<String> variableValues = new ArrayList<String>(record.tags().size());
+        // causes the parser to barf. Instead, we need to add them after the statement is prepared.
+        // All values are bound, so that the statement can be reused for other spans.
+        List<Object> variableValues = new ArrayList<Object>(record.tags().size());
         keys.add(TRACE.columnName);
-        values.add(
-                Long.parseLong(record.name().substring(TracingUtils.METRIC_SOURCE_KEY.length())));
+        values.add(VARIABLE_VALUE);
+        variableValues.add(getTraceId(record));
 
         keys.add(DESCRIPTION.columnName);
         values.add(VARIABLE_VALUE);
@@ -220,7 +370,8 @@ public class PhoenixMetricsSink implements MetricsSink {
         for (AbstractMetric metric : record.metrics()) {
             // name of the metric is also the column name to which we write
             keys.add(MetricInfo.getColumnName(metric.name()));
-            values.add(metric.value());
+            values.add(VARIABLE_VALUE);
+            variableValues.add(metric.value());
         }
 
         // get the tags out so we can set them later (otherwise, need to be a single value)
@@ -248,10 +399,12 @@ public class PhoenixMetricsSink implements MetricsSink {
         // add the tag count, now that we know it
         keys.add(TAG_COUNT);
         // ignore the hostname in the tags, if we know it
-        values.add(tagCount);
+        values.add(VARIABLE_VALUE);
+        variableValues.add((short)tagCount);
 
         keys.add(ANNOTATION_COUNT);
-        values.add(annotationCount);
+        values.add(VARIABLE_VALUE);
+        variableValues.add((short)annotationCount);
 
         // compile the statement together
         stmt += COMMAS.join(keys);
@@ -262,11 +415,15 @@ public class PhoenixMetricsSink implements MetricsSink {
             LOG.trace("With tags: " + variableValues);
         }
         try {
-            PreparedStatement ps = conn.prepareStatement(stmt);
+            PreparedStatement ps = statements.get(stmt);
+            if (ps == null) {
+                ps = conn.prepareStatement(stmt);
+                statements.put(stmt, ps);
+            }
             // add everything that wouldn't/may not parse
             int index = 1;
-            for (String tag : variableValues) {
-                ps.setString(index++, tag);
+            for (Object value : variableValues) {
+                ps.setObject(index++, value);
             }
             ps.execute();
         } catch (SQLException e) {
@@ -280,7 +437,7 @@ public class PhoenixMetricsSink implements MetricsSink {
     }
 
     private void addDynamicEntry(List<String> keys, List<Object> values,
-            List<String> variableValues, String family, MetricsTag tag,
+            List<Object> variableValues, String family, MetricsTag tag,
             MetricInfo metric, int count) {
         // <family><.dynColumn><count> <VARCHAR>
         keys.add(getDynamicColumnName(family, metric.columnName, count) + " VARCHAR");
@@ -293,6 +450,15 @@ public class PhoenixMetricsSink implements MetricsSink {
 
     @VisibleForTesting
     public void clearForTesting() throws SQLException {
-        this.conn.rollback();
+        synchronized (writeLock) {
+            if (buffer != null) {
+                while (buffer.poll() != null) {
+                }
+                sampler.clear();
+            }
+            if (this.conn != null) {
+                this.conn.rollback();
+            }
+        }
     }
 }
\ No newline at end of file
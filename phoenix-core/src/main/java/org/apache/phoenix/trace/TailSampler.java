@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.trace;
+
+import static org.apache.phoenix.metrics.MetricInfo.END;
+import static org.apache.phoenix.metrics.MetricInfo.PARENT;
+import static org.apache.phoenix.metrics.MetricInfo.START;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.metrics2.AbstractMetric;
+import org.apache.hadoop.metrics2.MetricsRecord;
+import org.apache.htrace.Span;
+
+/**
+ *
+ * Decides which spans of the trace records are written, once the whole trace is known. Traces
+ * in which a span took at least the slow trace threshold are kept in full, while only the given
+ * fraction of the other traces are kept. A trace is known once its root span arrives, as it
+ * ends last, or after the max pending time for spans whose root is in another process.
+ *
+ * Whether a fast trace is kept only depends on its trace id, so that the sinks of the client
+ * and the region servers keep the same traces. Not thread safe.
+ *
+ */
+public class TailSampler {
+    // Number of traces to remember the decision for, to handle spans arriving after it was made
+    private static final int MAX_DECIDED_TRACES = 10000;
+
+    private final long slowTraceThresholdMs;
+    private final double fastTraceSamplingRate;
+    private final long maxPendingTimeMs;
+    // Pending traces by trace id, in the order they were first seen
+    private final LinkedHashMap<Long, PendingTrace> pendingTraces = new LinkedHashMap<Long, PendingTrace>();
+    private final LinkedHashMap<Long, Boolean> decidedTraces = new LinkedHashMap<Long, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > MAX_DECIDED_TRACES;
+        }
+    };
+    private long sampledOutSpanCount;
+
+    private static class PendingTrace {
+        private final long firstSeenTime;
+        private final List<MetricsRecord> spans = new ArrayList<MetricsRecord>();
+        private long maxDuration;
+
+        private PendingTrace(long firstSeenTime) {
+            this.firstSeenTime = firstSeenTime;
+        }
+    }
+
+    public TailSampler(long slowTraceThresholdMs, double fastTraceSamplingRate, long maxPendingTimeMs) {
+        this.slowTraceThresholdMs = slowTraceThresholdMs;
+        this.fastTraceSamplingRate = fastTraceSamplingRate;
+        this.maxPendingTimeMs = maxPendingTimeMs;
+    }
+
+    /**
+     * @return false if all spans are kept, so they don't need to wait for their trace
+     */
+    public boolean isSampling() {
+        return fastTraceSamplingRate < 1;
+    }
+
+    /**
+     * Add the span of a trace record
+     * @param traceId the id of the trace of the span
+     * @param record the span
+     * @param now current time in milliseconds
+     * @param keptSpans the spans to write, to which the spans of the trace are added once it is kept
+     */
+    public void add(long traceId, MetricsRecord record, long now, List<MetricsRecord> keptSpans) {
+        if (!isSampling()) {
+            keptSpans.add(record);
+            return;
+        }
+        long parentId = Span.ROOT_SPAN_ID;
+        long startTime = 0;
+        long endTime = 0;
+        for (AbstractMetric metric : record.metrics()) {
+            if (metric.name().equals(PARENT.traceName)) {
+                parentId = metric.value().longValue();
+            } else if (metric.name().equals(START.traceName)) {
+                startTime = metric.value().longValue();
+            } else if (metric.name().equals(END.traceName)) {
+                endTime = metric.value().longValue();
+            }
+        }
+        long duration = endTime - startTime;
+        Boolean isKept = decidedTraces.get(traceId);
+        if (isKept != null) {
+            // A late span of a trace that was dropped is still written if it was slow itself
+            if (isKept || duration >= slowTraceThresholdMs) {
+                keptSpans.add(record);
+            } else {
+                sampledOutSpanCount++;
+            }
+            return;
+        }
+        PendingTrace trace = pendingTraces.get(traceId);
+        if (trace == null) {
+            trace = new PendingTrace(now);
+            pendingTraces.put(traceId, trace);
+        }
+        trace.spans.add(record);
+        trace.maxDuration = Math.max(trace.maxDuration, duration);
+        if (parentId == Span.ROOT_SPAN_ID) {
+            pendingTraces.remove(traceId);
+            decide(traceId, trace, keptSpans);
+        }
+    }
+
+    /**
+     * Decide on the traces that waited for their root span for longer than the max pending time
+     * @param now current time in milliseconds
+     * @param keptSpans the spans to write, to which the spans of the kept traces are added
+     */
+    public void expire(long now, List<MetricsRecord> keptSpans) {
+        Iterator<Map.Entry<Long, PendingTrace>> iterator = pendingTraces.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, PendingTrace> entry = iterator.next();
+            if (now - entry.getValue().firstSeenTime < maxPendingTimeMs) {
+                break;
+            }
+            iterator.remove();
+            decide(entry.getKey(), entry.getValue(), keptSpans);
+        }
+    }
+
+    private void decide(long traceId, PendingTrace trace, List<MetricsRecord> keptSpans) {
+        boolean isKept = trace.maxDuration >= slowTraceThresholdMs || isSampled(traceId);
+        decidedTraces.put(traceId, isKept);
+        if (isKept) {
+            keptSpans.addAll(trace.spans);
+        } else {
+            sampledOutSpanCount += trace.spans.size();
+        }
+    }
+
+    private boolean isSampled(long traceId) {
+        // Mix the bits of the id, as they need not be random, and map them to [0, 1)
+        long hash = traceId * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        return (hash >>> 11) * 0x1.0p-53 < fastTraceSamplingRate;
+    }
+
+    /**
+     * @return the number of spans of pending traces
+     */
+    public int getPendingSpanCount() {
+        int count = 0;
+        for (PendingTrace trace : pendingTraces.values()) {
+            count += trace.spans.size();
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of spans that were not kept
+     */
+    public long getSampledOutSpanCount() {
+        return sampledOutSpanCount;
+    }
+
+    public void clear() {
+        pendingTraces.clear();
+        decidedTraces.clear();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.schema.PColumn;
+
+/**
+ * Utilities for the cells of tables with packed columns, in which the values of all the non PK
+ * columns of a family are stored in a single cell. Each column has a slot, and the cell holds the
+ * values of the slots one after the other, each in the encoding of the type of its column,
+ * followed by a directory with the offset of each value, the first slot and the number of slots.
+ * Only the slots from the first to the last one with a value are stored, and a slot without a
+ * value is null, so that columns added after a row was written are null for that row.
+ *
+ *
+ * @since 4.4.0
+ */
+public class PackedColumnUtil {
+    private static final int TRAILER_SIZE = 2 * Bytes.SIZEOF_INT;
+
+    private PackedColumnUtil() {
+    }
+
+    /**
+     * @return the slot of the value of the column in the cell of its family, which is its
+     *         position. Positions are unique within a table with packed columns, as no views,
+     *         whose added columns would share positions, may be created on it.
+     */
+    public static int getSlot(PColumn column) {
+        return column.getPosition();
+    }
+
+    /**
+     * Pack the values of the columns of a family into the value of a cell
+     * @param values the value of each slot, null or empty for a null value
+     */
+    public static byte[] pack(byte[][] values) {
+        int firstSlot = -1;
+        int lastSlot = -1;
+        int valuesLength = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null && values[i].length > 0) {
+                if (firstSlot < 0) {
+                    firstSlot = i;
+                }
+                lastSlot = i;
+                valuesLength += values[i].length;
+            }
+        }
+        if (firstSlot < 0) {
+            firstSlot = 0;
+        }
+        int slotCount = lastSlot + 1 - firstSlot;
+        byte[] bytes = new byte[valuesLength + slotCount * Bytes.SIZEOF_INT + TRAILER_SIZE];
+        int valueOffset = 0;
+        int directoryOffset = valuesLength;
+        for (int i = firstSlot; i <= lastSlot; i++) {
+            directoryOffset = Bytes.putInt(bytes, directoryOffset, valueOffset);
+            if (values[i] != null) {
+                valueOffset = Bytes.putBytes(bytes, valueOffset, values[i], 0, values[i].length);
+            }
+        }
+        directoryOffset = Bytes.putInt(bytes, directoryOffset, firstSlot);
+        Bytes.putInt(bytes, directoryOffset, lastSlot + 1);
+        return bytes;
+    }
+
+    /**
+     * Point to the value of a slot in the value of a packed cell
+     * @param ptr pointer to the value of the cell, set to the value of the slot, which is empty
+     *        if the slot is null
+     */
+    public static void unpack(ImmutableBytesWritable ptr, int slot) {
+        if (ptr.getLength() < TRAILER_SIZE) {
+            throw new IllegalArgumentException("Invalid packed cell of " + ptr.getLength() + " bytes");
+        }
+        byte[] bytes = ptr.get();
+        int end = ptr.getOffset() + ptr.getLength();
+        int endSlot = Bytes.toInt(bytes, end - Bytes.SIZEOF_INT);
+        int firstSlot = Bytes.toInt(bytes, end - TRAILER_SIZE);
+        if (slot < firstSlot || slot >= endSlot) {
+            ptr.set(ByteUtil.EMPTY_BYTE_ARRAY);
+            return;
+        }
+        int slotCount = endSlot - firstSlot;
+        int directoryOffset = end - TRAILER_SIZE - slotCount * Bytes.SIZEOF_INT;
+        int index = slot - firstSlot;
+        int valueOffset = Bytes.toInt(bytes, directoryOffset + index * Bytes.SIZEOF_INT);
+        // The values end where the directory starts
+        int valueEnd = index + 1 < slotCount
+                ? Bytes.toInt(bytes, directoryOffset + (index + 1) * Bytes.SIZEOF_INT)
+                : directoryOffset - ptr.getOffset();
+        ptr.set(bytes, ptr.getOffset() + valueOffset, valueEnd - valueOffset);
+    }
+}
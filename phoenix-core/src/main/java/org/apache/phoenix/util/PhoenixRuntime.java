@@ -27,8 +27,10 @@ import java.io.Reader;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -61,8 +63,11 @@ import org.apache.phoenix.expression.OrderByExpression;
 import org.apache.phoenix.expression.RowKeyColumnExpression;
 import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.jdbc.PhoenixPreparedStatement;
+import org.apache.phoenix.jdbc.PhoenixResultSet;
+import org.apache.phoenix.jdbc.PhoenixStatement;
 import org.apache.phoenix.monitoring.Metric;
 import org.apache.phoenix.monitoring.PhoenixMetrics;
+import org.apache.phoenix.monitoring.RequestMetrics;
 import org.apache.phoenix.query.QueryConstants;
 import org.apache.phoenix.schema.AmbiguousColumnException;
 import org.apache.phoenix.schema.ColumnNotFoundException;
@@ -979,4 +984,51 @@ public class PhoenixRuntime {
     public static Collection<Metric> getInternalPhoenixMetrics() {
         return PhoenixMetrics.getMetrics();
     }
+
+    /**
+     * Get the metrics of the statement execution that started last on the given statement.
+     * Metrics are only collected for connections with
+     * {@link org.apache.phoenix.query.QueryServices#REQUEST_METRICS_ENABLED_ATTRIB} set to true, either in the
+     * configuration or as a connection property. The metrics of a query are complete once
+     * its result set has been read.
+     * @param stmt the statement
+     * @return the metrics, all of which are zero if they are not collected
+     * @throws SQLException if the statement is not a Phoenix statement
+     */
+    public static RequestMetrics getRequestMetrics(Statement stmt) throws SQLException {
+        return stmt.unwrap(PhoenixStatement.class).getRequestMetrics();
+    }
+
+    /**
+     * Get the metrics of the statement execution that produced the given result set.
+     * @see #getRequestMetrics(Statement)
+     * @param rs the result set
+     * @return the metrics, all of which are zero if they are not collected
+     * @throws SQLException if the result set is not a Phoenix result set
+     */
+    public static RequestMetrics getRequestMetrics(ResultSet rs) throws SQLException {
+        return rs.unwrap(PhoenixResultSet.class).getRequestMetrics();
+    }
+
+    /**
+     * Get the metrics of all statements executed and all mutations committed on the given
+     * connection since it was opened or {@link #resetRequestMetrics(Connection)} was called.
+     * @see #getRequestMetrics(Statement)
+     * @param conn the connection
+     * @return the metrics, all of which are zero if they are not collected
+     * @throws SQLException if the connection is not a Phoenix connection
+     */
+    public static RequestMetrics getRequestMetrics(Connection conn) throws SQLException {
+        return conn.unwrap(PhoenixConnection.class).getRequestMetrics();
+    }
+
+    /**
+     * Reset the metrics of the given connection, so that only the statements executed
+     * and mutations committed from now on are tracked.
+     * @param conn the connection
+     * @throws SQLException if the connection is not a Phoenix connection
+     */
+    public static void resetRequestMetrics(Connection conn) throws SQLException {
+        getRequestMetrics(conn).reset();
+    }
 }
@@ -370,6 +370,14 @@ public class SchemaUtil {
                 .getName().getBytesPtr();
     }
 
+    /**
+     * @return the qualifier of the cell holding the value of the given non PK column, which is
+     *         the cell of all the columns of its family for tables with packed columns
+     */
+    public static byte[] getColumnQualifier(PTable table, PColumn column) {
+        return table.isPackedColumns() ? QueryConstants.PACKED_COLUMN_BYTES : column.getName().getBytes();
+    }
+
     public static boolean isMetaTable(byte[] tableName) {
         return Bytes.compareTo(tableName, SYSTEM_CATALOG_NAME_BYTES) == 0;
     }
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util.csv;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.csv.CSVRecord;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.KeyValueUtil;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.phoenix.exception.SQLExceptionCode;
+import org.apache.phoenix.exception.SQLExceptionInfo;
+import org.apache.phoenix.hbase.index.util.KeyValueBuilder;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.query.QueryConstants;
+import org.apache.phoenix.schema.PColumn;
+import org.apache.phoenix.schema.PRow;
+import org.apache.phoenix.schema.PTable;
+import org.apache.phoenix.schema.PTableType;
+import org.apache.phoenix.schema.SortOrder;
+import org.apache.phoenix.schema.types.PDataType;
+import org.apache.phoenix.util.ByteUtil;
+import org.apache.phoenix.util.ColumnInfo;
+import org.apache.phoenix.util.PhoenixRuntime;
+import org.apache.phoenix.util.SchemaUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+
+/**
+ * Encodes CSV records directly into the {@code KeyValue}s of a Phoenix table.
+ * <p/>
+ * The row key is built from the table's {@code RowKeySchema} and each field is serialized with
+ * the {@code PDataType} of its column. This produces the same KeyValues as upserting the record
+ * through a {@link CsvUpsertExecutor} and reading back the uncommitted data of the connection,
+ * but without compiling and executing a statement and without going through
+ * {@code MutationState} for each record. No index rows are produced, so the encoder can only be
+ * used to load the data table itself.
+ */
+public class CsvKeyValueEncoder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CsvKeyValueEncoder.class);
+
+    private final PTable table;
+    private final KeyValueBuilder kvBuilder;
+    private final long timestamp;
+    private final PColumn[] columns;
+    private final int[] pkSlotIndexes;
+    private final List<Function<String,Object>> conversionFunctions;
+    private final CsvUpsertExecutor.UpsertListener upsertListener;
+    private final ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+    private long upsertCount = 0L;
+
+    /**
+     * Static constructor method for creating a CsvKeyValueEncoder.
+     *
+     * @param conn Phoenix connection used to resolve the table and the date and array formats
+     * @param tableName name of the table to be encoded for
+     * @param columnInfoList description of the columns to be encoded, in the same order as in the
+     *                       CSV input. A null entry means that the input field is skipped.
+     * @param upsertListener listener that will be notified of encoded records
+     * @param arrayElementSeparator separator string to delimit string representations of arrays
+     * @return the created CsvKeyValueEncoder
+     */
+    public static CsvKeyValueEncoder create(PhoenixConnection conn, String tableName,
+            List<ColumnInfo> columnInfoList, CsvUpsertExecutor.UpsertListener upsertListener,
+            String arrayElementSeparator) throws SQLException {
+        PTable table = PhoenixRuntime.getTable(conn, tableName);
+        if (!isSupported(table)) {
+            throw new IllegalArgumentException("Direct encoding is not supported for "
+                    + table.getType() + " " + tableName);
+        }
+        return new CsvKeyValueEncoder(conn, table, columnInfoList, upsertListener,
+                arrayElementSeparator);
+    }
+
+    /**
+     * Check if the KeyValues of a table can be encoded directly. Views are not supported, as
+     * their view constants are only filled in when compiling an UPSERT statement.
+     *
+     * @param table the table to be checked
+     * @return true if records can be encoded directly for the given table
+     */
+    public static boolean isSupported(PTable table) {
+        return table.getType() == PTableType.TABLE;
+    }
+
+    CsvKeyValueEncoder(PhoenixConnection conn, PTable table, List<ColumnInfo> columnInfoList,
+            CsvUpsertExecutor.UpsertListener upsertListener, String arrayElementSeparator)
+            throws SQLException {
+        this.table = table;
+        this.kvBuilder = conn.getKeyValueBuilder();
+        Long scn = conn.getSCN();
+        this.timestamp = scn == null ? HConstants.LATEST_TIMESTAMP : scn;
+        this.upsertListener = upsertListener;
+        this.columns = new PColumn[columnInfoList.size()];
+        this.pkSlotIndexes = new int[columnInfoList.size()];
+        this.conversionFunctions = Lists.newArrayListWithExpectedSize(columnInfoList.size());
+        List<PColumn> pkColumns = table.getPKColumns();
+        for (int i = 0; i < columnInfoList.size(); i++) {
+            ColumnInfo columnInfo = columnInfoList.get(i);
+            if (columnInfo == null) {
+                // Input field that is to be skipped
+                conversionFunctions.add(null);
+                pkSlotIndexes[i] = -1;
+                continue;
+            }
+            PColumn column = resolveColumn(table, columnInfo);
+            columns[i] = column;
+            pkSlotIndexes[i] = SchemaUtil.isPKColumn(column) ? pkColumns.indexOf(column) : -1;
+            conversionFunctions.add(CsvUpsertExecutor.createConversionFunction(
+                    column.getDataType(), conn, arrayElementSeparator));
+        }
+    }
+
+    private static PColumn resolveColumn(PTable table, ColumnInfo columnInfo) throws SQLException {
+        String columnName = SchemaUtil.getUnEscapedFullColumnName(columnInfo.getColumnName());
+        int familySeparator = columnName.indexOf(QueryConstants.NAME_SEPARATOR);
+        if (familySeparator < 0) {
+            return table.getColumn(columnName);
+        }
+        return table.getColumnFamily(columnName.substring(0, familySeparator))
+                .getColumn(columnName.substring(familySeparator + 1));
+    }
+
+    /**
+     * Encode a single record, notifying this instance's {@code UpsertListener} of the outcome.
+     *
+     * @param csvRecord CSV record containing the data to be encoded
+     * @return the KeyValues of the record in sorted order, or an empty list if the record could
+     * not be encoded
+     */
+    public List<KeyValue> encode(CSVRecord csvRecord) {
+        try {
+            if (csvRecord.size() < conversionFunctions.size()) {
+                String message = String.format("CSV record does not have enough values (has %d, but needs %d)",
+                        csvRecord.size(), conversionFunctions.size());
+                throw new IllegalArgumentException(message);
+            }
+            byte[][] pkValues = new byte[table.getPKColumns().size()][];
+            // If the table uses salting, the first byte is the salting byte, set to an empty array
+            // here and we will fill in the byte later in PRowImpl.
+            if (table.getBucketNum() != null) {
+                pkValues[0] = new byte[] {0};
+            }
+            byte[][] values = new byte[columns.length][];
+            for (int fieldIndex = 0; fieldIndex < columns.length; fieldIndex++) {
+                PColumn column = columns[fieldIndex];
+                if (column == null) {
+                    continue;
+                }
+                Object sqlValue = conversionFunctions.get(fieldIndex).apply(csvRecord.get(fieldIndex));
+                values[fieldIndex] = toBytes(column, sqlValue);
+                if (pkSlotIndexes[fieldIndex] >= 0) {
+                    pkValues[pkSlotIndexes[fieldIndex]] = values[fieldIndex];
+                }
+            }
+            ImmutableBytesWritable key = new ImmutableBytesWritable();
+            table.newKey(key, pkValues);
+            PRow row = table.newRow(kvBuilder, timestamp, key);
+            for (int fieldIndex = 0; fieldIndex < columns.length; fieldIndex++) {
+                if (columns[fieldIndex] != null && pkSlotIndexes[fieldIndex] < 0) {
+                    row.setValue(columns[fieldIndex], values[fieldIndex]);
+                }
+            }
+            List<KeyValue> keyValues = Lists.newArrayList();
+            for (Mutation mutation : row.toRowMutations()) {
+                for (List<Cell> cells : mutation.getFamilyCellMap().values()) {
+                    for (Cell cell : cells) {
+                        keyValues.add(KeyValueUtil.ensureKeyValue(cell));
+                    }
+                }
+            }
+            Collections.sort(keyValues, kvBuilder.getKeyValueComparator());
+            upsertListener.upsertDone(++upsertCount);
+            return keyValues;
+        } catch (Exception e) {
+            if (LOG.isDebugEnabled()) {
+                // Even though this is an error we only log it with debug logging because we're notifying the
+                // listener, and it can do its own logging if needed
+                LOG.debug("Error on CSVRecord " + csvRecord, e);
+            }
+            upsertListener.errorOnRecord(csvRecord, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Serialize a value for a column, coercing it to the max length, scale and sort order of the
+     * column in the same way as is done for an UPSERT.
+     */
+    private byte[] toBytes(PColumn column, Object value) throws SQLException {
+        if (value == null) {
+            return ByteUtil.EMPTY_BYTE_ARRAY;
+        }
+        PDataType type = column.getDataType();
+        ptr.set(type.toBytes(value));
+        Integer maxLength = type.getMaxLength(value);
+        Integer scale = type.getScale(value);
+        if (!type.isSizeCompatible(ptr, value, type, maxLength, scale,
+                column.getMaxLength(), column.getScale())) {
+            throw new SQLExceptionInfo.Builder(SQLExceptionCode.DATA_EXCEEDS_MAX_CAPACITY)
+                .setColumnName(column.getName().getString())
+                .setMessage("value=" + type.toStringLiteral(ptr, null)).build().buildException();
+        }
+        type.coerceBytes(ptr, value, type, maxLength, scale, SortOrder.getDefault(),
+                column.getMaxLength(), column.getScale(), column.getSortOrder());
+        return ByteUtil.copyKeyBytesIfNecessary(ptr);
+    }
+}
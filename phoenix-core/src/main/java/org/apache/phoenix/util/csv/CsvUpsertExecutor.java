@@ -121,7 +121,7 @@ public class CsvUpsertExecutor implements Closeable {
         for (ColumnInfo columnInfo : columnInfoList) {
             PDataType dataType = PDataType.fromTypeId(columnInfo.getSqlType());
             dataTypes.add(dataType);
-            conversionFunctions.add(createConversionFunction(dataType));
+            conversionFunctions.add(createConversionFunction(dataType, conn, arrayElementSeparator));
         }
     }
 
@@ -180,7 +180,12 @@ public class CsvUpsertExecutor implements Closeable {
         }
     }
 
-    private Function<String, Object> createConversionFunction(PDataType dataType) {
+    /**
+     * Create the function used to convert the string value of a CSV field into an object of the
+     * given type.
+     */
+    static Function<String, Object> createConversionFunction(PDataType dataType, Connection conn,
+            String arrayElementSeparator) {
         if (dataType.isArrayType()) {
             return new ArrayDatatypeConversionFunction(
                     new StringToArrayConverter(
@@ -188,7 +193,7 @@ public class CsvUpsertExecutor implements Closeable {
                             arrayElementSeparator,
                             PDataType.fromTypeId(dataType.getSqlType() - PDataType.ARRAY_TYPE_BASE)));
         } else {
-            return new SimpleDatatypeConversionFunction(dataType, this.conn);
+            return new SimpleDatatypeConversionFunction(dataType, conn);
         }
     }
 
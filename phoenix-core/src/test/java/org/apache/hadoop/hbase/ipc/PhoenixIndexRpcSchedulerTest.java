@@ -26,11 +26,22 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.ipc.RpcScheduler.Context;
+import org.apache.hadoop.hbase.protobuf.ProtobufUtil;
+import org.apache.hadoop.hbase.protobuf.RequestConverter;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ScanRequest;
 import org.apache.hadoop.hbase.protobuf.generated.RPCProtos.RequestHeader;
+import org.apache.phoenix.coprocessor.BaseScannerRegionObserver;
+import org.apache.phoenix.query.QueryClass;
+import org.apache.phoenix.query.QueryServices;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.google.protobuf.Message;
+
 /**
  * Test that the rpc scheduler schedules index writes to the index handler queue and sends
  * everything else to the standard queues
@@ -85,12 +96,76 @@ public class PhoenixIndexRpcSchedulerTest {
         Mockito.verifyNoMoreInteractions(mock);
     }
 
+    /**
+     * Test that the scans of Phoenix queries are dispatched to the handler pool of their query
+     * class when query class scheduling is enabled, and everything else to the delegate
+     * @throws Exception
+     */
+    @Test
+    public void testQueryClassScheduling() throws Exception {
+        Configuration queryClassConf = new Configuration(conf);
+        queryClassConf.setBoolean(QueryServices.QUERY_CLASS_SCHEDULING_ENABLED_ATTRIB, true);
+        RpcScheduler mock = Mockito.mock(RpcScheduler.class);
+        PhoenixRpcScheduler scheduler = new PhoenixRpcScheduler(queryClassConf, mock, 1000, 2000);
+        BalancedQueueRpcExecutor pointLookupExecutor = new BalancedQueueRpcExecutor("test-point-lookup", 1, 1, 2);
+        BalancedQueueRpcExecutor longScanExecutor = new BalancedQueueRpcExecutor("test-long-scan", 1, 1, 2);
+        scheduler.setQueryClassExecutorForTesting(QueryClass.POINT_LOOKUP, pointLookupExecutor);
+        scheduler.setQueryClassExecutorForTesting(QueryClass.LONG_SCAN, longScanExecutor);
+
+        dispatchCall(scheduler, HConstants.NORMAL_QOS, newScanRequest(QueryClass.POINT_LOOKUP));
+        assertEquals(1, pointLookupExecutor.getQueueLength());
+        dispatchCall(scheduler, HConstants.NORMAL_QOS, newScanRequest(QueryClass.LONG_SCAN));
+        // following calls of a scanner only carry its id, and go to the long scans
+        dispatchCall(scheduler, HConstants.NORMAL_QOS, ScanRequest.newBuilder().setScannerId(1).build());
+        assertEquals(2, longScanExecutor.getQueueLength());
+        // while each call of a small scan carries the scan, which the client uses for cheap queries
+        dispatchCall(scheduler, HConstants.NORMAL_QOS, newSmallScanRequest(QueryClass.POINT_LOOKUP));
+        assertEquals(2, pointLookupExecutor.getQueueLength());
+        assertEquals(2, longScanExecutor.getQueueLength());
+
+        // scans that are not from Phoenix, scans of a high priority and other calls are delegated
+        dispatchCall(scheduler, HConstants.NORMAL_QOS, newScanRequest(null));
+        dispatchCall(scheduler, HConstants.HIGH_QOS, newScanRequest(QueryClass.POINT_LOOKUP));
+        dispatchCall(scheduler, HConstants.NORMAL_QOS,
+            ScanRequest.newBuilder().setScannerId(1).setCloseScanner(true).build());
+        dispatchCallWithPriority(scheduler, HConstants.NORMAL_QOS);
+        assertEquals(2, pointLookupExecutor.getQueueLength());
+        assertEquals(2, longScanExecutor.getQueueLength());
+
+        Mockito.verify(mock, Mockito.times(8)).init(Mockito.any(Context.class));
+        Mockito.verify(mock, Mockito.times(4)).dispatch(Mockito.any(CallRunner.class));
+        Mockito.verifyNoMoreInteractions(mock);
+    }
+
+    private static ScanRequest newScanRequest(QueryClass queryClass) throws Exception {
+        Scan scan = new Scan();
+        if (queryClass != null) {
+            scan.setAttribute(BaseScannerRegionObserver.QUERY_CLASS, queryClass.getSerializedValue());
+        }
+        return ScanRequest.newBuilder().setScan(ProtobufUtil.toScan(scan)).build();
+    }
+
+    /**
+     * @return the request of each call of a small scan, which opens, reads and closes a scanner
+     */
+    private static ScanRequest newSmallScanRequest(QueryClass queryClass) throws Exception {
+        Scan scan = new Scan();
+        scan.setSmall(true);
+        scan.setAttribute(BaseScannerRegionObserver.QUERY_CLASS, queryClass.getSerializedValue());
+        return RequestConverter.buildScanRequest(HRegionInfo.FIRST_META_REGIONINFO.getRegionName(), scan,
+            100, true);
+    }
+
     private void dispatchCallWithPriority(RpcScheduler scheduler, int priority) throws Exception {
+        dispatchCall(scheduler, priority, null);
+    }
+
+    private void dispatchCall(RpcScheduler scheduler, int priority, Message param) throws Exception {
         CallRunner task = Mockito.mock(CallRunner.class);
         RequestHeader header = RequestHeader.newBuilder().setPriority(priority).build();
         RpcServer server = new RpcServer(null, "test-rpcserver", null, isa, conf, scheduler);
         RpcServer.Call call =
-                server.new Call(0, null, null, header, null, null, null, null, 10, null);
+                server.new Call(0, null, null, header, param, null, null, null, 10, null);
         Mockito.when(task.getCall()).thenReturn(call);
 
         scheduler.dispatch(task);
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.coprocessor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.SQLException;
+
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.exception.SQLExceptionCode;
+import org.junit.Test;
+
+public class ScanBudgetTest {
+
+    @Test
+    public void testNotPaged() throws Exception {
+        ScanBudget budget = new ScanBudget(new Scan());
+        assertFalse(budget.isPaged());
+        budget.startPage();
+        for (int i = 0; i < 1000; i++) {
+            budget.rowProcessed();
+        }
+        assertFalse(budget.isPageFull());
+    }
+
+    @Test
+    public void testRowsBudget() throws Exception {
+        Scan scan = new Scan();
+        scan.setAttribute(BaseScannerRegionObserver.SERVER_PAGE_ROWS, Bytes.toBytes(2L));
+        ScanBudget budget = new ScanBudget(scan);
+        assertTrue(budget.isPaged());
+        budget.startPage();
+        budget.rowProcessed();
+        assertFalse(budget.isPageFull());
+        budget.rowProcessed();
+        assertTrue(budget.isPageFull());
+        // Outside of an RPC, the budget is reset by every page
+        budget.startPage();
+        assertFalse(budget.isPageFull());
+    }
+
+    @Test
+    public void testTimeBudget() throws Exception {
+        Scan scan = new Scan();
+        scan.setAttribute(BaseScannerRegionObserver.SERVER_PAGE_TIME_MS, Bytes.toBytes(1L));
+        ScanBudget budget = new ScanBudget(scan);
+        assertTrue(budget.isPaged());
+        budget.startPage();
+        Thread.sleep(10);
+        assertTrue(budget.isPageFull());
+    }
+
+    @Test
+    public void testAbandonedWhenClosed() throws Exception {
+        ScanBudget budget = new ScanBudget(new Scan());
+        budget.rowProcessed();
+        budget.close();
+        try {
+            budget.rowProcessed();
+            fail("Expected the scan to be abandoned once its scanner is closed");
+        } catch (DoNotRetryIOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testAbandonedAfterDeadline() throws Exception {
+        Scan scan = new Scan();
+        scan.setAttribute(BaseScannerRegionObserver.DEADLINE, Bytes.toBytes(System.currentTimeMillis() - 1));
+        ScanBudget budget = new ScanBudget(scan);
+        try {
+            budget.rowProcessed();
+            fail("Expected the scan to be abandoned once the deadline of its query passed");
+        } catch (DoNotRetryIOException e) {
+            assertEquals(SQLExceptionCode.OPERATION_TIMED_OUT.getErrorCode(), ((SQLException)e.getCause()).getErrorCode());
+        }
+    }
+}
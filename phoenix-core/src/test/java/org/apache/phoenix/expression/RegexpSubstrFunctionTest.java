@@ -24,8 +24,10 @@ import java.sql.SQLException;
 import java.util.List;
 
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.phoenix.expression.function.ByteBasedRegexpSubstrFunction;
 import org.apache.phoenix.expression.function.StringBasedRegexpSubstrFunction;
+import org.apache.phoenix.expression.util.regex.JONIPattern;
 import org.apache.phoenix.schema.SortOrder;
 import org.apache.phoenix.schema.types.PInteger;
 import org.apache.phoenix.schema.types.PVarchar;
@@ -80,4 +82,16 @@ public class RegexpSubstrFunctionTest {
         testExpression("Report3?2", "[^\\\\?]+", 2, "eport3");
         testExpression("Report3?2", "[^\\\\?]+", -5, "rt3");
     }
+
+    @Test
+    public void testAnchorsWithOffsetValue() throws Exception {
+        // The value doesn't start at the beginning of the byte array, as for a cell of a KeyValue
+        byte[] bytes = Bytes.toBytes("xxa15yy");
+        ImmutableBytesWritable srcPtr = new ImmutableBytesWritable(bytes, 2, 3);
+        ImmutableBytesWritable outPtr = new ImmutableBytesWritable();
+        assertTrue(new JONIPattern("^(?:a1[59])$").substr(srcPtr, 0, outPtr));
+        assertEquals("a15", Bytes.toString(outPtr.get(), outPtr.getOffset(), outPtr.getLength()));
+        assertTrue(new JONIPattern("^x").substr(srcPtr, 0, outPtr));
+        assertEquals(0, outPtr.getLength());
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression.aggregator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+    private static void offer(HyperLogLog sketch, int from, int to) {
+        for (int i = from; i < to; i++) {
+            sketch.offer(new ImmutableBytesWritable(Bytes.toBytes(i)));
+        }
+    }
+
+    private static void assertEstimate(long expected, long estimate, double maxError) {
+        assertTrue("Estimate " + estimate + " of " + expected,
+                Math.abs(estimate - expected) <= expected * maxError);
+    }
+
+    @Test
+    public void testEstimate() {
+        HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        assertEquals(0, sketch.estimate());
+        offer(sketch, 0, 100);
+        // Duplicates don't change the estimate
+        offer(sketch, 0, 100);
+        assertEstimate(100, sketch.estimate(), 0.02);
+        offer(sketch, 100, 100000);
+        assertEstimate(100000, sketch.estimate(), 0.05);
+    }
+
+    @Test
+    public void testMerge() {
+        HyperLogLog sketch1 = new HyperLogLog(14);
+        HyperLogLog sketch2 = new HyperLogLog(14);
+        offer(sketch1, 0, 60000);
+        offer(sketch2, 40000, 100000);
+        HyperLogLog merged = new HyperLogLog(14);
+        merged.merge(new ImmutableBytesWritable(sketch1.toBytes()));
+        merged.merge(new ImmutableBytesWritable(sketch2.toBytes()));
+        assertEstimate(100000, merged.estimate(), 0.03);
+
+        // Merging the sketch of all values gives the same registers
+        HyperLogLog all = new HyperLogLog(14);
+        offer(all, 0, 100000);
+        assertTrue(Bytes.equals(all.toBytes(), merged.toBytes()));
+    }
+
+    @Test
+    public void testMergeOtherPrecision() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        try {
+            sketch.merge(new ImmutableBytesWritable(new HyperLogLog(12).toBytes()));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testClear() {
+        HyperLogLog sketch = new HyperLogLog(HyperLogLog.MIN_PRECISION);
+        offer(sketch, 0, 1000);
+        sketch.clear();
+        assertEquals(0, sketch.estimate());
+        assertEquals(HyperLogLog.getSerializedSize(HyperLogLog.MIN_PRECISION), sketch.toBytes().length);
+    }
+}
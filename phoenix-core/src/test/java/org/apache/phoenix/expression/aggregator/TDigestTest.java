@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.expression.aggregator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.junit.Test;
+
+public class TDigestTest {
+
+    private static List<Double> shuffledValues(int count) {
+        List<Double> values = new ArrayList<Double>(count);
+        for (int i = 1; i <= count; i++) {
+            values.add((double)i);
+        }
+        Collections.shuffle(values, new Random(42));
+        return values;
+    }
+
+    @Test
+    public void testQuantile() {
+        TDigest digest = new TDigest(TDigest.DEFAULT_COMPRESSION);
+        assertTrue(digest.isEmpty());
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+        for (double value : shuffledValues(100000)) {
+            digest.add(value);
+        }
+        assertEquals(1, digest.quantile(0), 0);
+        assertEquals(100000, digest.quantile(1), 0);
+        assertEquals(50000, digest.quantile(0.5), 500);
+        assertEquals(90000, digest.quantile(0.9), 300);
+        // The extremes are the most accurate
+        assertEquals(99000, digest.quantile(0.99), 50);
+        assertEquals(99900, digest.quantile(0.999), 50);
+        assertEquals(100, digest.quantile(0.001), 50);
+    }
+
+    @Test
+    public void testFewValues() {
+        TDigest digest = new TDigest(TDigest.DEFAULT_COMPRESSION);
+        digest.add(7);
+        assertEquals(7, digest.quantile(0.3), 0);
+        for (int i = 1; i <= 5; i++) {
+            digest.add(i);
+        }
+        digest.add(9);
+        // Each value is its own centroid
+        assertEquals(4, digest.quantile(0.5), 0);
+        assertEquals(1, digest.quantile(0), 0);
+        assertEquals(9, digest.quantile(1), 0);
+    }
+
+    @Test
+    public void testMerge() {
+        TDigest digest1 = new TDigest(TDigest.DEFAULT_COMPRESSION);
+        TDigest digest2 = new TDigest(TDigest.DEFAULT_COMPRESSION);
+        for (double value : shuffledValues(100000)) {
+            if (value <= 30000) {
+                digest1.add(value);
+            } else {
+                digest2.add(value);
+            }
+        }
+        TDigest merged = new TDigest(TDigest.DEFAULT_COMPRESSION);
+        merged.merge(new ImmutableBytesWritable(digest1.toBytes()));
+        merged.merge(new ImmutableBytesWritable(digest2.toBytes()));
+        merged.merge(new ImmutableBytesWritable(new TDigest(TDigest.DEFAULT_COMPRESSION).toBytes()));
+        assertEquals(1, merged.quantile(0), 0);
+        assertEquals(100000, merged.quantile(1), 0);
+        assertEquals(50000, merged.quantile(0.5), 500);
+        assertEquals(99000, merged.quantile(0.99), 100);
+        // The size of the digest is bounded by the compression
+        assertTrue(merged.toBytes().length <= 4 + 16 * (2 * TDigest.DEFAULT_COMPRESSION + 11));
+    }
+
+    @Test
+    public void testClear() {
+        TDigest digest = new TDigest(TDigest.MIN_COMPRESSION);
+        for (double value : shuffledValues(1000)) {
+            digest.add(value);
+        }
+        digest.clear();
+        assertTrue(digest.isEmpty());
+        digest.add(3);
+        assertEquals(3, digest.quantile(0.5), 0);
+    }
+}
@@ -20,9 +20,13 @@ package org.apache.phoenix.hbase.index.covered;
 import static org.junit.Assert.assertEquals;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.KeyValueUtil;
 import org.apache.hadoop.hbase.KeyValue.Type;
@@ -44,6 +48,7 @@ import org.apache.phoenix.hbase.index.covered.data.LocalHBaseState;
 import org.apache.phoenix.hbase.index.covered.data.LocalTable;
 import org.apache.phoenix.hbase.index.covered.update.ColumnReference;
 import org.apache.phoenix.hbase.index.scanner.Scanner;
+import org.apache.phoenix.hbase.index.util.ImmutableBytesPtr;
 
 /**
  *
@@ -196,4 +201,58 @@ public class TestLocalTableState {
 
   // TODO add test here for making sure multiple column references with the same column family don't
   // cause an infinite loop
+
+  /**
+   * Test that the state of a row read for a batch is used instead of scanning the region, until it
+   * is removed again
+   * @throws Exception
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBatchRowState() throws Exception {
+    Put m = new Put(row);
+    m.add(fam, qual, ts, val);
+    // setup mocks
+    RegionCoprocessorEnvironment env = Mockito.mock(RegionCoprocessorEnvironment.class);
+
+    HRegion region = Mockito.mock(HRegion.class);
+    Mockito.when(env.getRegion()).thenReturn(region);
+    RegionScanner scanner = Mockito.mock(RegionScanner.class);
+    Mockito.when(region.getScanner(Mockito.any(Scan.class))).thenReturn(scanner);
+    final KeyValue scannedKv = new KeyValue(row, fam, qual, ts, Type.Put, Bytes.toBytes("scanned"));
+    Mockito.when(scanner.next(Mockito.any(List.class))).thenAnswer(new Answer<Boolean>() {
+      @Override
+      public Boolean answer(InvocationOnMock invocation) throws Throwable {
+        List<KeyValue> list = (List<KeyValue>) invocation.getArguments()[0];
+        list.add(scannedKv);
+        return false;
+      }
+    });
+    KeyValue batchKv = new KeyValue(row, fam, qual, ts, Type.Put, Bytes.toBytes("batch"));
+    KeyValue otherFamilyKv = new KeyValue(row, Bytes.toBytes("other"), qual, ts, Type.Put, val);
+
+    LocalTable table = new LocalTable(env);
+    table.addBatchRowState(row,
+      new HashSet<ImmutableBytesPtr>(Arrays.asList(new ImmutableBytesPtr(fam),
+        new ImmutableBytesPtr(Bytes.toBytes("other")))),
+      Arrays.<Cell> asList(batchKv, otherFamilyKv));
+    List<ColumnReference> columns = Collections.singletonList(new ColumnReference(fam, qual));
+
+    // only the cells of the requested families are returned
+    List<Cell> cells = table.getCurrentRowState(m, columns).listCells();
+    assertEquals(1, cells.size());
+    assertEquals("batch", Bytes.toString(CellUtil.cloneValue(cells.get(0))));
+    Mockito.verify(region, Mockito.never()).getScanner(Mockito.any(Scan.class));
+
+    // columns of families that weren't read for the batch are looked up in the region
+    List<ColumnReference> uncovered =
+        Collections.singletonList(new ColumnReference(Bytes.toBytes("uncovered"), qual));
+    cells = table.getCurrentRowState(m, uncovered).listCells();
+    assertEquals("scanned", Bytes.toString(CellUtil.cloneValue(cells.get(0))));
+
+    table.removeBatchRowState(row);
+    cells = table.getCurrentRowState(m, columns).listCells();
+    assertEquals("scanned", Bytes.toString(CellUtil.cloneValue(cells.get(0))));
+    Mockito.verify(region, Mockito.times(2)).getScanner(Mockito.any(Scan.class));
+  }
 }
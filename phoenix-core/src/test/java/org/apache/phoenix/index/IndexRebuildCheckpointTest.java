@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.phoenix.util.ByteUtil;
+import org.junit.Test;
+
+public class IndexRebuildCheckpointTest {
+    private static final byte[] EMPTY = ByteUtil.EMPTY_BYTE_ARRAY;
+
+    private static byte[] key(String key) {
+        return Bytes.toBytes(key);
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(IndexRebuildCheckpoint.fromBytes(null).isEmpty());
+        assertTrue(IndexRebuildCheckpoint.fromBytes(EMPTY).isEmpty());
+        IndexRebuildCheckpoint checkpoint = new IndexRebuildCheckpoint();
+        assertNull(checkpoint.getRebuildTime(EMPTY, EMPTY));
+        assertTrue(IndexRebuildCheckpoint.fromBytes(checkpoint.toBytes()).isEmpty());
+    }
+
+    @Test
+    public void testSerialization() {
+        IndexRebuildCheckpoint checkpoint = new IndexRebuildCheckpoint();
+        checkpoint.add(EMPTY, key("c"), 10);
+        checkpoint.add(key("m"), EMPTY, 20);
+        IndexRebuildCheckpoint copy = IndexRebuildCheckpoint.fromBytes(checkpoint.toBytes());
+        assertEquals(checkpoint.toString(), copy.toString());
+        assertEquals(Long.valueOf(10), copy.getRebuildTime(EMPTY, key("b")));
+        assertEquals(Long.valueOf(20), copy.getRebuildTime(key("x"), EMPTY));
+        assertNull(copy.getRebuildTime(key("c"), key("m")));
+    }
+
+    @Test
+    public void testMergeAdjacentRanges() {
+        IndexRebuildCheckpoint checkpoint = new IndexRebuildCheckpoint();
+        checkpoint.add(key("c"), key("f"), 30);
+        checkpoint.add(key("a"), key("c"), 40);
+        checkpoint.add(key("f"), key("h"), 20);
+        assertEquals("[a - h @ 20]", checkpoint.toString());
+        // The earliest time of the merged ranges is kept
+        assertEquals(Long.valueOf(20), checkpoint.getRebuildTime(key("a"), key("b")));
+        assertEquals(Long.valueOf(20), checkpoint.getRebuildTime(key("a"), key("h")));
+        assertNull(checkpoint.getRebuildTime(key("a"), key("i")));
+        assertNull(checkpoint.getRebuildTime(EMPTY, key("b")));
+    }
+
+    @Test
+    public void testMergeOverlappingRanges() {
+        IndexRebuildCheckpoint checkpoint = new IndexRebuildCheckpoint();
+        checkpoint.add(key("b"), key("d"), 10);
+        checkpoint.add(key("k"), key("m"), 20);
+        checkpoint.add(key("x"), EMPTY, 30);
+        assertEquals("[b - d @ 10, k - m @ 20, x - END @ 30]", checkpoint.toString());
+        checkpoint.add(key("l"), key("y"), 40);
+        assertEquals("[b - d @ 10, k - END @ 20]", checkpoint.toString());
+        checkpoint.add(EMPTY, key("a"), 50);
+        assertEquals("[ - a @ 50, b - d @ 10, k - END @ 20]", checkpoint.toString());
+        checkpoint.add(key("c"), key("k"), 5);
+        assertEquals("[ - a @ 50, b - END @ 5]", checkpoint.toString());
+        assertNull(checkpoint.getRebuildTime(EMPTY, EMPTY));
+        checkpoint.add(key("a"), key("b"), 60);
+        assertEquals("[ - END @ 5]", checkpoint.toString());
+        assertEquals(Long.valueOf(5), checkpoint.getRebuildTime(EMPTY, EMPTY));
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.phoenix.job.JobManager.JobCallable;
+import org.apache.phoenix.job.JobManager.PrioritizedJob;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class BoundedJobExecutorTest {
+    private ThreadPoolExecutor pool;
+
+    @Before
+    public void setUp() {
+        pool = JobManager.createThreadPoolExec(1000, 8, 100, true);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testLimitsTasksInFlight() throws Exception {
+        BoundedJobExecutor executor = new BoundedJobExecutor(pool, 2, 100);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<Integer>> futures = Lists.newArrayList();
+        for (int i = 0; i < 6; i++) {
+            final int value = i;
+            futures.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    int nowRunning = running.incrementAndGet();
+                    synchronized (maxRunning) {
+                        maxRunning.set(Math.max(maxRunning.get(), nowRunning));
+                    }
+                    blocker.await();
+                    running.decrementAndGet();
+                    return value;
+                }
+            }));
+        }
+        assertEquals(2, executor.getInFlightCount());
+        assertEquals(4, executor.getPendingCount());
+        long endTime = System.currentTimeMillis() + 10000;
+        while (running.get() < 2 && System.currentTimeMillis() < endTime) {
+            Thread.sleep(10);
+        }
+
+        blocker.countDown();
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(i, futures.get(i).get(10, TimeUnit.SECONDS).intValue());
+        }
+        assertEquals(2, maxRunning.get());
+        waitForInFlightCount(executor, 0);
+        assertEquals(0, executor.getPendingCount());
+    }
+
+    @Test
+    public void testCancelWhilePending() throws Exception {
+        BoundedJobExecutor executor = new BoundedJobExecutor(pool, 1, 100);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        Future<?> running = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final AtomicInteger runCount = new AtomicInteger();
+        Runnable counter = new Runnable() {
+            @Override
+            public void run() {
+                runCount.incrementAndGet();
+            }
+        };
+        Future<?> cancelled = executor.submit(counter);
+        Future<?> next = executor.submit(counter);
+        assertEquals(2, executor.getPendingCount());
+
+        assertTrue(cancelled.cancel(false));
+        assertEquals(1, executor.getPendingCount());
+        blocker.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        next.get(10, TimeUnit.SECONDS);
+        assertEquals(1, runCount.get());
+        waitForInFlightCount(executor, 0);
+    }
+
+    @Test
+    public void testRejectWhenPendingFull() throws Exception {
+        BoundedJobExecutor executor = new BoundedJobExecutor(pool, 1, 1);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        Runnable blocked = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        Future<?> first = executor.submit(blocked);
+        Future<?> second = executor.submit(blocked);
+        try {
+            executor.submit(blocked);
+            fail();
+        } catch (RejectedExecutionException e) {
+        }
+        blocker.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        waitForInFlightCount(executor, 0);
+    }
+
+    @Test
+    public void testReleaseWhenExpiredInExecutorQueue() throws Exception {
+        // A single thread, so that the tasks handed over by the bounded executor queue up in the pool
+        ThreadPoolExecutor singleThreadPool = JobManager.createThreadPoolExec(1000, 1, 100, true);
+        try {
+            BoundedJobExecutor executor = new BoundedJobExecutor(singleThreadPool, 3, 100);
+            final CountDownLatch blocker = new CountDownLatch(1);
+            Future<?> blocked = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        blocker.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            final long deadline = System.currentTimeMillis() + 100;
+            List<Future<Object>> expired = Lists.newArrayList();
+            for (int i = 0; i < 2; i++) {
+                expired.add(executor.submit(newCallable(deadline)));
+            }
+            List<Future<Object>> others = Lists.newArrayList();
+            for (int i = 0; i < 3; i++) {
+                others.add(executor.submit(newCallable(Long.MAX_VALUE)));
+            }
+            assertEquals(3, executor.getInFlightCount());
+            assertEquals(2, singleThreadPool.getQueue().size());
+            assertEquals(3, executor.getPendingCount());
+
+            // The tasks of the timed out job are dropped by the queue of the pool, and their
+            // permits must be passed on to the pending tasks
+            Thread.sleep(200);
+            blocker.countDown();
+            blocked.get(10, TimeUnit.SECONDS);
+            for (Future<Object> future : others) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            for (Future<Object> future : expired) {
+                assertTrue(future.isCancelled());
+            }
+            waitForInFlightCount(executor, 0);
+            assertEquals(0, executor.getPendingCount());
+            executor.submit(newCallable(Long.MAX_VALUE)).get(10, TimeUnit.SECONDS);
+            waitForInFlightCount(executor, 0);
+        } finally {
+            singleThreadPool.shutdownNow();
+        }
+    }
+
+    private static JobCallable<Object> newCallable(final long deadline) {
+        final PrioritizedJob job = new PrioritizedJob() {
+            @Override
+            public Object getShareKey() {
+                return this;
+            }
+
+            @Override
+            public int getPriority() {
+                return DEFAULT_PRIORITY;
+            }
+
+            @Override
+            public long getDeadline() {
+                return deadline;
+            }
+        };
+        return new JobCallable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return null;
+            }
+
+            @Override
+            public Object getJobId() {
+                return job;
+            }
+        };
+    }
+
+    private static void waitForInFlightCount(BoundedJobExecutor executor, int count) throws InterruptedException {
+        // The permit is released right after the future completes, on the pool thread
+        long endTime = System.currentTimeMillis() + 10000;
+        while (executor.getInFlightCount() != count && System.currentTimeMillis() < endTime) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, executor.getInFlightCount());
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.htrace.wrappers.TraceCallable;
+import org.apache.phoenix.job.JobManager.JobCallable;
+import org.apache.phoenix.job.JobManager.JobFutureTask;
+import org.apache.phoenix.job.JobManager.PrioritizedJob;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class JobManagerTest {
+
+    @Test
+    public void testFairShareAcrossShares() {
+        JobManager<Runnable> queue = new JobManager<Runnable>(100);
+        TestJob busyJob = new TestJob("A", 1, Long.MAX_VALUE);
+        TestJob otherJob = new TestJob("A", 1, Long.MAX_VALUE);
+        TestJob lookupJob = new TestJob("B", 1, Long.MAX_VALUE);
+        submit(queue, busyJob, 10);
+        submit(queue, otherJob, 10);
+        submit(queue, lookupJob, 2);
+
+        // The single job of share B gets as many tasks as both jobs of share A together
+        List<Object> jobIds = pollJobIds(queue, 4);
+        assertEquals(2, count(jobIds, lookupJob));
+        assertEquals(1, count(jobIds, busyJob));
+        assertEquals(1, count(jobIds, otherJob));
+        assertEquals(18, queue.size());
+    }
+
+    @Test
+    public void testPriorityWithinShare() {
+        JobManager<Runnable> queue = new JobManager<Runnable>(100);
+        TestJob lowJob = new TestJob("A", 1, Long.MAX_VALUE);
+        TestJob highJob = new TestJob("A", 3, Long.MAX_VALUE);
+        submit(queue, lowJob, 10);
+        submit(queue, highJob, 10);
+
+        List<Object> jobIds = pollJobIds(queue, 8);
+        assertEquals(6, count(jobIds, highJob));
+        assertEquals(2, count(jobIds, lowJob));
+    }
+
+    @Test
+    public void testPriorityAcrossShares() {
+        JobManager<Runnable> queue = new JobManager<Runnable>(100);
+        TestJob lowJob = new TestJob("A", 1, Long.MAX_VALUE);
+        TestJob highJob = new TestJob("B", 4, Long.MAX_VALUE);
+        submit(queue, lowJob, 10);
+        submit(queue, highJob, 10);
+
+        List<Object> jobIds = pollJobIds(queue, 10);
+        assertEquals(8, count(jobIds, highJob));
+        assertEquals(2, count(jobIds, lowJob));
+    }
+
+    @Test
+    public void testNewShareMovesToFront() {
+        JobManager<Runnable> queue = new JobManager<Runnable>(100);
+        TestJob busyJob = new TestJob("A", 1, Long.MAX_VALUE);
+        submit(queue, busyJob, 10);
+        pollJobIds(queue, 5);
+
+        // A share that just became active doesn't have to wait behind the busy one
+        TestJob lookupJob = new TestJob("B", 1, Long.MAX_VALUE);
+        submit(queue, lookupJob, 1);
+        assertSame(lookupJob, pollJobIds(queue, 1).get(0));
+    }
+
+    @Test
+    public void testExpiredTasksDropped() {
+        JobManager<Runnable> queue = new JobManager<Runnable>(100);
+        TestJob expiredJob = new TestJob("A", 1, System.currentTimeMillis() - 1);
+        TestJob job = new TestJob("B", 1, Long.MAX_VALUE);
+        List<JobFutureTask<Object>> expiredTasks = submit(queue, expiredJob, 3);
+        submit(queue, job, 2);
+
+        List<Object> jobIds = pollJobIds(queue, 2);
+        assertEquals(2, count(jobIds, job));
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+        for (JobFutureTask<Object> task : expiredTasks) {
+            assertTrue(task.isCancelled());
+        }
+    }
+
+    @Test
+    public void testTracedCallableKeepsJobId() {
+        TestJob job = new TestJob("A", 1, Long.MAX_VALUE);
+        JobFutureTask<Object> task = new JobFutureTask<Object>(new TraceCallable<Object>(null, newCallable(job)));
+        assertSame(job, task.getJobId());
+    }
+
+    @Test
+    public void testRemove() {
+        JobManager<Runnable> queue = new JobManager<Runnable>(100);
+        TestJob job = new TestJob("A", 1, Long.MAX_VALUE);
+        List<JobFutureTask<Object>> tasks = submit(queue, job, 2);
+        assertTrue(queue.remove(tasks.get(0)));
+        assertFalse(queue.remove(tasks.get(0)));
+        assertSame(tasks.get(1), queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    private static List<JobFutureTask<Object>> submit(JobManager<Runnable> queue, TestJob job, int numTasks) {
+        List<JobFutureTask<Object>> tasks = Lists.newArrayList();
+        for (int i = 0; i < numTasks; i++) {
+            JobFutureTask<Object> task = new JobFutureTask<Object>(newCallable(job));
+            assertTrue(queue.offer(task));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static JobCallable<Object> newCallable(final Object jobId) {
+        return new JobCallable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return null;
+            }
+
+            @Override
+            public Object getJobId() {
+                return jobId;
+            }
+        };
+    }
+
+    private static List<Object> pollJobIds(JobManager<Runnable> queue, int numTasks) {
+        List<Object> jobIds = Lists.newArrayList();
+        for (int i = 0; i < numTasks; i++) {
+            jobIds.add(((JobFutureTask<?>)queue.poll()).getJobId());
+        }
+        return jobIds;
+    }
+
+    private static int count(List<Object> jobIds, Object jobId) {
+        int count = 0;
+        for (Object id : jobIds) {
+            if (id == jobId) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static class TestJob implements PrioritizedJob {
+        private final Object shareKey;
+        private final int priority;
+        private final long deadline;
+
+        public TestJob(Object shareKey, int priority, long deadline) {
+            this.shareKey = shareKey;
+            this.priority = priority;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public Object getShareKey() {
+            return shareKey;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.io.hfile.CacheConfig;
+import org.apache.hadoop.hbase.io.hfile.HFile;
+import org.apache.hadoop.hbase.io.hfile.HFileScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+/**
+ * Test for the spilling and merging of the HFiles of {@link LocalCsvBulkLoader}
+ */
+public class LocalCsvBulkLoaderTest {
+    private static final byte[] FAMILY = Bytes.toBytes("0");
+    private static final byte[] QUALIFIER = Bytes.toBytes("V");
+    private static final long TIMESTAMP = 1000;
+    // More than the 32 HFiles per region and family that the bulk load accepts by default
+    private static final int FLUSH_COUNT = 40;
+
+    private File tempDir;
+    private Configuration conf;
+    private FileSystem fs;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDir();
+        conf = HBaseConfiguration.create();
+        conf.setFloat(HConstants.HFILE_BLOCK_CACHE_SIZE_KEY, 0.0f);
+        fs = FileSystem.getLocal(conf);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fs.delete(new Path(tempDir.getAbsolutePath()), true);
+    }
+
+    @Test
+    public void testMergeSpillsIntoOneHFilePerRegion() throws Exception {
+        HTableDescriptor tableDescriptor = new HTableDescriptor(TableName.valueOf("T"));
+        tableDescriptor.addFamily(new HColumnDescriptor(FAMILY));
+        // Regions [ - m) and [m - )
+        byte[][] startKeys = {HConstants.EMPTY_START_ROW, Bytes.toBytes("m")};
+        Path outputPath = new Path(tempDir.getAbsolutePath(), "output");
+        Path spillPath = new Path(outputPath, "_spill");
+        LocalCsvBulkLoader.RegionHFileWriter writer = new LocalCsvBulkLoader.RegionHFileWriter(
+            conf, tableDescriptor, startKeys, spillPath, outputPath);
+
+        for (int i = 0; i < FLUSH_COUNT; i++) {
+            // Each flush has a row of its own and a row of every other flush, in the first region
+            List<KeyValue> buffer = Lists.newArrayList(newKeyValue(String.format("a%02d", i), "v" + i),
+                newKeyValue("b", "v"));
+            if (i == 0) {
+                buffer.add(newKeyValue("x", "v"));
+            }
+            writer.write(buffer);
+        }
+        List<Path> regionSpillPaths = writer.getSpilledRegions();
+        assertEquals(2, regionSpillPaths.size());
+        for (Path regionSpillPath : regionSpillPaths) {
+            writer.merge(regionSpillPath);
+        }
+        writer.deleteSpills();
+        assertFalse(fs.exists(spillPath));
+
+        FileStatus[] hfiles = fs.listStatus(new Path(outputPath, Bytes.toString(FAMILY)));
+        assertEquals(2, hfiles.length);
+        List<String> rows = Lists.newArrayList();
+        for (FileStatus hfile : hfiles) {
+            rows.addAll(readRows(hfile.getPath()));
+        }
+        // The rows of the first region are sorted within its HFile, and the duplicate row is kept once
+        List<String> expectedRows = Lists.newArrayList();
+        for (int i = 0; i < FLUSH_COUNT; i++) {
+            expectedRows.add(String.format("a%02d", i));
+        }
+        expectedRows.add("b");
+        if (rows.get(0).equals("x")) {
+            expectedRows.add(0, "x");
+        } else {
+            expectedRows.add("x");
+        }
+        assertEquals(expectedRows, rows);
+    }
+
+    private static KeyValue newKeyValue(String row, String value) {
+        return new KeyValue(Bytes.toBytes(row), FAMILY, QUALIFIER, TIMESTAMP, Bytes.toBytes(value));
+    }
+
+    private List<String> readRows(Path path) throws Exception {
+        List<String> rows = Lists.newArrayList();
+        HFile.Reader reader = HFile.createReader(fs, path, new CacheConfig(conf), conf);
+        try {
+            HFileScanner scanner = reader.getScanner(false, false);
+            assertTrue(scanner.seekTo());
+            do {
+                rows.add(Bytes.toString(scanner.getKeyValue().getRow()));
+            } while (scanner.next());
+        } finally {
+            reader.close();
+        }
+        return rows;
+    }
+}
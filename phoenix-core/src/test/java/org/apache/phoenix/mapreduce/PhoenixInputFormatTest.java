@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.ServerName;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.phoenix.mapreduce.util.PhoenixConfigurationUtil;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Test for the combination of the scans of a query into the input splits of
+ * {@link PhoenixInputFormat}
+ */
+public class PhoenixInputFormatTest {
+    private static final TableName TABLE_NAME = TableName.valueOf("T");
+
+    // Regions [ - c) and [c - f) on host1, [f - ) on host2
+    private static final List<HRegionLocation> REGION_LOCATIONS = Lists.newArrayList(
+            newRegionLocation(HConstants.EMPTY_START_ROW, "c", "host1"),
+            newRegionLocation("c", "f", "host1"),
+            newRegionLocation("f", HConstants.EMPTY_END_ROW, "host2"));
+
+    // Guidepost chunks, grouped by region
+    private static final List<List<Scan>> SCANS = Lists.<List<Scan>>newArrayList(
+            Lists.newArrayList(newScan("", "a"), newScan("a", "b"), newScan("b", "c")),
+            Lists.newArrayList(newScan("c", "d"), newScan("d", "f")),
+            Lists.newArrayList(newScan("f", "g"), newScan("g", "")));
+
+    private static HRegionLocation newRegionLocation(Object startKey, Object endKey, String host) {
+        HRegionInfo regionInfo = new HRegionInfo(TABLE_NAME, toBytes(startKey), toBytes(endKey));
+        return new HRegionLocation(regionInfo, ServerName.valueOf(host, 60020, 1L));
+    }
+
+    private static byte[] toBytes(Object key) {
+        return key instanceof byte[] ? (byte[])key : Bytes.toBytes((String)key);
+    }
+
+    private static Scan newScan(String startKey, String stopKey) {
+        return new Scan(Bytes.toBytes(startKey), Bytes.toBytes(stopKey));
+    }
+
+    @Test
+    public void testOneSplitPerScanWithoutTargetSize() throws Exception {
+        List<InputSplit> splits = PhoenixInputFormat.combineScans(SCANS, REGION_LOCATIONS, 100,
+            PhoenixConfigurationUtil.DEFAULT_SPLIT_TARGET_SIZE);
+        assertEquals(7, splits.size());
+        String[] hosts = {"host1", "host1", "host1", "host1", "host1", "host2", "host2"};
+        for (int i = 0; i < splits.size(); i++) {
+            PhoenixInputSplit split = (PhoenixInputSplit)splits.get(i);
+            assertEquals(1, split.getScans().size());
+            assertEquals(100, split.getLength());
+            assertArrayEquals(new String[] {hosts[i]}, split.getLocations());
+        }
+    }
+
+    @Test
+    public void testCombineScansUpToTargetSize() throws Exception {
+        List<InputSplit> splits = PhoenixInputFormat.combineScans(SCANS, REGION_LOCATIONS, 100, 250);
+        // Two chunks fit the target size, and a split doesn't span region servers
+        assertSplit(splits.get(0), "", "b", 2, "host1");
+        assertSplit(splits.get(1), "b", "d", 2, "host1");
+        assertSplit(splits.get(2), "d", "f", 1, "host1");
+        assertSplit(splits.get(3), "f", "", 2, "host2");
+        assertEquals(4, splits.size());
+    }
+
+    @Test
+    public void testCombineScansAcrossRegionsOfSameServer() throws Exception {
+        List<InputSplit> splits = PhoenixInputFormat.combineScans(SCANS, REGION_LOCATIONS, 100, Long.MAX_VALUE);
+        // The regions of host1 end up in a single split, while the region of host2 gets its own
+        assertSplit(splits.get(0), "", "f", 5, "host1");
+        assertSplit(splits.get(1), "f", "", 2, "host2");
+        assertEquals(2, splits.size());
+    }
+
+    @Test
+    public void testLocationOfScanStartingInsideRegion() throws Exception {
+        List<List<Scan>> scans = Lists.<List<Scan>>newArrayList(
+            Lists.newArrayList(newScan("bb", "c")),
+            Lists.newArrayList(newScan("e", "f"), newScan("f", "h")),
+            Lists.newArrayList(newScan("zz", "")));
+        List<InputSplit> splits = PhoenixInputFormat.combineScans(scans, REGION_LOCATIONS, 100, Long.MAX_VALUE);
+        assertSplit(splits.get(0), "bb", "f", 2, "host1");
+        assertSplit(splits.get(1), "f", "", 2, "host2");
+        assertEquals(2, splits.size());
+    }
+
+    private static void assertSplit(InputSplit inputSplit, String startKey, String stopKey, int scanCount,
+            String host) throws Exception {
+        PhoenixInputSplit split = (PhoenixInputSplit)inputSplit;
+        assertEquals(scanCount, split.getScans().size());
+        assertArrayEquals(Bytes.toBytes(startKey), split.getKeyRange().getLowerRange());
+        assertArrayEquals(Bytes.toBytes(stopKey), split.getKeyRange().getUpperRange());
+        assertEquals(scanCount * 100, split.getLength());
+        assertArrayEquals(new String[] {host}, split.getLocations());
+    }
+}
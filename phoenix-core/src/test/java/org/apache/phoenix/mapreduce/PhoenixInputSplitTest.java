@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Test for {@link PhoenixInputSplit}
+ */
+public class PhoenixInputSplitTest {
+
+    @Test
+    public void testSerialization() throws Exception {
+        List<Scan> scans = ImmutableList.of(
+                new Scan(Bytes.toBytes("a"), Bytes.toBytes("c")),
+                new Scan(Bytes.toBytes("c"), Bytes.toBytes("f")));
+        PhoenixInputSplit split = new PhoenixInputSplit(scans, "host1.example.com", 1024L);
+
+        PhoenixInputSplit copy = roundTrip(split);
+        assertEquals(split, copy);
+        assertEquals(2, copy.getScans().size());
+        assertArrayEquals(Bytes.toBytes("a"), copy.getKeyRange().getLowerRange());
+        assertArrayEquals(Bytes.toBytes("f"), copy.getKeyRange().getUpperRange());
+        assertEquals(1024L, copy.getLength());
+        assertArrayEquals(new String[] {"host1.example.com"}, copy.getLocations());
+    }
+
+    @Test
+    public void testSerializationWithoutLocation() throws Exception {
+        List<Scan> scans = ImmutableList.of(new Scan(Bytes.toBytes("a"), Bytes.toBytes("c")));
+        PhoenixInputSplit copy = roundTrip(new PhoenixInputSplit(scans));
+        assertEquals(0L, copy.getLength());
+        assertEquals(0, copy.getLocations().length);
+    }
+
+    private static PhoenixInputSplit roundTrip(PhoenixInputSplit split) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        split.write(new DataOutputStream(bytes));
+        PhoenixInputSplit copy = new PhoenixInputSplit();
+        copy.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        return copy;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.mapreduce.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Test for the state of a data row that {@link PhoenixIndexImportDirectMapper} builds from its
+ * raw cells for an incremental rebuild
+ */
+public class PhoenixIndexImportDirectMapperTest {
+    private static final byte[] ROW = Bytes.toBytes("r");
+    private static final byte[] FAMILY = Bytes.toBytes("0");
+    private static final byte[] NAME = Bytes.toBytes("NAME");
+    private static final byte[] ZIP = Bytes.toBytes("ZIP");
+
+    private static KeyValue newCell(byte[] qualifier, long timestamp, KeyValue.Type type, String value) {
+        return new KeyValue(ROW, FAMILY, qualifier, timestamp, type, value == null ? null : Bytes.toBytes(value));
+    }
+
+    private static List<Cell> sort(KeyValue... cells) {
+        List<Cell> sortedCells = Lists.<Cell>newArrayList(cells);
+        Collections.sort(sortedCells, KeyValue.COMPARATOR);
+        return sortedCells;
+    }
+
+    private static void assertState(List<Cell> state, String... qualifiersAndValues) {
+        assertEquals(qualifiersAndValues.length / 2, state.size());
+        for (int i = 0; i < state.size(); i++) {
+            Cell cell = state.get(i);
+            assertEquals(qualifiersAndValues[2 * i], Bytes.toString(cell.getQualifierArray(),
+                cell.getQualifierOffset(), cell.getQualifierLength()));
+            assertEquals(qualifiersAndValues[2 * i + 1], Bytes.toString(cell.getValueArray(),
+                cell.getValueOffset(), cell.getValueLength()));
+        }
+    }
+
+    @Test
+    public void testRowDeletedAfterStartTime() {
+        List<Cell> cells = sort(
+            newCell(NAME, 10, KeyValue.Type.Put, "a"),
+            newCell(ZIP, 10, KeyValue.Type.Put, "1"),
+            newCell(null, 20, KeyValue.Type.DeleteFamily, null));
+        assertState(PhoenixIndexImportDirectMapper.getRowState(cells, 15), "NAME", "a", "ZIP", "1");
+        assertTrue(PhoenixIndexImportDirectMapper.getRowState(cells, 30).isEmpty());
+        // Rewritten after the delete
+        cells.add(newCell(NAME, 25, KeyValue.Type.Put, "b"));
+        Collections.sort(cells, KeyValue.COMPARATOR);
+        assertState(PhoenixIndexImportDirectMapper.getRowState(cells, 30), "NAME", "b");
+    }
+
+    @Test
+    public void testColumnDeletedAfterStartTime() {
+        List<Cell> cells = sort(
+            newCell(NAME, 10, KeyValue.Type.Put, "a"),
+            newCell(NAME, 5, KeyValue.Type.Put, "old"),
+            newCell(ZIP, 10, KeyValue.Type.Put, "1"),
+            newCell(NAME, 20, KeyValue.Type.DeleteColumn, null));
+        assertState(PhoenixIndexImportDirectMapper.getRowState(cells, 15), "NAME", "a", "ZIP", "1");
+        assertState(PhoenixIndexImportDirectMapper.getRowState(cells, 30), "ZIP", "1");
+        // The time is exclusive
+        assertState(PhoenixIndexImportDirectMapper.getRowState(cells, 10), "NAME", "old");
+    }
+
+    @Test
+    public void testVersionDeleted() {
+        List<Cell> cells = sort(
+            newCell(NAME, 10, KeyValue.Type.Put, "a"),
+            newCell(NAME, 20, KeyValue.Type.Put, "b"),
+            newCell(NAME, 20, KeyValue.Type.Delete, null));
+        // Deleting the latest version brings back the previous one
+        assertState(PhoenixIndexImportDirectMapper.getRowState(cells, 30), "NAME", "a");
+        cells.add(newCell(null, 10, KeyValue.Type.DeleteFamilyVersion, null));
+        Collections.sort(cells, KeyValue.COMPARATOR);
+        assertTrue(PhoenixIndexImportDirectMapper.getRowState(cells, 30).isEmpty());
+    }
+}
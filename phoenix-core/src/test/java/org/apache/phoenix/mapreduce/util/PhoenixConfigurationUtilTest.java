@@ -23,12 +23,19 @@ import static org.junit.Assert.assertEquals;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.mapreduce.Job;
+import org.apache.phoenix.index.IndexMaintainer;
+import org.apache.phoenix.jdbc.PhoenixConnection;
 import org.apache.phoenix.mapreduce.util.PhoenixConfigurationUtil.SchemaType;
 import org.apache.phoenix.query.BaseConnectionlessQueryTest;
+import org.apache.phoenix.schema.PTable;
+import org.apache.phoenix.util.PhoenixRuntime;
 import org.apache.phoenix.util.PropertiesUtil;
 import org.apache.phoenix.util.SchemaUtil;
 import org.apache.phoenix.util.TestUtil;
@@ -175,4 +182,42 @@ public class PhoenixConfigurationUtilTest extends BaseConnectionlessQueryTest {
         assertEquals(zkQuorumOverride3, OVERRIDE_CLUSTER_QUORUM);
 
     }
+
+    @Test
+    public void testSplitTargetSize() throws Exception {
+        final Configuration configuration = new Configuration();
+        assertEquals(PhoenixConfigurationUtil.DEFAULT_SPLIT_TARGET_SIZE,
+            PhoenixConfigurationUtil.getSplitTargetSize(configuration));
+        PhoenixConfigurationUtil.setSplitTargetSize(configuration, 256 * 1024 * 1024);
+        assertEquals(256 * 1024 * 1024, PhoenixConfigurationUtil.getSplitTargetSize(configuration));
+    }
+
+    @Test
+    public void testIndexMaintainers() throws Exception {
+        Connection conn = DriverManager.getConnection(getUrl(), PropertiesUtil.deepCopy(TestUtil.TEST_PROPERTIES));
+        try {
+            conn.createStatement().execute("CREATE TABLE IMMUTABLE_TABLE (k VARCHAR NOT NULL PRIMARY KEY, v VARCHAR) IMMUTABLE_ROWS=true");
+            conn.createStatement().execute("CREATE INDEX IMMUTABLE_INDEX ON IMMUTABLE_TABLE (v)");
+            PhoenixConnection pconn = conn.unwrap(PhoenixConnection.class);
+            PTable dataTable = PhoenixRuntime.getTable(conn, "IMMUTABLE_TABLE");
+            // a global index on an immutable table is not maintained on the server side, but is serialized
+            ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+            IndexMaintainer.serializeAll(dataTable, ptr, dataTable.getIndexes(), pconn);
+            final Configuration configuration = new Configuration();
+            PhoenixConfigurationUtil.setIndexMaintainers(configuration, ptr);
+            List<IndexMaintainer> maintainers = PhoenixConfigurationUtil.getIndexMaintainers(configuration);
+            assertEquals(1, maintainers.size());
+            assertEquals("IMMUTABLE_INDEX", Bytes.toString(maintainers.get(0).getIndexTableName()));
+        } finally {
+            conn.close();
+        }
+    }
+
+    @Test
+    public void testIndexRebuildStartTime() throws Exception {
+        final Configuration configuration = new Configuration();
+        assertEquals(0, PhoenixConfigurationUtil.getIndexRebuildStartTime(configuration));
+        PhoenixConfigurationUtil.setIndexRebuildStartTime(configuration, 1000);
+        assertEquals(1000, PhoenixConfigurationUtil.getIndexRebuildStartTime(configuration));
+    }
 }
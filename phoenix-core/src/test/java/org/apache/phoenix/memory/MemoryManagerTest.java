@@ -17,9 +17,15 @@
  */
 package org.apache.phoenix.memory;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -69,7 +75,7 @@ public class MemoryManagerTest {
     }
 
     @Test
-    public void testWaitForMemoryAvailable() {
+    public void testWaitForMemoryAvailable() throws Exception {
         final GlobalMemoryManager gmm = new GlobalMemoryManager(100,8000);
         final ChildMemoryManager rmm1 = new ChildMemoryManager(gmm,100);
         final ChildMemoryManager rmm2 = new ChildMemoryManager(gmm,100);
@@ -98,15 +104,20 @@ public class MemoryManagerTest {
         t1.start();
         t2.start();
         sleepFor(1000);
-        // Main thread competes with others to get all memory, but should wait
-        // until both threads are complete (since that's when the memory will
-        // again be all available.
+        // Main thread competes with others to get all memory. It starts waiting
+        // before t2 does, so it's first in line and gets the memory once t1
+        // frees it all. Only then does t2 get its memory, as waiters are served
+        // in FIFO order. Until then t2's child manager keeps its 50 bytes
+        // reserved, so it can only be checked once t2 is done.
         ChildMemoryManager rmm = new ChildMemoryManager(gmm,100);
         MemoryChunk c = rmm.allocate(100);
+        assertTrue(rmm1.getAvailableMemory() == rmm1.getMaxMemory());
         c.close();
         assertTrue(rmm.getAvailableMemory() == rmm.getMaxMemory());
-        assertTrue(rmm1.getAvailableMemory() == rmm1.getMaxMemory());
+        t1.join();
+        t2.join();
         assertTrue(rmm2.getAvailableMemory() == rmm2.getMaxMemory());
+        assertTrue(gmm.getAvailableMemory() == gmm.getMaxMemory());
     }
     
     @Test
@@ -264,4 +275,69 @@ public class MemoryManagerTest {
         assertTrue(rmm3.getAvailableMemory() == rmm3.getMaxMemory());
         assertTrue(rmm4.getAvailableMemory() == rmm4.getMaxMemory());
     }
+
+    @Test
+    public void testWaitersServedInOrder() throws Exception {
+        final GlobalMemoryManager gmm = new GlobalMemoryManager(100,8000);
+        MemoryChunk c1 = gmm.allocate(60);
+        final List<String> allocated = Collections.synchronizedList(new ArrayList<String>());
+        Thread t1 = new Thread() {
+            @Override
+            public void run() {
+                MemoryChunk c2 = gmm.allocate(80);
+                allocated.add("large");
+                sleepFor(500);
+                c2.close();
+            }
+        };
+        Thread t2 = new Thread() {
+            @Override
+            public void run() {
+                MemoryChunk c3 = gmm.allocate(30);
+                allocated.add("small");
+                c3.close();
+            }
+        };
+        t1.start();
+        sleepFor(500);
+        // Enough memory is available for the small request, but it may not pass the large one
+        t2.start();
+        sleepFor(500);
+        assertTrue(allocated.isEmpty());
+        c1.close();
+        t1.join();
+        t2.join();
+        assertEquals(Arrays.asList("large", "small"), allocated);
+        assertTrue(gmm.getAvailableMemory() == gmm.getMaxMemory());
+    }
+
+    @Test
+    public void testNestedChildMemoryManager() throws Exception {
+        MemoryManager gmm = new GlobalMemoryManager(100,1);
+        ChildMemoryManager tenant = new ChildMemoryManager(gmm,50);
+        ChildMemoryManager query1 = new ChildMemoryManager(tenant,60);
+        ChildMemoryManager query2 = new ChildMemoryManager(tenant,60);
+        assertEquals(30, query1.getMaxMemory());
+        MemoryChunk c1 = query1.allocate(30);
+        try {
+            query1.allocate(1);
+            fail();
+        } catch (InsufficientMemoryException e) { // expected
+        }
+        try {
+            // Within the share of the query, but not of the tenant
+            query2.allocate(25);
+            fail();
+        } catch (InsufficientMemoryException e) { // expected
+        }
+        MemoryChunk c2 = query2.allocate(10,30);
+        assertEquals(20, c2.getSize());
+        assertEquals(10, query2.getAvailableMemory());
+        c1.close();
+        c2.close();
+        assertTrue(query1.getAvailableMemory() == query1.getMaxMemory());
+        assertTrue(query2.getAvailableMemory() == query2.getMaxMemory());
+        assertTrue(tenant.getAvailableMemory() == tenant.getMaxMemory());
+        assertTrue(gmm.getAvailableMemory() == gmm.getMaxMemory());
+    }
 }
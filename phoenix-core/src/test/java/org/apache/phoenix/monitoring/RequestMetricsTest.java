@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class RequestMetricsTest {
+
+    @Test
+    public void testUpdatesArePropagatedToParent() {
+        RequestMetrics connectionMetrics = new RequestMetrics(null);
+        RequestMetrics statementMetrics1 = new RequestMetrics(connectionMetrics);
+        RequestMetrics statementMetrics2 = new RequestMetrics(connectionMetrics);
+        statementMetrics1.update(MetricType.SCAN_ROWS, 10);
+        statementMetrics2.update(MetricType.SCAN_ROWS, 5);
+        statementMetrics2.increment(MetricType.PARALLEL_SCANS);
+        assertEquals(10, statementMetrics1.getValue(MetricType.SCAN_ROWS));
+        assertEquals(0, statementMetrics1.getValue(MetricType.PARALLEL_SCANS));
+        assertEquals(5, statementMetrics2.getValue(MetricType.SCAN_ROWS));
+        assertEquals(15, connectionMetrics.getValue(MetricType.SCAN_ROWS));
+        assertEquals(1, connectionMetrics.getValue(MetricType.PARALLEL_SCANS));
+    }
+
+    @Test
+    public void testRpcCallsByServer() {
+        RequestMetrics connectionMetrics = new RequestMetrics(null);
+        RequestMetrics statementMetrics = new RequestMetrics(connectionMetrics);
+        statementMetrics.updateRpcCalls("host1:60020", 2);
+        statementMetrics.updateRpcCalls("host2:60020", 1);
+        statementMetrics.updateRpcCalls("host1:60020", 3);
+        Map<String, Long> rpcCalls = statementMetrics.getRpcCallsByServer();
+        assertEquals(2, rpcCalls.size());
+        assertEquals(5L, rpcCalls.get("host1:60020").longValue());
+        assertEquals(1L, rpcCalls.get("host2:60020").longValue());
+        assertEquals(6, statementMetrics.getValue(MetricType.SCAN_RPC_CALLS));
+        assertEquals(rpcCalls, connectionMetrics.getRpcCallsByServer());
+        assertEquals(6, connectionMetrics.getValue(MetricType.SCAN_RPC_CALLS));
+    }
+
+    @Test
+    public void testResetDoesNotAffectParent() {
+        RequestMetrics connectionMetrics = new RequestMetrics(null);
+        RequestMetrics statementMetrics = new RequestMetrics(connectionMetrics);
+        statementMetrics.update(MetricType.SCAN_BYTES, 100);
+        statementMetrics.updateRpcCalls("host1:60020", 1);
+        statementMetrics.reset();
+        for (Long value : statementMetrics.getValues().values()) {
+            assertEquals(0L, value.longValue());
+        }
+        assertTrue(statementMetrics.getRpcCallsByServer().isEmpty());
+        assertEquals(100, connectionMetrics.getValue(MetricType.SCAN_BYTES));
+        assertEquals(1, connectionMetrics.getRpcCallsByServer().size());
+    }
+
+    @Test
+    public void testNoOpMetricsIgnoreUpdates() {
+        RequestMetrics metrics = RequestMetrics.NO_OP_METRICS;
+        assertFalse(metrics.isEnabled());
+        metrics.update(MetricType.SCAN_BYTES, 100);
+        metrics.updateRpcCalls("host1:60020", 1);
+        assertEquals(0, metrics.getValue(MetricType.SCAN_BYTES));
+        assertEquals(0, metrics.getValue(MetricType.SCAN_RPC_CALLS));
+        assertTrue(metrics.getRpcCallsByServer().isEmpty());
+        assertEquals(MetricType.values().length, metrics.getValues().size());
+    }
+}
@@ -18,6 +18,7 @@
 package org.apache.phoenix.parse;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -796,4 +797,13 @@ public class QueryParserTest {
         String sql = "select * from t where 'a' <= ALL(a-b+1)";
         parseQuery(sql);
     }
+
+    @Test
+    public void testExplainAnalyze() throws Exception {
+        ExplainStatement stmt = (ExplainStatement)new SQLParser("explain analyze select * from t where a = 1").parseStatement();
+        assertTrue(stmt.isAnalyze());
+        assertEquals(Operation.QUERY, stmt.getStatement().getOperation());
+        stmt = (ExplainStatement)new SQLParser("explain select * from t").parseStatement();
+        assertFalse(stmt.isAnalyze());
+    }
 }
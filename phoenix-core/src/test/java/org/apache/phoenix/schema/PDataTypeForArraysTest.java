@@ -24,10 +24,12 @@ import java.math.BigDecimal;
 import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.util.Arrays;
 
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.phoenix.schema.types.PArrayDataType;
+import org.apache.phoenix.schema.types.PArrayDataType.PArrayDataTypeArrayView;
 import org.apache.phoenix.schema.types.PBoolean;
 import org.apache.phoenix.schema.types.PBooleanArray;
 import org.apache.phoenix.schema.types.PChar;
@@ -73,9 +75,12 @@ import org.apache.phoenix.schema.types.PUnsignedTinyintArray;
 import org.apache.phoenix.schema.types.PVarchar;
 import org.apache.phoenix.schema.types.PVarcharArray;
 import org.apache.phoenix.schema.types.PhoenixArray;
+import org.apache.phoenix.util.ByteUtil;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import com.google.common.base.Strings;
+
 public class PDataTypeForArraysTest {
 	@Test
 	public void testForIntegerArray() {
@@ -1138,4 +1143,62 @@ public class PDataTypeForArraysTest {
         assertTrue(Bytes.compareTo(bytes1, bytes2) == 0);
     }
     
+    @Test
+    public void testArrayViewForVarCharArray() {
+        String[] strArr = new String[] {"abc", null, "de", null, null, "fghi"};
+        PhoenixArray arr = PArrayDataType.instantiatePhoenixArray(PVarchar.INSTANCE, strArr);
+        byte[] arrayBytes = PVarcharArray.INSTANCE.toBytes(arr);
+        // Position the array in the middle of other bytes
+        byte[] bytes = ByteUtil.concat(Bytes.toBytes("xy"), arrayBytes, Bytes.toBytes("z"));
+        PArrayDataTypeArrayView view = new PArrayDataTypeArrayView(PVarchar.INSTANCE, null);
+        view.set(new ImmutableBytesWritable(bytes, 2, arrayBytes.length));
+        assertEquals(strArr.length, view.getNoOfElements());
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        for (int i = 0; i < strArr.length; i++) {
+            view.positionAtElement(ptr, i);
+            assertEquals(strArr[i] == null ? "" : strArr[i], Bytes.toString(ptr.copyBytes()));
+        }
+        view.positionAtElement(ptr, strArr.length);
+        assertEquals(0, ptr.getLength());
+    }
+
+    @Test
+    public void testArrayViewForIntArray() {
+        Integer[] intArr = new Integer[] {1, -2, 3};
+        PhoenixArray arr = PArrayDataType.instantiatePhoenixArray(PInteger.INSTANCE, intArr);
+        byte[] bytes = PIntegerArray.INSTANCE.toBytes(arr);
+        PArrayDataTypeArrayView view = new PArrayDataTypeArrayView(PInteger.INSTANCE, null);
+        view.set(new ImmutableBytesWritable(bytes));
+        assertEquals(intArr.length, view.getNoOfElements());
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        for (int i = 0; i < intArr.length; i++) {
+            view.positionAtElement(ptr, i);
+            assertEquals(intArr[i], PInteger.INSTANCE.toObject(ptr));
+        }
+        view.positionAtElement(ptr, intArr.length);
+        assertEquals(0, ptr.getLength());
+    }
+
+    @Test
+    public void testAppendConvertingOffsetArrayToInt() {
+        // The offsets of the elements fit in shorts, but the offset of the appended one doesn't
+        String[] strArr = new String[649];
+        String element = Strings.repeat("a", 100);
+        for (int i = 0; i < strArr.length; i++) {
+            strArr[i] = element;
+        }
+        PhoenixArray arr = PArrayDataType.instantiatePhoenixArray(PVarchar.INSTANCE, strArr);
+        byte[] arrayBytes = PVarcharArray.INSTANCE.toBytes(arr);
+        byte[] bytes = ByteUtil.concat(Bytes.toBytes("xy"), arrayBytes);
+        ImmutableBytesWritable arrayPtr = new ImmutableBytesWritable(bytes, 2, arrayBytes.length);
+        int arrayLength = PArrayDataType.getArrayLength(arrayPtr, PVarchar.INSTANCE, null);
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable(Bytes.toBytes("b"));
+        PArrayDataType.appendItemToArray(ptr, arrayPtr.getLength(), arrayPtr.getOffset(), bytes, PVarchar.INSTANCE,
+                arrayLength, null, SortOrder.ASC);
+
+        String[] expectedArr = Arrays.copyOf(strArr, strArr.length + 1);
+        expectedArr[strArr.length] = "b";
+        PhoenixArray expected = PArrayDataType.instantiatePhoenixArray(PVarchar.INSTANCE, expectedArr);
+        assertEquals(expected, PVarcharArray.INSTANCE.toObject(ptr));
+    }
 }
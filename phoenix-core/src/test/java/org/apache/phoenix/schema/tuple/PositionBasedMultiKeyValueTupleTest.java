@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.schema.tuple;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+public class PositionBasedMultiKeyValueTupleTest {
+    private static final byte[] ROW = Bytes.toBytes("row");
+    private static final byte[] FAMILY_A = Bytes.toBytes("A");
+    private static final byte[] FAMILY_B = Bytes.toBytes("B");
+
+    private static List<Cell> newRow(long ts, String... columns) {
+        List<Cell> cells = new ArrayList<Cell>();
+        for (String column : columns) {
+            String[] parts = column.split("\\.");
+            cells.add(new KeyValue(ROW, Bytes.toBytes(parts[0]), Bytes.toBytes(parts[1]), ts,
+                    Bytes.toBytes(column + ts)));
+        }
+        Collections.sort(cells, KeyValue.COMPARATOR);
+        return cells;
+    }
+
+    private static void assertSameValue(Tuple expected, Tuple actual, byte[] family, byte[] qualifier) {
+        ImmutableBytesWritable expectedPtr = new ImmutableBytesWritable();
+        ImmutableBytesWritable actualPtr = new ImmutableBytesWritable();
+        boolean hasValue = expected.getValue(family, qualifier, expectedPtr);
+        assertEquals(hasValue, actual.getValue(family, qualifier, actualPtr));
+        if (hasValue) {
+            assertEquals(0, expectedPtr.compareTo(actualPtr));
+        }
+    }
+
+    @Test
+    public void testGetValue() {
+        byte[] q1 = Bytes.toBytes("1");
+        byte[] q2 = Bytes.toBytes("2");
+        byte[] q3 = Bytes.toBytes("3");
+        PositionBasedMultiKeyValueTuple tuple = new PositionBasedMultiKeyValueTuple();
+        MultiKeyValueTuple expected = new MultiKeyValueTuple();
+        List<List<Cell>> rows = new ArrayList<List<Cell>>();
+        rows.add(newRow(1, "A.1", "A.3", "B.1", "B.2"));
+        rows.add(newRow(2, "A.2", "B.3"));
+        rows.add(newRow(3, "A.1", "A.2", "A.3", "B.1", "B.2", "B.3", "B.4"));
+        rows.add(newRow(4, "B.4"));
+        for (List<Cell> row : rows) {
+            tuple.setKeyValues(row);
+            expected.setKeyValues(row);
+            for (byte[] family : new byte[][] {FAMILY_A, FAMILY_B}) {
+                for (byte[] qualifier : new byte[][] {q1, q2, q3}) {
+                    assertSameValue(expected, tuple, family, qualifier);
+                }
+            }
+            // A column first looked up after the others, with another array of the same qualifier
+            assertSameValue(expected, tuple, FAMILY_B, Bytes.toBytes("4"));
+        }
+    }
+
+    @Test
+    public void testLatestVersion() {
+        List<Cell> cells = newRow(2, "A.1", "A.2");
+        cells.addAll(newRow(1, "A.1", "A.2"));
+        Collections.sort(cells, KeyValue.COMPARATOR);
+        PositionBasedMultiKeyValueTuple tuple = new PositionBasedMultiKeyValueTuple();
+        tuple.setKeyValues(cells);
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable();
+        assertTrue(tuple.getValue(FAMILY_A, Bytes.toBytes("2"), ptr));
+        assertEquals("A.22", Bytes.toString(ptr.get(), ptr.getOffset(), ptr.getLength()));
+        assertNull(tuple.getValue(FAMILY_B, Bytes.toBytes("2")));
+        assertFalse(tuple.getValue(FAMILY_A, Bytes.toBytes("0"), ptr));
+        assertEquals(4, tuple.size());
+    }
+}
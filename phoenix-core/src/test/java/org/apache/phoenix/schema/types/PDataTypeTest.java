@@ -40,6 +40,7 @@ import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.phoenix.exception.SQLExceptionCode;
 import org.apache.phoenix.schema.ConstraintViolationException;
 import org.apache.phoenix.schema.SortOrder;
+import org.apache.phoenix.util.ByteUtil;
 import org.apache.phoenix.util.TestUtil;
 import org.junit.Test;
 
@@ -1566,7 +1567,20 @@ public class PDataTypeTest {
         o = PTimestamp.INSTANCE.toObject(date, PDate.INSTANCE);
         assertEquals(o.getClass(), java.sql.Timestamp.class);
         o = PTimestamp.INSTANCE.toObject(t, PTime.INSTANCE);
-        assertEquals(o.getClass(), java.sql.Timestamp.class); 
+        assertEquals(o.getClass(), java.sql.Timestamp.class);
+    }
+
+    @Test
+    public void testDescTimestampAtOffset() {
+        Timestamp ts = new Timestamp(System.currentTimeMillis());
+        ts.setNanos(ts.getNanos() + 123);
+        byte[] b = PTimestamp.INSTANCE.toBytes(ts, SortOrder.DESC);
+        byte[] rowKey = ByteUtil.concat(Bytes.toBytes("prefix"), b);
+        Object o = PTimestamp.INSTANCE.toObject(rowKey, rowKey.length - b.length, b.length, PTimestamp.INSTANCE, SortOrder.DESC);
+        assertEquals(ts, o);
+
+        byte[] nanos = ByteUtil.concat(Bytes.toBytes("prefix"), PUnsignedInt.INSTANCE.toBytes(123, SortOrder.DESC));
+        assertEquals(123, PUnsignedInt.INSTANCE.getCodec().decodeInt(nanos, nanos.length - Bytes.SIZEOF_INT, SortOrder.DESC));
     }
 
     @Test
@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class BoundedRingBufferTest {
+
+    @Test
+    public void testCapacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(8, new BoundedRingBuffer<Integer>(5).capacity());
+        assertEquals(8, new BoundedRingBuffer<Integer>(8).capacity());
+        assertEquals(1, new BoundedRingBuffer<Integer>(1).capacity());
+    }
+
+    @Test
+    public void testOfferFailsWhenFull() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<Integer>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+        assertEquals(0, buffer.poll().intValue());
+        assertTrue(buffer.offer(4));
+        List<Integer> elements = new ArrayList<Integer>();
+        assertEquals(4, buffer.drainTo(elements, 10));
+        assertEquals(4, elements.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i + 1, elements.get(i).intValue());
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        final BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<Integer>(64);
+        final int producerCount = 4;
+        final int elementsPerProducer = 10000;
+        final AtomicInteger dropped = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(producerCount);
+        for (int p = 0; p < producerCount; p++) {
+            final int producer = p;
+            new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < elementsPerProducer; i++) {
+                        if (!buffer.offer(producer * elementsPerProducer + i)) {
+                            dropped.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                }
+            }.start();
+        }
+        // The elements of each producer are taken in the order it added them
+        int[] lastSeen = new int[producerCount];
+        Arrays.fill(lastSeen, -1);
+        int taken = 0;
+        while (done.getCount() > 0 || buffer.size() > 0) {
+            Integer element = buffer.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = element / elementsPerProducer;
+            int index = element % elementsPerProducer;
+            assertTrue(index > lastSeen[producer]);
+            lastSeen[producer] = index;
+            taken++;
+        }
+        assertEquals(producerCount * elementsPerProducer, taken + dropped.get());
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.metrics2.AbstractMetric;
+import org.apache.hadoop.metrics2.MetricType;
+import org.apache.hadoop.metrics2.MetricsRecord;
+import org.apache.hadoop.metrics2.MetricsVisitor;
+import org.apache.hadoop.metrics2.lib.Interns;
+import org.apache.htrace.Span;
+import org.apache.phoenix.metrics.MetricInfo;
+import org.junit.Test;
+
+public class TailSamplerTest {
+
+    private static AbstractMetric newMetric(String name, final long value) {
+        return new AbstractMetric(Interns.info(name, "")) {
+            @Override
+            public Number value() {
+                return value;
+            }
+
+            @Override
+            public MetricType type() {
+                return MetricType.COUNTER;
+            }
+
+            @Override
+            public void visit(MetricsVisitor visitor) {
+                visitor.counter(this, value);
+            }
+        };
+    }
+
+    private static MetricsRecord newSpan(long parentId, long startTime, long endTime) {
+        MetricsRecord record = mock(MetricsRecord.class);
+        when(record.metrics()).thenReturn(Arrays.asList(
+                newMetric(MetricInfo.PARENT.traceName, parentId),
+                newMetric(MetricInfo.START.traceName, startTime),
+                newMetric(MetricInfo.END.traceName, endTime)));
+        return record;
+    }
+
+    @Test
+    public void testKeepsAllSpansWithoutSampling() {
+        TailSampler sampler = new TailSampler(100, 1.0, 1000);
+        List<MetricsRecord> kept = new ArrayList<MetricsRecord>();
+        sampler.add(1, newSpan(10, 0, 1), 0, kept);
+        assertEquals(1, kept.size());
+        assertEquals(0, sampler.getPendingSpanCount());
+    }
+
+    @Test
+    public void testKeepsSlowTracesInFull() {
+        TailSampler sampler = new TailSampler(100, 0.0, 1000);
+        List<MetricsRecord> kept = new ArrayList<MetricsRecord>();
+        sampler.add(1, newSpan(10, 0, 5), 0, kept);
+        sampler.add(1, newSpan(10, 5, 200), 0, kept);
+        assertTrue(kept.isEmpty());
+        assertEquals(2, sampler.getPendingSpanCount());
+        // The root span completes the trace
+        sampler.add(1, newSpan(Span.ROOT_SPAN_ID, 0, 210), 0, kept);
+        assertEquals(3, kept.size());
+        assertEquals(0, sampler.getPendingSpanCount());
+        // A late span of a kept trace is kept as well
+        sampler.add(1, newSpan(10, 0, 1), 0, kept);
+        assertEquals(4, kept.size());
+    }
+
+    @Test
+    public void testDropsFastTraces() {
+        TailSampler sampler = new TailSampler(100, 0.0, 1000);
+        List<MetricsRecord> kept = new ArrayList<MetricsRecord>();
+        sampler.add(1, newSpan(10, 0, 5), 0, kept);
+        sampler.add(1, newSpan(Span.ROOT_SPAN_ID, 0, 10), 0, kept);
+        assertTrue(kept.isEmpty());
+        assertEquals(2, sampler.getSampledOutSpanCount());
+        // A late span that is slow itself is kept
+        sampler.add(1, newSpan(10, 0, 500), 0, kept);
+        assertEquals(1, kept.size());
+    }
+
+    @Test
+    public void testDecidesTracesWithoutRootAfterMaxPendingTime() {
+        TailSampler sampler = new TailSampler(100, 0.0, 1000);
+        List<MetricsRecord> kept = new ArrayList<MetricsRecord>();
+        sampler.add(1, newSpan(10, 0, 500), 0, kept);
+        sampler.add(2, newSpan(10, 0, 5), 500, kept);
+        sampler.expire(999, kept);
+        assertTrue(kept.isEmpty());
+        sampler.expire(1000, kept);
+        assertEquals(1, kept.size());
+        assertEquals(1, sampler.getPendingSpanCount());
+        sampler.expire(1500, kept);
+        assertEquals(1, kept.size());
+        assertEquals(0, sampler.getPendingSpanCount());
+        assertEquals(1, sampler.getSampledOutSpanCount());
+    }
+
+    @Test
+    public void testSamplesFastTracesByTraceId() {
+        TailSampler sampler = new TailSampler(100, 0.25, 1000);
+        List<MetricsRecord> kept = new ArrayList<MetricsRecord>();
+        int traceCount = 10000;
+        for (long traceId = 0; traceId < traceCount; traceId++) {
+            sampler.add(traceId, newSpan(Span.ROOT_SPAN_ID, 0, 1), 0, kept);
+        }
+        assertTrue("Kept " + kept.size(), kept.size() > traceCount * 0.2 && kept.size() < traceCount * 0.3);
+
+        // Another sampler keeps the same traces
+        TailSampler otherSampler = new TailSampler(100, 0.25, 1000);
+        List<MetricsRecord> otherKept = new ArrayList<MetricsRecord>();
+        for (long traceId = 0; traceId < traceCount; traceId++) {
+            otherSampler.add(traceId, newSpan(Span.ROOT_SPAN_ID, 0, 1), 0, otherKept);
+        }
+        assertEquals(kept.size(), otherKept.size());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+public class PackedColumnUtilTest {
+
+    private static byte[] unpack(byte[] cell, int slot) {
+        // Surround the cell with other bytes, like the value of a KeyValue
+        byte[] bytes = ByteUtil.concat(Bytes.toBytes("row"), cell, Bytes.toBytes("end"));
+        ImmutableBytesWritable ptr = new ImmutableBytesWritable(bytes, 3, cell.length);
+        PackedColumnUtil.unpack(ptr, slot);
+        return ptr.copyBytes();
+    }
+
+    @Test
+    public void testPackAndUnpack() {
+        byte[][] values = new byte[][] {Bytes.toBytes("a"), Bytes.toBytes(5), Bytes.toBytes("xyz")};
+        byte[] cell = PackedColumnUtil.pack(values);
+        for (int i = 0; i < values.length; i++) {
+            assertArrayEquals(values[i], unpack(cell, i));
+        }
+        assertEquals(0, unpack(cell, values.length).length);
+    }
+
+    @Test
+    public void testNullSlots() {
+        byte[][] values = new byte[][] {null, null, Bytes.toBytes("b"), null, ByteUtil.EMPTY_BYTE_ARRAY,
+                Bytes.toBytes("d"), null};
+        byte[] cell = PackedColumnUtil.pack(values);
+        // Only the slots from the first to the last value are stored
+        assertEquals(2 + 4 * Bytes.SIZEOF_INT + 2 * Bytes.SIZEOF_INT, cell.length);
+        assertEquals(0, unpack(cell, 0).length);
+        assertEquals(0, unpack(cell, 1).length);
+        assertArrayEquals(Bytes.toBytes("b"), unpack(cell, 2));
+        assertEquals(0, unpack(cell, 3).length);
+        assertEquals(0, unpack(cell, 4).length);
+        assertArrayEquals(Bytes.toBytes("d"), unpack(cell, 5));
+        assertEquals(0, unpack(cell, 6).length);
+        assertEquals(0, unpack(cell, 100).length);
+    }
+
+    @Test
+    public void testAllNull() {
+        byte[] cell = PackedColumnUtil.pack(new byte[][] {null, ByteUtil.EMPTY_BYTE_ARRAY});
+        assertEquals(2 * Bytes.SIZEOF_INT, cell.length);
+        assertEquals(0, unpack(cell, 0).length);
+        assertEquals(0, unpack(cell, 1).length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCell() {
+        unpack(Bytes.toBytes("abc"), 0);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.util.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.io.IOException;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+import org.apache.phoenix.jdbc.PhoenixConnection;
+import org.apache.phoenix.query.BaseConnectionlessQueryTest;
+import org.apache.phoenix.schema.types.PIntegerArray;
+import org.apache.phoenix.util.ColumnInfo;
+import org.apache.phoenix.util.PhoenixRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+public class CsvKeyValueEncoderTest extends BaseConnectionlessQueryTest {
+
+    private PhoenixConnection conn;
+    private List<ColumnInfo> columnInfoList;
+    private CsvUpsertExecutor.UpsertListener upsertListener;
+
+    @Before
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection(getUrl()).unwrap(PhoenixConnection.class);
+        conn.createStatement().execute("CREATE TABLE IF NOT EXISTS CSV_ENCODE_TEST (" +
+                "ID BIGINT NOT NULL, CODE CHAR(3) NOT NULL, NAME VARCHAR, " +
+                "F.AGE INTEGER, F.PRICE DECIMAL(10,2), F.CREATED DATE, F.VALS INTEGER ARRAY " +
+                "CONSTRAINT PK PRIMARY KEY (ID, CODE DESC)) SALT_BUCKETS=4");
+        columnInfoList = ImmutableList.of(
+                new ColumnInfo("ID", Types.BIGINT),
+                new ColumnInfo("CODE", Types.CHAR),
+                new ColumnInfo("NAME", Types.VARCHAR),
+                new ColumnInfo("F.AGE", Types.INTEGER),
+                new ColumnInfo("F.PRICE", Types.DECIMAL),
+                new ColumnInfo("F.CREATED", Types.DATE),
+                new ColumnInfo("F.VALS", PIntegerArray.INSTANCE.getSqlType()));
+        upsertListener = mock(CsvUpsertExecutor.UpsertListener.class);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    public void testEncodeMatchesUpsert() throws Exception {
+        assertEncodedAsUpserted(columnInfoList, "123,AB,NameValue,42,3.14159,2015-01-02 03:04:05,1:2:3");
+    }
+
+    @Test
+    public void testEncodeMatchesUpsert_NullFields() throws Exception {
+        assertEncodedAsUpserted(columnInfoList, "123,AB,,,,2015-01-02 03:04:05,");
+    }
+
+    @Test
+    public void testEncodeMatchesUpsert_SkippedField() throws Exception {
+        // A null value in the column info list means "skip that column in the input"
+        List<ColumnInfo> columnInfoListWithNull = Lists.newArrayList(columnInfoList);
+        columnInfoListWithNull.set(2, null);
+        List<ColumnInfo> columnInfoListWithoutName = Lists.newArrayList(columnInfoList);
+        columnInfoListWithoutName.remove(2);
+        assertEncodedAsUpserted(columnInfoListWithoutName, "123,AB,42,1.5,2015-01-02 03:04:05,4",
+                columnInfoListWithNull, "123,AB,Skipped,42,1.5,2015-01-02 03:04:05,4");
+    }
+
+    @Test
+    public void testEncode_TooFewFields() throws Exception {
+        CsvKeyValueEncoder encoder = createEncoder(columnInfoList);
+        CSVRecord csvRecordWithTooFewFields = createCsvRecord("123,AB");
+        assertTrue(encoder.encode(csvRecordWithTooFewFields).isEmpty());
+
+        verify(upsertListener).errorOnRecord(eq(csvRecordWithTooFewFields), anyString());
+        verifyNoMoreInteractions(upsertListener);
+    }
+
+    @Test
+    public void testEncode_InvalidType() throws Exception {
+        CsvKeyValueEncoder encoder = createEncoder(columnInfoList);
+        CSVRecord csvRecordWithInvalidType = createCsvRecord("123,AB,NameValue,ThisIsNotANumber,1,,");
+        assertTrue(encoder.encode(csvRecordWithInvalidType).isEmpty());
+
+        verify(upsertListener).errorOnRecord(eq(csvRecordWithInvalidType), anyString());
+        verifyNoMoreInteractions(upsertListener);
+    }
+
+    @Test
+    public void testEncode_NullPrimaryKey() throws Exception {
+        CsvKeyValueEncoder encoder = createEncoder(columnInfoList);
+        CSVRecord csvRecordWithNullKey = createCsvRecord(",AB,NameValue,42,1,,");
+        assertTrue(encoder.encode(csvRecordWithNullKey).isEmpty());
+
+        verify(upsertListener).errorOnRecord(eq(csvRecordWithNullKey), anyString());
+        verifyNoMoreInteractions(upsertListener);
+    }
+
+    private void assertEncodedAsUpserted(List<ColumnInfo> columnInfos, String line) throws Exception {
+        assertEncodedAsUpserted(columnInfos, line, columnInfos, line);
+    }
+
+    private void assertEncodedAsUpserted(List<ColumnInfo> upsertColumnInfos, String upsertLine,
+            List<ColumnInfo> encodeColumnInfos, String encodeLine) throws Exception {
+        CsvUpsertExecutor upsertExecutor = CsvUpsertExecutor.create(
+                conn, "CSV_ENCODE_TEST", upsertColumnInfos, upsertListener, ":");
+        upsertExecutor.execute(ImmutableList.of(createCsvRecord(upsertLine)));
+        Iterator<Pair<byte[], List<KeyValue>>> uncommittedDataIterator =
+                PhoenixRuntime.getUncommittedDataIterator(conn);
+        List<KeyValue> expected = uncommittedDataIterator.next().getSecond();
+        conn.rollback();
+
+        List<KeyValue> actual = createEncoder(encodeColumnInfos).encode(createCsvRecord(encodeLine));
+
+        // Called once by the upsert executor and once by the encoder
+        verify(upsertListener, times(2)).upsertDone(1L);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            KeyValue expectedKv = expected.get(i);
+            KeyValue actualKv = actual.get(i);
+            assertTrue("Expected " + expectedKv + " but got " + actualKv,
+                    Bytes.equals(expectedKv.getBuffer(), expectedKv.getOffset(), expectedKv.getLength(),
+                            actualKv.getBuffer(), actualKv.getOffset(), actualKv.getLength()));
+        }
+    }
+
+    private CsvKeyValueEncoder createEncoder(List<ColumnInfo> columnInfos) throws SQLException {
+        return CsvKeyValueEncoder.create(conn, "CSV_ENCODE_TEST", columnInfos, upsertListener, ":");
+    }
+
+    private CSVRecord createCsvRecord(String inputRecord) throws IOException {
+        return Iterables.getFirst(CSVParser.parse(inputRecord, CSVFormat.DEFAULT), null);
+    }
+}
@@ -353,6 +353,49 @@ public class RegexEventSerializerIT extends BaseHBaseManagedTimeIT {
         
     }
     
+    @Test
+    public void testPipelinedBatch() throws EventDeliveryException, SQLException {
+        
+        final String fullTableName = "FLUME_TEST_PIPELINED";
+        String ddl = "CREATE TABLE " + fullTableName +
+                "  (col1 varchar not null, col2 varchar" +
+                "  CONSTRAINT pk PRIMARY KEY (col1))\n";
+        sinkContext = new Context ();
+        sinkContext.put(FlumeConstants.CONFIG_TABLE, fullTableName);
+        sinkContext.put(FlumeConstants.CONFIG_JDBC_URL, getUrl());
+        sinkContext.put(FlumeConstants.CONFIG_SERIALIZER,EventSerializers.REGEX.name());
+        sinkContext.put(FlumeConstants.CONFIG_TABLE_DDL, ddl);
+        sinkContext.put(FlumeConstants.CONFIG_BATCHSIZE, "20");
+        sinkContext.put(FlumeConstants.CONFIG_THREADS, "4");
+        sinkContext.put(FlumeConstants.CONFIG_SERIALIZER_PREFIX + FlumeConstants.CONFIG_REGULAR_EXPRESSION,"^([^\t]+)\t([^\t]+)$");
+        sinkContext.put(FlumeConstants.CONFIG_SERIALIZER_PREFIX + FlumeConstants.CONFIG_COLUMN_NAMES,"col1,col2");
+        
+        sink = new PhoenixSink();
+        Configurables.configure(sink, sinkContext);
+        assertEquals(LifecycleState.IDLE, sink.getLifecycleState());
+      
+        final Channel channel = this.initChannel();
+        sink.setChannel(channel);
+        
+        sink.start();
+        // put events in channel, more than fit in a single batch
+        Transaction transaction = channel.getTransaction();
+        transaction.begin();
+        for(int i = 0 ; i < 30 ; i++) {
+            channel.put(EventBuilder.withBody(Bytes.toBytes("key" + i + "\tval" + i)));
+        }
+        transaction.commit();
+        transaction.close();
+
+        sink.process();
+        assertEquals(20 , countRows(fullTableName));
+        sink.process();
+        assertEquals(30 , countRows(fullTableName));
+        
+        sink.stop();
+        assertEquals(LifecycleState.STOP, sink.getLifecycleState());
+    }
+    
     private Channel initChannel() {
         //Channel configuration
         Context channelContext = new Context();
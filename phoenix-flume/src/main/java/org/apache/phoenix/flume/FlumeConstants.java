@@ -55,6 +55,17 @@ public final class FlumeConstants {
      */
     public static final Integer DEFAULT_BATCH_SIZE = 100;
 
+    /**
+     * Number of connections the sink writes a batch with in parallel. With more than one thread,
+     * parts of a batch are written while the remaining events are still taken from the channel.
+     */
+    public static final String CONFIG_THREADS = "threads";
+
+    /**
+     * Default number of threads, writing each batch on the sink thread.
+     */
+    public static final Integer DEFAULT_THREADS = 1;
+
     /** Regular expression used to parse groups from event data. */
     public static final String CONFIG_REGULAR_EXPRESSION = "regex";
     public static final String REGEX_DEFAULT = "(.*)";
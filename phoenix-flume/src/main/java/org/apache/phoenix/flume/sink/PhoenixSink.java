@@ -19,6 +19,13 @@ package org.apache.phoenix.flume.sink;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -29,7 +36,6 @@ import org.apache.flume.Event;
 import org.apache.flume.EventDeliveryException;
 import org.apache.flume.Transaction;
 import org.apache.flume.conf.Configurable;
-import org.apache.flume.instrumentation.SinkCounter;
 import org.apache.flume.sink.AbstractSink;
 import org.apache.phoenix.flume.FlumeConstants;
 import org.apache.phoenix.flume.serializer.EventSerializer;
@@ -41,15 +47,19 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public final class PhoenixSink  extends AbstractSink implements Configurable {
     private static final Logger logger = LoggerFactory.getLogger(PhoenixSink.class);
     private static AtomicInteger counter = new AtomicInteger();
     private static final String NAME   = "Phoenix Sink__";
   
-    private SinkCounter sinkCounter;
+    private PhoenixSinkCounter sinkCounter;
     private Integer    batchSize;
-    private EventSerializer serializer;
+    private Integer    threads;
+    private List<EventSerializer> serializers;
+    private BlockingQueue<EventSerializer> idleSerializers;
+    private ExecutorService executor;
  
     public PhoenixSink(){
     }
@@ -58,18 +68,25 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
     public void configure(Context context){
         this.setName(NAME + counter.incrementAndGet());
         this.batchSize = context.getInteger(FlumeConstants.CONFIG_BATCHSIZE, FlumeConstants.DEFAULT_BATCH_SIZE);
+        this.threads = context.getInteger(FlumeConstants.CONFIG_THREADS, FlumeConstants.DEFAULT_THREADS);
         final String eventSerializerType = context.getString(FlumeConstants.CONFIG_SERIALIZER);
         
         Preconditions.checkNotNull(eventSerializerType,"Event serializer cannot be empty, please specify in the configuration file");
-        initializeSerializer(context,eventSerializerType);
-        this.sinkCounter = new SinkCounter(this.getName());
+        Preconditions.checkArgument(this.threads > 0,"The number of threads must be positive");
+        this.serializers = Lists.newArrayListWithExpectedSize(this.threads);
+        for(int i = 0; i < this.threads; i++) {
+            // only the first serializer creates the table
+            this.serializers.add(initializeSerializer(context,eventSerializerType,i == 0));
+        }
+        this.sinkCounter = new PhoenixSinkCounter(this.getName());
     }
 
     /**
-     * Initializes the serializer for flume events.
+     * Initializes a serializer for flume events.
      * @param eventSerializerType
+     * @param createTable whether the serializer should execute the configured table ddl
      */
-    private void initializeSerializer(final Context context,final String eventSerializerType) {
+    private EventSerializer initializeSerializer(final Context context,final String eventSerializerType,final boolean createTable) {
         
        EventSerializers eventSerializer = null;
        try {
@@ -83,7 +100,11 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
        final Context serializerContext = new Context();
        serializerContext.putAll(context.getSubProperties(FlumeConstants.CONFIG_SERIALIZER_PREFIX));
        copyPropertiesToSerializerContext(context,serializerContext);
+       if(!createTable) {
+           serializerContext.put(FlumeConstants.CONFIG_TABLE_DDL,null);
+       }
              
+       EventSerializer serializer = null;
        try {
          @SuppressWarnings("unchecked")
          Class<? extends EventSerializer> clazz = (Class<? extends EventSerializer>) Class.forName(eventSerializer.getClassName());
@@ -94,6 +115,7 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
          logger.error("Could not instantiate event serializer." , e);
          Throwables.propagate(e);
        }
+       return serializer;
     }
 
     private void copyPropertiesToSerializerContext(Context context, Context serializerContext) {
@@ -110,25 +132,42 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
         logger.info("Starting sink {} ",this.getName());
         sinkCounter.start();
         try {
-              serializer.initialize();
-              sinkCounter.incrementConnectionCreatedCount();
+              for(EventSerializer serializer : serializers) {
+                  serializer.initialize();
+                  sinkCounter.incrementConnectionCreatedCount();
+              }
         } catch(Exception ex) {
             sinkCounter.incrementConnectionFailedCount();
             logger.error("Error {} in initializing the serializer.",ex.getMessage());
             Throwables.propagate(ex);
        }
+       if(this.threads > 1) {
+           this.idleSerializers = new LinkedBlockingQueue<EventSerializer>(serializers);
+           this.executor = Executors.newFixedThreadPool(this.threads,
+                   new ThreadFactoryBuilder().setNameFormat(this.getName() + "-writer-%d").setDaemon(true).build());
+       }
        super.start();
     }
     
     @Override
     public void stop(){
       super.stop();
-      try {
-          serializer.close();
-        } catch (SQLException e) {
-            logger.error(" Error while closing connection {} for sink {} ",e.getMessage(),this.getName());
-        }
-      sinkCounter.incrementConnectionClosedCount();
+      if(executor != null) {
+          executor.shutdown();
+          try {
+              executor.awaitTermination(60, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+          }
+      }
+      for(EventSerializer serializer : serializers) {
+          try {
+              serializer.close();
+          } catch (SQLException e) {
+              logger.error(" Error while closing connection {} for sink {} ",e.getMessage(),this.getName());
+          }
+          sinkCounter.incrementConnectionClosedCount();
+      }
       sinkCounter.stop();
     }
 
@@ -139,6 +178,11 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
         Channel channel = getChannel();
         Transaction transaction = null;
         List<Event>  events = Lists.newArrayListWithExpectedSize(this.batchSize); 
+        // in pipelined mode, parts of the batch that are written in parallel by the writer threads
+        final boolean pipelined = this.executor != null;
+        final int partSize = (this.batchSize + this.threads - 1) / this.threads;
+        List<Future<Void>> pendingParts = Lists.newArrayListWithExpectedSize(this.threads);
+        int partStart = 0;
         long startTime = System.nanoTime();
         try {
             transaction = channel.getTransaction();
@@ -156,6 +200,10 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
                   break;
                 } else {
                   events.add(event);
+                  if (pipelined && events.size() - partStart == partSize) {
+                      pendingParts.add(writeAsync(Lists.newArrayList(events.subList(partStart, events.size()))));
+                      partStart = events.size();
+                  }
                 }
             }
             if (!events.isEmpty()) {
@@ -166,8 +214,16 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
                     sinkCounter.incrementBatchUnderflowCount();
                     status = Status.BACKOFF;
                 }
+                sinkCounter.addToEventDrainAttemptCount(events.size());
                 // save to Hbase
-                serializer.upsertEvents(events);
+                if (pipelined) {
+                    if (partStart < events.size()) {
+                        pendingParts.add(writeAsync(Lists.newArrayList(events.subList(partStart, events.size()))));
+                    }
+                    awaitWrites(pendingParts);
+                } else {
+                    serializers.get(0).upsertEvents(events);
+                }
                 sinkCounter.addToEventDrainSuccessCount(events.size());
             }
             else {
@@ -176,6 +232,10 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
                 status = Status.BACKOFF;
             }
             transaction.commit();
+            if (!events.isEmpty()) {
+                sinkCounter.addToBatchCommitTime(
+                        TimeUnit.MILLISECONDS.convert(System.nanoTime() - startTime, TimeUnit.NANOSECONDS));
+            }
         } catch (ChannelException e) {
             transaction.rollback();
             status = Status.BACKOFF;
@@ -203,4 +263,44 @@ public final class PhoenixSink  extends AbstractSink implements Configurable {
         return status;
    }
 
+    /**
+     * Writes part of a batch on one of the writer threads, using the next idle serializer.
+     */
+    private Future<Void> writeAsync(final List<Event> events) {
+        return executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                EventSerializer serializer = idleSerializers.take();
+                try {
+                    serializer.upsertEvents(events);
+                } finally {
+                    idleSerializers.add(serializer);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Waits until all parts of a batch have been committed, so that the channel transaction is
+     * only committed once all of its events are durable. All parts are waited for even if one
+     * fails, as the events of a failed batch will be written again.
+     */
+    private void awaitWrites(final List<Future<Void>> pendingParts) throws SQLException, InterruptedException {
+        Throwable failure = null;
+        for (Future<Void> pendingPart : pendingParts) {
+            try {
+                pendingPart.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure != null) {
+            Throwables.propagateIfInstanceOf(failure, SQLException.class);
+            throw Throwables.propagate(failure);
+        }
+    }
+
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.flume.sink;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.flume.instrumentation.SinkCounter;
+
+/**
+ * Sink counters of the {@link PhoenixSink}, which in addition to the standard counters track the
+ * latency of writing a batch of events, from taking the first event off the channel until the
+ * channel transaction is committed.
+ */
+public class PhoenixSinkCounter extends SinkCounter implements PhoenixSinkCounterMBean {
+
+    private final AtomicLong batchCommitCount = new AtomicLong();
+    private final AtomicLong batchCommitTimeTotal = new AtomicLong();
+    private final AtomicLong batchCommitTimeMax = new AtomicLong();
+
+    public PhoenixSinkCounter(String name) {
+        super(name);
+    }
+
+    /**
+     * Records the time taken to write a batch that was acknowledged to the channel.
+     * @param millis elapsed time in milliseconds
+     */
+    public void addToBatchCommitTime(long millis) {
+        batchCommitCount.incrementAndGet();
+        batchCommitTimeTotal.addAndGet(millis);
+        long max = batchCommitTimeMax.get();
+        while (millis > max && !batchCommitTimeMax.compareAndSet(max, millis)) {
+            max = batchCommitTimeMax.get();
+        }
+    }
+
+    @Override
+    public long getBatchCommitCount() {
+        return batchCommitCount.get();
+    }
+
+    @Override
+    public long getBatchCommitTimeTotal() {
+        return batchCommitTimeTotal.get();
+    }
+
+    @Override
+    public long getBatchCommitTimeMax() {
+        return batchCommitTimeMax.get();
+    }
+
+    @Override
+    public long getBatchCommitTimeAverage() {
+        long count = batchCommitCount.get();
+        return count == 0 ? 0 : batchCommitTimeTotal.get() / count;
+    }
+}
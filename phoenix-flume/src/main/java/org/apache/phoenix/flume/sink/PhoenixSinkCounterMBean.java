@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.flume.sink;
+
+import org.apache.flume.instrumentation.SinkCounterMBean;
+
+/**
+ * JMX interface of {@link PhoenixSinkCounter}, extending the standard sink counters with the
+ * time taken to write batches to Phoenix.
+ */
+public interface PhoenixSinkCounterMBean extends SinkCounterMBean {
+
+    /**
+     * @return the number of batches that were written to Phoenix and acknowledged to the channel.
+     */
+    long getBatchCommitCount();
+
+    /**
+     * @return the total time in milliseconds spent writing acknowledged batches.
+     */
+    long getBatchCommitTimeTotal();
+
+    /**
+     * @return the longest time in milliseconds spent writing a single acknowledged batch.
+     */
+    long getBatchCommitTimeMax();
+
+    /**
+     * @return the average time in milliseconds spent writing a single acknowledged batch.
+     */
+    long getBatchCommitTimeAverage();
+}
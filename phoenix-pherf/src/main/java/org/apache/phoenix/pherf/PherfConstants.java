@@ -39,6 +39,9 @@ public class PherfConstants {
     public static final long DEFAULT_NUMBER_OF_EXECUTIONS = 10;
     public static final long DEFAULT_THREAD_DURATION_IN_MS = 10000;
     public static final String DEFAULT_CONCURRENCY = "1";
+    public static final double DEFAULT_TARGET_RATE_PER_SECOND = 0;
+    public static final int DEFAULT_WRITER_THREAD_COUNT = 1;
+    public static final int DEFAULT_WRITER_BATCH_SIZE = 100;
 
     public static final String DIFF_PASS = "VERIFIED_DIFF";
     public static final String DIFF_FAIL = "FAILED_DIFF";
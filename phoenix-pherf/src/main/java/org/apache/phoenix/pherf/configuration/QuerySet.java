@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
 
 import org.apache.phoenix.pherf.PherfConstants;
 
@@ -31,6 +32,8 @@ public class QuerySet {
 	private long numberOfExecutions = PherfConstants.DEFAULT_NUMBER_OF_EXECUTIONS;
 	private long executionDurationInMs = PherfConstants.DEFAULT_THREAD_DURATION_IN_MS;
 	private ExecutionType executionType = ExecutionType.SERIAL;
+	private double targetRatePerSecond = PherfConstants.DEFAULT_TARGET_RATE_PER_SECOND;
+	private WriteParams writeParams;
 
 	/**
 	 * List of queries in each query set
@@ -126,5 +129,48 @@ public class QuerySet {
 
 	public void setExecutionDurationInMs(long executionDurationInMs) {
 		this.executionDurationInMs = executionDurationInMs;
-	}	
+	}
+
+	/**
+	 * Target number of executions per second of each query, spread evenly over the threads
+	 * of a concurrency level. When set, queries are issued open loop on a fixed schedule
+	 * instead of one after the other, and latencies are measured from the time a query was
+	 * scheduled to start, so that a slow query is not hidden by delaying the ones after it.
+	 * Zero, the default, runs queries back to back.
+	 * @return
+	 */
+	@XmlAttribute
+	public double getTargetRatePerSecond() {
+		return targetRatePerSecond;
+	}
+
+	public void setTargetRatePerSecond(double targetRatePerSecond) {
+		this.targetRatePerSecond = targetRatePerSecond;
+	}
+
+	/**
+	 * Time between two executions of a query on one thread in open loop mode
+	 * @param concurrency number of threads the target rate is spread over
+	 * @return interval in nanoseconds, or 0 if queries run back to back
+	 */
+	public long getTargetIntervalInNs(int concurrency) {
+		if (getTargetRatePerSecond() <= 0) {
+			return 0;
+		}
+		return Math.max(1, (long) (concurrency * 1000000000L / getTargetRatePerSecond()));
+	}
+
+	/**
+	 * Optional writers that upsert into the table of the scenario for as long as the queries
+	 * of this query set run
+	 * @return
+	 */
+	@XmlElement
+	public WriteParams getWriteParams() {
+		return writeParams;
+	}
+
+	public void setWriteParams(WriteParams writeParams) {
+		this.writeParams = writeParams;
+	}
 }
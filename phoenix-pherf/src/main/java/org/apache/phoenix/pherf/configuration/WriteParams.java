@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package org.apache.phoenix.pherf.configuration;
+
+import javax.xml.bind.annotation.XmlAttribute;
+
+import org.apache.phoenix.pherf.PherfConstants;
+
+/**
+ * Writers that upsert generated rows into the table of a scenario while the queries of a
+ * query set run, so that queries can be measured against a table under write load.
+ */
+public class WriteParams {
+	private int threadCount = PherfConstants.DEFAULT_WRITER_THREAD_COUNT;
+	private int batchSize = PherfConstants.DEFAULT_WRITER_BATCH_SIZE;
+	private double targetRatePerSecond = PherfConstants.DEFAULT_TARGET_RATE_PER_SECOND;
+
+	/**
+	 * Number of writer threads
+	 * @return
+	 */
+	@XmlAttribute
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	public void setThreadCount(int threadCount) {
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Number of rows upserted by a writer between two commits
+	 * @return
+	 */
+	@XmlAttribute
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Target number of rows written per second, spread evenly over the writer threads.
+	 * Batches are then committed open loop on a fixed schedule. Zero, the default, writes
+	 * as fast as possible.
+	 * @return
+	 */
+	@XmlAttribute
+	public double getTargetRatePerSecond() {
+		return targetRatePerSecond;
+	}
+
+	public void setTargetRatePerSecond(double targetRatePerSecond) {
+		this.targetRatePerSecond = targetRatePerSecond;
+	}
+
+	/**
+	 * Time between two commits of one writer thread in open loop mode
+	 * @return interval in nanoseconds, or 0 if batches are written back to back
+	 */
+	public long getTargetIntervalInNs() {
+		if (getTargetRatePerSecond() <= 0) {
+			return 0;
+		}
+		return Math.max(1, (long) ((long) getThreadCount() * getBatchSize() * 1000000000L / getTargetRatePerSecond()));
+	}
+}
@@ -18,12 +18,9 @@
 
 package org.apache.phoenix.pherf.loaddata;
 
-import java.math.BigDecimal;
 import java.sql.Connection;
-import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Types;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
@@ -47,7 +44,6 @@ import org.apache.phoenix.pherf.configuration.XMLConfigParser;
 import org.apache.phoenix.pherf.exception.PherfException;
 import org.apache.phoenix.pherf.result.DataLoadThreadTime;
 import org.apache.phoenix.pherf.result.DataLoadTimeSummary;
-import org.apache.phoenix.pherf.rules.DataValue;
 import org.apache.phoenix.pherf.rules.RulesApplier;
 import org.apache.phoenix.pherf.util.PhoenixUtil;
 
@@ -56,6 +52,7 @@ public class DataLoader {
     private final PhoenixUtil pUtil = new PhoenixUtil();
     private final XMLConfigParser parser;
     private final RulesApplier rulesApplier;
+    private final UpsertStatementBuilder upsertBuilder;
     private final ResultUtil resultUtil;
     private final ExecutorService pool;
     private final Properties properties;
@@ -77,6 +74,7 @@ public class DataLoader {
         this.parser = parser;
         this.properties = properties;
         this.rulesApplier = new RulesApplier(this.parser);
+        this.upsertBuilder = new UpsertStatementBuilder(this.rulesApplier);
         this.resultUtil = new ResultUtil();
         int size = Integer.parseInt(properties.getProperty("pherf.default.dataloader.threadpool"));
         this.threadPoolSize = (size == 0) ? Runtime.getRuntime().availableProcessors() : size;
@@ -204,10 +202,10 @@ public class DataLoader {
                     connection = pUtil.getConnection();
                     long logStartTime = System.currentTimeMillis();
                     for (int i = 0; i < rowCount; i++) {
-                        String sql = buildSql(columns, tableName);
+                        String sql = upsertBuilder.buildSql(columns, tableName);
                         PreparedStatement stmt = connection
                                 .prepareStatement(sql);
-                        stmt = buildStatement(scenario, columns, stmt, simpleDateFormat);
+                        stmt = upsertBuilder.buildStatement(scenario, columns, stmt, simpleDateFormat);
                         start = System.currentTimeMillis();
                         rowsCreated += stmt.executeUpdate();
                         stmt.close();
@@ -243,86 +241,6 @@ public class DataLoader {
         return future;
     }
 
-    private PreparedStatement buildStatement(Scenario scenario,
-                                             List<Column> columns, PreparedStatement statement, SimpleDateFormat simpleDateFormat) throws Exception {
-        int count = 1;
-        for (Column column : columns) {
-
-            DataValue dataValue = getRulesApplier().getDataForRule(scenario,
-                    column);
-            switch (column.getType()) {
-                case VARCHAR:
-                    if (dataValue.getValue().equals("")) {
-                        statement.setNull(count, Types.VARCHAR);
-                    } else {
-                        statement.setString(count, dataValue.getValue());
-                    }
-                    break;
-                case CHAR:
-                    if (dataValue.getValue().equals("")) {
-                        statement.setNull(count, Types.CHAR);
-                    } else {
-                        statement.setString(count, dataValue.getValue());
-                    }
-                    break;
-                case DECIMAL:
-                    if (dataValue.getValue().equals("")) {
-                        statement.setNull(count, Types.DECIMAL);
-                    } else {
-                        statement.setBigDecimal(count,
-                                new BigDecimal(dataValue.getValue()));
-                    }
-                    break;
-                case INTEGER:
-                    if (dataValue.getValue().equals("")) {
-                        statement.setNull(count, Types.INTEGER);
-                    } else {
-                        statement.setInt(count,
-                                Integer.parseInt(dataValue.getValue()));
-                    }
-                    break;
-                case DATE:
-                    if (dataValue.getValue().equals("")) {
-                        statement.setNull(count, Types.DATE);
-                    } else {
-                        Date date = new java.sql.Date(simpleDateFormat.parse(dataValue.getValue()).getTime());
-                        statement.setDate(count, date);
-                    }
-                    break;
-                default:
-                    break;
-            }
-            count++;
-        }
-        return statement;
-    }
-
-    private String buildSql(final List<Column> columns, final String tableName) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("upsert into ");
-        builder.append(tableName);
-        builder.append(" (");
-        int count = 1;
-        for (Column column : columns) {
-            builder.append(column.getName());
-            if (count < columns.size()) {
-                builder.append(",");
-            } else {
-                builder.append(")");
-            }
-            count++;
-        }
-        builder.append(" VALUES (");
-        for (int i = 0; i < columns.size(); i++) {
-            if (i < columns.size() - 1) {
-                builder.append("?,");
-            } else {
-                builder.append("?)");
-            }
-        }
-        return builder.toString();
-    }
-
     public XMLConfigParser getParser() {
         return parser;
     }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package org.apache.phoenix.pherf.loaddata;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.text.SimpleDateFormat;
+import java.util.List;
+
+import org.apache.phoenix.pherf.configuration.Column;
+import org.apache.phoenix.pherf.configuration.Scenario;
+import org.apache.phoenix.pherf.rules.DataValue;
+import org.apache.phoenix.pherf.rules.RulesApplier;
+
+/**
+ * Builds UPSERT statements that write a row of generated data for a scenario. Used both to load
+ * data up front and to write while queries are running.
+ */
+public class UpsertStatementBuilder {
+    private final RulesApplier rulesApplier;
+
+    public UpsertStatementBuilder(RulesApplier rulesApplier) {
+        this.rulesApplier = rulesApplier;
+    }
+
+    public PreparedStatement buildStatement(Scenario scenario,
+                                            List<Column> columns, PreparedStatement statement, SimpleDateFormat simpleDateFormat) throws Exception {
+        int count = 1;
+        for (Column column : columns) {
+
+            DataValue dataValue = rulesApplier.getDataForRule(scenario,
+                    column);
+            switch (column.getType()) {
+                case VARCHAR:
+                    if (dataValue.getValue().equals("")) {
+                        statement.setNull(count, Types.VARCHAR);
+                    } else {
+                        statement.setString(count, dataValue.getValue());
+                    }
+                    break;
+                case CHAR:
+                    if (dataValue.getValue().equals("")) {
+                        statement.setNull(count, Types.CHAR);
+                    } else {
+                        statement.setString(count, dataValue.getValue());
+                    }
+                    break;
+                case DECIMAL:
+                    if (dataValue.getValue().equals("")) {
+                        statement.setNull(count, Types.DECIMAL);
+                    } else {
+                        statement.setBigDecimal(count,
+                                new BigDecimal(dataValue.getValue()));
+                    }
+                    break;
+                case INTEGER:
+                    if (dataValue.getValue().equals("")) {
+                        statement.setNull(count, Types.INTEGER);
+                    } else {
+                        statement.setInt(count,
+                                Integer.parseInt(dataValue.getValue()));
+                    }
+                    break;
+                case DATE:
+                    if (dataValue.getValue().equals("")) {
+                        statement.setNull(count, Types.DATE);
+                    } else {
+                        Date date = new java.sql.Date(simpleDateFormat.parse(dataValue.getValue()).getTime());
+                        statement.setDate(count, date);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            count++;
+        }
+        return statement;
+    }
+
+    public String buildSql(final List<Column> columns, final String tableName) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("upsert into ");
+        builder.append(tableName);
+        builder.append(" (");
+        int count = 1;
+        for (Column column : columns) {
+            builder.append(column.getName());
+            if (count < columns.size()) {
+                builder.append(",");
+            } else {
+                builder.append(")");
+            }
+            count++;
+        }
+        builder.append(" VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i < columns.size() - 1) {
+                builder.append("?,");
+            } else {
+                builder.append("?)");
+            }
+        }
+        return builder.toString();
+    }
+}
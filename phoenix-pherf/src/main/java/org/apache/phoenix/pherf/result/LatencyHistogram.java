@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package org.apache.phoenix.pherf.result;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlTransient;
+
+/**
+ * Latency histogram in the style of HdrHistogram. Values are counted in buckets whose width
+ * doubles with every power of two, each split into a fixed number of sub buckets, so that any
+ * recorded value is kept with a precision of two significant digits no matter how large it is.
+ * Memory use only grows with the logarithm of the largest value, so all executions of a run can
+ * be recorded, which keeps the tail percentiles exact enough to check them against an SLO.
+ */
+public class LatencyHistogram {
+    // 2^7 sub buckets per half bucket resolve values with at least two significant digits
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 7;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final long SUB_BUCKET_MASK = (SUB_BUCKET_HALF_COUNT << 1) - 1;
+
+    private long[] counts = new long[SUB_BUCKET_HALF_COUNT << 1];
+    private long totalCount;
+    private long maxValue;
+
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Record a single latency
+     *
+     * @param value latency, values below zero are counted as zero
+     */
+    public synchronized void recordValue(long value) {
+        recordValue(value, 1);
+    }
+
+    /**
+     * Add all the values recorded by another histogram to this one
+     *
+     * @param other histogram
+     */
+    public void add(LatencyHistogram other) {
+        long[] otherCounts;
+        long otherMaxValue;
+        synchronized (other) {
+            otherCounts = Arrays.copyOf(other.counts, other.counts.length);
+            otherMaxValue = other.maxValue;
+        }
+        synchronized (this) {
+            ensureCapacity(otherCounts.length);
+            for (int i = 0; i < otherCounts.length; i++) {
+                counts[i] += otherCounts[i];
+                totalCount += otherCounts[i];
+            }
+            maxValue = Math.max(maxValue, otherMaxValue);
+        }
+    }
+
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    public synchronized long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the largest value that the given percentage of the recorded values are less than
+     *         or equal to, or 0 if nothing has been recorded
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double requestedPercentile = Math.min(Math.max(percentile, 0), 100);
+        long countAtPercentile = Math.max(1, (long) Math.ceil(requestedPercentile / 100 * totalCount));
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+            if (count >= countAtPercentile) {
+                return Math.min(maxValue, highestEquivalentValue(valueFromIndex(i)));
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * @return the recorded values as one entry per bucket that holds any, in increasing order
+     */
+    @XmlTransient
+    public synchronized List<Bucket> getBuckets() {
+        List<Bucket> buckets = new ArrayList<>();
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                count += counts[i];
+                buckets.add(new Bucket(Math.min(maxValue, highestEquivalentValue(valueFromIndex(i))),
+                        counts[i], 100.0 * count / totalCount));
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Compact text form of the recorded values, as value:count pairs separated by spaces.
+     * This is what is exported to the XML results, so that histograms can be read back and
+     * merged later on. The highest bucket is written with the largest value recorded, which
+     * falls into that bucket, so that it survives the round trip.
+     *
+     * @return encoded counts
+     */
+    @XmlAttribute()
+    public synchronized String getCounts() {
+        StringBuilder sb = new StringBuilder();
+        int maxIndex = countsIndex(maxValue);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(i == maxIndex ? maxValue : valueFromIndex(i)).append(':').append(counts[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    public synchronized void setCounts(String encodedCounts) {
+        counts = new long[SUB_BUCKET_HALF_COUNT << 1];
+        totalCount = 0;
+        maxValue = 0;
+        if (encodedCounts == null || encodedCounts.trim().isEmpty()) {
+            return;
+        }
+        for (String pair : encodedCounts.trim().split("\\s+")) {
+            int idx = pair.indexOf(':');
+            recordValue(Long.parseLong(pair.substring(0, idx)), Long.parseLong(pair.substring(idx + 1)));
+        }
+    }
+
+    private void recordValue(long value, long count) {
+        long v = Math.max(0, value);
+        int index = countsIndex(v);
+        ensureCapacity(index + 1);
+        counts[index] += count;
+        totalCount += count;
+        maxValue = Math.max(maxValue, v);
+    }
+
+    private void ensureCapacity(int length) {
+        if (length > counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(length, counts.length + SUB_BUCKET_HALF_COUNT));
+        }
+    }
+
+    private static int countsIndex(long value) {
+        int bucketIndex = bucketIndex(value);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + subBucketIndex - SUB_BUCKET_HALF_COUNT;
+    }
+
+    private static int bucketIndex(long value) {
+        return 64 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK) - (SUB_BUCKET_HALF_COUNT_MAGNITUDE + 1);
+    }
+
+    /**
+     * @return the lowest value that is counted at the given index
+     */
+    private static long valueFromIndex(int index) {
+        int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        return ((long) subBucketIndex) << bucketIndex;
+    }
+
+    private static long highestEquivalentValue(long value) {
+        return value + (1L << bucketIndex(value)) - 1;
+    }
+
+    /**
+     * Values counted in one bucket of the histogram
+     */
+    public static class Bucket {
+        private final long value;
+        private final long count;
+        private final double percentile;
+
+        public Bucket(long value, long count, double percentile) {
+            this.value = value;
+            this.count = count;
+            this.percentile = percentile;
+        }
+
+        /**
+         * @return the highest value counted in this bucket
+         */
+        public long getValue() {
+            return value;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the percentage of all recorded values that are less than or equal to those
+         *         in this bucket
+         */
+        public double getPercentile() {
+            return percentile;
+        }
+    }
+}
@@ -94,6 +94,17 @@ public class QueryResult extends Query {
         return totalRunTime / getThreadTimes().size();
     }
 
+    /**
+     * @return Latencies of the runs of all threads combined
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (ThreadTime tt : getThreadTimes()) {
+            histogram.add(tt.getLatencyHistogram());
+        }
+        return histogram;
+    }
+
     public List<ResultValue> getCsvRepresentation(ResultUtil util) {
         List<ResultValue> rowValues = new ArrayList<>();
         rowValues.add(new ResultValue(util.convertNull(getStartTimeText())));
@@ -104,6 +115,10 @@ public class QueryResult extends Query {
         rowValues.add(new ResultValue(util.convertNull(String.valueOf(getAvgRunTimeInMs()))));
         rowValues.add(new ResultValue(util.convertNull(String.valueOf(getAvgMinRunTimeInMs()))));
         rowValues.add(new ResultValue(util.convertNull(String.valueOf(getRunCount()))));
+        LatencyHistogram histogram = getLatencyHistogram();
+        rowValues.add(new ResultValue(util.convertNull(String.valueOf(histogram.getValueAtPercentile(50)))));
+        rowValues.add(new ResultValue(util.convertNull(String.valueOf(histogram.getValueAtPercentile(99)))));
+        rowValues.add(new ResultValue(util.convertNull(String.valueOf(histogram.getValueAtPercentile(99.9)))));
         return rowValues;
     }
 
@@ -133,6 +148,25 @@ public class QueryResult extends Query {
         return rows;
     }
 
+    /**
+     * Percentile distribution of the latencies, one row per histogram bucket
+     */
+    public List<List<ResultValue>> getCsvHistogramRepresentation(ResultUtil util) {
+        List<List<ResultValue>> rows = new ArrayList<>();
+        for (LatencyHistogram.Bucket bucket : getLatencyHistogram().getBuckets()) {
+            List<ResultValue> rowValues = new ArrayList<>();
+            rowValues.add(new ResultValue(util.convertNull(getStartTimeText())));
+            rowValues.add(new ResultValue(util.convertNull(this.getQueryGroup())));
+            rowValues.add(new ResultValue(util.convertNull(this.getStatement())));
+            rowValues.add(new ResultValue(util.convertNull(this.getTenantId())));
+            rowValues.add(new ResultValue(String.valueOf(bucket.getValue())));
+            rowValues.add(new ResultValue(String.format("%.3f", bucket.getPercentile())));
+            rowValues.add(new ResultValue(String.valueOf(bucket.getCount())));
+            rows.add(rowValues);
+        }
+        return rows;
+    }
+
     private String getStartTimeText() {
         return (null == this.getStartTime())
                 ? ""
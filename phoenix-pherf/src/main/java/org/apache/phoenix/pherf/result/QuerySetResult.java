@@ -26,12 +26,15 @@ import org.apache.phoenix.pherf.configuration.QuerySet;
 public class QuerySetResult extends QuerySet {
 	
 	private List<QueryResult> queryResults = new ArrayList<QueryResult>();
+	private WriteResult writeResult;
 
 	public QuerySetResult(QuerySet querySet) {
 		this.setConcurrency(querySet.getConcurrency());
 		this.setNumberOfExecutions(querySet.getNumberOfExecutions());
 		this.setExecutionDurationInMs(querySet.getExecutionDurationInMs());
 		this.setExecutionType(querySet.getExecutionType());
+		this.setTargetRatePerSecond(querySet.getTargetRatePerSecond());
+		this.setWriteParams(querySet.getWriteParams());
 	}
 	
 	public QuerySetResult() {
@@ -43,5 +46,17 @@ public class QuerySetResult extends QuerySet {
 
 	public void setQueryResults(List<QueryResult> queryResults) {
 		this.queryResults = queryResults;
-	}	
+	}
+
+	/**
+	 * Result of the writers that ran alongside the queries, if any
+	 * @return
+	 */
+	public WriteResult getWriteResult() {
+		return writeResult;
+	}
+
+	public void setWriteResult(WriteResult writeResult) {
+		this.writeResult = writeResult;
+	}
 }
@@ -42,7 +42,9 @@ public class ResultManager {
 								fileNameSeed,
 								runMode == RunMode.PERFORMANCE ? ResultFileDetails.CSV_DETAILED_PERFORMANCE
 										: ResultFileDetails.CSV_DETAILED_FUNCTIONAL),
-                new CSVResultHandler(fileNameSeed, ResultFileDetails.CSV_AGGREGATE_PERFORMANCE)
+                new CSVResultHandler(fileNameSeed, ResultFileDetails.CSV_AGGREGATE_PERFORMANCE),
+                new CSVResultHandler(fileNameSeed, ResultFileDetails.CSV_HISTOGRAM),
+                new CSVResultHandler(fileNameSeed, ResultFileDetails.CSV_WRITE_PERFORMANCE)
         ));
     }
 
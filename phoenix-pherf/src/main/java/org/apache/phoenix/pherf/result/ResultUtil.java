@@ -171,6 +171,8 @@ public class ResultUtil {
             case CSV_AGGREGATE_PERFORMANCE:
             case CSV_DETAILED_PERFORMANCE:
             case CSV_DETAILED_FUNCTIONAL:
+            case CSV_HISTOGRAM:
+            case CSV_WRITE_PERFORMANCE:
                 List<List<ResultValue>> rowDetails = getCSVResults(dataModelResult, resultFileDetails, runMode);
                 for (List<ResultValue> row : rowDetails) {
                     Result result = new Result(resultFileDetails, resultFileDetails.getHeader().toString(), row);
@@ -220,12 +222,24 @@ public class ResultUtil {
 
         for (ScenarioResult result : dataModelResult.getScenarioResult()) {
             for (QuerySetResult querySetResult : result.getQuerySetResult()) {
+                if (resultFileDetails == ResultFileDetails.CSV_WRITE_PERFORMANCE) {
+                    if (querySetResult.getWriteResult() != null) {
+                        List<ResultValue> valueList = new ArrayList<>();
+                        valueList.add(new ResultValue(convertNull(result.getTableName())));
+                        valueList.addAll(querySetResult.getWriteResult().getCsvRepresentation(this));
+                        rowList.add(valueList);
+                    }
+                    continue;
+                }
                 for (QueryResult queryResult : querySetResult.getQueryResults()) {
                     switch (resultFileDetails) {
                         case CSV_AGGREGATE_PERFORMANCE:
                             List<ResultValue> csvResult = queryResult.getCsvRepresentation(this);
                             rowList.add(csvResult);
                             break;
+                        case CSV_HISTOGRAM:
+                            rowList.addAll(queryResult.getCsvHistogramRepresentation(this));
+                            break;
                         case CSV_DETAILED_PERFORMANCE:
                         case CSV_DETAILED_FUNCTIONAL:
                             List<List<ResultValue>> detailedRows = queryResult.getCsvDetailedRepresentation(this, runMode);
@@ -28,6 +28,7 @@ import javax.xml.bind.annotation.XmlAttribute;
 public class ThreadTime {
     private List<RunTime> runTimesInMs = Collections.synchronizedList(new ArrayList<RunTime>());
     private String threadName;
+    private LatencyHistogram latencyHistogram = new LatencyHistogram();
 
     public synchronized List<RunTime> getRunTimesInMs() {
         return this.runTimesInMs;
@@ -61,6 +62,18 @@ public class ThreadTime {
         return startTime;
     }
 
+    /**
+     * @return Latencies of all runs. In open loop mode these are measured from the time each run
+     *         was scheduled to start, and so include the time it was held back by earlier runs.
+     */
+    public synchronized LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    public synchronized void setLatencyHistogram(LatencyHistogram latencyHistogram) {
+        this.latencyHistogram = latencyHistogram;
+    }
+
     public RunTime getMinTimeInMs() {
         if (getRunTimesInMs().isEmpty()) return null;
         return Collections.min(getRunTimesInMs());
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package org.apache.phoenix.pherf.result;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAttribute;
+
+import org.apache.phoenix.monitoring.PhoenixMetrics.SizeMetric;
+import org.apache.phoenix.util.DateUtil;
+
+/**
+ * Outcome of the writers that ran alongside the queries of a query set. Besides the throughput
+ * and the latency of each committed batch, it keeps how much the client side Phoenix metrics
+ * for mutations grew during the run. The number of mutations sent per row written shows the
+ * overhead of index rows written by the client, and the commit time per batch includes the
+ * time the server spends on maintaining mutable indexes.
+ */
+public class WriteResult {
+    private Date startTime;
+    private int threadCount;
+    private long rowCount;
+    private long batchCount;
+    private long failedBatchCount;
+    private long durationInMs;
+    private long mutationCount;
+    private long mutationBatchCount;
+    private long mutationCommitTimeInMs;
+    private LatencyHistogram commitLatencyHistogram = new LatencyHistogram();
+
+    private long startMutationCount;
+    private long startMutationBatchCount;
+    private long startMutationCommitTimeInMs;
+
+    public WriteResult() {
+    }
+
+    public WriteResult(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Called before the writers start
+     */
+    public synchronized void start() {
+        startTime = new Date();
+        startMutationCount = SizeMetric.MUTATION_BATCH_SIZE.getMetric().getTotalSum();
+        startMutationBatchCount = SizeMetric.MUTATION_COMMIT_TIME.getMetric().getNumberOfSamples();
+        startMutationCommitTimeInMs = SizeMetric.MUTATION_COMMIT_TIME.getMetric().getTotalSum();
+    }
+
+    /**
+     * Called once all writers are done. The metrics are global to the client, so mutations of
+     * queries that run at the same time are counted as well.
+     */
+    public synchronized void stop() {
+        durationInMs = System.currentTimeMillis() - startTime.getTime();
+        mutationCount = SizeMetric.MUTATION_BATCH_SIZE.getMetric().getTotalSum() - startMutationCount;
+        mutationBatchCount = SizeMetric.MUTATION_COMMIT_TIME.getMetric().getNumberOfSamples() - startMutationBatchCount;
+        mutationCommitTimeInMs = SizeMetric.MUTATION_COMMIT_TIME.getMetric().getTotalSum() - startMutationCommitTimeInMs;
+    }
+
+    /**
+     * Record a committed batch
+     *
+     * @param rows number of rows in the batch
+     * @param latencyInMs time from when the batch was meant to start until its commit completed
+     */
+    public synchronized void recordBatch(int rows, long latencyInMs) {
+        rowCount += rows;
+        batchCount++;
+        commitLatencyHistogram.recordValue(latencyInMs);
+    }
+
+    public synchronized void recordFailedBatch() {
+        failedBatchCount++;
+    }
+
+    @XmlAttribute()
+    public synchronized Date getStartTime() {
+        return startTime;
+    }
+
+    public synchronized void setStartTime(Date startTime) {
+        this.startTime = startTime;
+    }
+
+    @XmlAttribute()
+    public synchronized int getThreadCount() {
+        return threadCount;
+    }
+
+    public synchronized void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    @XmlAttribute()
+    public synchronized long getRowCount() {
+        return rowCount;
+    }
+
+    public synchronized void setRowCount(long rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    @XmlAttribute()
+    public synchronized long getBatchCount() {
+        return batchCount;
+    }
+
+    public synchronized void setBatchCount(long batchCount) {
+        this.batchCount = batchCount;
+    }
+
+    @XmlAttribute()
+    public synchronized long getFailedBatchCount() {
+        return failedBatchCount;
+    }
+
+    public synchronized void setFailedBatchCount(long failedBatchCount) {
+        this.failedBatchCount = failedBatchCount;
+    }
+
+    @XmlAttribute()
+    public synchronized long getDurationInMs() {
+        return durationInMs;
+    }
+
+    public synchronized void setDurationInMs(long durationInMs) {
+        this.durationInMs = durationInMs;
+    }
+
+    /**
+     * @return Number of mutations sent to the server, including those of index tables
+     *         maintained by the client
+     */
+    @XmlAttribute()
+    public synchronized long getMutationCount() {
+        return mutationCount;
+    }
+
+    public synchronized void setMutationCount(long mutationCount) {
+        this.mutationCount = mutationCount;
+    }
+
+    /**
+     * @return Number of batches of mutations sent to the server
+     */
+    @XmlAttribute()
+    public synchronized long getMutationBatchCount() {
+        return mutationBatchCount;
+    }
+
+    public synchronized void setMutationBatchCount(long mutationBatchCount) {
+        this.mutationBatchCount = mutationBatchCount;
+    }
+
+    /**
+     * @return Total time it took to send the batches of mutations to the server
+     */
+    @XmlAttribute()
+    public synchronized long getMutationCommitTimeInMs() {
+        return mutationCommitTimeInMs;
+    }
+
+    public synchronized void setMutationCommitTimeInMs(long mutationCommitTimeInMs) {
+        this.mutationCommitTimeInMs = mutationCommitTimeInMs;
+    }
+
+    public synchronized LatencyHistogram getCommitLatencyHistogram() {
+        return commitLatencyHistogram;
+    }
+
+    public synchronized void setCommitLatencyHistogram(LatencyHistogram commitLatencyHistogram) {
+        this.commitLatencyHistogram = commitLatencyHistogram;
+    }
+
+    public synchronized double getRowsPerSecond() {
+        return durationInMs == 0 ? 0 : rowCount * 1000.0 / durationInMs;
+    }
+
+    /**
+     * @return Mutations sent per row written, which is more than 1 when index rows are written
+     *         by the client
+     */
+    public synchronized double getMutationsPerRow() {
+        return rowCount == 0 ? 0 : (double) mutationCount / rowCount;
+    }
+
+    public synchronized long getAvgMutationCommitTimeInMs() {
+        return mutationBatchCount == 0 ? 0 : mutationCommitTimeInMs / mutationBatchCount;
+    }
+
+    public List<ResultValue> getCsvRepresentation(ResultUtil util) {
+        List<ResultValue> rowValues = new ArrayList<>();
+        rowValues.add(new ResultValue(util.convertNull(getStartTime() == null
+                ? null : DateUtil.DEFAULT_MS_DATE_FORMATTER.format(getStartTime()))));
+        rowValues.add(new ResultValue(String.valueOf(getThreadCount())));
+        rowValues.add(new ResultValue(String.valueOf(getRowCount())));
+        rowValues.add(new ResultValue(String.valueOf(getFailedBatchCount())));
+        rowValues.add(new ResultValue(String.valueOf(getDurationInMs())));
+        rowValues.add(new ResultValue(String.format("%.1f", getRowsPerSecond())));
+        LatencyHistogram histogram = getCommitLatencyHistogram();
+        rowValues.add(new ResultValue(String.valueOf(histogram.getValueAtPercentile(50))));
+        rowValues.add(new ResultValue(String.valueOf(histogram.getValueAtPercentile(99))));
+        rowValues.add(new ResultValue(String.valueOf(histogram.getValueAtPercentile(99.9))));
+        rowValues.add(new ResultValue(String.format("%.2f", getMutationsPerRow())));
+        rowValues.add(new ResultValue(String.valueOf(getAvgMutationCommitTimeInMs())));
+        return rowValues;
+    }
+}
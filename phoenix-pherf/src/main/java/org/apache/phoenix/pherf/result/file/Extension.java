@@ -23,7 +23,9 @@ public enum Extension {
     XML(".xml"),
     VISUALIZATION(".jpg"),
     AGGREGATE_CSV("_aggregate" + CSV),
-    DETAILED_CSV("_detail" + CSV);
+    DETAILED_CSV("_detail" + CSV),
+    HISTOGRAM_CSV("_histogram" + CSV),
+    WRITE_CSV("_write" + CSV);
 
     private String extension;
 
@@ -20,11 +20,15 @@ package org.apache.phoenix.pherf.result.file;
 
 public enum Header {
     EMPTY(""),
-    AGGREGATE_PERFORMANCE("START_TIME,QUERY_GROUP,QUERY,TENANT_ID,AVG_MAX_TIME_MS,AVG_TIME_MS,AVG_MIN_TIME_MS,RUN_COUNT"),
+    AGGREGATE_PERFORMANCE("START_TIME,QUERY_GROUP,QUERY,TENANT_ID,AVG_MAX_TIME_MS,AVG_TIME_MS,AVG_MIN_TIME_MS,RUN_COUNT"
+            + ",P50_TIME_MS,P99_TIME_MS,P999_TIME_MS"),
     DETAILED_BASE("BASE_TABLE_NAME,SCENARIO_NAME,ZOOKEEPER,ROW_COUNT,EXECUTION_COUNT,EXECUTION_TYPE,PHOENIX_PROPERTIES"
             + ",START_TIME,QUERY_GROUP,QUERY,TENANT_ID,THREAD_NUMBER,CONCURRENCY_LEVEL"),
     DETAILED_PERFORMANCE(DETAILED_BASE + ",RESULT_ROW_COUNT,RUN_TIME_MS"),
     DETAILED_FUNCTIONAL(DETAILED_BASE + ",DIFF_STATUS,EXPLAIN_PLAN"),
+    HISTOGRAM("START_TIME,QUERY_GROUP,QUERY,TENANT_ID,VALUE_MS,PERCENTILE,COUNT"),
+    WRITE_PERFORMANCE("TABLE_NAME,START_TIME,WRITER_THREADS,ROW_COUNT,FAILED_BATCH_COUNT,DURATION_MS,ROWS_PER_SECOND"
+            + ",P50_COMMIT_TIME_MS,P99_COMMIT_TIME_MS,P999_COMMIT_TIME_MS,MUTATIONS_PER_ROW,AVG_MUTATION_COMMIT_TIME_MS"),
     AGGREGATE_DATA_LOAD("ZK,TABLE_NAME,ROW_COUNT,LOAD_DURATION_IN_MS"),
     MONITOR("STAT_NAME,STAT_VALUE,TIME_STAMP");
 
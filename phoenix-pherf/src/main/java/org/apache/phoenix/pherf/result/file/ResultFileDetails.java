@@ -23,6 +23,8 @@ public enum ResultFileDetails {
     CSV_AGGREGATE_PERFORMANCE(Header.AGGREGATE_PERFORMANCE, Extension.AGGREGATE_CSV),
     CSV_DETAILED_PERFORMANCE(Header.DETAILED_PERFORMANCE, Extension.DETAILED_CSV),
     CSV_DETAILED_FUNCTIONAL(Header.DETAILED_FUNCTIONAL, Extension.DETAILED_CSV),
+    CSV_HISTOGRAM(Header.HISTOGRAM, Extension.HISTOGRAM_CSV),
+    CSV_WRITE_PERFORMANCE(Header.WRITE_PERFORMANCE, Extension.WRITE_CSV),
     CSV_AGGREGATE_DATA_LOAD(Header.AGGREGATE_DATA_LOAD, Extension.CSV),
     CSV_MONITOR(Header.MONITOR, Extension.CSV),
     XML(Header.EMPTY, Extension.XML),
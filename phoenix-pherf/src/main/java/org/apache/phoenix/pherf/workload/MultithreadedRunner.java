@@ -23,6 +23,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.phoenix.pherf.PherfConstants.RunMode;
 
@@ -36,6 +39,8 @@ import org.slf4j.LoggerFactory;
 import org.apache.phoenix.pherf.configuration.Query;
 import org.apache.phoenix.pherf.util.PhoenixUtil;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 class MultithreadedRunner implements Runnable {
 	private static final Logger logger = LoggerFactory
 			.getLogger(MultithreadedRunner.class);
@@ -47,6 +52,7 @@ class MultithreadedRunner implements Runnable {
 	private DataModelResult dataModelResult;
 	private long numberOfExecutions;
 	private long executionDurationInMs;
+	private long targetIntervalInNs;
 	private static long lastResultWritten = System.currentTimeMillis() - 1000;
     private final ResultManager resultManager;
 
@@ -59,46 +65,93 @@ class MultithreadedRunner implements Runnable {
      * @param threadTime
      * @param numberOfExecutions
      * @param executionDurationInMs
+     * @param targetIntervalInNs time between the scheduled starts of two executions, or 0 to
+     *                           run them back to back
      */
     MultithreadedRunner(String threadName,
                         Query query,
                         DataModelResult dataModelResult,
                         ThreadTime threadTime,
                         long numberOfExecutions,
-                        long executionDurationInMs) {
+                        long executionDurationInMs,
+                        long targetIntervalInNs) {
         this.query = query;
         this.threadName = threadName;
         this.threadTime = threadTime;
         this.dataModelResult = dataModelResult;
         this.numberOfExecutions = numberOfExecutions;
         this.executionDurationInMs = executionDurationInMs;
+        this.targetIntervalInNs = targetIntervalInNs;
         this.resultManager = new ResultManager(dataModelResult.getName(), RunMode.PERFORMANCE);
     }
 
 	/**
-	 * Executes run for a minimum of number of execution or execution duration
+	 * Executes run for a minimum of number of execution or execution duration.
+	 * In open loop mode each execution is issued asynchronously at a fixed interval after the
+	 * previous one, regardless of whether that one completed. The runner waits for the
+	 * outstanding executions before it returns.
 	 */
 	public void run() {
 		logger.info("\n\nThread Starting " + t.getName() + " ; " + query.getStatement() + " for "
 				+ numberOfExecutions + "times\n\n");
+		ExecutorService openLoopExecutor = targetIntervalInNs > 0 ? Executors.newCachedThreadPool(
+				new ThreadFactoryBuilder().setNameFormat(threadName + "-%d").setDaemon(true).build()) : null;
 		Long start = System.currentTimeMillis();
+		long scheduledStartInNs = System.nanoTime();
 		for (long i = numberOfExecutions; (i > 0 && ((System
 				.currentTimeMillis() - start) < executionDurationInMs)); i--) {
 			try {
-                synchronized (resultManager) {
-                    timedQuery();
-                    if ((System.currentTimeMillis() - lastResultWritten) > 1000) {
-                        resultManager.write(dataModelResult);
-                        lastResultWritten = System.currentTimeMillis();
+                if (openLoopExecutor != null) {
+                    long waitInNs = scheduledStartInNs - System.nanoTime();
+                    if (waitInNs > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitInNs);
                     }
+                    final long queryScheduledStartInNs = scheduledStartInNs;
+                    openLoopExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                timedQuery(queryScheduledStartInNs);
+                            } catch (Exception e) {
+                                e.printStackTrace();
+                            }
+                        }
+                    });
+                } else {
+                    timedQuery(System.nanoTime());
                 }
+                writeResultIfDue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             } catch (Exception e) {
 				e.printStackTrace();
+			} finally {
+				scheduledStartInNs += targetIntervalInNs;
+			}
+		}
+		if (openLoopExecutor != null) {
+			openLoopExecutor.shutdown();
+			try {
+				while (!openLoopExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+					writeResultIfDue();
+				}
+			} catch (Exception e) {
+				e.printStackTrace();
 			}
 		}
 		logger.info("\n\nThread exiting." + t.getName() + "\n\n");
 	}
 
+	private void writeResultIfDue() throws Exception {
+		synchronized (resultManager) {
+			if ((System.currentTimeMillis() - lastResultWritten) > 1000) {
+				resultManager.write(dataModelResult);
+				lastResultWritten = System.currentTimeMillis();
+			}
+		}
+	}
+
 	/**
 	 * Thread start
 	 * @return
@@ -118,9 +171,11 @@ class MultithreadedRunner implements Runnable {
     /**
      * Timed query execution
      *
+     * @param scheduledStartInNs {@link System#nanoTime()} at which the query was meant to start,
+     *                           latency is recorded from there to account for coordinated omission
      * @throws Exception
      */
-    private void timedQuery() throws Exception {
+    private void timedQuery(long scheduledStartInNs) throws Exception {
         boolean isSelectCountStatement = query.getStatement().toUpperCase().trim()
                 .contains("COUNT(*)") ? true : false;
 
@@ -159,8 +214,13 @@ class MultithreadedRunner implements Runnable {
             e.printStackTrace();
             exception = e.getMessage();
         } finally {
-            getThreadTime().getRunTimesInMs().add(
-                    new RunTime(exception, startDate, resultRowCount, (int) (System.currentTimeMillis() - start)));
+            // Executions issued open loop may complete concurrently
+            synchronized (resultManager) {
+                getThreadTime().getRunTimesInMs().add(
+                        new RunTime(exception, startDate, resultRowCount, (int) (System.currentTimeMillis() - start)));
+                getThreadTime().getLatencyHistogram().recordValue(
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scheduledStartInNs));
+            }
 
             if (rs != null) rs.close();
             if (statement != null) statement.close();
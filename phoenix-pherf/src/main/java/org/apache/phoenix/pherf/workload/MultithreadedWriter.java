@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ *   or more contributor license agreements.  See the NOTICE file
+ *   distributed with this work for additional information
+ *   regarding copyright ownership.  The ASF licenses this file
+ *   to you under the Apache License, Version 2.0 (the
+ *   "License"); you may not use this file except in compliance
+ *   with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+
+package org.apache.phoenix.pherf.workload;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.phoenix.pherf.configuration.Column;
+import org.apache.phoenix.pherf.configuration.Scenario;
+import org.apache.phoenix.pherf.configuration.WriteParams;
+import org.apache.phoenix.pherf.loaddata.UpsertStatementBuilder;
+import org.apache.phoenix.pherf.result.WriteResult;
+import org.apache.phoenix.pherf.util.PhoenixUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Upserts batches of generated rows into the table of a scenario until it is stopped, so that
+ * queries run against a table that is being written to.
+ */
+class MultithreadedWriter implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(MultithreadedWriter.class);
+    private Thread t;
+    private final PhoenixUtil pUtil = new PhoenixUtil();
+    private final String threadName;
+    private final Scenario scenario;
+    private final List<Column> columns;
+    private final UpsertStatementBuilder upsertBuilder;
+    private final WriteResult writeResult;
+    private final int batchSize;
+    private final long targetIntervalInNs;
+    private volatile boolean stopped = false;
+
+    /**
+     * Multithreaded writer
+     *
+     * @param threadName
+     * @param scenario scenario whose table is written to
+     * @param columns columns of the table
+     * @param upsertBuilder
+     * @param writeParams
+     * @param writeResult result shared by all writers of a query set
+     */
+    MultithreadedWriter(String threadName,
+                        Scenario scenario,
+                        List<Column> columns,
+                        UpsertStatementBuilder upsertBuilder,
+                        WriteParams writeParams,
+                        WriteResult writeResult) {
+        this.threadName = threadName;
+        this.scenario = scenario;
+        this.columns = columns;
+        this.upsertBuilder = upsertBuilder;
+        this.writeResult = writeResult;
+        this.batchSize = Math.max(1, writeParams.getBatchSize());
+        this.targetIntervalInNs = writeParams.getTargetIntervalInNs();
+    }
+
+    /**
+     * Writes batches until stopped. In open loop mode each batch is scheduled a fixed interval
+     * after the previous one and its latency is measured from then, like the queries of
+     * {@link MultithreadedRunner}.
+     */
+    public void run() {
+        logger.info("\n\nWriter Starting " + t.getName() + " ; " + scenario.getTableName() + "\n\n");
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        Connection conn = null;
+        PreparedStatement statement = null;
+        try {
+            conn = pUtil.getConnection();
+            statement = conn.prepareStatement(upsertBuilder.buildSql(columns, scenario.getTableName()));
+            long scheduledStartInNs = System.nanoTime();
+            while (!stopped) {
+                if (targetIntervalInNs > 0) {
+                    long waitInNs = scheduledStartInNs - System.nanoTime();
+                    if (waitInNs > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitInNs);
+                        if (stopped) {
+                            break;
+                        }
+                    }
+                } else {
+                    scheduledStartInNs = System.nanoTime();
+                }
+                try {
+                    for (int i = 0; i < batchSize; i++) {
+                        upsertBuilder.buildStatement(scenario, columns, statement, simpleDateFormat).executeUpdate();
+                    }
+                    conn.commit();
+                    writeResult.recordBatch(batchSize,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scheduledStartInNs));
+                } catch (Exception e) {
+                    logger.warn("Writer " + t.getName() + " failed to write batch", e);
+                    writeResult.recordFailedBatch();
+                    conn.rollback();
+                }
+                scheduledStartInNs += targetIntervalInNs;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                if (statement != null) statement.close();
+                if (conn != null) conn.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        logger.info("\n\nWriter exiting." + t.getName() + "\n\n");
+    }
+
+    /**
+     * Thread start
+     * @return
+     */
+    public Thread start() {
+        if (t == null) {
+            t = new Thread(this, threadName);
+            t.start();
+        }
+        return t;
+    }
+
+    /**
+     * Stop writing once the current batch is done
+     */
+    public void stop() {
+        stopped = true;
+    }
+}
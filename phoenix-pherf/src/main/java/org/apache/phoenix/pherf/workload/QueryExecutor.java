@@ -32,11 +32,15 @@ import org.apache.phoenix.pherf.result.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.phoenix.pherf.configuration.Column;
 import org.apache.phoenix.pherf.configuration.DataModel;
 import org.apache.phoenix.pherf.configuration.ExecutionType;
 import org.apache.phoenix.pherf.configuration.Query;
 import org.apache.phoenix.pherf.configuration.QuerySet;
 import org.apache.phoenix.pherf.configuration.Scenario;
+import org.apache.phoenix.pherf.configuration.WriteParams;
+import org.apache.phoenix.pherf.loaddata.UpsertStatementBuilder;
+import org.apache.phoenix.pherf.rules.RulesApplier;
 import org.apache.phoenix.pherf.util.PhoenixUtil;
 
 public class QueryExecutor {
@@ -45,10 +49,12 @@ public class QueryExecutor {
 	private String queryHint;
 	private RunMode runMode;
     private final ResultUtil resultUtil;
+    private final UpsertStatementBuilder upsertBuilder;
 
 	public QueryExecutor(XMLConfigParser parser) {
 		this.dataModels = parser.getDataModels();
         this.resultUtil = new ResultUtil();
+        this.upsertBuilder = new UpsertStatementBuilder(new RulesApplier(parser));
     }
 	
 	/**
@@ -113,10 +119,15 @@ public class QueryExecutor {
 				
 				executeQuerySetDdls(querySet);
 				
-				if (querySet.getExecutionType() == ExecutionType.SERIAL) {
-					execcuteQuerySetSerial(dataModelResult, querySet, querySetResult, scenarioResult);
-				} else {
-					execcuteQuerySetParallel(dataModelResult, querySet, querySetResult, scenarioResult);					
+				List<MultithreadedWriter> writers = startWriters(scenario, querySet, querySetResult);
+				try {
+					if (querySet.getExecutionType() == ExecutionType.SERIAL) {
+						execcuteQuerySetSerial(dataModelResult, querySet, querySetResult, scenarioResult);
+					} else {
+						execcuteQuerySetParallel(dataModelResult, querySet, querySetResult, scenarioResult);
+					}
+				} finally {
+					stopWriters(writers, querySetResult);
 				}
 			}
             resultManager.write(dataModelResult);
@@ -148,6 +159,67 @@ public class QueryExecutor {
 		}
 	}
 
+	/**
+	 * Start the writers of a query set, if it has any. They keep upserting into the table of
+	 * the scenario until stopped, so that the queries run against a table under write load.
+	 * 
+	 * @param scenario
+	 * @param querySet
+	 * @param querySetResult
+	 * @return the writers started
+	 * @throws Exception
+	 */
+	protected List<MultithreadedWriter> startWriters(Scenario scenario, QuerySet querySet, QuerySetResult querySetResult) throws Exception {
+		List<MultithreadedWriter> writers = new ArrayList<MultithreadedWriter>();
+		WriteParams writeParams = querySet.getWriteParams();
+		if (null == writeParams || writeParams.getThreadCount() <= 0) {
+			return writers;
+		}
+		PhoenixUtil pUtil = new PhoenixUtil();
+		List<Column> columns;
+		Connection conn = null;
+		try {
+			conn = pUtil.getConnection();
+			columns = pUtil.getColumnsFromPhoenix(scenario.getSchemaName(),
+					scenario.getTableNameWithoutSchemaName(), conn);
+		} finally {
+			if (null != conn) {
+				conn.close();
+			}
+		}
+		WriteResult writeResult = new WriteResult(writeParams.getThreadCount());
+		querySetResult.setWriteResult(writeResult);
+		writeResult.start();
+		logger.info("\nStarting " + writeParams.getThreadCount() + " writers on " + scenario.getTableName());
+		for (int i = 0; i < writeParams.getThreadCount(); i++) {
+			MultithreadedWriter writer = new MultithreadedWriter("writer-" + (i + 1),
+					scenario, columns, upsertBuilder, writeParams, writeResult);
+			writer.start();
+			writers.add(writer);
+		}
+		return writers;
+	}
+
+	/**
+	 * Stop the writers of a query set and wait for them to finish
+	 * 
+	 * @param writers
+	 * @param querySetResult
+	 * @throws InterruptedException
+	 */
+	protected void stopWriters(List<MultithreadedWriter> writers, QuerySetResult querySetResult) throws InterruptedException {
+		if (writers.isEmpty()) {
+			return;
+		}
+		for (MultithreadedWriter writer : writers) {
+			writer.stop();
+		}
+		for (MultithreadedWriter writer : writers) {
+			writer.start().join();
+		}
+		querySetResult.getWriteResult().stop();
+	}
+
 	/**
 	 * Execute query set serially
 	 * @param dataModelResult
@@ -170,7 +242,7 @@ public class QueryExecutor {
 
 					Thread thread = executeRunner((i + 1) + ","
 							+ cr, dataModelResult, queryResult,
-							querySetResult);
+							querySetResult, cr);
 					threads.add(thread);
 				}
 
@@ -201,7 +273,7 @@ public class QueryExecutor {
 
 					Thread thread = executeRunner((i + 1) + ","
 							+ cr, dataModelResult, queryResult,
-							querySetResult);
+							querySetResult, cr);
 					threads.add(thread);
 				}
 			}
@@ -217,9 +289,10 @@ public class QueryExecutor {
 	 * @param dataModelResult
 	 * @param queryResult
 	 * @param querySet
+	 * @param concurrency number of threads running the query set at the same time
 	 * @return
 	 */
-	protected Thread executeRunner(String name, DataModelResult dataModelResult, QueryResult queryResult, QuerySet querySet) {
+	protected Thread executeRunner(String name, DataModelResult dataModelResult, QueryResult queryResult, QuerySet querySet, int concurrency) {
 		ThreadTime threadTime = new ThreadTime();
 		queryResult.getThreadTimes().add(threadTime);
 		threadTime.setThreadName(name);
@@ -238,7 +311,8 @@ public class QueryExecutor {
 					threadTime.getThreadName(),
 					queryResult,
 					dataModelResult,
-					threadTime, querySet.getNumberOfExecutions(), querySet.getExecutionDurationInMs())
+					threadTime, querySet.getNumberOfExecutions(), querySet.getExecutionDurationInMs(),
+					querySet.getTargetIntervalInNs(concurrency))
 					.start();
 		}
 		return thread;
@@ -95,6 +95,19 @@ public class ConfigurationParserTest {
             assertEquals(1, qs.getMinConcurrency());
             assertEquals(3, qs.getMaxConcurrency());
             assertEquals(100, qs.getNumberOfExecutions());
+            assertEquals(0, qs.getTargetIntervalInNs(3));
+            assertNull(qs.getWriteParams());
+            QuerySet parallelQuerySet = scenario.getQuerySet().get(1);
+            assertEquals(0, parallelQuerySet.getTargetIntervalInNs(3));
+            assertNull(parallelQuerySet.getWriteParams());
+            QuerySet openLoopQuerySet = scenarioList.get(1).getQuerySet().get(0);
+            assertEquals(20, openLoopQuerySet.getTargetRatePerSecond(), 0);
+            assertEquals(150000000L, openLoopQuerySet.getTargetIntervalInNs(3));
+            WriteParams writeParams = openLoopQuerySet.getWriteParams();
+            assertEquals(2, writeParams.getThreadCount());
+            assertEquals(10, writeParams.getBatchSize());
+            // 2 writers sharing 200 rows per second commit a batch of 10 every 100 ms each
+            assertEquals(100000000L, writeParams.getTargetIntervalInNs());
             assertEquals("select count(*) from PHERF.TEST_TABLE", firstQuery.getStatement());
             assertEquals("123456789012345", firstQuery.getTenantId());
             assertEquals(null, firstQuery.getDdl());
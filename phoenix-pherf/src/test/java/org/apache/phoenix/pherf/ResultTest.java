@@ -165,9 +165,21 @@ public class ResultTest {
         calendar.add(Calendar.MINUTE, -1);
         RunTime runtime3 = new RunTime(calendar.getTime(), 3000L, 30);
         tt.getRunTimesInMs().add(runtime3);
+        for (long latency = 1; latency <= 1000; latency++) {
+            tt.getLatencyHistogram().recordValue(latency);
+        }
         queryResult.getThreadTimes().add(tt);
         queryResult2.getThreadTimes().add(tt);
 
+        WriteResult writeResult = new WriteResult(2);
+        writeResult.start();
+        for (int i = 1; i <= 100; i++) {
+            writeResult.recordBatch(10, i);
+        }
+        writeResult.recordFailedBatch();
+        writeResult.stop();
+        querySetResult.setWriteResult(writeResult);
+
         //resultUtil.writeResultToFile(dataModelResult, filename, RunMode.PERFORMANCE);
         resultManager.write(dataModelResult);
 
@@ -198,6 +210,8 @@ public class ResultTest {
         assertEquals(runtime1.getResultRowCount(), ttFromFile.getRunTimesInMs().get(0).getResultRowCount());
         assertEquals(runtime2.getResultRowCount(), ttFromFile.getRunTimesInMs().get(1).getResultRowCount());
         assertEquals(runtime3.getResultRowCount(), ttFromFile.getRunTimesInMs().get(2).getResultRowCount());
+        assertEquals(1000, ttFromFile.getLatencyHistogram().getTotalCount());
+        assertEquals(1000, ttFromFile.getLatencyHistogram().getMaxValue());
 
         // query result level verification
         assertEquals(10, queryResultFromFile.getAvgMinRunTimeInMs());
@@ -205,5 +219,54 @@ public class ResultTest {
         assertEquals(20, queryResultFromFile.getAvgRunTimeInMs());
         // 3rd runtime has the earliest start time, therefore that's what's expected.
         assertEquals(runtime3.getStartTime(), queryResultFromFile.getStartTime());
+        assertEquals(1000, queryResultFromFile.getLatencyHistogram().getTotalCount());
+        assertEquals(500, queryResultFromFile.getLatencyHistogram().getValueAtPercentile(50), 2);
+        assertEquals(990, queryResultFromFile.getLatencyHistogram().getValueAtPercentile(99), 4);
+
+        // write result verification
+        WriteResult writeResultFromFile = querySetResultFromFile.getWriteResult();
+        assertNotNull(writeResultFromFile);
+        assertEquals(2, writeResultFromFile.getThreadCount());
+        assertEquals(1000, writeResultFromFile.getRowCount());
+        assertEquals(100, writeResultFromFile.getBatchCount());
+        assertEquals(1, writeResultFromFile.getFailedBatchCount());
+        assertEquals(writeResult.getStartTime(), writeResultFromFile.getStartTime());
+        assertEquals(100, writeResultFromFile.getCommitLatencyHistogram().getTotalCount());
+        assertEquals(99, writeResultFromFile.getCommitLatencyHistogram().getValueAtPercentile(99));
+        // The table name is added in front of the write result
+        assertEquals(ResultFileDetails.CSV_WRITE_PERFORMANCE.getHeader().toString().split(",").length,
+                writeResult.getCsvRepresentation(new ResultUtil()).size() + 1);
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        for (long latency = 1; latency <= 100; latency++) {
+            histogram.recordValue(latency);
+        }
+        // Small values are exact
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+
+        // Large values keep two significant digits
+        histogram.recordValue(123456);
+        assertEquals(101, histogram.getTotalCount());
+        assertEquals(123456, histogram.getMaxValue());
+        long p999 = histogram.getValueAtPercentile(99.9);
+        assertTrue("Expected value close to 123456 but got " + p999, Math.abs(p999 - 123456) <= 123456 / 100);
+
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.setCounts(histogram.getCounts());
+        assertEquals(histogram.getTotalCount(), copy.getTotalCount());
+        assertEquals(histogram.getMaxValue(), copy.getMaxValue());
+        assertEquals(histogram.getValueAtPercentile(50), copy.getValueAtPercentile(50));
+
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(histogram);
+        merged.add(copy);
+        assertEquals(202, merged.getTotalCount());
+        assertEquals(51, merged.getValueAtPercentile(50));
     }
-}
\ No newline at end of file
+}
@@ -267,6 +267,52 @@ public class PhoenixHBaseLoaderIT {
         assertEquals(rows/2, recordsRead);
     }
     
+    /**
+     * Validates the data read when fields are projected and filters are pushed down to Phoenix.
+     * @throws Exception
+     */
+    @Test
+    public void testDataForTableWithPushDown() throws Exception {
+        
+         //create the table
+         String ddl = "CREATE TABLE  " + TABLE_FULL_NAME 
+                + "  (ID  INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR, AGE INTEGER, SALARY DOUBLE) ";
+                
+        conn.createStatement().execute(ddl);
+        
+        final String dml = "UPSERT INTO " + TABLE_FULL_NAME + " VALUES(?,?,?,?)";
+        PreparedStatement stmt = conn.prepareStatement(dml);
+        int rows = 20;
+        for(int i = 0 ; i < rows; i++) {
+            stmt.setInt(1, i);
+            stmt.setString(2, "a"+i);
+            stmt.setInt(3, (i % 2 == 0) ? 25 : 30);
+            stmt.setDouble(4, i * 1000.5);
+            stmt.execute();    
+        }
+        conn.commit();
+         
+        //load rows with id >= 10 and age 25, except one, and project name and salary only
+        pigServer.registerQuery(String.format(
+                "A = load 'hbase://table/%s' using "  + PhoenixHBaseLoader.class.getName() + "('%s');", TABLE_FULL_NAME,
+                zkQuorum));
+        pigServer.registerQuery("B = FILTER A BY ID >= 10 AND (AGE == 25 OR NAME matches 'a1[59]') AND NAME != 'a12';");
+        pigServer.registerQuery("C = FOREACH B GENERATE NAME, SALARY;");
+        
+        final Iterator<Tuple> iterator = pigServer.openIterator("C");
+        int recordsRead = 0;
+        while (iterator.hasNext()) {
+            final Tuple each = iterator.next();
+            assertEquals(2, each.size());
+            final String name = (String)each.get(0);
+            final int id = Integer.parseInt(name.substring(1));
+            assertTrue(id >= 10 && id != 12 && (id % 2 == 0 || id == 15 || id == 19));
+            assertEquals(id * 1000.5, (Double)each.get(1), 0.0);
+            recordsRead++;
+        }
+        assertEquals(6, recordsRead);
+    }
+    
     /**
      * @throws Exception
      */
@@ -22,6 +22,10 @@ package org.apache.phoenix.pig;
 import static org.apache.commons.lang.StringUtils.isEmpty;
 
 import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.commons.logging.Log;
@@ -38,24 +42,35 @@ import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.phoenix.mapreduce.PhoenixInputFormat;
 import org.apache.phoenix.mapreduce.util.PhoenixConfigurationUtil;
 import org.apache.phoenix.mapreduce.util.PhoenixConfigurationUtil.SchemaType;
+import org.apache.phoenix.pig.util.PartitionFilterToConditionFunction;
 import org.apache.phoenix.pig.util.PhoenixPigSchemaUtil;
 import org.apache.phoenix.pig.util.QuerySchemaParserFunction;
 import org.apache.phoenix.pig.util.TableSchemaParserFunction;
 import org.apache.phoenix.pig.util.TypeUtil;
 import org.apache.phoenix.pig.writable.PhoenixPigDBWritable;
+import org.apache.phoenix.util.ColumnInfo;
+import org.apache.phoenix.util.SchemaUtil;
 import org.apache.pig.Expression;
 import org.apache.pig.LoadFunc;
 import org.apache.pig.LoadMetadata;
+import org.apache.pig.LoadPushDown;
 import org.apache.pig.PigException;
 import org.apache.pig.ResourceSchema;
+import org.apache.pig.ResourceSchema.ResourceFieldSchema;
 import org.apache.pig.ResourceStatistics;
 import org.apache.pig.backend.executionengine.ExecException;
 import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.PigSplit;
+import org.apache.pig.data.DataType;
 import org.apache.pig.data.Tuple;
+import org.apache.pig.impl.logicalLayer.FrontendException;
 import org.apache.pig.impl.util.ObjectSerializer;
 import org.apache.pig.impl.util.UDFContext;
 
+import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 /**
  * LoadFunc to load data from HBase using Phoenix .
@@ -78,18 +93,25 @@ import com.google.common.base.Preconditions;
  *       
  *        The above loads fname and lname columns from 'HIRES' table.
  * 
+ * When loading a TABLE, only the fields used by the script are selected, and filters on the
+ * loaded fields are pushed down into the WHERE clause of the query as partition filters.
+ * 
  */
-public final class PhoenixHBaseLoader extends LoadFunc implements LoadMetadata {
+public final class PhoenixHBaseLoader extends LoadFunc implements LoadMetadata, LoadPushDown {
 
     private static final Log LOG = LogFactory.getLog(PhoenixHBaseLoader.class);
     private static final String PHOENIX_TABLE_NAME_SCHEME = "hbase://table/";
     private static final String PHOENIX_QUERY_SCHEME      = "hbase://query/";
     private static final String RESOURCE_SCHEMA_SIGNATURE = "phoenix.pig.schema";
+    private static final String REQUIRED_SCHEMA_SIGNATURE = "phoenix.pig.schema.required";
+    private static final String REQUIRED_FIELDS_SIGNATURE = "phoenix.pig.fields.required";
+    private static final String PARTITION_FILTER_SIGNATURE = "phoenix.pig.partition.filter";
    
     private Configuration config;
     private String tableName;
     private String selectQuery;
     private String zkQuorum ;
+    private String selectedColumns;
     private PhoenixInputFormat<PhoenixPigDBWritable> inputFormat;
     private RecordReader<NullWritable,PhoenixPigDBWritable> reader;
     private String contextSignature;
@@ -114,6 +136,54 @@ public final class PhoenixHBaseLoader extends LoadFunc implements LoadMetadata {
         configuration.setBoolean("pig.noSplitCombination", true);
 
         this.initializePhoenixPigConfiguration(location, configuration);
+        this.applyPushDown();
+    }
+
+    /**
+     * Applies the projection and filter pushed down by Pig to the query of a TABLE load.
+     * @throws IOException
+     */
+    private void applyPushDown() throws IOException {
+        if(!SchemaType.TABLE.equals(PhoenixConfigurationUtil.getSchemaType(this.config))) {
+            return;
+        }
+        final String conditions = getValueFromUDFContext(this.contextSignature, PARTITION_FILTER_SIGNATURE);
+        if(conditions != null) {
+            PhoenixConfigurationUtil.setInputTableConditions(this.config, conditions);
+        }
+        final String requiredFields = getValueFromUDFContext(this.contextSignature, REQUIRED_FIELDS_SIGNATURE);
+        if(requiredFields == null) {
+            return;
+        }
+        // start over from the columns of the LOAD statement, as the location may be set repeatedly
+        this.config.unset(PhoenixConfigurationUtil.SELECT_COLUMNS);
+        this.config.unset(PhoenixConfigurationUtil.SELECT_COLUMN_INFO_KEY);
+        this.config.unset(PhoenixConfigurationUtil.SELECT_STATEMENT);
+        if(!isEmpty(this.selectedColumns)) {
+            PhoenixConfigurationUtil.setSelectColumnNames(this.config, this.selectedColumns);
+        }
+        final Map<String,ColumnInfo> columns = getColumnsByFieldName();
+        final List<String> requiredColumns = Lists.newArrayList();
+        for(String fieldName : Splitter.on(PhoenixConfigurationUtil.DEFAULT_COLUMN_NAMES_DELIMITER).split(requiredFields)) {
+            requiredColumns.add(SchemaUtil.getUnEscapedFullColumnName(columns.get(fieldName).getColumnName()));
+        }
+        this.config.unset(PhoenixConfigurationUtil.SELECT_COLUMN_INFO_KEY);
+        PhoenixConfigurationUtil.setSelectColumnNames(this.config, requiredColumns.toArray(new String[requiredColumns.size()]));
+    }
+
+    /**
+     * Returns the columns of the query by the name of the corresponding Pig field.
+     */
+    private Map<String,ColumnInfo> getColumnsByFieldName() throws IOException {
+        final Map<String,ColumnInfo> columns = Maps.newLinkedHashMap();
+        try {
+            for(ColumnInfo columnInfo : PhoenixConfigurationUtil.getSelectColumnMetadataList(this.config)) {
+                columns.put(columnInfo.getDisplayName(), columnInfo);
+            }
+        } catch(SQLException sqle) {
+            throw new IOException(sqle);
+        }
+        return columns;
     }
 
     /**
@@ -144,14 +214,14 @@ public final class PhoenixHBaseLoader extends LoadFunc implements LoadMetadata {
                 PhoenixConfigurationUtil.setSchemaType(this.config, SchemaType.QUERY);
             }
             this.tableName = pair.getFirst();
-            final String selectedColumns = pair.getSecond();
+            this.selectedColumns = pair.getSecond();
             
             if(isEmpty(this.tableName) && isEmpty(this.selectQuery)) {
                 printUsage(location);
             }
             PhoenixConfigurationUtil.setInputTableName(this.config, this.tableName);
-            if(!isEmpty(selectedColumns)) {
-                PhoenixConfigurationUtil.setSelectColumnNames(this.config, selectedColumns);   
+            if(!isEmpty(this.selectedColumns)) {
+                PhoenixConfigurationUtil.setSelectColumnNames(this.config, this.selectedColumns);   
             }
         } catch(IllegalArgumentException iae) {
             printUsage(location);
@@ -177,7 +247,10 @@ public final class PhoenixHBaseLoader extends LoadFunc implements LoadMetadata {
     @Override
     public void prepareToRead(RecordReader reader, PigSplit split) throws IOException {
         this.reader = reader;
-        final String resourceSchemaAsStr = getValueFromUDFContext(this.contextSignature,RESOURCE_SCHEMA_SIGNATURE);
+        String resourceSchemaAsStr = getValueFromUDFContext(this.contextSignature,REQUIRED_SCHEMA_SIGNATURE);
+        if (resourceSchemaAsStr == null) {
+            resourceSchemaAsStr = getValueFromUDFContext(this.contextSignature,RESOURCE_SCHEMA_SIGNATURE);
+        }
         if (resourceSchemaAsStr == null) {
             throw new IOException("Could not find schema in UDF context");
         }
@@ -241,15 +314,86 @@ public final class PhoenixHBaseLoader extends LoadFunc implements LoadMetadata {
         return null;
     }
 
+    /**
+     * Returns the fields of a TABLE load with a type that can be compared in a filter, so that Pig
+     * pushes filters on these fields down to the loader.
+     */
     @Override
     public String[] getPartitionKeys(String location, Job job) throws IOException {
-     // not implemented
-        return null;
+        if(!location.startsWith(PHOENIX_TABLE_NAME_SCHEME)) {
+            return null;
+        }
+        final List<String> partitionKeys = Lists.newArrayList();
+        for(ResourceFieldSchema field : getSchema(location, job).getFields()) {
+            switch(field.getType()) {
+                case DataType.BOOLEAN:
+                case DataType.INTEGER:
+                case DataType.LONG:
+                case DataType.FLOAT:
+                case DataType.DOUBLE:
+                case DataType.DATETIME:
+                case DataType.CHARARRAY:
+                case DataType.BIGINTEGER:
+                case DataType.BIGDECIMAL:
+                    partitionKeys.add(field.getName());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return partitionKeys.toArray(new String[partitionKeys.size()]);
     }
 
     @Override
     public void setPartitionFilter(Expression partitionFilter) throws IOException {
-     // not implemented
+        final Map<String,String> escapedColumnNames = Maps.newHashMap();
+        for(Map.Entry<String,ColumnInfo> entry : getColumnsByFieldName().entrySet()) {
+            escapedColumnNames.put(entry.getKey(), SchemaUtil.getEscapedFullColumnName(entry.getValue().getColumnName()));
+        }
+        final String conditions;
+        try {
+            conditions = new PartitionFilterToConditionFunction(escapedColumnNames).apply(partitionFilter);
+        } catch(IllegalArgumentException iae) {
+            throw new PigException(String.format("Unable to push down filter [%s] : %s", partitionFilter, iae.getMessage()), iae);
+        }
+        if(LOG.isDebugEnabled()) {
+            LOG.debug(String.format("Pushing down filter [%s] as [%s]", partitionFilter, conditions));
+        }
+        this.storeInUDFContext(this.contextSignature, PARTITION_FILTER_SIGNATURE, conditions);
+    }
+
+    @Override
+    public List<OperatorSet> getFeatures() {
+        return Arrays.asList(OperatorSet.PROJECTION);
+    }
+
+    @Override
+    public RequiredFieldResponse pushProjection(RequiredFieldList requiredFieldList) throws FrontendException {
+        if(this.schema == null || requiredFieldList == null || requiredFieldList.getFields() == null
+                || !SchemaType.TABLE.equals(PhoenixConfigurationUtil.getSchemaType(this.config))) {
+            return new RequiredFieldResponse(false);
+        }
+        final List<String> requiredFields = Lists.newArrayList();
+        final ResourceFieldSchema[] fields = this.schema.getFields();
+        final ResourceFieldSchema[] requiredSchemaFields = new ResourceFieldSchema[requiredFieldList.getFields().size()];
+        int i = 0;
+        for(RequiredField requiredField : requiredFieldList.getFields()) {
+            requiredSchemaFields[i++] = fields[requiredField.getIndex()];
+            requiredFields.add(fields[requiredField.getIndex()].getName());
+        }
+        if(requiredFields.isEmpty()) {
+            return new RequiredFieldResponse(false);
+        }
+        final ResourceSchema requiredSchema = new ResourceSchema();
+        requiredSchema.setFields(requiredSchemaFields);
+        try {
+            this.storeInUDFContext(this.contextSignature, REQUIRED_SCHEMA_SIGNATURE, ObjectSerializer.serialize(requiredSchema));
+        } catch(IOException ioe) {
+            throw new FrontendException(ioe);
+        }
+        this.storeInUDFContext(this.contextSignature, REQUIRED_FIELDS_SIGNATURE,
+                Joiner.on(PhoenixConfigurationUtil.DEFAULT_COLUMN_NAMES_DELIMITER).join(requiredFields));
+        return new RequiredFieldResponse(true);
     }
  
     private void storeInUDFContext(final String signature,final String key,final String value) {
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2010 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ *distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you maynot use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicablelaw or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.pig.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+import org.apache.phoenix.util.DateUtil;
+import org.apache.pig.Expression;
+import org.apache.pig.Expression.BinaryExpression;
+import org.apache.pig.Expression.Column;
+import org.apache.pig.Expression.Const;
+import org.joda.time.DateTime;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+
+/**
+ * 
+ * A function to convert the partition filter pushed down by Pig into the conditions of the WHERE
+ * clause of the Phoenix query. As Pig removes a pushed down filter from its plan, an
+ * {@link IllegalArgumentException} is thrown for expressions that cannot be converted exactly.
+ *
+ */
+public final class PartitionFilterToConditionFunction implements Function<Expression,String> {
+
+    private final Map<String,String> escapedColumnNames;
+    
+    /**
+     * @param escapedColumnNames the escaped Phoenix column names by the name of the Pig field
+     */
+    public PartitionFilterToConditionFunction(final Map<String,String> escapedColumnNames) {
+        Preconditions.checkNotNull(escapedColumnNames);
+        this.escapedColumnNames = escapedColumnNames;
+    }
+    
+    @Override
+    public String apply(final Expression expression) {
+        Preconditions.checkNotNull(expression);
+        switch(expression.getOpType()) {
+            case TERM_COL:
+                final String columnName = ((Column)expression).getName();
+                final String escapedColumnName = escapedColumnNames.get(columnName);
+                Preconditions.checkArgument(escapedColumnName != null, "Unknown column %s in filter", columnName);
+                return escapedColumnName;
+            case TERM_CONST:
+                return toLiteral(((Const)expression).getValue());
+            case OP_MATCH:
+                // Pig requires the regular expression to match the entire value
+                final BinaryExpression match = (BinaryExpression)expression;
+                Preconditions.checkArgument(match.getRhs() instanceof Const
+                        && ((Const)match.getRhs()).getValue() instanceof String, "Unsupported regular expression %s", match.getRhs());
+                return String.format("(REGEXP_SUBSTR(%s, %s) IS NOT NULL)", apply(match.getLhs()),
+                        toLiteral("^(?:" + ((Const)match.getRhs()).getValue() + ")$"));
+            default:
+                final BinaryExpression binary = (BinaryExpression)expression;
+                return String.format("(%s %s %s)", apply(binary.getLhs()), toOperator(expression.getOpType()), apply(binary.getRhs()));
+        }
+    }
+
+    private static String toOperator(final Expression.OpType opType) {
+        switch(opType) {
+            case OP_PLUS:  return "+";
+            case OP_MINUS: return "-";
+            case OP_TIMES: return "*";
+            case OP_DIV:   return "/";
+            case OP_MOD:   return "%";
+            case OP_EQ:    return "=";
+            case OP_NE:    return "!=";
+            case OP_GT:    return ">";
+            case OP_GE:    return ">=";
+            case OP_LT:    return "<";
+            case OP_LE:    return "<=";
+            case OP_AND:   return "AND";
+            case OP_OR:    return "OR";
+            default:
+                throw new IllegalArgumentException("Unsupported operator " + opType + " in filter");
+        }
+    }
+    
+    private static String toLiteral(final Object value) {
+        if(value == null) {
+            return "null";
+        }
+        if(value instanceof String) {
+            return "'" + ((String)value).replace("'", "''") + "'";
+        }
+        if(value instanceof Integer || value instanceof Long || value instanceof BigInteger) {
+            return value.toString();
+        }
+        // cast to the binary floating point type to compare the same value as Pig does
+        if(value instanceof Float) {
+            return String.format("CAST(%s AS FLOAT)", new BigDecimal(value.toString()).toPlainString());
+        }
+        if(value instanceof Double) {
+            return String.format("CAST(%s AS DOUBLE)", new BigDecimal(value.toString()).toPlainString());
+        }
+        if(value instanceof BigDecimal) {
+            return ((BigDecimal)value).toPlainString();
+        }
+        if(value instanceof Boolean) {
+            return value.toString().toUpperCase();
+        }
+        if(value instanceof DateTime) {
+            return String.format("TO_TIMESTAMP('%s')", DateUtil.DEFAULT_TIMESTAMP_FORMATTER.format(((DateTime)value).toDate()));
+        }
+        throw new IllegalArgumentException("Unsupported constant " + value + " of type " + value.getClass().getName() + " in filter");
+    }
+}
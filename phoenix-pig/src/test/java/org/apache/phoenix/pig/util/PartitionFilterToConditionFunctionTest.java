@@ -0,0 +1,81 @@
+/*
+ * Copyright 2010 The Apache Software Foundation
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ *distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you maynot use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicablelaw or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.phoenix.pig.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.pig.Expression;
+import org.apache.pig.Expression.BinaryExpression;
+import org.apache.pig.Expression.Column;
+import org.apache.pig.Expression.Const;
+import org.apache.pig.Expression.OpType;
+import org.apache.pig.data.DataByteArray;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class PartitionFilterToConditionFunctionTest {
+
+    final PartitionFilterToConditionFunction function = new PartitionFilterToConditionFunction(
+            ImmutableMap.of("ID", "\"ID\"", "NAME", "\"NAME\"", "SALARY", "\"CF\".\"SALARY\""));
+    
+    @Test
+    public void testComparison() {
+        final Expression expression = new BinaryExpression(new Column("ID"), new Const(10), OpType.OP_GE);
+        assertEquals("(\"ID\" >= 10)", function.apply(expression));
+    }
+    
+    @Test
+    public void testConjunctionAndDisjunction() {
+        final Expression expression = new BinaryExpression(
+                new BinaryExpression(new Column("NAME"), new Const("O'Brien"), OpType.OP_NE),
+                new BinaryExpression(
+                        new BinaryExpression(new Column("SALARY"), new Const(1.5d), OpType.OP_LT),
+                        new BinaryExpression(new Column("ID"), new Const(2L), OpType.OP_EQ),
+                        OpType.OP_OR),
+                OpType.OP_AND);
+        assertEquals("((\"NAME\" != 'O''Brien') AND ((\"CF\".\"SALARY\" < CAST(1.5 AS DOUBLE)) OR (\"ID\" = 2)))",
+                function.apply(expression));
+    }
+    
+    @Test
+    public void testArithmetic() {
+        final Expression expression = new BinaryExpression(
+                new BinaryExpression(new Column("ID"), new Const(3), OpType.OP_MOD),
+                new Const(0), OpType.OP_EQ);
+        assertEquals("((\"ID\" % 3) = 0)", function.apply(expression));
+    }
+    
+    @Test
+    public void testMatch() {
+        final Expression expression = new BinaryExpression(new Column("NAME"), new Const("a.*"), OpType.OP_MATCH);
+        assertEquals("(REGEXP_SUBSTR(\"NAME\", '^(?:a.*)$') IS NOT NULL)", function.apply(expression));
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testUnknownColumn() {
+        function.apply(new BinaryExpression(new Column("AGE"), new Const(10), OpType.OP_GT));
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testUnsupportedConstant() {
+        function.apply(new BinaryExpression(new Column("NAME"), new Const(new DataByteArray("a")), OpType.OP_EQ));
+    }
+}
@@ -24,6 +24,7 @@ import org.apache.phoenix.schema.ColumnNotFoundException
 import org.apache.phoenix.schema.types.PVarchar
 import org.apache.phoenix.util.ColumnInfo
 import org.apache.spark.sql.SQLContext
+import org.apache.spark.sql.sources._
 import org.apache.spark.sql.types.{StringType, StructField}
 import org.apache.spark.{SparkConf, SparkContext}
 import org.joda.time.DateTime
@@ -315,6 +316,36 @@ class PhoenixSparkIT extends FunSuite with Matchers with BeforeAndAfterAll {
     results(1).getTime shouldEqual date.getTime
   }
 
+  test("Can push down filters and required columns through the data source") {
+    val sqlContext = new SQLContext(sc)
+
+    val df = sqlContext.load("org.apache.phoenix.spark", Map("table" -> "TABLE2", "zkUrl" -> quorumAddress))
+
+    df.registerTempTable("sql_table_2")
+
+    val rows = sqlContext.sql(
+      "SELECT ID, t2col1 FROM sql_table_2 WHERE TABLE1_ID = 2 AND (ID < 4 OR t2col1 = 'test_child_4')")
+      .collect()
+
+    rows.map(_.getLong(0)).sorted should equal(Array(3L, 6L))
+    df.filter("TABLE1_ID = 1").count() shouldEqual 2L
+  }
+
+  test("Can translate Spark filters into Phoenix predicates") {
+    val relation = PhoenixRelation("TABLE1", Some(quorumAddress))(new SQLContext(sc))
+
+    relation.buildFilter(Array(EqualTo("COL1", "it's"), GreaterThan("ID", 1L))) shouldEqual
+      Some("\"COL1\" = 'it''s' AND \"ID\" > 1")
+
+    relation.compileFilter(Or(In("ID", Array[Any](1L, 2L)), IsNull("COL1"))) shouldEqual
+      Some("(\"ID\" IN (1, 2) OR \"COL1\" IS NULL)")
+
+    // Only the supported side of a conjunction is pushed down, unless it is negated
+    relation.compileFilter(And(EqualTo("ID", 1L), EqualTo("COL1", new Object))) shouldEqual
+      Some("\"ID\" = 1")
+    relation.compileFilter(Not(And(EqualTo("ID", 1L), EqualTo("COL1", new Object)))) shouldEqual None
+  }
+
   test("Not specifying a zkUrl or a config quorum URL should fail") {
     intercept[UnsupportedOperationException] {
       val sqlContext = new SQLContext(sc)
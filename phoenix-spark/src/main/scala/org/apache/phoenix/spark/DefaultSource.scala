@@ -0,0 +1,43 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.apache.phoenix.spark
+
+import org.apache.hadoop.conf.Configuration
+import org.apache.spark.sql.SQLContext
+import org.apache.spark.sql.sources.{BaseRelation, RelationProvider}
+
+/*
+  Spark SQL data source for Phoenix tables, e.g.
+
+    sqlContext.load("org.apache.phoenix.spark", Map("table" -> "TABLE1", "zkUrl" -> "server:2181"))
+
+  'table' is the Phoenix table to load, and is required
+  'zkUrl' is an optional Zookeeper URL to use to connect to Phoenix
+  Any other parameter starting with "phoenix." is passed on to the Phoenix client configuration,
+    e.g. "phoenix.mapreduce.split.targetsize" to control the size of the partitions
+ */
+class DefaultSource extends RelationProvider {
+
+  override def createRelation(sqlContext: SQLContext, parameters: Map[String, String]): BaseRelation = {
+    val table = parameters.getOrElse("table",
+      throw new IllegalArgumentException("'table' must be specified for Phoenix data sources"))
+
+    val conf = new Configuration(sqlContext.sparkContext.hadoopConfiguration)
+    for ((k, v) <- parameters if k.startsWith("phoenix.")) {
+      conf.set(k, v)
+    }
+
+    PhoenixRelation(table, parameters.get("zkUrl"), conf)(sqlContext)
+  }
+}
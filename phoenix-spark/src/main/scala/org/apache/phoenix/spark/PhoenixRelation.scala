@@ -0,0 +1,120 @@
+/*
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.apache.phoenix.spark
+
+import java.sql.{Date, Timestamp}
+
+import org.apache.hadoop.conf.Configuration
+import org.apache.phoenix.util.DateUtil
+import org.apache.spark.rdd.RDD
+import org.apache.spark.sql.sources._
+import org.apache.spark.sql.types.StructType
+import org.apache.spark.sql.{Row, SQLContext}
+
+/*
+  A Spark SQL relation over a Phoenix table.
+
+  Only the columns required by a query are selected from Phoenix, and the Spark filters that can
+  be expressed in Phoenix SQL are pushed into the WHERE clause, where they are used to narrow the
+  scan ranges over the row key as well as to filter non-PK columns on the region servers. Spark
+  evaluates all filters again on the returned rows, so filters that can't be translated are simply
+  left out of the query.
+
+  'table' is the corresponding Phoenix table
+  'zkUrl' is an optional Zookeeper URL to use to connect to Phoenix
+  'conf' is a Hadoop Configuration object. If zkUrl is not set, the "hbase.zookeeper.quorum"
+    property will be used
+ */
+case class PhoenixRelation(table: String, zkUrl: Option[String] = None,
+                           @transient conf: Configuration = new Configuration)
+                          (@transient val sqlContext: SQLContext)
+  extends BaseRelation with PrunedFilteredScan {
+
+  // The schema of all columns of the table, looked up once from the Phoenix metadata
+  override lazy val schema: StructType = {
+    new PhoenixRDD(sqlContext.sparkContext, table, Seq(), None, zkUrl, conf)
+      .toDataFrame(sqlContext)
+      .schema
+  }
+
+  override def buildScan(requiredColumns: Array[String], filters: Array[Filter]): RDD[Row] = {
+    // A count(*) doesn't require any columns, but something has to be selected. Use the
+    // first (leading PK) column and drop it again from the returned rows.
+    val columns = if (requiredColumns.isEmpty) Array(schema.fields.head.name) else requiredColumns
+
+    val rdd = new PhoenixRDD(sqlContext.sparkContext, table, columns, buildFilter(filters), zkUrl,
+      conf).toDataFrame(sqlContext).rdd
+
+    if (requiredColumns.isEmpty) rdd.map(_ => Row()) else rdd
+  }
+
+  // Combine all filters that can be translated into a single WHERE clause
+  def buildFilter(filters: Array[Filter]): Option[String] = {
+    val predicates = filters.flatMap(compileFilter(_))
+    if (predicates.isEmpty) None else Some(predicates.mkString(" AND "))
+  }
+
+  // Translate a single Spark filter into Phoenix SQL, or None if it can't be expressed. Unless
+  // 'exact' is set, the translation may select a superset of the rows matching the filter.
+  def compileFilter(filter: Filter, exact: Boolean = false): Option[String] = filter match {
+    case EqualTo(attr, value) => binary(attr, "=", value)
+    case GreaterThan(attr, value) => binary(attr, ">", value)
+    case GreaterThanOrEqual(attr, value) => binary(attr, ">=", value)
+    case LessThan(attr, value) => binary(attr, "<", value)
+    case LessThanOrEqual(attr, value) => binary(attr, "<=", value)
+    case IsNull(attr) => Some(s"${escapeColumn(attr)} IS NULL")
+    case IsNotNull(attr) => Some(s"${escapeColumn(attr)} IS NOT NULL")
+    case In(attr, values) if values.nonEmpty =>
+      val literals = values.map(compileValue)
+      if (literals.forall(_.isDefined)) {
+        Some(s"${escapeColumn(attr)} IN (${literals.flatten.mkString(", ")})")
+      } else {
+        None
+      }
+    // Each side of a conjunction restricts the result on its own, so a partial translation
+    // still selects a superset of the matching rows
+    case And(left, right) => (compileFilter(left, exact), compileFilter(right, exact)) match {
+      case (Some(l), Some(r)) => Some(s"($l AND $r)")
+      case (l, r) if !exact => l.orElse(r)
+      case _ => None
+    }
+    case Or(left, right) => for (l <- compileFilter(left, exact); r <- compileFilter(right, exact))
+      yield s"($l OR $r)"
+    case Not(child) => compileFilter(child, exact = true).map(c => s"NOT ($c)")
+    case _ => None
+  }
+
+  private def binary(attr: String, operator: String, value: Any): Option[String] = {
+    compileValue(value).map(literal => s"${escapeColumn(attr)} $operator $literal")
+  }
+
+  private def escapeColumn(attr: String): String = "\"" + attr.replace("\"", "\"\"") + "\""
+
+  // Convert a Spark filter value into a Phoenix literal
+  private def compileValue(value: Any): Option[String] = value match {
+    case null => None
+    case s: String => Some("'" + s.replace("'", "''") + "'")
+    case b: Boolean => Some(b.toString.toUpperCase)
+    case n @ (_: Byte | _: Short | _: Int | _: Long) => Some(n.toString)
+    case f: Float if !f.isNaN && !f.isInfinite => Some(new java.math.BigDecimal(f.toString).toPlainString)
+    case d: Double if !d.isNaN && !d.isInfinite => Some(java.math.BigDecimal.valueOf(d).toPlainString)
+    case d: java.math.BigDecimal => Some(d.toPlainString)
+    case d: BigDecimal => Some(d.bigDecimal.toPlainString)
+    // Phoenix literals only carry millisecond precision, so finer timestamps are left to Spark
+    case t: Timestamp if t.getNanos % 1000000 == 0 =>
+      Some(s"TO_TIMESTAMP('${DateUtil.DEFAULT_TIMESTAMP_FORMATTER.format(t)}')")
+    case d: Date => Some(s"TO_DATE('${DateUtil.DEFAULT_DATE_FORMATTER.format(d)}')")
+    case _ => None
+  }
+}